@@ -13,6 +13,8 @@
 
 package org.pentaho.di.core;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -116,6 +118,16 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
     }
   }
 
+  /**
+   * Drains the available rows in a single pass over the queue, taking its lock only once.
+   */
+  @Override
+  public Object[][] getRows( int max ) {
+    List<Object[]> rows = new ArrayList<Object[]>( Math.min( max, queArray.size() ) );
+    queArray.drainTo( rows, max );
+    return rows.toArray( new Object[rows.size()][] );
+  }
+
   @Override
   public int size() {
     return queArray.size();
@@ -140,6 +140,11 @@ public class Const {
    */
   public static final int ROWS_IN_ROWSET = 10000;
 
+  /**
+   * Default number of rows a batch capable step reads or writes in one call
+   */
+  public static final int ROWS_IN_BATCH = 500;
+
   /**
    * Fetch size in rows when querying a database
    */
@@ -955,6 +960,18 @@ public class Const {
    */
   public static final String KETTLE_PLUGIN_PACKAGES = "KETTLE_PLUGIN_PACKAGES";
 
+  /**
+   * Set this variable to N to scan the plugin jar files for annotations at every start instead of keeping their
+   * annotations in the plugin index cache file of the Kettle directory. (default = Y)
+   */
+  public static final String KETTLE_PLUGIN_INDEX_CACHE = "KETTLE_PLUGIN_INDEX_CACHE";
+
+  /**
+   * The number of threads that register the plugin types at startup. Set this variable to 1 to register them one by
+   * one. (default = the number of processors, at most 4)
+   */
+  public static final String KETTLE_PLUGIN_REGISTRATION_THREADS = "KETTLE_PLUGIN_REGISTRATION_THREADS";
+
   /**
    * Name of the environment variable that contains the size of the transformation rowset size. This overwrites values
    * that you set transformation settings.
@@ -1065,6 +1082,48 @@ public class Const {
    */
   public static final String KETTLE_BATCHING_ROWSET = "KETTLE_BATCHING_ROWSET";
 
+  /**
+   * The name of the variable that contains the wait strategy (SPIN, YIELD or PARK) used by the lock-free row sets of
+   * transformations that have them enabled. (default = YIELD)
+   */
+  public static final String KETTLE_ROWSET_WAIT_STRATEGY = "KETTLE_ROWSET_WAIT_STRATEGY";
+
+  /**
+   * The name of the variable that contains the maximum number of rows a batch capable step reads or writes in one
+   * call. (default = 500)
+   */
+  public static final String KETTLE_ROW_BATCH_SIZE = "KETTLE_ROW_BATCH_SIZE";
+
+  /**
+   * The name of the variable that sets the protocol remote steps use to send rows to another slave server: ROW to
+   * send them one by one or COLUMNAR to send them in column oriented frames. (default = ROW)
+   */
+  public static final String KETTLE_REMOTE_STEP_ROW_PROTOCOL = "KETTLE_REMOTE_STEP_ROW_PROTOCOL";
+
+  /**
+   * The name of the variable that contains the name of the compression provider of the column oriented frames sent
+   * by remote steps, for example Snappy. (default = None)
+   */
+  public static final String KETTLE_REMOTE_STEP_COMPRESSION = "KETTLE_REMOTE_STEP_COMPRESSION";
+
+  /**
+   * The name of the variable that contains the maximum number of threads in the pool shared by the transformations
+   * that run their steps with the pooled step execution strategy. (default = 1000)
+   */
+  public static final String KETTLE_STEP_THREAD_POOL_SIZE = "KETTLE_STEP_THREAD_POOL_SIZE";
+
+  /**
+   * The name of the variable that contains the maximum number of seconds a transformation waits for the threads of
+   * the shared step thread pool before it fails, 0 to wait as long as it takes. (default = 600)
+   */
+  public static final String KETTLE_STEP_THREAD_POOL_WAIT_TIMEOUT = "KETTLE_STEP_THREAD_POOL_WAIT_TIMEOUT";
+
+  /**
+   * Set this variable to N to evaluate the conditions of the Filter rows step, the calculations of the Calculator step
+   * and the formulas of the Formula step with the interpreter instead of compiling them. (default = Y)
+   */
+  public static final String KETTLE_COMPILE_EXPRESSIONS = "KETTLE_COMPILE_EXPRESSIONS";
+
   /**
    * Set this variable to limit max number of files the Text File Output step can have open at one time.
    */
@@ -1676,6 +1735,13 @@ public class Const {
   public static final String KETTLE_USE_META_FILE_CACHE = "KETTLE_USE_META_FILE_CACHE";
   public static final String KETTLE_USE_META_FILE_CACHE_DEFAULT = "N";
 
+  /**
+   * The number of transformations and jobs loaded from files that are kept for all the executions of the process, see
+   * SharedMetaFileCache. A file is loaded again when it changes. Set this variable to 0 to disable the cache.
+   * (default = 0)
+   */
+  public static final String KETTLE_SHARED_META_FILE_CACHE_SIZE = "KETTLE_SHARED_META_FILE_CACHE_SIZE";
+
   /**
    * If true, do not append real-time logging during Job execution. This prevents the logging from growing too large
    * in memory, especially for long-running jobs or jobs with a large number of subjobs/subtrans
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -69,6 +70,44 @@ public interface RowSet {
    */
   Object[] getRowWait( long timeout, TimeUnit tu );
 
+  /**
+   * Offer a batch of rows to this rowset. Rows are added in order until the first row that can't be added because the
+   * buffer stays full. The caller is expected to offer the remaining rows again.
+   *
+   * @param rowMeta
+   *          The description of the row data
+   * @param rows
+   *          the rows of data, only the first nrRows entries are used
+   * @param nrRows
+   *          the number of rows to add
+   * @return the number of rows that were successfully added to the rowset, starting with the first.
+   */
+  default int putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) {
+    int nrPut = 0;
+    while ( nrPut < nrRows && putRow( rowMeta, rows[nrPut] ) ) {
+      nrPut++;
+    }
+    return nrPut;
+  }
+
+  /**
+   * Get the rows that are immediately available in the rowset, up to a maximum. This method doesn't wait for rows to
+   * arrive.
+   *
+   * @param max
+   *          the maximum number of rows to return
+   * @return the available rows in order, an empty array if no row is available.
+   */
+  default Object[][] getRows( int max ) {
+    Object[][] rows = new Object[max][];
+    int nrRows = 0;
+    Object[] row;
+    while ( nrRows < max && ( row = getRowImmediate() ) != null ) {
+      rows[nrRows++] = row;
+    }
+    return nrRows == max ? rows : Arrays.copyOf( rows, nrRows );
+  }
+
   /**
    * @return Set indication that there is no more input
    */
@@ -0,0 +1,312 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A bounded, lock-free row set for hops with exactly one producing thread and one consuming thread. Rows are kept in a
+ * power-of-two sized ring buffer. The producer only ever advances the tail, the consumer only ever advances the head,
+ * so no locks are needed to hand over a row. When the buffer is full (or empty) the waiting thread backs off using the
+ * configured {@link WaitStrategy} until the timeout expires.
+ *
+ * This row set must NOT be shared by more than one producer or more than one consumer thread.
+ *
+ * @since 11.1.0.0
+ */
+public class SpscRingBufferRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+
+  /**
+   * Describes how a thread waits for room (producer) or for a row (consumer) in the ring buffer.
+   */
+  public enum WaitStrategy {
+    /** Busy spin: lowest latency, burns a core while waiting. */
+    SPIN,
+    /** Yield the processor to other runnable threads between attempts. */
+    YIELD,
+    /** Park the thread for a short, increasing period between attempts. */
+    PARK;
+
+    /**
+     * @param code the (case insensitive) name of the wait strategy
+     * @param defaultStrategy the strategy to return if the code is empty or unknown
+     * @return the matching wait strategy or the default one
+     */
+    public static WaitStrategy getWaitStrategy( String code, WaitStrategy defaultStrategy ) {
+      if ( code != null ) {
+        for ( WaitStrategy strategy : values() ) {
+          if ( strategy.name().equalsIgnoreCase( code.trim() ) ) {
+            return strategy;
+          }
+        }
+      }
+      return defaultStrategy;
+    }
+  }
+
+  /** The number of spins before a YIELD or PARK strategy actually starts to yield or park. */
+  private static final int SPIN_TRIES = 100;
+
+  /** The maximum park time in nanoseconds for the PARK strategy. */
+  private static final long MAX_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+
+  private final AtomicReferenceArray<Object[]> buffer;
+  private final int mask;
+  private final int capacity;
+
+  /** The next slot to read. Only written by the consumer. */
+  private final AtomicLong head = new AtomicLong( 0L );
+
+  /** The next slot to write. Only written by the producer. */
+  private final AtomicLong tail = new AtomicLong( 0L );
+
+  /** Producer side cache of the head to avoid reading the volatile for every row. */
+  private long headCache;
+
+  /** Consumer side cache of the tail to avoid reading the volatile for every row. */
+  private long tailCache;
+
+  private final WaitStrategy waitStrategy;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create a new lock-free row set using the {@link WaitStrategy#YIELD} wait strategy.
+   *
+   * @param maxSize
+   *          the minimum capacity of the row set, rounded up to the next power of two.
+   */
+  public SpscRingBufferRowSet( int maxSize ) {
+    this( maxSize, WaitStrategy.YIELD );
+  }
+
+  /**
+   * Create a new lock-free row set.
+   *
+   * @param maxSize
+   *          the minimum capacity of the row set, rounded up to the next power of two.
+   * @param waitStrategy
+   *          the way to wait when the buffer is full or empty.
+   */
+  public SpscRingBufferRowSet( int maxSize, WaitStrategy waitStrategy ) {
+    super();
+
+    int size = 1;
+    while ( size < Math.max( maxSize, 2 ) ) {
+      size <<= 1;
+    }
+    capacity = size;
+    mask = size - 1;
+    buffer = new AtomicReferenceArray<Object[]>( size );
+    this.waitStrategy = waitStrategy == null ? WaitStrategy.YIELD : waitStrategy;
+
+    timeoutGet = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    this.rowMeta = rowMeta;
+    if ( rowData == null ) {
+      return false;
+    }
+
+    long currentTail = tail.get();
+    if ( currentTail - headCache >= capacity ) {
+      headCache = head.get();
+      if ( currentTail - headCache >= capacity ) {
+        long deadline = System.nanoTime() + tu.toNanos( time );
+        int attempt = 0;
+        while ( currentTail - headCache >= capacity ) {
+          if ( Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0 ) {
+            return false;
+          }
+          backOff( attempt++ );
+          headCache = head.get();
+        }
+      }
+    }
+
+    buffer.lazySet( (int) currentTail & mask, rowData );
+    tail.lazySet( currentTail + 1 );
+    return true;
+  }
+
+  /**
+   * Publishes all rows that fit in the free part of the buffer with a single tail update.
+   */
+  @Override
+  public int putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) {
+    this.rowMeta = rowMeta;
+
+    long currentTail = tail.get();
+    long free = capacity - ( currentTail - headCache );
+    if ( free < nrRows ) {
+      headCache = head.get();
+      free = capacity - ( currentTail - headCache );
+    }
+    if ( free <= 0 ) {
+      // Wait for room for at least one row the regular way
+      //
+      return nrRows > 0 && putRow( rowMeta, rows[0] ) ? 1 : 0;
+    }
+
+    int nrPut = (int) Math.min( free, nrRows );
+    for ( int i = 0; i < nrPut; i++ ) {
+      if ( rows[i] == null ) {
+        nrPut = i;
+        break;
+      }
+      buffer.lazySet( (int) ( currentTail + i ) & mask, rows[i] );
+    }
+    tail.lazySet( currentTail + nrPut );
+    return nrPut;
+  }
+
+  /**
+   * Takes all available rows, up to the maximum, with a single head update.
+   */
+  @Override
+  public Object[][] getRows( int max ) {
+    long currentHead = head.get();
+    tailCache = tail.get();
+    int nrRows = (int) Math.min( tailCache - currentHead, max );
+    if ( nrRows <= 0 ) {
+      return new Object[0][];
+    }
+
+    Object[][] rows = new Object[nrRows][];
+    for ( int i = 0; i < nrRows; i++ ) {
+      int index = (int) ( currentHead + i ) & mask;
+      rows[i] = buffer.get( index );
+      buffer.lazySet( index, null ); // prevent any hold-up to GC
+    }
+    head.lazySet( currentHead + nrRows );
+    return rows;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    long currentHead = head.get();
+    if ( currentHead >= tailCache ) {
+      tailCache = tail.get();
+      if ( currentHead >= tailCache ) {
+        return null;
+      }
+    }
+    return take( currentHead );
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    long currentHead = head.get();
+    if ( currentHead >= tailCache ) {
+      tailCache = tail.get();
+      if ( currentHead >= tailCache ) {
+        long deadline = System.nanoTime() + tu.toNanos( timeout );
+        int attempt = 0;
+        while ( currentHead >= tailCache ) {
+          if ( Thread.currentThread().isInterrupted() || System.nanoTime() - deadline >= 0 ) {
+            return null;
+          }
+          backOff( attempt++ );
+          tailCache = tail.get();
+        }
+      }
+    }
+    return take( currentHead );
+  }
+
+  private Object[] take( long currentHead ) {
+    int index = (int) currentHead & mask;
+    Object[] row = buffer.get( index );
+    buffer.lazySet( index, null ); // prevent any hold-up to GC
+    head.lazySet( currentHead + 1 );
+    return row;
+  }
+
+  private void backOff( int attempt ) {
+    switch ( waitStrategy ) {
+      case SPIN:
+        Thread.onSpinWait();
+        break;
+      case YIELD:
+        if ( attempt < SPIN_TRIES ) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+        break;
+      case PARK:
+      default:
+        if ( attempt < SPIN_TRIES ) {
+          Thread.onSpinWait();
+        } else {
+          LockSupport.parkNanos( Math.min( MAX_PARK_NANOS, 1000L << Math.min( attempt - SPIN_TRIES, 7 ) ) );
+        }
+        break;
+    }
+  }
+
+  @Override
+  public int size() {
+    long size = tail.get() - head.get();
+    return (int) Math.max( 0L, Math.min( size, capacity ) );
+  }
+
+  /**
+   * @return the actual capacity of the ring buffer
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the wait strategy used by this row set
+   */
+  public WaitStrategy getWaitStrategy() {
+    return waitStrategy;
+  }
+
+  /**
+   * Clear this rowset. Only call this when neither the producer nor the consumer is active.
+   */
+  @Override
+  public void clear() {
+    for ( int i = 0; i < capacity; i++ ) {
+      buffer.set( i, null );
+    }
+    head.set( 0L );
+    tail.set( 0L );
+    headCache = 0L;
+    tailCache = 0L;
+    done.set( false );
+  }
+}
@@ -0,0 +1,84 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.Connection;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Streams rows into a table over the native bulk load API of a database driver, instead of inserting them one by one.
+ * The rows go straight from the step to the connection: there are no temporary files and no external loader binaries.
+ * A database offers its transport through {@link DatabaseInterface#getBulkLoadTransport()}.
+ */
+public interface BulkLoadTransport {
+
+  /**
+   * A bulk load of rows into a table, part of the transaction of the connection.
+   */
+  interface BulkLoad {
+
+    /**
+     * @param row
+     *          the values of the row, in the order of the fields the load was started with
+     * @throws KettleDatabaseException
+     *           in case the row can't be sent
+     */
+    void addRow( Object[] row ) throws KettleDatabaseException;
+
+    /**
+     * Sends the remaining rows and ends the load. The rows are committed with the transaction of the connection.
+     *
+     * @return the number of rows loaded
+     * @throws KettleDatabaseException
+     *           in case the database refuses the rows
+     */
+    long finish() throws KettleDatabaseException;
+
+    /**
+     * Ends the load without loading the rows, leaving the connection usable for a rollback.
+     */
+    void cancel();
+  }
+
+  /**
+   * @param connection
+   *          the connection to the database
+   * @param rowMeta
+   *          the fields of the rows to load
+   * @return true if the rows can be streamed over the connection, false to insert them as usual
+   */
+  boolean canLoad( Connection connection, RowMetaInterface rowMeta );
+
+  /**
+   * Starts streaming rows into a table.
+   *
+   * @param connection
+   *          the connection to the database
+   * @param databaseMeta
+   *          the database the connection is to
+   * @param schemaName
+   *          the schema of the table, null or empty for the default one
+   * @param tableName
+   *          the name of the table
+   * @param rowMeta
+   *          the fields of the rows to load, named after the columns of the table
+   * @return the bulk load
+   * @throws KettleDatabaseException
+   *           in case the load can't be started
+   */
+  BulkLoad start( Connection connection, DatabaseMeta databaseMeta, String schemaName, String tableName,
+    RowMetaInterface rowMeta ) throws KettleDatabaseException;
+}
@@ -1268,6 +1268,14 @@ public interface DatabaseInterface extends Cloneable {
     return "";
   }
 
+  /**
+   * @return the transport streaming rows into a table over the native bulk load API of the driver, null if the
+   *         database has none and the rows are inserted one by one
+   */
+  default BulkLoadTransport getBulkLoadTransport() {
+    return null;
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on the connector version.
    *
@@ -0,0 +1,264 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Streams rows into a PostgreSQL table with <code>COPY ... FROM STDIN</code> over the <code>CopyManager</code> API of
+ * the PostgreSQL JDBC driver. The rows are sent in the CSV format, in buffers of {@link #BUFFER_SIZE} characters.<br>
+ * <br>
+ * The driver is reached through {@link Connection#unwrap(Class)} and reflection: it is loaded at runtime, next to the
+ * other database drivers.
+ */
+public class PostgreSQLCopyTransport implements BulkLoadTransport {
+
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+  private static final String COPY_IN_CLASS = "org.postgresql.copy.CopyIn";
+
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern( "uuuu-MM-dd" );
+  private static final DateTimeFormatter TIMESTAMP_FORMAT =
+    DateTimeFormatter.ofPattern( "uuuu-MM-dd HH:mm:ss.SSSSSSSSSxxx" );
+
+  @Override
+  public boolean canLoad( Connection connection, RowMetaInterface rowMeta ) {
+    for ( ValueMetaInterface valueMeta : rowMeta.getValueMetaList() ) {
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_SERIALIZABLE:
+        case ValueMetaInterface.TYPE_NONE:
+          return false;
+        default:
+          break;
+      }
+    }
+    try {
+      return connection.isWrapperFor( loadDriverClass( connection, PG_CONNECTION_CLASS ) );
+    } catch ( ClassNotFoundException | SQLException e ) {
+      return false;
+    }
+  }
+
+  @Override
+  public BulkLoad start( Connection connection, DatabaseMeta databaseMeta, String schemaName, String tableName,
+    RowMetaInterface rowMeta ) throws KettleDatabaseException {
+    String sql = getCopySQL( databaseMeta, schemaName, tableName, rowMeta );
+    try {
+      Class<?> pgConnectionClass = loadDriverClass( connection, PG_CONNECTION_CLASS );
+      Class<?> copyInClass = Class.forName( COPY_IN_CLASS, true, pgConnectionClass.getClassLoader() );
+      Object pgConnection = connection.unwrap( pgConnectionClass );
+      Object copyManager = pgConnectionClass.getMethod( "getCopyAPI" ).invoke( pgConnection );
+      Object copyIn = copyManager.getClass().getMethod( "copyIn", String.class ).invoke( copyManager, sql );
+      return new CopyLoad( copyIn, copyInClass, new RowFormatter( databaseMeta, rowMeta ) );
+    } catch ( InvocationTargetException e ) {
+      throw new KettleDatabaseException( "Unable to start the copy: " + sql, e.getCause() );
+    } catch ( ReflectiveOperationException | SQLException e ) {
+      throw new KettleDatabaseException( "Unable to start the copy: " + sql, e );
+    }
+  }
+
+  static String getCopySQL( DatabaseMeta databaseMeta, String schemaName, String tableName,
+    RowMetaInterface rowMeta ) {
+    StringBuilder sql = new StringBuilder( 128 );
+    sql.append( "COPY " ).append( databaseMeta.getQuotedSchemaTableCombination( schemaName, tableName ) );
+    sql.append( " (" );
+    for ( int i = 0; i < rowMeta.size(); i++ ) {
+      if ( i > 0 ) {
+        sql.append( ", " );
+      }
+      sql.append( databaseMeta.quoteField( rowMeta.getValueMeta( i ).getName() ) );
+    }
+    sql.append( ") FROM STDIN WITH CSV" );
+    return sql.toString();
+  }
+
+  private static Class<?> loadDriverClass( Connection connection, String className ) throws ClassNotFoundException {
+    try {
+      return Class.forName( className, true, connection.getClass().getClassLoader() );
+    } catch ( ClassNotFoundException e ) {
+      // The connection may be a wrapper of a pool, loaded next to the driver
+      return Class.forName( className, true, PostgreSQLCopyTransport.class.getClassLoader() );
+    }
+  }
+
+  /**
+   * Writes rows in the CSV format of <code>COPY</code>: an unquoted empty value is a null, strings are always quoted.
+   * The values are converted the way {@link ValueMetaInterface#setPreparedStatementValue} sets them on an insert.
+   */
+  static class RowFormatter {
+    private final DatabaseMeta databaseMeta;
+    private final RowMetaInterface rowMeta;
+
+    RowFormatter( DatabaseMeta databaseMeta, RowMetaInterface rowMeta ) {
+      this.databaseMeta = databaseMeta;
+      this.rowMeta = rowMeta;
+    }
+
+    void appendRow( StringBuilder line, Object[] row ) throws KettleValueException {
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        if ( i > 0 ) {
+          line.append( ',' );
+        }
+        appendValue( line, rowMeta.getValueMeta( i ), row[ i ] );
+      }
+      line.append( '\n' );
+    }
+
+    private void appendValue( StringBuilder line, ValueMetaInterface valueMeta, Object value )
+      throws KettleValueException {
+      if ( valueMeta.isNull( value ) ) {
+        return;
+      }
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_NUMBER:
+          double number = valueMeta.getNumber( value );
+          if ( databaseMeta.supportsFloatRoundingOnUpdate() && valueMeta.getPrecision() >= 0 ) {
+            number = Const.round( number, valueMeta.getPrecision() );
+          }
+          line.append( number );
+          break;
+        case ValueMetaInterface.TYPE_INTEGER:
+          line.append( valueMeta.getInteger( value ).longValue() );
+          break;
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+          line.append( valueMeta.getBigNumber( value ).toPlainString() );
+          break;
+        case ValueMetaInterface.TYPE_BOOLEAN:
+          boolean bool = valueMeta.getBoolean( value );
+          if ( databaseMeta.supportsBooleanDataType() ) {
+            line.append( bool ? 't' : 'f' );
+          } else {
+            appendQuoted( line, bool ? "Y" : "N" );
+          }
+          break;
+        case ValueMetaInterface.TYPE_DATE:
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+          appendDate( line, valueMeta, valueMeta.getDate( value ) );
+          break;
+        case ValueMetaInterface.TYPE_BINARY:
+          line.append( "\\x" );
+          for ( byte b : valueMeta.getBinary( value ) ) {
+            line.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+          }
+          break;
+        default:
+          appendQuoted( line, valueMeta.getString( value ) );
+          break;
+      }
+    }
+
+    private void appendDate( StringBuilder line, ValueMetaInterface valueMeta, Date date ) {
+      TimeZone timeZone = valueMeta.getDateFormatTimeZone();
+      ZoneId zone = timeZone == null ? ZoneId.systemDefault() : timeZone.toZoneId();
+      boolean dateOnly = valueMeta.getType() == ValueMetaInterface.TYPE_DATE
+        && ( valueMeta.getPrecision() == 1 || !databaseMeta.supportsTimeStampToDateConversion() );
+      // A java.sql.Timestamp keeps its nanoseconds
+      Instant instant = date instanceof Timestamp ? ( (Timestamp) date ).toInstant() : Instant.ofEpochMilli( date
+        .getTime() );
+      line.append( ( dateOnly ? DATE_FORMAT : TIMESTAMP_FORMAT ).format( instant.atZone( zone ) ) );
+    }
+
+    private static void appendQuoted( StringBuilder line, String string ) {
+      line.append( '"' );
+      for ( int i = 0; i < string.length(); i++ ) {
+        char c = string.charAt( i );
+        if ( c == '"' ) {
+          line.append( '"' );
+        }
+        line.append( c );
+      }
+      line.append( '"' );
+    }
+  }
+
+  private static class CopyLoad implements BulkLoad {
+    private final Object copyIn;
+    private final Method writeToCopy;
+    private final Method endCopy;
+    private final Method cancelCopy;
+    private final RowFormatter formatter;
+    private final StringBuilder buffer;
+
+    CopyLoad( Object copyIn, Class<?> copyInClass, RowFormatter formatter ) throws NoSuchMethodException {
+      this.copyIn = copyIn;
+      this.writeToCopy = copyInClass.getMethod( "writeToCopy", byte[].class, int.class, int.class );
+      this.endCopy = copyInClass.getMethod( "endCopy" );
+      this.cancelCopy = copyInClass.getMethod( "cancelCopy" );
+      this.formatter = formatter;
+      this.buffer = new StringBuilder( BUFFER_SIZE + 1024 );
+    }
+
+    @Override
+    public void addRow( Object[] row ) throws KettleDatabaseException {
+      try {
+        formatter.appendRow( buffer, row );
+      } catch ( KettleValueException e ) {
+        throw new KettleDatabaseException( "Unable to convert a row to copy", e );
+      }
+      if ( buffer.length() >= BUFFER_SIZE ) {
+        sendBuffer();
+      }
+    }
+
+    @Override
+    public long finish() throws KettleDatabaseException {
+      if ( buffer.length() > 0 ) {
+        sendBuffer();
+      }
+      return ( (Number) invoke( endCopy ) ).longValue();
+    }
+
+    @Override
+    public void cancel() {
+      try {
+        invoke( cancelCopy );
+      } catch ( KettleDatabaseException e ) {
+        // The copy is over already
+      }
+    }
+
+    private void sendBuffer() throws KettleDatabaseException {
+      byte[] bytes = buffer.toString().getBytes( StandardCharsets.UTF_8 );
+      buffer.setLength( 0 );
+      invoke( writeToCopy, bytes, 0, bytes.length );
+    }
+
+    private Object invoke( Method method, Object... args ) throws KettleDatabaseException {
+      try {
+        return method.invoke( copyIn, args );
+      } catch ( InvocationTargetException e ) {
+        throw new KettleDatabaseException( "Error copying rows", e.getCause() );
+      } catch ( IllegalAccessException e ) {
+        throw new KettleDatabaseException( "Error copying rows", e );
+      }
+    }
+  }
+}
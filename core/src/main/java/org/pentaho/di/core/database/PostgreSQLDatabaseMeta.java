@@ -555,4 +555,12 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
   public int getMaxTextFieldLength() {
     return GB_LIMIT;
   }
+
+  /**
+   * @return COPY ... FROM STDIN over the CopyManager API of the PostgreSQL driver
+   */
+  @Override
+  public BulkLoadTransport getBulkLoadTransport() {
+    return new PostgreSQLCopyTransport();
+  }
 }
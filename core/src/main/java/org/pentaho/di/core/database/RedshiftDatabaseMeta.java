@@ -127,6 +127,14 @@ public class RedshiftDatabaseMeta extends PostgreSQLDatabaseMeta {
     return getParamIfSet( AUTHENTICATION_METHOD, getAttributes().getProperty( AUTHENTICATION_METHOD ) );
   }
 
+  /**
+   * @return null: Redshift loads in bulk from S3 only, not over the connection
+   */
+  @Override
+  public BulkLoadTransport getBulkLoadTransport() {
+    return null;
+  }
+
   @Override
   public String getXulOverlayFile() {
     return "redshift";
@@ -0,0 +1,580 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.util.Arrays;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * A hash index that keeps the keys and values of its entries in columns of primitive arrays instead of an object per
+ * entry. Every key is encoded as a long: integers, numbers, dates and booleans directly, strings and big numbers as a
+ * code in a dictionary of the distinct values of the key column. The entries are found with open addressing in an
+ * array of entry numbers, a lookup doesn't allocate any objects.<br>
+ * <br>
+ * Keys are equal when their values are identical, the same way as in the {@link ByteArrayHashIndex}. Null keys are
+ * equal to each other.<br>
+ * <br>
+ * The index is not thread safe.
+ */
+public class ColumnarHashIndex {
+
+  private static final int STANDARD_INDEX_SIZE = 512;
+  private static final float STANDARD_LOAD_FACTOR = 0.70f;
+
+  // Rough sizes used to estimate the memory used by the index
+  //
+  private static final int REFERENCE_SIZE = 8;
+  private static final int OBJECT_HEADER_SIZE = 16;
+
+  // How a column is stored
+  //
+  private static final int STORE_LONG = 1;
+  private static final int STORE_DOUBLE = 2;
+  private static final int STORE_DICTIONARY = 3;
+  private static final int STORE_OBJECT = 4;
+
+  private static final long NULL_HASH = 0x5bd1e9955bd1e995L;
+
+  private final RowMetaInterface keyMeta;
+  private final RowMetaInterface valueMeta;
+  private final int nrKeys;
+  private final int nrValues;
+
+  private final int[] keyStores;
+  private final Dictionary[] keyDictionaries;
+
+  private final int[] valueStores;
+  private final Dictionary[] valueDictionaries;
+
+  /** The encoded keys, nrKeys per entry */
+  private long[] keys;
+  /** A bit per key of an entry that is set when the key is null, allocated at the first null key */
+  private long[] keyNulls;
+  private int[] hashCodes;
+
+  private long[][] longValues;
+  private double[][] doubleValues;
+  private int[][] codeValues;
+  private Object[][] objectValues;
+  /** A bit per entry that is set when the long or double value is null, allocated at the first null value */
+  private long[][] valueNulls;
+  private long objectValuesSize;
+
+  /** The entry number + 1 for every used slot, 0 for a free slot */
+  private int[] index;
+  private int capacity;
+  private int size;
+  private int resizeThresHold;
+
+  // The encoded key that is looked up, reused for every lookup
+  //
+  private final long[] probeKeys;
+  private final boolean[] probeNulls;
+
+  /**
+   * Create a new columnar hash index
+   *
+   * @param keyMeta
+   *          the metadata of the keys, in normal storage. See {@link #isSupported(RowMetaInterface)}
+   * @param valueMeta
+   *          the metadata of the values
+   * @param size
+   *          the expected number of entries
+   */
+  public ColumnarHashIndex( RowMetaInterface keyMeta, RowMetaInterface valueMeta, int size ) {
+    if ( !isSupported( keyMeta ) ) {
+      throw new IllegalArgumentException( "The keys " + keyMeta.toStringMeta()
+        + " can't be stored in a columnar hash index" );
+    }
+    this.keyMeta = keyMeta;
+    this.valueMeta = valueMeta;
+    this.nrKeys = keyMeta.size();
+    this.nrValues = valueMeta.size();
+
+    keyStores = new int[nrKeys];
+    keyDictionaries = new Dictionary[nrKeys];
+    for ( int i = 0; i < nrKeys; i++ ) {
+      keyStores[i] = getKeyStore( keyMeta.getValueMeta( i ) );
+      if ( keyStores[i] == STORE_DICTIONARY ) {
+        keyDictionaries[i] = new Dictionary();
+      }
+    }
+
+    valueStores = new int[nrValues];
+    valueDictionaries = new Dictionary[nrValues];
+    longValues = new long[nrValues][];
+    doubleValues = new double[nrValues][];
+    codeValues = new int[nrValues][];
+    objectValues = new Object[nrValues][];
+    valueNulls = new long[nrValues][];
+    for ( int i = 0; i < nrValues; i++ ) {
+      valueStores[i] = getValueStore( valueMeta.getValueMeta( i ) );
+      if ( valueStores[i] == STORE_DICTIONARY ) {
+        valueDictionaries[i] = new Dictionary();
+      }
+    }
+
+    int factor2Size = 1;
+    while ( factor2Size * STANDARD_LOAD_FACTOR < size ) {
+      factor2Size <<= 1; // Multiply by 2
+    }
+    index = new int[factor2Size];
+    resizeThresHold = (int) ( factor2Size * STANDARD_LOAD_FACTOR );
+    allocateEntries( Math.max( 1, resizeThresHold ) );
+
+    probeKeys = new long[nrKeys];
+    probeNulls = new boolean[nrKeys];
+  }
+
+  /**
+   * Create a new columnar hash index
+   *
+   * @param keyMeta
+   *          the metadata of the keys, in normal storage. See {@link #isSupported(RowMetaInterface)}
+   * @param valueMeta
+   *          the metadata of the values
+   */
+  public ColumnarHashIndex( RowMetaInterface keyMeta, RowMetaInterface valueMeta ) {
+    this( keyMeta, valueMeta, STANDARD_INDEX_SIZE );
+  }
+
+  /**
+   * @param keyMeta
+   *          the metadata of the keys
+   * @return true if the keys can be stored in a columnar hash index: Integer, Number, Date, Boolean, String and
+   *         BigNumber keys in normal storage
+   */
+  public static boolean isSupported( RowMetaInterface keyMeta ) {
+    if ( keyMeta == null || keyMeta.isEmpty() ) {
+      return false;
+    }
+    for ( ValueMetaInterface meta : keyMeta.getValueMetaList() ) {
+      if ( !meta.isStorageNormal() || getKeyStore( meta ) == 0 ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int getKeyStore( ValueMetaInterface meta ) {
+    switch ( meta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return STORE_LONG;
+      case ValueMetaInterface.TYPE_STRING:
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return STORE_DICTIONARY;
+      default:
+        return 0;
+    }
+  }
+
+  private static int getValueStore( ValueMetaInterface meta ) {
+    if ( !meta.isStorageNormal() ) {
+      return STORE_OBJECT;
+    }
+    switch ( meta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return STORE_LONG;
+      case ValueMetaInterface.TYPE_NUMBER:
+        return STORE_DOUBLE;
+      case ValueMetaInterface.TYPE_STRING:
+        return STORE_DICTIONARY;
+      default:
+        // Binary storage, dates, big numbers, ... are kept as they are
+        return STORE_OBJECT;
+    }
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Add an entry to the index, an existing entry with the same key gets the new values.
+   *
+   * @param keyData
+   *          the keys
+   * @param valueData
+   *          the values
+   */
+  public void put( Object[] keyData, Object[] valueData ) throws KettleValueException {
+    encodeKey( keyData, true );
+    int hashCode = generateHashCode();
+
+    int entry = findEntry( hashCode );
+    if ( entry < 0 ) {
+      if ( size == capacity ) {
+        allocateEntries( capacity + ( capacity >> 1 ) + 1 );
+      }
+      entry = size++;
+      int offset = entry * nrKeys;
+      for ( int i = 0; i < nrKeys; i++ ) {
+        keys[offset + i] = probeKeys[i];
+        if ( probeNulls[i] ) {
+          if ( keyNulls == null ) {
+            keyNulls = new long[bitSetLength( capacity * nrKeys )];
+          }
+          setBit( keyNulls, offset + i );
+        }
+      }
+      hashCodes[entry] = hashCode;
+      insert( index, entry, hashCode );
+
+      if ( size >= resizeThresHold ) {
+        resize();
+      }
+    }
+    setValues( entry, valueData );
+  }
+
+  /**
+   * @param keyData
+   *          the keys to look up
+   * @return the number of the entry with the keys or -1 if there is none
+   */
+  public int find( Object[] keyData ) throws KettleValueException {
+    if ( !encodeKey( keyData, false ) ) {
+      return -1;
+    }
+    return findEntry( generateHashCode() );
+  }
+
+  /**
+   * @param keyData
+   *          the keys to look up
+   * @return a new array with the values of the entry with the keys or null if there is none
+   */
+  public Object[] get( Object[] keyData ) throws KettleValueException {
+    int entry = find( keyData );
+    if ( entry < 0 ) {
+      return null;
+    }
+    return getValues( entry, new Object[nrValues] );
+  }
+
+  /**
+   * @param entry
+   *          the entry number, see {@link #find(Object[])}
+   * @param target
+   *          the array to store the values in, at least as long as the number of values
+   * @return the target array
+   */
+  public Object[] getValues( int entry, Object[] target ) {
+    for ( int i = 0; i < nrValues; i++ ) {
+      switch ( valueStores[i] ) {
+        case STORE_LONG:
+          target[i] = isBitSet( valueNulls[i], entry ) ? null : Long.valueOf( longValues[i][entry] );
+          break;
+        case STORE_DOUBLE:
+          target[i] = isBitSet( valueNulls[i], entry ) ? null : Double.valueOf( doubleValues[i][entry] );
+          break;
+        case STORE_DICTIONARY:
+          int code = codeValues[i][entry];
+          target[i] = code < 0 ? null : valueDictionaries[i].get( code );
+          break;
+        default:
+          target[i] = objectValues[i][entry];
+          break;
+      }
+    }
+    return target;
+  }
+
+  /**
+   * @return a rough estimate of the number of bytes of heap used by the index, including the dictionaries
+   */
+  public long estimateMemory() {
+    long bytes = 4L * index.length;
+    bytes += 8L * capacity * nrKeys + 4L * capacity;
+    if ( keyNulls != null ) {
+      bytes += 8L * keyNulls.length;
+    }
+    for ( Dictionary dictionary : keyDictionaries ) {
+      if ( dictionary != null ) {
+        bytes += dictionary.estimateMemory();
+      }
+    }
+    for ( int i = 0; i < nrValues; i++ ) {
+      switch ( valueStores[i] ) {
+        case STORE_LONG:
+        case STORE_DOUBLE:
+          bytes += 8L * capacity;
+          break;
+        case STORE_DICTIONARY:
+          bytes += 4L * capacity + valueDictionaries[i].estimateMemory();
+          break;
+        default:
+          bytes += (long) REFERENCE_SIZE * capacity;
+          break;
+      }
+      if ( valueNulls[i] != null ) {
+        bytes += 8L * valueNulls[i].length;
+      }
+    }
+    return bytes + objectValuesSize;
+  }
+
+  /**
+   * Encode the keys in the probe arrays.
+   *
+   * @return false if a string or big number isn't in the dictionary of its column, the keys can't be in the index
+   */
+  private boolean encodeKey( Object[] keyData, boolean add ) throws KettleValueException {
+    for ( int i = 0; i < nrKeys; i++ ) {
+      Object object = keyData[i];
+      probeNulls[i] = object == null;
+      if ( object == null ) {
+        probeKeys[i] = 0L;
+        continue;
+      }
+      ValueMetaInterface meta = keyMeta.getValueMeta( i );
+      switch ( meta.getType() ) {
+        case ValueMetaInterface.TYPE_INTEGER:
+          probeKeys[i] = meta.getInteger( object );
+          break;
+        case ValueMetaInterface.TYPE_NUMBER:
+          probeKeys[i] = Double.doubleToLongBits( meta.getNumber( object ) );
+          break;
+        case ValueMetaInterface.TYPE_DATE:
+          probeKeys[i] = meta.getDate( object ).getTime();
+          break;
+        case ValueMetaInterface.TYPE_BOOLEAN:
+          probeKeys[i] = meta.getBoolean( object ) ? 1L : 0L;
+          break;
+        default:
+          int code = add ? keyDictionaries[i].add( object ) : keyDictionaries[i].find( object );
+          if ( code < 0 ) {
+            return false;
+          }
+          probeKeys[i] = code;
+          break;
+      }
+    }
+    return true;
+  }
+
+  private int generateHashCode() {
+    long hash = 0L;
+    for ( int i = 0; i < nrKeys; i++ ) {
+      hash = hash * 31 + ( probeNulls[i] ? NULL_HASH : probeKeys[i] );
+    }
+    // Spread the bits, sequential keys are common
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return (int) hash;
+  }
+
+  private int findEntry( int hashCode ) {
+    int mask = index.length - 1;
+    int slot = hashCode & mask;
+    while ( index[slot] != 0 ) {
+      int entry = index[slot] - 1;
+      if ( hashCodes[entry] == hashCode && equalsKey( entry ) ) {
+        return entry;
+      }
+      slot = ( slot + 1 ) & mask;
+    }
+    return -1;
+  }
+
+  private boolean equalsKey( int entry ) {
+    int offset = entry * nrKeys;
+    for ( int i = 0; i < nrKeys; i++ ) {
+      if ( keys[offset + i] != probeKeys[i] || isBitSet( keyNulls, offset + i ) != probeNulls[i] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void insert( int[] index, int entry, int hashCode ) {
+    int mask = index.length - 1;
+    int slot = hashCode & mask;
+    while ( index[slot] != 0 ) {
+      slot = ( slot + 1 ) & mask;
+    }
+    index[slot] = entry + 1;
+  }
+
+  private void resize() {
+    // Double the size to keep the size of the index a factor of 2...
+    //
+    int[] newIndex = new int[index.length * 2];
+    for ( int entry = 0; entry < size; entry++ ) {
+      insert( newIndex, entry, hashCodes[entry] );
+    }
+    index = newIndex;
+    resizeThresHold = (int) ( newIndex.length * STANDARD_LOAD_FACTOR );
+  }
+
+  private void setValues( int entry, Object[] valueData ) throws KettleValueException {
+    for ( int i = 0; i < nrValues; i++ ) {
+      Object object = valueData[i];
+      switch ( valueStores[i] ) {
+        case STORE_LONG:
+          setNull( i, entry, object == null );
+          longValues[i][entry] = object == null ? 0L : valueMeta.getValueMeta( i ).getInteger( object );
+          break;
+        case STORE_DOUBLE:
+          setNull( i, entry, object == null );
+          doubleValues[i][entry] = object == null ? 0.0 : valueMeta.getValueMeta( i ).getNumber( object );
+          break;
+        case STORE_DICTIONARY:
+          codeValues[i][entry] = object == null ? -1 : valueDictionaries[i].add( object );
+          break;
+        default:
+          objectValuesSize -= estimateSize( objectValues[i][entry] );
+          objectValuesSize += estimateSize( object );
+          objectValues[i][entry] = object;
+          break;
+      }
+    }
+  }
+
+  private void setNull( int valueNr, int entry, boolean isNull ) {
+    if ( isNull ) {
+      if ( valueNulls[valueNr] == null ) {
+        valueNulls[valueNr] = new long[bitSetLength( capacity )];
+      }
+      setBit( valueNulls[valueNr], entry );
+    } else if ( valueNulls[valueNr] != null ) {
+      valueNulls[valueNr][entry >>> 6] &= ~( 1L << entry );
+    }
+  }
+
+  private void allocateEntries( int newCapacity ) {
+    keys = keys == null ? new long[newCapacity * nrKeys] : Arrays.copyOf( keys, newCapacity * nrKeys );
+    hashCodes = hashCodes == null ? new int[newCapacity] : Arrays.copyOf( hashCodes, newCapacity );
+    if ( keyNulls != null ) {
+      keyNulls = Arrays.copyOf( keyNulls, bitSetLength( newCapacity * nrKeys ) );
+    }
+    for ( int i = 0; i < nrValues; i++ ) {
+      switch ( valueStores[i] ) {
+        case STORE_LONG:
+          longValues[i] = longValues[i] == null ? new long[newCapacity] : Arrays.copyOf( longValues[i], newCapacity );
+          break;
+        case STORE_DOUBLE:
+          doubleValues[i] =
+            doubleValues[i] == null ? new double[newCapacity] : Arrays.copyOf( doubleValues[i], newCapacity );
+          break;
+        case STORE_DICTIONARY:
+          codeValues[i] = codeValues[i] == null ? new int[newCapacity] : Arrays.copyOf( codeValues[i], newCapacity );
+          break;
+        default:
+          objectValues[i] =
+            objectValues[i] == null ? new Object[newCapacity] : Arrays.copyOf( objectValues[i], newCapacity );
+          break;
+      }
+      if ( valueNulls[i] != null ) {
+        valueNulls[i] = Arrays.copyOf( valueNulls[i], bitSetLength( newCapacity ) );
+      }
+    }
+    capacity = newCapacity;
+  }
+
+  private static int bitSetLength( int nrBits ) {
+    return ( nrBits + 63 ) >>> 6;
+  }
+
+  private static void setBit( long[] bits, int bit ) {
+    bits[bit >>> 6] |= 1L << bit;
+  }
+
+  private static boolean isBitSet( long[] bits, int bit ) {
+    return bits != null && ( bits[bit >>> 6] & ( 1L << bit ) ) != 0;
+  }
+
+  private static long estimateSize( Object object ) {
+    if ( object == null ) {
+      return 0L;
+    }
+    if ( object instanceof String ) {
+      return 2L * OBJECT_HEADER_SIZE + ( (String) object ).length();
+    }
+    if ( object instanceof byte[] ) {
+      return OBJECT_HEADER_SIZE + ( (byte[]) object ).length;
+    }
+    return 2L * OBJECT_HEADER_SIZE;
+  }
+
+  /**
+   * The distinct values of a column, every value gets a code: its position in the dictionary.
+   */
+  private static final class Dictionary {
+    private Object[] values = new Object[16];
+    private int[] index = new int[32];
+    private int size;
+    private long valuesSize;
+
+    private int find( Object value ) {
+      int hashCode = value.hashCode();
+      int mask = index.length - 1;
+      int slot = spread( hashCode ) & mask;
+      while ( index[slot] != 0 ) {
+        int code = index[slot] - 1;
+        if ( values[code].equals( value ) ) {
+          return code;
+        }
+        slot = ( slot + 1 ) & mask;
+      }
+      return -1;
+    }
+
+    private int add( Object value ) {
+      int code = find( value );
+      if ( code >= 0 ) {
+        return code;
+      }
+      if ( size == values.length ) {
+        values = Arrays.copyOf( values, size + ( size >> 1 ) );
+      }
+      code = size++;
+      values[code] = value;
+      valuesSize += estimateSize( value );
+      insert( index, code, spread( value.hashCode() ) );
+
+      if ( size >= index.length * STANDARD_LOAD_FACTOR ) {
+        int[] newIndex = new int[index.length * 2];
+        for ( int i = 0; i < size; i++ ) {
+          insert( newIndex, i, spread( values[i].hashCode() ) );
+        }
+        index = newIndex;
+      }
+      return code;
+    }
+
+    private Object get( int code ) {
+      return values[code];
+    }
+
+    private long estimateMemory() {
+      return (long) REFERENCE_SIZE * values.length + 4L * index.length + valuesSize;
+    }
+
+    private static int spread( int hashCode ) {
+      return hashCode ^ ( hashCode >>> 16 );
+    }
+  }
+}
@@ -125,6 +125,18 @@ public class Metrics implements MetricsInterface {
   public static Metrics METRIC_STEP_INIT_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_STEP_INIT", "Initialize a step" );
 
+  // Steps
+  //
+  public static Metrics METRIC_STREAM_LOOKUP_INDEX_SIZE = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STREAM_LOOKUP_INDEX_SIZE", "Number of entries in the stream lookup index" );
+  public static Metrics METRIC_STREAM_LOOKUP_INDEX_BYTES_PER_ENTRY = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STREAM_LOOKUP_INDEX_BYTES_PER_ENTRY",
+    "Estimated memory per entry in the stream lookup index (bytes)" );
+  public static Metrics METRIC_JAVASCRIPT_CONVERSIONS_TO_JS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_JAVASCRIPT_CONVERSIONS_TO_JS", "Field values converted to JavaScript" );
+  public static Metrics METRIC_JAVASCRIPT_CONVERSIONS_FROM_JS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_JAVASCRIPT_CONVERSIONS_FROM_JS", "JavaScript results converted back to fields" );
+
   // Logging back-end
   //
   public static Metrics METRIC_CENTRAL_LOG_STORE_TIMEOUT_CLEAN_TIME = new Metrics(
@@ -50,7 +50,6 @@ import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.i18n.GlobalMessageUtil;
-import org.scannotation.AnnotationDB;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
@@ -407,8 +406,7 @@ public abstract class BasePluginType implements PluginTypeInterface {
             // These are the jar files : find annotations in it...
             //
             try {
-              AnnotationDB annotationDB = jarFileCache.getAnnotationDB( fileObject );
-              Set<String> impls = annotationDB.getAnnotationIndex().get( annotationClassName );
+              Set<String> impls = jarFileCache.getAnnotationIndex( fileObject ).get( annotationClassName );
               if ( impls != null ) {
 
                 for ( String fil : impls ) {
@@ -837,27 +835,37 @@ public abstract class BasePluginType implements PluginTypeInterface {
 
   protected void registerPluginJars() throws KettlePluginException {
     List<JarFileAnnotationPlugin> jarFilePlugins = findAnnotatedClassFiles( pluginClass.getName() );
-    for ( JarFileAnnotationPlugin jarFilePlugin : jarFilePlugins ) {
 
-      URLClassLoader urlClassLoader =
-        createUrlClassLoader( jarFilePlugin.getJarFile(), getClass().getClassLoader() );
+    // The class loaders only read the annotations: the plugin registry creates the class loader of a plugin when a
+    // class of it is first loaded. The plugins of a jar file share one class loader here.
+    //
+    Map<String, URLClassLoader> urlClassLoaders = new HashMap<>();
+    try {
+      for ( JarFileAnnotationPlugin jarFilePlugin : jarFilePlugins ) {
+        try {
+          URLClassLoader urlClassLoader = urlClassLoaders.get( jarFilePlugin.getJarFile().toString() );
+          if ( urlClassLoader == null ) {
+            urlClassLoader = createUrlClassLoader( jarFilePlugin.getJarFile(), getClass().getClassLoader() );
+            urlClassLoaders.put( jarFilePlugin.getJarFile().toString(), urlClassLoader );
+          }
+          Class<?> clazz = urlClassLoader.loadClass( jarFilePlugin.getClassName() );
+          if ( clazz == null ) {
+            throw new KettlePluginException( "Unable to load class: " + jarFilePlugin.getClassName() );
+          }
+          List<String> libraries = Arrays.stream( urlClassLoader.getURLs() )
+            .map( URL::getFile )
+            .collect( Collectors.toList() );
+          Annotation annotation = clazz.getAnnotation( pluginClass );
 
-      try {
-        Class<?> clazz = urlClassLoader.loadClass( jarFilePlugin.getClassName() );
-        if ( clazz == null ) {
-          throw new KettlePluginException( "Unable to load class: " + jarFilePlugin.getClassName() );
+          handlePluginAnnotation( clazz, annotation, libraries, false, jarFilePlugin.getPluginFolder() );
+        } catch ( Exception e ) {
+          // Ignore for now, don't know if it's even possible.
+          LogChannel.GENERAL.logError(
+            "Unexpected error registering jar plugin file: " + jarFilePlugin.getJarFile(), e );
         }
-        List<String> libraries = Arrays.stream( urlClassLoader.getURLs() )
-          .map( URL::getFile )
-          .collect( Collectors.toList() );
-        Annotation annotation = clazz.getAnnotation( pluginClass );
-
-        handlePluginAnnotation( clazz, annotation, libraries, false, jarFilePlugin.getPluginFolder() );
-      } catch ( Exception e ) {
-        // Ignore for now, don't know if it's even possible.
-        LogChannel.GENERAL.logError(
-          "Unexpected error registering jar plugin file: " + jarFilePlugin.getJarFile(), e );
-      } finally {
+      }
+    } finally {
+      for ( URLClassLoader urlClassLoader : urlClassLoaders.values() ) {
         if ( urlClassLoader instanceof KettleURLClassLoader ) {
           ( (KettleURLClassLoader) urlClassLoader ).closeClassLoader();
         }
@@ -13,14 +13,25 @@
 
 package org.pentaho.di.core.plugins;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.EnvUtil;
 import org.scannotation.AnnotationDB;
 
+/**
+ * Keeps the jar files of the plugin folders and their annotations while the plugin types are registered. The plugin
+ * types can be registered at the same time: two threads may scan the same jar file, the first result is kept.
+ */
 public class JarFileCache {
 
   private static JarFileCache cache;
@@ -29,12 +40,19 @@ public class JarFileCache {
 
   private final Map<FileObject, AnnotationDB> annotationMap;
 
+  private final Map<FileObject, Map<String, Set<String>>> annotationIndexMap;
+
+  private PluginIndexCache indexCache;
+
+  private boolean indexCacheRead;
+
   private JarFileCache() {
-    annotationMap = new HashMap<>();
-    folderMap = new HashMap<>();
+    annotationMap = new ConcurrentHashMap<>();
+    annotationIndexMap = new ConcurrentHashMap<>();
+    folderMap = new ConcurrentHashMap<>();
   }
 
-  public static JarFileCache getInstance() {
+  public static synchronized JarFileCache getInstance() {
     if ( cache == null ) {
       cache = new JarFileCache();
     }
@@ -46,22 +64,105 @@ public class JarFileCache {
     if ( result == null ) {
       result = new AnnotationDB();
       result.scanArchives( fileObject.getURL() );
-      annotationMap.put( fileObject, result );
+      AnnotationDB previous = annotationMap.putIfAbsent( fileObject, result );
+      if ( previous != null ) {
+        result = previous;
+      }
     }
     return result;
   }
 
+  /**
+   * Gets the class annotations of a jar file. A local jar that hasn't changed since it was last scanned is not scanned
+   * again: its annotations come from the plugin index cache, see {@link PluginIndexCache}.
+   *
+   * @param fileObject
+   *          the jar file
+   * @return the annotation class names with the names of the classes they annotate
+   * @throws IOException
+   *           in case the jar file can't be scanned
+   */
+  public Map<String, Set<String>> getAnnotationIndex( FileObject fileObject ) throws IOException {
+    Map<String, Set<String>> result = annotationIndexMap.get( fileObject );
+    if ( result == null ) {
+      File jar = getLocalFile( fileObject );
+      PluginIndexCache pluginIndexCache = jar == null ? null : getIndexCache();
+      if ( pluginIndexCache != null ) {
+        result = pluginIndexCache.getAnnotationIndex( jar );
+      }
+      if ( result == null ) {
+        // Plugins are annotated classes: skip the annotations of their members
+        AnnotationDB annotationDB = new AnnotationDB();
+        annotationDB.setScanMethodAnnotations( false );
+        annotationDB.setScanParameterAnnotations( false );
+        annotationDB.setScanFieldAnnotations( false );
+        annotationDB.scanArchives( fileObject.getURL() );
+        result = annotationDB.getAnnotationIndex();
+        if ( pluginIndexCache != null ) {
+          pluginIndexCache.putAnnotationIndex( jar, result );
+        }
+      }
+      Map<String, Set<String>> previous = annotationIndexMap.putIfAbsent( fileObject, result );
+      if ( previous != null ) {
+        result = previous;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes the plugin index cache file if jars were scanned.
+   */
+  public synchronized void saveIndexCache() {
+    if ( indexCache != null ) {
+      try {
+        indexCache.save();
+      } catch ( IOException e ) {
+        LogChannel.GENERAL.logBasic( "Unable to save the plugin index cache file '" + indexCache.getFile() + "' : "
+          + e.getMessage() );
+      }
+    }
+  }
+
+  private synchronized PluginIndexCache getIndexCache() {
+    if ( !indexCacheRead ) {
+      indexCacheRead = true;
+      if ( !"N".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_INDEX_CACHE ) ) ) {
+        indexCache = new PluginIndexCache( new File( Const.getKettleDirectory(), PluginIndexCache.CACHE_FILENAME ) );
+      }
+    }
+    return indexCache;
+  }
+
+  private static File getLocalFile( FileObject fileObject ) throws IOException {
+    URL url = fileObject.getURL();
+    if ( !"file".equals( url.getProtocol() ) ) {
+      return null;
+    }
+    try {
+      return new File( url.toURI() );
+    } catch ( URISyntaxException | IllegalArgumentException e ) {
+      return null;
+    }
+  }
+
   public FileObject[] getFileObjects( PluginFolderInterface pluginFolderInterface ) throws KettleFileException {
     FileObject[] result = folderMap.get( pluginFolderInterface );
     if ( result == null ) {
       result = pluginFolderInterface.findJarFiles();
-      folderMap.put( pluginFolderInterface, result );
+      FileObject[] previous = folderMap.putIfAbsent( pluginFolderInterface, result );
+      if ( previous != null ) {
+        result = previous;
+      }
     }
     return result;
   }
 
-  public void clear() {
+  public synchronized void clear() {
     annotationMap.clear();
+    annotationIndexMap.clear();
     folderMap.clear();
+    indexCache = null;
+    indexCacheRead = false;
   }
 }
@@ -0,0 +1,218 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The annotation indexes of the plugin jar files, kept in a file between two starts so that a jar is only scanned for
+ * plugin annotations again when it changes. A jar is known by its path, its size and its last modification time.<br>
+ * <br>
+ * The cache file is replaced at once when it is saved, so that processes starting at the same time read either the
+ * old or the new one. A cache file that can't be read is ignored: the jars are scanned.
+ */
+public class PluginIndexCache {
+
+  /**
+   * The name of the cache file in the Kettle directory
+   */
+  public static final String CACHE_FILENAME = "plugin-index.cache";
+
+  private static final int VERSION = 1;
+
+  private final File file;
+
+  private final Map<String, Entry> entries;
+
+  private final Set<String> used;
+
+  private boolean changed;
+
+  private static class Entry {
+    private final long size;
+    private final long lastModified;
+    private final Map<String, Set<String>> annotationIndex;
+
+    Entry( long size, long lastModified, Map<String, Set<String>> annotationIndex ) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.annotationIndex = annotationIndex;
+    }
+  }
+
+  /**
+   * Reads the cache file, if there is one.
+   *
+   * @param file
+   *          the cache file
+   */
+  public PluginIndexCache( File file ) {
+    this.file = file;
+    this.entries = new HashMap<>();
+    this.used = new HashSet<>();
+    if ( file.isFile() ) {
+      try {
+        read();
+      } catch ( IOException | RuntimeException e ) {
+        // Written by another version or damaged: the jars are scanned again
+        entries.clear();
+        changed = true;
+      }
+    }
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @param jar
+   *          a local jar file
+   * @return the annotation index of the jar (annotation class name to the names of the annotated classes), null if
+   *         the jar isn't in the cache or has changed since it was scanned
+   */
+  public synchronized Map<String, Set<String>> getAnnotationIndex( File jar ) {
+    String path = jar.getAbsolutePath();
+    Entry entry = entries.get( path );
+    if ( entry == null || entry.size != jar.length() || entry.lastModified != jar.lastModified() ) {
+      return null;
+    }
+    used.add( path );
+    return entry.annotationIndex;
+  }
+
+  /**
+   * @param jar
+   *          a local jar file
+   * @param annotationIndex
+   *          the annotation index of the jar, as scanned
+   */
+  public synchronized void putAnnotationIndex( File jar, Map<String, Set<String>> annotationIndex ) {
+    String path = jar.getAbsolutePath();
+    Map<String, Set<String>> copy = new HashMap<>();
+    for ( Map.Entry<String, Set<String>> annotation : annotationIndex.entrySet() ) {
+      copy.put( annotation.getKey(), Collections.unmodifiableSet( new LinkedHashSet<>( annotation.getValue() ) ) );
+    }
+    entries.put( path, new Entry( jar.length(), jar.lastModified(), Collections.unmodifiableMap( copy ) ) );
+    used.add( path );
+    changed = true;
+  }
+
+  /**
+   * @return true if jars were scanned since the cache file was read
+   */
+  public synchronized boolean isChanged() {
+    return changed;
+  }
+
+  /**
+   * Writes the cache file if jars were scanned since it was read. The jars that no longer exist are left out.
+   *
+   * @throws IOException
+   *           in case the cache file can't be written
+   */
+  public synchronized void save() throws IOException {
+    if ( !changed ) {
+      return;
+    }
+    for ( Iterator<String> paths = entries.keySet().iterator(); paths.hasNext(); ) {
+      String path = paths.next();
+      if ( !used.contains( path ) && !new File( path ).isFile() ) {
+        paths.remove();
+      }
+    }
+
+    File folder = file.getAbsoluteFile().getParentFile();
+    if ( !folder.isDirectory() && !folder.mkdirs() ) {
+      throw new IOException( "Unable to create folder " + folder );
+    }
+    File tempFile = File.createTempFile( CACHE_FILENAME, ".tmp", folder );
+    try {
+      write( tempFile );
+      try {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE );
+      } catch ( AtomicMoveNotSupportedException e ) {
+        Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      }
+      changed = false;
+    } finally {
+      Files.deleteIfExists( tempFile.toPath() );
+    }
+  }
+
+  private void read() throws IOException {
+    try ( DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+      if ( in.readInt() != VERSION ) {
+        throw new IOException( "Unknown version of the plugin index cache file " + file );
+      }
+      int nrJars = in.readInt();
+      for ( int i = 0; i < nrJars; i++ ) {
+        String path = in.readUTF();
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        int nrAnnotations = in.readInt();
+        Map<String, Set<String>> annotationIndex = new HashMap<>();
+        for ( int a = 0; a < nrAnnotations; a++ ) {
+          String annotation = in.readUTF();
+          int nrClasses = in.readInt();
+          Set<String> classes = new LinkedHashSet<>();
+          for ( int c = 0; c < nrClasses; c++ ) {
+            classes.add( in.readUTF() );
+          }
+          annotationIndex.put( annotation, Collections.unmodifiableSet( classes ) );
+        }
+        entries.put( path, new Entry( size, lastModified, Collections.unmodifiableMap( annotationIndex ) ) );
+      }
+    }
+  }
+
+  private void write( File target ) throws IOException {
+    try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( target ) ) ) ) {
+      out.writeInt( VERSION );
+      out.writeInt( entries.size() );
+      for ( Map.Entry<String, Entry> jar : entries.entrySet() ) {
+        Entry entry = jar.getValue();
+        out.writeUTF( jar.getKey() );
+        out.writeLong( entry.size );
+        out.writeLong( entry.lastModified );
+        out.writeInt( entry.annotationIndex.size() );
+        for ( Map.Entry<String, Set<String>> annotation : entry.annotationIndex.entrySet() ) {
+          out.writeUTF( annotation.getKey() );
+          out.writeInt( annotation.getValue().size() );
+          for ( String className : annotation.getValue() ) {
+            out.writeUTF( className );
+          }
+        }
+      }
+    }
+  }
+}
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core.plugins;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettlePluginClassMapException;
 import org.pentaho.di.core.exception.KettlePluginException;
@@ -52,6 +53,11 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -585,11 +591,7 @@ public class PluginRegistry {
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_REGISTER_EXTENSIONS_STOP );
 
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_REGISTRATION_START );
-    for ( final PluginTypeInterface pluginType : pluginTypes ) {
-      log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_START, pluginType.getName() );
-      registry.registerType( pluginType );
-      log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_STOP, pluginType.getName() );
-    }
+    registry.registerTypes( new ArrayList<>( pluginTypes ) );
     log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_REGISTRATION_STOP );
 
     /*
@@ -602,6 +604,10 @@ public class PluginRegistry {
      * System.out.println("   - "+duration.toString()+"          Total="+total); }
      */
 
+    // Keep the annotations of the scanned jar files for the next start
+    //
+    JarFileCache.getInstance().saveIndexCache();
+
     // Clear the jar file cache so that we don't waste memory...
     //
     if ( !keepCache ) {
@@ -609,18 +615,145 @@ public class PluginRegistry {
     }
   }
 
+  /**
+   * Registers the plugin types on a bounded pool of threads, see {@link Const#KETTLE_PLUGIN_REGISTRATION_THREADS}. Only
+   * the metadata of the plugins is read: their class loaders are created when a class is first loaded.
+   * <p>
+   * Only the plugin searches of the types shipped with Kettle run on the pool, see {@link #isSearchThreadSafe}. The
+   * other types are searched afterwards on the calling thread, one by one. The {@link PluginRegistryExtension}s are
+   * always called on the calling thread, type by type, once all the searches are done. The fragment types are
+   * registered last, one by one, since they merge into the plugins of the types they track.
+   *
+   * @param types the plugin types to register
+   * @throws KettlePluginException in case a plugin type can't be registered
+   */
+  @VisibleForTesting
+  void registerTypes( List<PluginTypeInterface> types ) throws KettlePluginException {
+    int nrThreads = Math.min( getRegistrationThreads(), types.size() );
+    if ( nrThreads <= 1 ) {
+      for ( PluginTypeInterface pluginType : types ) {
+        registerTypeWithMetrics( pluginType );
+      }
+      return;
+    }
+
+    List<PluginTypeInterface> searchedTypes = new ArrayList<>();
+    List<PluginTypeInterface> serialTypes = new ArrayList<>();
+    List<PluginTypeInterface> fragmentTypes = new ArrayList<>();
+    Map<PluginTypeInterface, Future<Long>> futures = new HashMap<>();
+    AtomicInteger threadNr = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool( nrThreads, runnable -> {
+      Thread thread = new Thread( runnable, "PluginRegistry-" + threadNr.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
+    try {
+      for ( PluginTypeInterface pluginType : types ) {
+        if ( pluginType.isFragment() ) {
+          fragmentTypes.add( pluginType );
+          continue;
+        }
+        registerPluginType( pluginType.getClass() );
+        searchedTypes.add( pluginType );
+        if ( isSearchThreadSafe( pluginType ) ) {
+          futures.put( pluginType, executor.submit( () -> searchTypeWithMetrics( pluginType ) ) );
+        } else {
+          serialTypes.add( pluginType );
+        }
+      }
+
+      // Wait for all the plugin types, report the first error
+      //
+      KettlePluginException error = null;
+      Map<PluginTypeInterface, Long> searchTimes = new HashMap<>();
+      for ( PluginTypeInterface pluginType : searchedTypes ) {
+        Future<Long> future = futures.get( pluginType );
+        if ( future == null ) {
+          continue;
+        }
+        try {
+          searchTimes.put( pluginType, future.get() );
+        } catch ( ExecutionException e ) {
+          if ( error == null ) {
+            error = e.getCause() instanceof KettlePluginException
+              ? (KettlePluginException) e.getCause() : new KettlePluginException( e.getCause() );
+          }
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+          throw new KettlePluginException( "Interrupted while registering the plugin types", e );
+        }
+      }
+      if ( error != null ) {
+        throw error;
+      }
+
+      for ( PluginTypeInterface pluginType : serialTypes ) {
+        searchTimes.put( pluginType, searchTypeWithMetrics( pluginType ) );
+      }
+      for ( PluginTypeInterface pluginType : searchedTypes ) {
+        searchExtensions( pluginType, searchTimes.get( pluginType ) );
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    for ( PluginTypeInterface pluginType : fragmentTypes ) {
+      registerTypeWithMetrics( pluginType );
+    }
+  }
+
+  /**
+   * The plugin types shipped with Kettle search their plugins through {@link BasePluginType}, which only shares the
+   * registry and the {@link JarFileCache}, both safe to use from several threads. Nothing is known about the other
+   * types.
+   */
+  private static boolean isSearchThreadSafe( PluginTypeInterface pluginType ) {
+    return pluginType instanceof BasePluginType && pluginType.getClass().getName().startsWith( "org.pentaho.di." );
+  }
+
+  private static int getRegistrationThreads() {
+    return Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_REGISTRATION_THREADS ),
+      Math.min( Runtime.getRuntime().availableProcessors(), 4 ) );
+  }
+
+  private void registerTypeWithMetrics( PluginTypeInterface pluginType ) throws KettlePluginException {
+    log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_START, pluginType.getName() );
+    registerType( pluginType );
+    log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_STOP, pluginType.getName() );
+  }
+
   private void registerType( PluginTypeInterface pluginType ) throws KettlePluginException {
     registerPluginType( pluginType.getClass() );
+    long startScan = System.currentTimeMillis();
+    searchType( pluginType );
+    searchExtensions( pluginType, System.currentTimeMillis() - startScan );
+  }
 
-    // Search plugins for this type...
-    //
+  private long searchTypeWithMetrics( PluginTypeInterface pluginType ) throws KettlePluginException {
+    log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_START, pluginType.getName() );
     long startScan = System.currentTimeMillis();
-    pluginType.searchPlugins();
+    searchType( pluginType );
+    log.snap( Metrics.METRIC_PLUGIN_REGISTRY_PLUGIN_TYPE_REGISTRATION_STOP, pluginType.getName() );
+    return System.currentTimeMillis() - startScan;
+  }
 
+  private void searchExtensions( PluginTypeInterface pluginType, long searchTime ) {
     for ( PluginRegistryExtension ext : extensions ) {
       ext.searchForType( pluginType );
     }
 
+    if ( LogChannel.GENERAL.isDetailed() ) {
+      LogChannel.GENERAL.logDetailed( "Registered "
+          + getPlugins( pluginType.getClass() ).size() + " plugins of type '" + pluginType.getName() + "' in "
+          + searchTime + "ms." );
+    }
+  }
+
+  private void searchType( PluginTypeInterface pluginType ) throws KettlePluginException {
+    // Search plugins for this type...
+    //
+    pluginType.searchPlugins();
+
     Set<String> pluginClassNames = new HashSet<>();
 
     // Scan for plugin classes to facilitate debugging etc.
@@ -668,12 +801,6 @@ public class PluginRegistry {
       }
     }
 
-    if ( LogChannel.GENERAL.isDetailed() ) {
-      LogChannel.GENERAL.logDetailed( "Registered "
-          + getPlugins( pluginType.getClass() ).size() + " plugins of type '" + pluginType.getName() + "' in "
-          + ( System.currentTimeMillis() - startScan ) + "ms." );
-    }
-
   }
 
   /**
@@ -124,6 +124,11 @@ import org.w3c.dom.Node;
  * <td>java.lang.Integer</td>
  * <td>The row value is an integer index into a fixed array of possible values. The ValueMetaInterface object maintains
  * the set of possible values in getIndex()/setIndex().
+ * <tr>
+ * <td>STORAGE_TYPE_BINARY_STRING_SLICE</td>
+ * <td>org.pentaho.di.core.row.value.BinaryStringSlice</td>
+ * <td>Like STORAGE_TYPE_BINARY_STRING, but the bytes are a part of a larger buffer, usually shared by all the fields
+ * of a row, instead of a byte array of their own.
  * </Table>
  */
 public interface ValueMetaInterface extends Cloneable {
@@ -180,8 +185,14 @@ public interface ValueMetaInterface extends Cloneable {
    */
   int STORAGE_TYPE_INDEXED = 2;
 
+  /**
+   * The storage type is a slice of a binary string: like {@link #STORAGE_TYPE_BINARY_STRING} but the bytes are a part
+   * of a larger buffer, see {@link org.pentaho.di.core.row.value.BinaryStringSlice}.
+   */
+  int STORAGE_TYPE_BINARY_STRING_SLICE = 3;
+
   /** The Constant storageTypeCodes. */
-  String[] storageTypeCodes = new String[] { "normal", "binary-string", "indexed", };
+  String[] storageTypeCodes = new String[] { "normal", "binary-string", "indexed", "binary-string-slice", };
 
   /** Indicating that the rows are not sorted on this key */
   int SORT_TYPE_NOT_SORTED = 0;
@@ -393,6 +404,15 @@ public interface ValueMetaInterface extends Cloneable {
    */
   boolean isStorageBinaryString();
 
+  /**
+   * Checks if is storage binary string slice.
+   *
+   * @return true, if is storage binary string slice
+   */
+  default boolean isStorageBinaryStringSlice() {
+    return getStorageType() == STORAGE_TYPE_BINARY_STRING_SLICE;
+  }
+
   /**
    * Gets the conversion mask.
    *
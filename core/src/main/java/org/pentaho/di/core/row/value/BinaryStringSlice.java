@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * The data of a value with the {@link ValueMetaInterface#STORAGE_TYPE_BINARY_STRING_SLICE} storage type: a binary
+ * string that is a part of a larger buffer. The fields of a row read from a file can share one buffer with the bytes
+ * of the whole row instead of being copied to byte arrays of their own.<br>
+ * <br>
+ * Like all the data in a row, a slice and its part of the buffer are never modified once the slice is handed out.
+ */
+public final class BinaryStringSlice implements Comparable<BinaryStringSlice> {
+
+  private final byte[] buffer;
+  private final int offset;
+  private final int length;
+
+  /**
+   * @param buffer
+   *          the buffer
+   * @param offset
+   *          the position of the binary string in the buffer
+   * @param length
+   *          the number of bytes of the binary string
+   */
+  public BinaryStringSlice( byte[] buffer, int offset, int length ) {
+    if ( offset < 0 || length < 0 || offset > buffer.length - length ) {
+      throw new IndexOutOfBoundsException( "Slice [" + offset + ", " + ( offset + length )
+        + "] is outside of a buffer of " + buffer.length + " bytes" );
+    }
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * @param binaryString
+   *          the whole binary string
+   */
+  public BinaryStringSlice( byte[] binaryString ) {
+    this( binaryString, 0, binaryString.length );
+  }
+
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @return a copy of the bytes of the slice
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOfRange( buffer, offset, offset + length );
+  }
+
+  /**
+   * Decodes the slice straight from the buffer.
+   *
+   * @param encoding
+   *          the encoding of the binary string, the default one if it is empty
+   * @return the string
+   * @throws UnsupportedEncodingException
+   *           in case the encoding is not supported
+   */
+  public String toString( String encoding ) throws UnsupportedEncodingException {
+    if ( encoding == null || encoding.isEmpty() ) {
+      return new String( buffer, offset, length );
+    }
+    return new String( buffer, offset, length, encoding );
+  }
+
+  /**
+   * Writes the bytes of the slice to the stream.
+   *
+   * @param outputStream
+   *          the stream to write to
+   * @throws IOException
+   *           in case the stream can't be written to
+   */
+  public void writeTo( OutputStream outputStream ) throws IOException {
+    outputStream.write( buffer, offset, length );
+  }
+
+  /**
+   * @return true if all the bytes of the slice are 7 bit ASCII characters
+   */
+  public boolean isAscii() {
+    for ( int i = offset; i < offset + length; i++ ) {
+      if ( buffer[ i ] < 0 ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares the bytes of the slices as unsigned values. That is the order of the strings if they are decoded as
+   * ISO-8859-1 or if they are made of ASCII characters in an encoding that is ASCII compatible.
+   */
+  @Override
+  public int compareTo( BinaryStringSlice other ) {
+    return Arrays.compareUnsigned( buffer, offset, offset + length,
+      other.buffer, other.offset, other.offset + other.length );
+  }
+
+  @Override
+  public boolean equals( Object object ) {
+    if ( this == object ) {
+      return true;
+    }
+    if ( !( object instanceof BinaryStringSlice ) ) {
+      return false;
+    }
+    BinaryStringSlice other = (BinaryStringSlice) object;
+    return Arrays.equals( buffer, offset, offset + length, other.buffer, other.offset, other.offset + other.length );
+  }
+
+  /**
+   * The hash code of the string the slice holds if it is decoded as ISO-8859-1 or if it is made of ASCII characters
+   * in an encoding that is ASCII compatible: it is the same as the one of {@link String#hashCode()}.
+   */
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for ( int i = offset; i < offset + length; i++ ) {
+      hash = 31 * hash + ( buffer[ i ] & 0xFF );
+    }
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return new String( buffer, offset, length, StandardCharsets.ISO_8859_1 );
+  }
+}
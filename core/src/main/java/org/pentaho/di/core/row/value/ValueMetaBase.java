@@ -50,6 +50,7 @@ import java.math.BigDecimal;
 import java.net.InetAddress;
 import java.net.SocketTimeoutException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.Blob;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -69,7 +70,9 @@ import java.util.Calendar;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ValueMetaBase implements ValueMetaInterface {
 
@@ -159,6 +162,15 @@ public class ValueMetaBase implements ValueMetaInterface {
 
   boolean singleByteEncoding;
 
+  private static final int BYTES_ARE_NOT_CHARACTERS = 0;
+  private static final int ASCII_BYTES_ARE_CHARACTERS = 1;
+  private static final int ALL_BYTES_ARE_CHARACTERS = 2;
+
+  /**
+   * Per encoding, which bytes of a binary string are decoded to the character with the same value
+   */
+  private static final Map<String, Integer> BYTE_CHARACTER_MAPPINGS = new ConcurrentHashMap<>();
+
   protected long numberOfBinaryStringConversions;
 
   protected boolean bigNumberFormatting;
@@ -297,6 +309,7 @@ public class ValueMetaBase implements ValueMetaInterface {
         break;
 
       case STORAGE_TYPE_BINARY_STRING:
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
         // Load the storage meta data...
         //
         Node storageMetaNode = XMLHandler.getSubNode( node, "storage-meta" );
@@ -614,6 +627,11 @@ public class ValueMetaBase implements ValueMetaInterface {
     return storageType == STORAGE_TYPE_BINARY_STRING;
   }
 
+  @Override
+  public boolean isStorageBinaryStringSlice() {
+    return storageType == STORAGE_TYPE_BINARY_STRING_SLICE;
+  }
+
   /**
    * @return the type
    */
@@ -1557,7 +1575,8 @@ public class ValueMetaBase implements ValueMetaInterface {
       case STORAGE_TYPE_NORMAL:
         return object;
       case STORAGE_TYPE_BINARY_STRING:
-        return convertBinaryStringToNativeType( (byte[]) object );
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
+        return convertBinaryStringOrSliceToNativeType( object );
       case STORAGE_TYPE_INDEXED:
         return index[(Integer) object];
       default:
@@ -1586,6 +1605,8 @@ public class ValueMetaBase implements ValueMetaInterface {
         return convertNormalStorageTypeToBinaryString( object );
       case STORAGE_TYPE_BINARY_STRING:
         return object;
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
+        return binaryStringBytes( object );
       case STORAGE_TYPE_INDEXED:
         return convertNormalStorageTypeToBinaryString( index[(Integer) object] );
       default:
@@ -1625,6 +1646,121 @@ public class ValueMetaBase implements ValueMetaInterface {
     return convertData( storageMetadata, string );
   }
 
+  /**
+   * Converts a binary string slice to the actual data type, decoding it straight from its buffer.
+   *
+   * @param slice
+   *          the binary string slice
+   * @return the data in the actual data type
+   * @throws KettleValueException
+   *           In case there is a data conversion error.
+   */
+  protected Object convertBinaryStringSliceToNativeType( BinaryStringSlice slice ) throws KettleValueException {
+    if ( slice == null ) {
+      return null;
+    }
+
+    numberOfBinaryStringConversions++;
+
+    String string = convertBinaryStringSliceToString( slice );
+
+    return convertData( storageMetadata, string );
+  }
+
+  protected String convertBinaryStringSliceToString( BinaryStringSlice slice ) throws KettleValueException {
+    if ( slice == null || slice.getLength() == 0 ) {
+      return ( emptyStringAndNullAreDifferent && slice != null ) ? "" : null;
+    }
+
+    String encoding;
+    if ( identicalFormat ) {
+      encoding = getStringEncoding();
+    } else {
+      encoding = storageMetadata.getStringEncoding();
+    }
+
+    try {
+      return slice.toString( encoding );
+    } catch ( UnsupportedEncodingException e ) {
+      throw new KettleValueException( toString()
+          + " : couldn't convert binary value to String with specified string encoding [" + encoding + "]", e );
+    }
+  }
+
+  /**
+   * The data of the binary string storage types is a byte array or a binary string slice.
+   */
+  protected Object convertBinaryStringOrSliceToNativeType( Object binaryString ) throws KettleValueException {
+    if ( binaryString instanceof BinaryStringSlice ) {
+      return convertBinaryStringSliceToNativeType( (BinaryStringSlice) binaryString );
+    }
+    return convertBinaryStringToNativeType( (byte[]) binaryString );
+  }
+
+  protected String convertBinaryStringOrSliceToString( Object binaryString ) throws KettleValueException {
+    if ( binaryString instanceof BinaryStringSlice ) {
+      return convertBinaryStringSliceToString( (BinaryStringSlice) binaryString );
+    }
+    return convertBinaryStringToString( (byte[]) binaryString );
+  }
+
+  /**
+   * @return the bytes of the binary string, copied out of the buffer in case of a slice
+   */
+  protected static byte[] binaryStringBytes( Object binaryString ) {
+    if ( binaryString instanceof BinaryStringSlice ) {
+      return ( (BinaryStringSlice) binaryString ).toByteArray();
+    }
+    return (byte[]) binaryString;
+  }
+
+  private static BinaryStringSlice binaryStringSlice( Object binaryString ) {
+    return binaryString == null ? null : new BinaryStringSlice( (byte[]) binaryString );
+  }
+
+  /**
+   * A string stored as a binary string slice can be compared, hashed or checked for null without decoding it if its
+   * bytes are its characters: the encoding is ISO-8859-1, or it is ASCII compatible and the slice is ASCII. There
+   * can't be anything to trim, pad or convert either.
+   */
+  private boolean isSliceDecodingAvoidable( BinaryStringSlice slice ) {
+    if ( !isString() || !identicalFormat || getTrimType() != TRIM_TYPE_NONE || isOutputPaddingEnabled()
+      || storageMetadata == null || storageMetadata.getTrimType() != TRIM_TYPE_NONE
+      || storageMetadata.isOutputPaddingEnabled() ) {
+      return false;
+    }
+    switch ( getByteCharacterMapping( getStringEncoding() ) ) {
+      case ALL_BYTES_ARE_CHARACTERS:
+        return true;
+      case ASCII_BYTES_ARE_CHARACTERS:
+        return slice.isAscii();
+      default:
+        return false;
+    }
+  }
+
+  private static int getByteCharacterMapping( String encoding ) {
+    return BYTE_CHARACTER_MAPPINGS.computeIfAbsent( Const.NVL( encoding, "" ), e -> {
+      try {
+        Charset charset = Utils.isEmpty( e ) ? Charset.defaultCharset() : Charset.forName( e );
+        byte[] bytes = new byte[256];
+        for ( int i = 0; i < bytes.length; i++ ) {
+          bytes[i] = (byte) i;
+        }
+        String decoded = new String( bytes, charset );
+        if ( decoded.equals( new String( bytes, StandardCharsets.ISO_8859_1 ) ) ) {
+          return ALL_BYTES_ARE_CHARACTERS;
+        }
+        if ( decoded.startsWith( new String( bytes, 0, 128, StandardCharsets.US_ASCII ) ) ) {
+          return ASCII_BYTES_ARE_CHARACTERS;
+        }
+      } catch ( IllegalArgumentException ignored ) {
+        // An unknown encoding: the slices are decoded and the conversion reports it
+      }
+      return BYTES_ARE_NOT_CHARACTERS;
+    } );
+  }
+
   @Override
   public Object convertNormalStorageTypeToBinaryString( Object object ) throws KettleValueException {
     if ( object == null ) {
@@ -1717,7 +1853,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertDateToCompatibleString( (Date) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertDateToCompatibleString( (Date) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertDateToCompatibleString( (Date) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               if ( object == null ) {
@@ -1737,7 +1874,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertNumberToCompatibleString( (Double) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertNumberToCompatibleString( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertNumberToCompatibleString( (Double) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string =
@@ -1755,8 +1893,9 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertIntegerToCompatibleString( (Long) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
               try {
-                string = convertIntegerToCompatibleString( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+                string = convertIntegerToCompatibleString( (Long) convertBinaryStringOrSliceToNativeType( object ) );
               } catch ( ClassCastException e ) {
                 string = convertIntegerToCompatibleString( (Long) object );
               }
@@ -1795,7 +1934,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = object == null ? null : object.toString();
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = (String) convertBinaryStringToNativeType( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = (String) convertBinaryStringOrSliceToNativeType( object );
               break;
             case STORAGE_TYPE_INDEXED:
               string = object == null ? null : (String) index[( (Integer) object ).intValue()];
@@ -1814,7 +1954,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertDateToString( (Date) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertDateToString( (Date) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertDateToString( (Date) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string = object == null ? null : convertDateToString( (Date) index[( (Integer) object ).intValue()] );
@@ -1830,7 +1971,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertNumberToString( (Double) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertNumberToString( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertNumberToString( (Double) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string = object == null ? null : convertNumberToString( (Double) index[( (Integer) object ).intValue()] );
@@ -1846,7 +1988,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertIntegerToString( (Long) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertIntegerToString( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertIntegerToString( (Long) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string = object == null ? null : convertIntegerToString( (Long) index[( (Integer) object ).intValue()] );
@@ -1862,7 +2005,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertBigNumberToString( (BigDecimal) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertBigNumberToString( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertBigNumberToString( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string =
@@ -1880,7 +2024,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = convertBooleanToString( (Boolean) object );
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertBooleanToString( (Boolean) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertBooleanToString( (Boolean) convertBinaryStringOrSliceToNativeType( object ) );
               break;
             case STORAGE_TYPE_INDEXED:
               string =
@@ -1901,7 +2046,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               }
               break;
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertBinaryStringToString( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertBinaryStringOrSliceToString( object );
               break;
             case STORAGE_TYPE_INDEXED:
               string =
@@ -1918,7 +2064,8 @@ public class ValueMetaBase implements ValueMetaInterface {
               string = object == null ? null : object.toString();
               break; // just go for the default toString()
             case STORAGE_TYPE_BINARY_STRING:
-              string = convertBinaryStringToString( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              string = convertBinaryStringOrSliceToString( object );
               break;
             case STORAGE_TYPE_INDEXED:
               string = object == null ? null : index[( (Integer) object ).intValue()].toString();
@@ -1975,7 +2122,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return (Double) object;
             case STORAGE_TYPE_BINARY_STRING:
-              return (Double) convertBinaryStringToNativeType( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return (Double) convertBinaryStringOrSliceToNativeType( object );
             case STORAGE_TYPE_INDEXED:
               return (Double) index[( (Integer) object ).intValue()];
             default:
@@ -1986,7 +2134,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToNumber( (String) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertStringToNumber( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertStringToNumber( (String) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertStringToNumber( (String) index[( (Integer) object ).intValue()] );
             default:
@@ -1997,7 +2146,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertDateToNumber( (Date) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertDateToNumber( (Date) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertDateToNumber( (Date) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return new Double( ( (Date) index[( (Integer) object ).intValue()] ).getTime() );
             default:
@@ -2008,7 +2158,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return new Double( ( (Long) object ).doubleValue() );
             case STORAGE_TYPE_BINARY_STRING:
-              return new Double( ( (Long) convertBinaryStringToNativeType( (byte[]) object ) ).doubleValue() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return new Double( ( (Long) convertBinaryStringOrSliceToNativeType( object ) ).doubleValue() );
             case STORAGE_TYPE_INDEXED:
               return new Double( ( (Long) index[( (Integer) object ).intValue()] ).doubleValue() );
             default:
@@ -2019,7 +2170,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return new Double( ( (BigDecimal) object ).doubleValue() );
             case STORAGE_TYPE_BINARY_STRING:
-              return new Double( ( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) ).doubleValue() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return new Double( ( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) ).doubleValue() );
             case STORAGE_TYPE_INDEXED:
               return new Double( ( (BigDecimal) index[( (Integer) object ).intValue()] ).doubleValue() );
             default:
@@ -2030,7 +2182,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertBooleanToNumber( (Boolean) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertBooleanToNumber( (Boolean) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertBooleanToNumber( (Boolean) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertBooleanToNumber( (Boolean) index[( (Integer) object ).intValue()] );
             default:
@@ -2061,7 +2214,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return (Long) object;
             case STORAGE_TYPE_BINARY_STRING:
-              return (Long) convertBinaryStringToNativeType( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return (Long) convertBinaryStringOrSliceToNativeType( object );
             case STORAGE_TYPE_INDEXED:
               return (Long) index[( (Integer) object ).intValue()];
             default:
@@ -2072,7 +2226,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToInteger( (String) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertStringToInteger( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertStringToInteger( (String) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertStringToInteger( (String) index[( (Integer) object ).intValue()] );
             default:
@@ -2083,7 +2238,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return new Long( Math.round( ( (Double) object ).doubleValue() ) );
             case STORAGE_TYPE_BINARY_STRING:
-              return new Long( Math.round( ( (Double) convertBinaryStringToNativeType( (byte[]) object ) )
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return new Long( Math.round( ( (Double) convertBinaryStringOrSliceToNativeType( object ) )
                   .doubleValue() ) );
             case STORAGE_TYPE_INDEXED:
               return new Long( Math.round( ( (Double) index[( (Integer) object ).intValue()] ).doubleValue() ) );
@@ -2095,7 +2251,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertDateToInteger( (Date) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return new Long( ( (Date) convertBinaryStringToNativeType( (byte[]) object ) ).getTime() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return new Long( ( (Date) convertBinaryStringOrSliceToNativeType( object ) ).getTime() );
             case STORAGE_TYPE_INDEXED:
               return convertDateToInteger( (Date) index[( (Integer) object ).intValue()] );
             default:
@@ -2106,7 +2263,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return new Long( ( (BigDecimal) object ).longValue() );
             case STORAGE_TYPE_BINARY_STRING:
-              return new Long( ( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) ).longValue() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return new Long( ( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) ).longValue() );
             case STORAGE_TYPE_INDEXED:
               return new Long( ( (BigDecimal) index[( (Integer) object ).intValue()] ).longValue() );
             default:
@@ -2117,7 +2275,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertBooleanToInteger( (Boolean) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertBooleanToInteger( (Boolean) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertBooleanToInteger( (Boolean) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertBooleanToInteger( (Boolean) index[( (Integer) object ).intValue()] );
             default:
@@ -2149,7 +2308,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return (BigDecimal) object;
             case STORAGE_TYPE_BINARY_STRING:
-              return (BigDecimal) convertBinaryStringToNativeType( (byte[]) object );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return (BigDecimal) convertBinaryStringOrSliceToNativeType( object );
             case STORAGE_TYPE_INDEXED:
               return (BigDecimal) index[( (Integer) object ).intValue()];
             default:
@@ -2160,7 +2320,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBigNumber( (String) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertStringToBigNumber( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertStringToBigNumber( (String) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBigNumber( (String) index[( (Integer) object ).intValue()] );
             default:
@@ -2171,7 +2332,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return BigDecimal.valueOf( ( (Long) object ).longValue() );
             case STORAGE_TYPE_BINARY_STRING:
-              return BigDecimal.valueOf( ( (Long) convertBinaryStringToNativeType( (byte[]) object ) ).longValue() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return BigDecimal.valueOf( ( (Long) convertBinaryStringOrSliceToNativeType( object ) ).longValue() );
             case STORAGE_TYPE_INDEXED:
               return BigDecimal.valueOf( ( (Long) index[( (Integer) object ).intValue()] ).longValue() );
             default:
@@ -2182,7 +2344,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return BigDecimal.valueOf( ( (Double) object ).doubleValue() );
             case STORAGE_TYPE_BINARY_STRING:
-              return BigDecimal.valueOf( ( (Double) convertBinaryStringToNativeType( (byte[]) object ) ).doubleValue() );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return BigDecimal.valueOf( ( (Double) convertBinaryStringOrSliceToNativeType( object ) ).doubleValue() );
             case STORAGE_TYPE_INDEXED:
               return BigDecimal.valueOf( ( (Double) index[( (Integer) object ).intValue()] ).doubleValue() );
             default:
@@ -2193,7 +2356,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertDateToBigNumber( (Date) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertDateToBigNumber( (Date) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertDateToBigNumber( (Date) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertDateToBigNumber( (Date) index[( (Integer) object ).intValue()] );
             default:
@@ -2204,7 +2368,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertBooleanToBigNumber( (Boolean) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertBooleanToBigNumber( (Boolean) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertBooleanToBigNumber( (Boolean) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertBooleanToBigNumber( (Boolean) index[( (Integer) object ).intValue()] );
             default:
@@ -2234,7 +2399,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return (Boolean) object;
           case STORAGE_TYPE_BINARY_STRING:
-            return (Boolean) convertBinaryStringToNativeType( (byte[]) object );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return (Boolean) convertBinaryStringOrSliceToNativeType( object );
           case STORAGE_TYPE_INDEXED:
             return (Boolean) index[( (Integer) object ).intValue()];
           default:
@@ -2245,7 +2411,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertStringToBoolean( trim( (String) object ) );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertStringToBoolean( trim( (String) convertBinaryStringToNativeType( (byte[]) object ) ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertStringToBoolean( trim( (String) convertBinaryStringOrSliceToNativeType( object ) ) );
           case STORAGE_TYPE_INDEXED:
             return convertStringToBoolean( trim( (String) index[( (Integer) object ).intValue()] ) );
           default:
@@ -2256,7 +2423,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertIntegerToBoolean( (Long) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertIntegerToBoolean( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertIntegerToBoolean( (Long) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertIntegerToBoolean( (Long) index[( (Integer) object ).intValue()] );
           default:
@@ -2267,7 +2435,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertNumberToBoolean( (Double) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertNumberToBoolean( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertNumberToBoolean( (Double) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertNumberToBoolean( (Double) index[( (Integer) object ).intValue()] );
           default:
@@ -2278,7 +2447,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertBigNumberToBoolean( (BigDecimal) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertBigNumberToBoolean( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertBigNumberToBoolean( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertBigNumberToBoolean( (BigDecimal) index[( (Integer) object ).intValue()] );
           default:
@@ -2306,7 +2476,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return (Date) object;
           case STORAGE_TYPE_BINARY_STRING:
-            return (Date) convertBinaryStringToNativeType( (byte[]) object );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return (Date) convertBinaryStringOrSliceToNativeType( object );
           case STORAGE_TYPE_INDEXED:
             return (Date) index[( (Integer) object ).intValue()];
           default:
@@ -2317,7 +2488,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertStringToDate( (String) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertStringToDate( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertStringToDate( (String) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertStringToDate( (String) index[( (Integer) object ).intValue()] );
           default:
@@ -2328,7 +2500,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertNumberToDate( (Double) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertNumberToDate( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertNumberToDate( (Double) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertNumberToDate( (Double) index[( (Integer) object ).intValue()] );
           default:
@@ -2339,7 +2512,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertIntegerToDate( (Long) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertIntegerToDate( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertIntegerToDate( (Long) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertIntegerToDate( (Long) index[( (Integer) object ).intValue()] );
           default:
@@ -2350,7 +2524,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertBigNumberToDate( (BigDecimal) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertBigNumberToDate( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertBigNumberToDate( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertBigNumberToDate( (BigDecimal) index[( (Integer) object ).intValue()] );
           default:
@@ -2379,7 +2554,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return (byte[]) object;
           case STORAGE_TYPE_BINARY_STRING:
-            return (byte[]) object;
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return binaryStringBytes( object );
           case STORAGE_TYPE_INDEXED:
             return (byte[]) index[( (Integer) object ).intValue()];
           default:
@@ -2392,7 +2568,8 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return convertStringToBinaryString( (String) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return (byte[]) object;
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return binaryStringBytes( object );
           case STORAGE_TYPE_INDEXED:
             return convertStringToBinaryString( (String) index[( (Integer) object ).intValue()] );
           default:
@@ -2424,6 +2601,9 @@ public class ValueMetaBase implements ValueMetaInterface {
     if ( isStorageBinaryString() && identicalFormat ) {
       return (byte[]) object; // shortcut it directly for better performance.
     }
+    if ( isStorageBinaryStringSlice() && identicalFormat ) {
+      return binaryStringBytes( object );
+    }
 
     try {
       if ( object == null ) {
@@ -2436,7 +2616,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( (String) object );
             case STORAGE_TYPE_BINARY_STRING:
-              return convertStringToBinaryString( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return convertStringToBinaryString( (String) convertBinaryStringOrSliceToNativeType( object ) );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( (String) index[( (Integer) object ).intValue()] );
             default:
@@ -2448,7 +2629,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( convertDateToString( (Date) object ) );
             case STORAGE_TYPE_BINARY_STRING:
-              String string = convertDateToString( (Date) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              String string = convertDateToString( (Date) convertBinaryStringOrSliceToNativeType( object ) );
               return convertStringToBinaryString( string );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( convertDateToString( (Date) index[( (Integer) object ).intValue()] ) );
@@ -2461,7 +2643,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( convertNumberToString( (Double) object ) );
             case STORAGE_TYPE_BINARY_STRING:
-              String string = convertNumberToString( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              String string = convertNumberToString( (Double) convertBinaryStringOrSliceToNativeType( object ) );
               return convertStringToBinaryString( string );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( convertNumberToString( (Double) index[( (Integer) object ).intValue()] ) );
@@ -2474,7 +2657,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( convertIntegerToString( (Long) object ) );
             case STORAGE_TYPE_BINARY_STRING:
-              String string = convertIntegerToString( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              String string = convertIntegerToString( (Long) convertBinaryStringOrSliceToNativeType( object ) );
               return convertStringToBinaryString( string );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( convertIntegerToString( (Long) index[( (Integer) object ).intValue()] ) );
@@ -2487,8 +2671,9 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( convertBigNumberToString( (BigDecimal) object ) );
             case STORAGE_TYPE_BINARY_STRING:
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
               String string =
-                  convertBigNumberToString( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+                  convertBigNumberToString( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
               return convertStringToBinaryString( string );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( convertBigNumberToString( (BigDecimal) index[( (Integer) object )
@@ -2502,7 +2687,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( convertBooleanToString( (Boolean) object ) );
             case STORAGE_TYPE_BINARY_STRING:
-              String string = convertBooleanToString( (Boolean) convertBinaryStringToNativeType( (byte[]) object ) );
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              String string = convertBooleanToString( (Boolean) convertBinaryStringOrSliceToNativeType( object ) );
               return convertStringToBinaryString( string );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( convertBooleanToString( (Boolean) index[( (Integer) object )
@@ -2516,7 +2702,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return (byte[]) object;
             case STORAGE_TYPE_BINARY_STRING:
-              return (byte[]) object;
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return binaryStringBytes( object );
             case STORAGE_TYPE_INDEXED:
               return (byte[]) index[( (Integer) object ).intValue()];
             default:
@@ -2528,7 +2715,8 @@ public class ValueMetaBase implements ValueMetaInterface {
             case STORAGE_TYPE_NORMAL:
               return convertStringToBinaryString( object.toString() );
             case STORAGE_TYPE_BINARY_STRING:
-              return (byte[]) object;
+            case STORAGE_TYPE_BINARY_STRING_SLICE:
+              return binaryStringBytes( object );
             case STORAGE_TYPE_INDEXED:
               return convertStringToBinaryString( index[( (Integer) object ).intValue()].toString() );
             default:
@@ -2771,6 +2959,12 @@ public class ValueMetaBase implements ValueMetaInterface {
             writeBinaryString( outputStream, (byte[]) object );
             break;
 
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            // The same as a binary string, written straight from the buffer of the slice
+            //
+            writeBinaryStringSlice( outputStream, (BinaryStringSlice) object );
+            break;
+
           case STORAGE_TYPE_INDEXED:
             writeInteger( outputStream, (Integer) object ); // just an index
             break;
@@ -2825,6 +3019,10 @@ public class ValueMetaBase implements ValueMetaInterface {
         case STORAGE_TYPE_BINARY_STRING:
           return readBinaryString( inputStream );
 
+        case STORAGE_TYPE_BINARY_STRING_SLICE:
+          byte[] binaryString = readBinaryString( inputStream );
+          return binaryString == null ? null : new BinaryStringSlice( binaryString );
+
         case STORAGE_TYPE_INDEXED:
           return readSmallInteger( inputStream ); // just an index: 4-bytes should
           // be enough.
@@ -2862,6 +3060,12 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
   }
 
+  protected void writeBinaryStringSlice( DataOutputStream outputStream, BinaryStringSlice slice ) throws IOException {
+    // Write the length and then the bytes, like a binary string
+    outputStream.writeInt( slice.getLength() );
+    slice.writeTo( outputStream );
+  }
+
   protected String readString( DataInputStream inputStream ) throws IOException {
     // Read the length and then the bytes
     int length = inputStream.readInt();
@@ -3022,6 +3226,7 @@ public class ValueMetaBase implements ValueMetaInterface {
           break;
 
         case STORAGE_TYPE_BINARY_STRING:
+        case STORAGE_TYPE_BINARY_STRING_SLICE:
           // Save the storage meta data...
           //
           outputStream.writeBoolean( storageMetadata != null );
@@ -3150,6 +3355,7 @@ public class ValueMetaBase implements ValueMetaInterface {
           break;
 
         case STORAGE_TYPE_BINARY_STRING:
+        case STORAGE_TYPE_BINARY_STRING_SLICE:
           // In case we do have storage metadata defined, we read that back in as
           // well..
           if ( inputStream.readBoolean() ) {
@@ -3287,6 +3493,7 @@ public class ValueMetaBase implements ValueMetaInterface {
         break;
 
       case STORAGE_TYPE_BINARY_STRING:
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
         // Save the storage meta data...
         //
         if ( storageMetadata != null ) {
@@ -3374,13 +3581,14 @@ public class ValueMetaBase implements ValueMetaInterface {
             break;
 
           case STORAGE_TYPE_BINARY_STRING:
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
             // Handle binary string content -- only when not NULL
             // In this case, we opt not to convert anything at all for speed.
             // That way, we can save on CPU power.
             // Since the streams can be compressed, volume shouldn't be an issue
             // at all.
             //
-            string = XMLHandler.addTagValue( "binary-string", (byte[]) object );
+            string = XMLHandler.addTagValue( "binary-string", binaryStringBytes( object ) );
             xml.append( XMLHandler.openTag( XML_DATA_TAG ) ).append( string ).append( XMLHandler.closeTag( XML_DATA_TAG ) );
             return xml.toString();
 
@@ -3467,6 +3675,14 @@ public class ValueMetaBase implements ValueMetaInterface {
 
         return XMLHandler.stringToBinary( binaryString );
 
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
+        String binaryStringSlice = XMLHandler.getTagValue( node, "binary-string" );
+        if ( Utils.isEmpty( binaryStringSlice ) ) {
+          return null;
+        }
+
+        return new BinaryStringSlice( XMLHandler.stringToBinary( binaryStringSlice ) );
+
       case STORAGE_TYPE_INDEXED:
         String indexString = XMLHandler.getTagValue( node, "index-value" );
         if ( Utils.isEmpty( indexString ) ) {
@@ -3596,6 +3812,14 @@ public class ValueMetaBase implements ValueMetaInterface {
           return true; // shortcut
         }
         value = convertBinaryStringToNativeType( (byte[]) data );
+      } else if ( isStorageBinaryStringSlice() ) {
+        if ( value == null || !emptyStringDiffersFromNull && ( (BinaryStringSlice) value ).getLength() == 0 ) {
+          return true; // shortcut
+        }
+        if ( isSliceDecodingAvoidable( (BinaryStringSlice) value ) ) {
+          return false; // not empty and nothing to trim
+        }
+        value = convertBinaryStringSliceToNativeType( (BinaryStringSlice) data );
       }
 
       // Re-check for null, even for lazy conversion.
@@ -3696,6 +3920,12 @@ public class ValueMetaBase implements ValueMetaInterface {
     int cmp = 0;
     switch ( getType() ) {
       case TYPE_STRING:
+        if ( isStorageBinaryStringSlice() && collatorDisabled && !caseInsensitive && !ignoreWhitespace
+          && isSliceDecodingAvoidable( (BinaryStringSlice) data1 )
+          && isSliceDecodingAvoidable( (BinaryStringSlice) data2 ) ) {
+          cmp = ( (BinaryStringSlice) data1 ).compareTo( (BinaryStringSlice) data2 );
+          break;
+        }
         // if (isStorageBinaryString() && identicalFormat &&
         // storageMetadata.isSingleByteEncoding()) return
         // compareBinaryStrings((byte[])data1, (byte[])data2); TODO
@@ -3807,16 +4037,9 @@ public class ValueMetaBase implements ValueMetaInterface {
           case STORAGE_TYPE_NORMAL:
             return compare( data1, meta2.convertToNormalStorageType( data2 ) );
           case STORAGE_TYPE_BINARY_STRING:
-            if ( storageMetadata != null && storageMetadata.getConversionMask() != null && !meta2.isNumber() ) {
-              // BACKLOG-18754 - if there is a storage conversion mask, we should use
-              // it as the mask for meta2 (meta2 can have specific storage type and type, so
-              // it can't be used directly to convert data2 to binary string)
-              ValueMetaInterface meta2StorageMask = meta2.clone();
-              meta2StorageMask.setConversionMask( storageMetadata.getConversionMask() );
-              return compare( data1, meta2StorageMask.convertToBinaryStringStorageType( data2 ) );
-            } else {
-              return compare( data1, meta2.convertToBinaryStringStorageType( data2 ) );
-            }
+            return compare( data1, convertToComparableBinaryString( meta2, data2 ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return compare( data1, binaryStringSlice( convertToComparableBinaryString( meta2, data2 ) ) );
           case STORAGE_TYPE_INDEXED:
             switch ( meta2.getStorageType() ) {
               case STORAGE_TYPE_INDEXED:
@@ -3825,6 +4048,8 @@ public class ValueMetaBase implements ValueMetaInterface {
                 return -meta2.compare( data2, convertToNormalStorageType( data1 ) );
               case STORAGE_TYPE_BINARY_STRING:
                 return -meta2.compare( data2, convertToBinaryStringStorageType( data1 ) );
+              case STORAGE_TYPE_BINARY_STRING_SLICE:
+                return -meta2.compare( data2, binaryStringSlice( convertToBinaryStringStorageType( data1 ) ) );
               default:
                 throw new KettleValueException( meta2.toStringMeta() + " : Unknown storage type : "
                     + meta2.getStorageType() );
@@ -3849,6 +4074,22 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
   }
 
+  /**
+   * Converts the data of meta2 to a binary string that can be compared with the binary strings of this value.
+   */
+  private Object convertToComparableBinaryString( ValueMetaInterface meta2, Object data2 )
+    throws KettleValueException {
+    if ( storageMetadata != null && storageMetadata.getConversionMask() != null && !meta2.isNumber() ) {
+      // BACKLOG-18754 - if there is a storage conversion mask, we should use
+      // it as the mask for meta2 (meta2 can have specific storage type and type, so
+      // it can't be used directly to convert data2 to binary string)
+      ValueMetaInterface meta2StorageMask = meta2.clone();
+      meta2StorageMask.setConversionMask( storageMetadata.getConversionMask() );
+      return meta2StorageMask.convertToBinaryStringStorageType( data2 );
+    }
+    return meta2.convertToBinaryStringStorageType( data2 );
+  }
+
   /**
    * Convert the specified data to the data type specified in this object.
    *
@@ -4186,7 +4427,11 @@ public class ValueMetaBase implements ValueMetaInterface {
           hash ^= getNumber( object ).hashCode();
           break;
         case TYPE_STRING:
-          hash ^= getString( object ).hashCode();
+          if ( isStorageBinaryStringSlice() && isSliceDecodingAvoidable( (BinaryStringSlice) object ) ) {
+            hash ^= object.hashCode(); // the same as the hash code of the decoded string
+          } else {
+            hash ^= getString( object ).hashCode();
+          }
           break;
         case TYPE_BIGNUMBER:
           hash ^= getBigNumber( object ).hashCode();
@@ -5500,7 +5745,8 @@ public class ValueMetaBase implements ValueMetaInterface {
   public Object getNativeDataType( Object object ) throws KettleValueException {
     switch ( getStorageType() ) {
       case STORAGE_TYPE_BINARY_STRING:
-        return convertBinaryStringToNativeType( (byte[]) object );
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
+        return convertBinaryStringOrSliceToNativeType( object );
       case STORAGE_TYPE_INDEXED:
         return index[(Integer) object];
       case STORAGE_TYPE_NORMAL:
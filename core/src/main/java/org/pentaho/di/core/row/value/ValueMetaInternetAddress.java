@@ -78,7 +78,8 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return (InetAddress) object;
           case STORAGE_TYPE_BINARY_STRING:
-            return (InetAddress) convertBinaryStringToNativeType( (byte[]) object );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return (InetAddress) convertBinaryStringOrSliceToNativeType( object );
           case STORAGE_TYPE_INDEXED:
             return (InetAddress) index[( (Integer) object )];
           default:
@@ -89,7 +90,8 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertStringToInternetAddress( (String) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertStringToInternetAddress( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertStringToInternetAddress( (String) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertStringToInternetAddress( (String) index[( (Integer) object ).intValue()] );
           default:
@@ -100,7 +102,8 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertNumberToInternetAddress( (Double) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertNumberToInternetAddress( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertNumberToInternetAddress( (Double) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertNumberToInternetAddress( (Double) index[( (Integer) object ).intValue()] );
           default:
@@ -111,7 +114,8 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertIntegerToInternetAddress( (Long) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertIntegerToInternetAddress( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertIntegerToInternetAddress( (Long) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertIntegerToInternetAddress( (Long) index[( (Integer) object ).intValue()] );
           default:
@@ -122,7 +126,8 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertBigNumberToInternetAddress( (BigDecimal) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertBigNumberToInternetAddress( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertBigNumberToInternetAddress( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertBigNumberToInternetAddress( (BigDecimal) index[( (Integer) object ).intValue()] );
           default:
@@ -212,6 +217,9 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
     if ( isStorageBinaryString() && identicalFormat ) {
       return (byte[]) object; // shortcut it directly for better performance.
     }
+    if ( isStorageBinaryStringSlice() && identicalFormat ) {
+      return binaryStringBytes( object );
+    }
     if ( object == null ) {
       return null;
     }
@@ -219,8 +227,9 @@ public class ValueMetaInternetAddress extends ValueMetaDate {
       case STORAGE_TYPE_NORMAL:
         return convertStringToBinaryString( getString( object ) );
       case STORAGE_TYPE_BINARY_STRING:
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
         return convertStringToBinaryString( getString(
-          convertStringToInternetAddress( convertBinaryStringToString( (byte[]) object ) ) ) );
+          convertStringToInternetAddress( convertBinaryStringOrSliceToString( object ) ) ) );
       case STORAGE_TYPE_INDEXED:
         return convertStringToBinaryString(
           convertInternetAddressToString( (InetAddress) index[( (Integer) object )] ) );
@@ -131,7 +131,8 @@ public class ValueMetaTimestamp extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return (Timestamp) object;
           case STORAGE_TYPE_BINARY_STRING:
-            return (Timestamp) convertBinaryStringToNativeType( (byte[]) object );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return (Timestamp) convertBinaryStringOrSliceToNativeType( object );
           case STORAGE_TYPE_INDEXED:
             return (Timestamp) index[ ( (Integer) object ).intValue() ];
           default:
@@ -142,7 +143,8 @@ public class ValueMetaTimestamp extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertStringToTimestamp( (String) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertStringToTimestamp( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertStringToTimestamp( (String) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertStringToTimestamp( (String) index[ ( (Integer) object ).intValue() ] );
           default:
@@ -153,7 +155,8 @@ public class ValueMetaTimestamp extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertNumberToTimestamp( (Double) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertNumberToTimestamp( (Double) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertNumberToTimestamp( (Double) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertNumberToTimestamp( (Double) index[ ( (Integer) object ).intValue() ] );
           default:
@@ -164,7 +167,8 @@ public class ValueMetaTimestamp extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertIntegerToTimestamp( (Long) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertIntegerToTimestamp( (Long) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertIntegerToTimestamp( (Long) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertIntegerToTimestamp( (Long) index[ ( (Integer) object ).intValue() ] );
           default:
@@ -175,7 +179,8 @@ public class ValueMetaTimestamp extends ValueMetaDate {
           case STORAGE_TYPE_NORMAL:
             return convertBigNumberToTimestamp( (BigDecimal) object );
           case STORAGE_TYPE_BINARY_STRING:
-            return convertBigNumberToTimestamp( (BigDecimal) convertBinaryStringToNativeType( (byte[]) object ) );
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            return convertBigNumberToTimestamp( (BigDecimal) convertBinaryStringOrSliceToNativeType( object ) );
           case STORAGE_TYPE_INDEXED:
             return convertBigNumberToTimestamp( (BigDecimal) index[ ( (Integer) object ).intValue() ] );
           default:
@@ -558,12 +563,16 @@ public class ValueMetaTimestamp extends ValueMetaDate {
     if ( isStorageBinaryString() && identicalFormat ) {
       return (byte[]) object; // shortcut it directly for better performance.
     }
+    if ( isStorageBinaryStringSlice() && identicalFormat ) {
+      return binaryStringBytes( object );
+    }
 
     switch ( storageType ) {
       case STORAGE_TYPE_NORMAL:
         return convertStringToBinaryString( getString( object ) );
       case STORAGE_TYPE_BINARY_STRING:
-        return convertStringToBinaryString( (String) convertBinaryStringToNativeType( (byte[]) object ) );
+      case STORAGE_TYPE_BINARY_STRING_SLICE:
+        return convertStringToBinaryString( (String) convertBinaryStringOrSliceToNativeType( object ) );
       case STORAGE_TYPE_INDEXED:
         return convertStringToBinaryString( getString( index[ ( (Integer) object ).intValue() ] ) );
       default:
@@ -597,6 +606,10 @@ public class ValueMetaTimestamp extends ValueMetaDate {
             writeBinaryString( outputStream, (byte[]) object );
             break;
 
+          case STORAGE_TYPE_BINARY_STRING_SLICE:
+            writeBinaryStringSlice( outputStream, (BinaryStringSlice) object );
+            break;
+
           case STORAGE_TYPE_INDEXED:
             writeInteger( outputStream, (Integer) object ); // just an index
             break;
@@ -639,6 +652,10 @@ public class ValueMetaTimestamp extends ValueMetaDate {
         case STORAGE_TYPE_BINARY_STRING:
           return readBinaryString( inputStream );
 
+        case STORAGE_TYPE_BINARY_STRING_SLICE:
+          byte[] binaryString = readBinaryString( inputStream );
+          return binaryString == null ? null : new BinaryStringSlice( binaryString );
+
         case STORAGE_TYPE_INDEXED:
           return readSmallInteger( inputStream ); // just an index: 4-bytes should be enough.
 
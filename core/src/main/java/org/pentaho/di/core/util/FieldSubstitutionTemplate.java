@@ -0,0 +1,153 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A string with field references of the form "?{&lt;field name&gt;}", parsed once so that it can be filled in for
+ * every row without scanning the string again. The fields are looked up once per row layout, and only the fields that
+ * are used are converted to strings.<br>
+ * <br>
+ * The result is the same as {@link StringUtil#substituteField(String, RowMetaInterface, Object[])}: a field that
+ * doesn't exist or is null is left as it is. A row with a value that holds a field reference itself is handed over to
+ * {@link StringUtil#substituteField(String, RowMetaInterface, Object[])}.
+ */
+public class FieldSubstitutionTemplate {
+
+  private final String template;
+
+  /**
+   * The literal parts, one more than there are fields
+   */
+  private final String[] literals;
+
+  private final String[] fieldNames;
+
+  private volatile Layout layout;
+
+  private static class Layout {
+    private final RowMetaInterface rowMeta;
+    private final int size;
+    private final int[] indexes;
+
+    Layout( RowMetaInterface rowMeta, String[] fieldNames ) {
+      this.rowMeta = rowMeta;
+      this.size = rowMeta.size();
+      this.indexes = new int[ fieldNames.length ];
+      for ( int f = 0; f < fieldNames.length; f++ ) {
+        // The last field with the name, like the map of field values built by StringUtil
+        int index = -1;
+        for ( int i = 0; i < size; i++ ) {
+          if ( fieldNames[ f ].equals( rowMeta.getValueMeta( i ).getName() ) ) {
+            index = i;
+          }
+        }
+        indexes[ f ] = index;
+      }
+    }
+
+    boolean isFor( RowMetaInterface other ) {
+      return rowMeta == other && size == other.size();
+    }
+  }
+
+  private FieldSubstitutionTemplate( String template, String[] literals, String[] fieldNames ) {
+    this.template = template;
+    this.literals = literals;
+    this.fieldNames = fieldNames;
+  }
+
+  /**
+   * Parses a string with field references.
+   *
+   * @param aString
+   *          the string to parse, not null
+   * @return the template
+   */
+  public static FieldSubstitutionTemplate compile( String aString ) {
+    List<String> literals = new ArrayList<>();
+    List<String> fieldNames = new ArrayList<>();
+    int start = 0;
+    int i = aString.indexOf( StringUtil.FIELD_OPEN );
+    while ( i > -1 ) {
+      int j = aString.indexOf( StringUtil.FIELD_CLOSE, i + StringUtil.FIELD_OPEN.length() );
+      if ( j < 0 ) {
+        // no closing tag found; the rest is literal
+        break;
+      }
+      literals.add( aString.substring( start, i ) );
+      fieldNames.add( aString.substring( i + StringUtil.FIELD_OPEN.length(), j ) );
+      start = j + StringUtil.FIELD_CLOSE.length();
+      i = aString.indexOf( StringUtil.FIELD_OPEN, start );
+    }
+    literals.add( aString.substring( start ) );
+    return new FieldSubstitutionTemplate( aString, literals.toArray( new String[ 0 ] ),
+      fieldNames.toArray( new String[ 0 ] ) );
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * @return true if the template has field references
+   */
+  public boolean hasFields() {
+    return fieldNames.length > 0;
+  }
+
+  /**
+   * Fills in the field values of a row. Please note that the getString() method is used to convert to a String.
+   *
+   * @param rowMeta
+   *          The row metadata to use.
+   * @param rowData
+   *          The row data to use
+   * @return the string with the substitution applied.
+   * @throws KettleValueException
+   *           In case there is a String conversion error
+   */
+  public String substitute( RowMetaInterface rowMeta, Object[] rowData ) throws KettleValueException {
+    if ( fieldNames.length == 0 ) {
+      return template;
+    }
+    Layout current = layout;
+    if ( current == null || !current.isFor( rowMeta ) ) {
+      current = new Layout( rowMeta, fieldNames );
+      layout = current;
+    }
+
+    StringBuilder buffer = new StringBuilder( template.length() + 16 * fieldNames.length );
+    for ( int f = 0; f < fieldNames.length; f++ ) {
+      buffer.append( literals[ f ] );
+      int index = current.indexes[ f ];
+      String value = index < 0 ? null : rowMeta.getString( rowData, index );
+      if ( value == null ) {
+        buffer.append( StringUtil.FIELD_OPEN ).append( fieldNames[ f ] ).append( StringUtil.FIELD_CLOSE );
+      } else if ( value.contains( StringUtil.FIELD_OPEN ) ) {
+        // Field references in the values are substituted as well
+        return StringUtil.substituteField( template, rowMeta, rowData );
+      } else {
+        buffer.append( value );
+      }
+    }
+    buffer.append( literals[ fieldNames.length ] );
+    return buffer.toString();
+  }
+}
@@ -18,6 +18,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
+import org.pentaho.di.core.util.FieldSubstitutionTemplate;
 import org.pentaho.di.core.util.StringUtil;
 import org.pentaho.di.version.BuildVersion;
 
@@ -27,13 +28,29 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * This class is an implementation of VariableSpace
+ * This class is an implementation of VariableSpace<br>
+ * <br>
+ * The strings with variables are substituted once for as long as the variables don't change: steps substitute the same
+ * file names, URLs and SQL for every row. The strings with field references are parsed once as well, see
+ * {@link FieldSubstitutionTemplate}.
  *
  * @author Sven Boden
  */
 public class Variables implements VariableSpace {
+  /**
+   * The maximum number of strings kept in the caches of a variable space, they are cleared when it is reached
+   */
+  static final int MAX_CACHED_SUBSTITUTIONS = 1000;
+
   private Map<String, String> properties;
 
+  /**
+   * The substituted strings, replaced by an empty cache as soon as the variables change
+   */
+  private volatile Substitutions substitutions = new Substitutions();
+
+  private final Map<String, FieldSubstitutionTemplate> fieldTemplates = new ConcurrentHashMap<>();
+
   private VariableSpace parent;
 
   private Map<String, String> injection;
@@ -64,6 +81,15 @@ public class Variables implements VariableSpace {
     properties.put( Const.INTERNAL_VARIABLE_KETTLE_BUILD_DATE, buildDate );
   }
 
+  private static class Substitutions {
+    private final Map<String, String> substituted = new ConcurrentHashMap<>();
+    private final Map<String, String> substitutedEscapingHex = new ConcurrentHashMap<>();
+
+    Map<String, String> get( boolean escapeHexDelimiter ) {
+      return escapeHexDelimiter ? substitutedEscapingHex : substituted;
+    }
+  }
+
   @Override
   public void copyVariablesFrom( VariableSpace space ) {
     if ( space != null && this != space ) {
@@ -73,9 +99,17 @@ public class Variables implements VariableSpace {
       for ( int idx = 0; idx < variableNames.length; idx++ ) {
         properties.put( variableNames[idx], space.getVariable( variableNames[idx] ) );
       }
+      variablesChanged();
     }
   }
 
+  /**
+   * Drops the substituted strings, after the variables are changed.
+   */
+  private void variablesChanged() {
+    substitutions = new Substitutions();
+  }
+
   @Override
   public VariableSpace getParentVariableSpace() {
     return parent;
@@ -135,6 +169,7 @@ public class Variables implements VariableSpace {
       injection = null;
     }
     initialized = true;
+    variablesChanged();
   }
 
   @Override
@@ -150,15 +185,12 @@ public class Variables implements VariableSpace {
     } else {
       properties.remove( variableName );
     }
+    variablesChanged();
   }
 
   @Override
   public String environmentSubstitute( String aString ) {
-    if ( aString == null || aString.length() == 0 ) {
-      return aString;
-    }
-
-    return StringUtil.environmentSubstitute( aString, properties );
+    return environmentSubstitute( aString, false );
   }
 
   @Override
@@ -166,8 +198,22 @@ public class Variables implements VariableSpace {
     if ( aString == null || aString.length() == 0 ) {
       return aString;
     }
+    if ( aString.indexOf( '$' ) < 0 && !aString.contains( StringUtil.WINDOWS_OPEN ) ) {
+      // Nothing to substitute
+      return aString;
+    }
 
-    return StringUtil.environmentSubstitute( aString, properties, escapeHexDelimiter );
+    // Taken before the variables are read: a change while substituting drops this cache
+    Map<String, String> substituted = substitutions.get( escapeHexDelimiter );
+    String result = substituted.get( aString );
+    if ( result == null ) {
+      result = StringUtil.environmentSubstitute( aString, properties, escapeHexDelimiter );
+      if ( substituted.size() >= MAX_CACHED_SUBSTITUTIONS ) {
+        substituted.clear();
+      }
+      substituted.put( aString, result );
+    }
+    return result;
   }
 
   /**
@@ -193,7 +239,15 @@ public class Variables implements VariableSpace {
       return aString;
     }
 
-    return StringUtil.substituteField( aString, rowMeta, rowData );
+    FieldSubstitutionTemplate template = fieldTemplates.get( aString );
+    if ( template == null ) {
+      template = FieldSubstitutionTemplate.compile( aString );
+      if ( fieldTemplates.size() >= MAX_CACHED_SUBSTITUTIONS ) {
+        fieldTemplates.clear();
+      }
+      fieldTemplates.put( aString, template );
+    }
+    return template.substitute( rowMeta, rowData );
   }
 
   @Override
@@ -224,6 +278,7 @@ public class Variables implements VariableSpace {
           }
         }
         injection = null;
+        variablesChanged();
       }
     } else {
       // We have our own personal copy, so changes afterwards
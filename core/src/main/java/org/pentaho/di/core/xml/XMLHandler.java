@@ -157,13 +157,17 @@ public class XMLHandler {
       return null;
     }
 
-    Boolean xmlEmptyTagYieldsEmptyValue = convertStringToBoolean(
-      Const.NVL( System.getProperty( Const.KETTLE_XML_EMPTY_TAG_YIELDS_EMPTY_VALUE, "N" ), "N" ) );
+    // Only looked up once the tag is found, this is called for every tag of every step that is loaded
+    Boolean xmlEmptyTagYieldsEmptyValue = null;
 
     children = n.getChildNodes();
     for ( int i = 0; i < children.getLength(); i++ ) {
       childnode = children.item( i );
       if ( childnode.getNodeName().equalsIgnoreCase( tag ) ) {
+        if ( xmlEmptyTagYieldsEmptyValue == null ) {
+          xmlEmptyTagYieldsEmptyValue = convertStringToBoolean(
+            Const.NVL( System.getProperty( Const.KETTLE_XML_EMPTY_TAG_YIELDS_EMPTY_VALUE, "N" ), "N" ) );
+        }
         if ( xmlEmptyTagYieldsEmptyValue ) {
           return childnode.getTextContent();
         } else {
@@ -177,4 +177,29 @@ public class RowSetTest {
     assertEquals( set.toString(), set.getName() );
     assertEquals( "from.2 - to.3", set.getName() );
   }
+
+  /**
+   * Batch transport test.
+   */
+  @Test
+  public void testPutAndGetRows() {
+    RowSet set = new BlockingRowSet( 3 );
+    RowMetaInterface rm = createRowMetaInterface();
+
+    Object[][] rows = new Object[][] { { 1L }, { 2L }, { 3L }, { 4L } };
+
+    // The 4th row doesn't fit
+    assertEquals( 3, set.putRows( rm, rows, rows.length ) );
+    assertEquals( 3, set.size() );
+
+    Object[][] batch = set.getRows( 2 );
+    assertEquals( 2, batch.length );
+    assertEquals( 1L, batch[0][0] );
+    assertEquals( 2L, batch[1][0] );
+
+    batch = set.getRows( 10 );
+    assertEquals( 1, batch.length );
+    assertEquals( 3L, batch[0][0] );
+    assertEquals( 0, set.getRows( 10 ).length );
+  }
 }
@@ -0,0 +1,165 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpscRingBufferRowSetTest {
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "ROWNR" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testCapacityIsRoundedToPowerOfTwo() {
+    SpscRingBufferRowSet set = new SpscRingBufferRowSet( 10 );
+    assertEquals( 16, set.getCapacity() );
+    assertEquals( 0, set.size() );
+    assertFalse( set.isDone() );
+  }
+
+  @Test
+  public void testPutAndGetInOrder() {
+    SpscRingBufferRowSet set = new SpscRingBufferRowSet( 4, SpscRingBufferRowSet.WaitStrategy.SPIN );
+    RowMetaInterface rowMeta = createRowMeta();
+
+    for ( long i = 0; i < 4; i++ ) {
+      assertTrue( set.putRow( rowMeta, new Object[] { i } ) );
+    }
+    assertEquals( 4, set.size() );
+    assertSame( rowMeta, set.getRowMeta() );
+
+    // The buffer is full: the put should time out.
+    assertFalse( set.putRowWait( rowMeta, new Object[] { 4L }, 1, TimeUnit.MILLISECONDS ) );
+
+    for ( long i = 0; i < 4; i++ ) {
+      assertEquals( i, set.getRowImmediate()[0] );
+    }
+    assertNull( set.getRowImmediate() );
+    assertNull( set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 0, set.size() );
+  }
+
+  @Test
+  public void testPutAndGetBatches() {
+    SpscRingBufferRowSet set = new SpscRingBufferRowSet( 4 );
+    RowMetaInterface rowMeta = createRowMeta();
+    Object[][] rows = new Object[6][];
+    for ( int i = 0; i < rows.length; i++ ) {
+      rows[i] = new Object[] { (long) i };
+    }
+
+    // Only 4 rows fit in the buffer
+    assertEquals( 4, set.putRows( rowMeta, rows, rows.length ) );
+    assertEquals( 4, set.size() );
+
+    Object[][] batch = set.getRows( 3 );
+    assertEquals( 3, batch.length );
+    for ( int i = 0; i < batch.length; i++ ) {
+      assertSame( rows[i], batch[i] );
+    }
+
+    batch = set.getRows( 10 );
+    assertEquals( 1, batch.length );
+    assertSame( rows[3], batch[0] );
+    assertEquals( 0, set.getRows( 10 ).length );
+  }
+
+  @Test
+  public void testClear() {
+    SpscRingBufferRowSet set = new SpscRingBufferRowSet( 4 );
+    set.putRow( createRowMeta(), new Object[] { 1L } );
+    set.setDone();
+    set.clear();
+
+    assertEquals( 0, set.size() );
+    assertFalse( set.isDone() );
+    assertNull( set.getRowImmediate() );
+  }
+
+  @Test
+  public void testWaitStrategyLookup() {
+    assertEquals( SpscRingBufferRowSet.WaitStrategy.PARK,
+      SpscRingBufferRowSet.WaitStrategy.getWaitStrategy( "park", SpscRingBufferRowSet.WaitStrategy.YIELD ) );
+    assertEquals( SpscRingBufferRowSet.WaitStrategy.YIELD,
+      SpscRingBufferRowSet.WaitStrategy.getWaitStrategy( "unknown", SpscRingBufferRowSet.WaitStrategy.YIELD ) );
+    assertEquals( SpscRingBufferRowSet.WaitStrategy.SPIN,
+      SpscRingBufferRowSet.WaitStrategy.getWaitStrategy( null, SpscRingBufferRowSet.WaitStrategy.SPIN ) );
+  }
+
+  @Test( timeout = 30000 )
+  public void testConcurrentProducerConsumer() throws Exception {
+    for ( SpscRingBufferRowSet.WaitStrategy strategy : SpscRingBufferRowSet.WaitStrategy.values() ) {
+      final SpscRingBufferRowSet set = new SpscRingBufferRowSet( 8, strategy );
+      final RowMetaInterface rowMeta = createRowMeta();
+      final int nrRows = 100000;
+      final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+      Thread producer = new Thread( () -> {
+        for ( long i = 0; i < nrRows; i++ ) {
+          Object[] row = new Object[] { i };
+          while ( !set.putRow( rowMeta, row ) ) {
+            // retry until there is room
+          }
+        }
+        set.setDone();
+      } );
+      Thread consumer = new Thread( () -> {
+        try {
+          long expected = 0;
+          while ( true ) {
+            Object[] row = set.getRow();
+            if ( row == null ) {
+              if ( set.isDone() && set.size() == 0 ) {
+                row = set.getRowImmediate();
+                if ( row == null ) {
+                  break;
+                }
+              } else {
+                continue;
+              }
+            }
+            assertEquals( expected++, row[0] );
+          }
+          assertEquals( nrRows, expected );
+        } catch ( Throwable t ) {
+          failure.set( t );
+        }
+      } );
+
+      producer.start();
+      consumer.start();
+      producer.join();
+      consumer.join();
+
+      if ( failure.get() != null ) {
+        throw new AssertionError( "Failure using wait strategy " + strategy, failure.get() );
+      }
+    }
+  }
+}
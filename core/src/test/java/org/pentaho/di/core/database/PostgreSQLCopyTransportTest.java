@@ -0,0 +1,131 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.TimeZone;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaSerializable;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.row.value.ValueMetaTimestamp;
+
+public class PostgreSQLCopyTransportTest {
+
+  private DatabaseMeta databaseMeta;
+
+  @Before
+  public void setUp() {
+    databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.quoteField( anyString() ) )
+      .thenAnswer( invocation -> "\"" + invocation.getArgument( 0 ) + "\"" );
+    when( databaseMeta.getQuotedSchemaTableCombination( "public", "sales" ) ).thenReturn( "\"public\".\"sales\"" );
+    when( databaseMeta.supportsBooleanDataType() ).thenReturn( true );
+    when( databaseMeta.supportsTimeStampToDateConversion() ).thenReturn( true );
+  }
+
+  @Test
+  public void testCopySQL() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    assertEquals( "COPY \"public\".\"sales\" (\"id\", \"name\") FROM STDIN WITH CSV",
+      PostgreSQLCopyTransport.getCopySQL( databaseMeta, "public", "sales", rowMeta ) );
+  }
+
+  @Test
+  public void testCanLoad() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    // Not a connection of the PostgreSQL driver
+    assertFalse( new PostgreSQLCopyTransport().canLoad( mock( Connection.class ), rowMeta ) );
+
+    rowMeta.addValueMeta( new ValueMetaSerializable( "object" ) );
+    assertFalse( new PostgreSQLCopyTransport().canLoad( mock( Connection.class ), rowMeta ) );
+  }
+
+  @Test
+  public void testRows() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "price" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "total" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "paid" ) );
+    rowMeta.addValueMeta( new ValueMetaBinary( "data" ) );
+
+    PostgreSQLCopyTransport.RowFormatter formatter = new PostgreSQLCopyTransport.RowFormatter( databaseMeta, rowMeta );
+    StringBuilder lines = new StringBuilder();
+    formatter.appendRow( lines, new Object[] { 1L, "Z\u00fcrich, \"CH\"\nline 2", 1.5, new BigDecimal( "1E+3" ), true,
+      new byte[] { 0, (byte) 0xAB } } );
+    formatter.appendRow( lines, new Object[] { null, null, null, null, null, null } );
+
+    assertEquals( "1,\"Z\u00fcrich, \"\"CH\"\"\nline 2\",1.5,1000,t,\\x00ab\n,,,,,\n", lines.toString() );
+  }
+
+  @Test
+  public void testBooleansWithoutBooleanType() throws Exception {
+    when( databaseMeta.supportsBooleanDataType() ).thenReturn( false );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaBoolean( "paid" ) );
+
+    StringBuilder lines = new StringBuilder();
+    new PostgreSQLCopyTransport.RowFormatter( databaseMeta, rowMeta ).appendRow( lines, new Object[] { false } );
+    assertEquals( "\"N\"\n", lines.toString() );
+  }
+
+  @Test
+  public void testDates() throws Exception {
+    TimeZone utc = TimeZone.getTimeZone( "UTC" );
+    ValueMetaInterface timestamp = new ValueMetaDate( "timestamp" );
+    timestamp.setDateFormatTimeZone( utc );
+    ValueMetaInterface date = new ValueMetaDate( "date" );
+    date.setDateFormatTimeZone( utc );
+    date.setPrecision( 1 );
+    ValueMetaInterface nanos = new ValueMetaTimestamp( "nanos" );
+    nanos.setDateFormatTimeZone( utc );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( timestamp );
+    rowMeta.addValueMeta( date );
+    rowMeta.addValueMeta( nanos );
+
+    // 2024-02-29 13:14:15.123456789 UTC
+    Timestamp value = new Timestamp( 1709212455123L );
+    value.setNanos( 123456789 );
+    StringBuilder lines = new StringBuilder();
+    new PostgreSQLCopyTransport.RowFormatter( databaseMeta, rowMeta ).appendRow( lines,
+      new Object[] { new java.util.Date( value.getTime() ), new java.sql.Date( value.getTime() ), value } );
+
+    assertEquals( "2024-02-29 13:14:15.123000000+00:00,2024-02-29,2024-02-29 13:14:15.123456789+00:00\n",
+      lines.toString() );
+  }
+}
@@ -0,0 +1,157 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Test class for the basic functionality of ColumnarHashIndex.
+ */
+public class ColumnarHashIndexTest {
+
+  private static RowMetaInterface createValueMeta() {
+    RowMetaInterface valueMeta = new RowMeta();
+    valueMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    valueMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    valueMeta.addValueMeta( new ValueMetaString( "str" ) );
+    valueMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    return valueMeta;
+  }
+
+  @Test
+  public void testIsSupported() {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    keyMeta.addValueMeta( new ValueMetaString( "str" ) );
+    keyMeta.addValueMeta( new ValueMetaBigNumber( "big" ) );
+    assertTrue( ColumnarHashIndex.isSupported( keyMeta ) );
+
+    keyMeta.getValueMeta( 1 ).setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    assertFalse( ColumnarHashIndex.isSupported( keyMeta ) );
+
+    keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaBinary( "bin" ) );
+    assertFalse( ColumnarHashIndex.isSupported( keyMeta ) );
+    assertFalse( ColumnarHashIndex.isSupported( new RowMeta() ) );
+  }
+
+  @Test
+  public void testPutAndGetLongKeys() throws KettleValueException {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    ColumnarHashIndex index = new ColumnarHashIndex( keyMeta, createValueMeta(), 0 );
+
+    Date date = new Date( 1000L );
+    for ( long i = 0; i < 10000; i++ ) {
+      index.put( new Object[] { i }, new Object[] { i * 2, i / 2.0, "s" + ( i % 10 ), i == 5 ? date : null } );
+    }
+    assertEquals( 10000, index.getSize() );
+
+    for ( long i = 0; i < 10000; i++ ) {
+      Object[] values = index.get( new Object[] { i } );
+      assertEquals( i * 2, values[0] );
+      assertEquals( i / 2.0, values[1] );
+      assertEquals( "s" + ( i % 10 ), values[2] );
+      assertEquals( i == 5 ? date : null, values[3] );
+    }
+    assertNull( index.get( new Object[] { 10000L } ) );
+    assertEquals( -1, index.find( new Object[] { -1L } ) );
+  }
+
+  @Test
+  public void testPutReplacesValues() throws KettleValueException {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "code" ) );
+    ColumnarHashIndex index = new ColumnarHashIndex( keyMeta, createValueMeta() );
+
+    index.put( new Object[] { "a" }, new Object[] { 1L, 1.0, "one", null } );
+    index.put( new Object[] { "a" }, new Object[] { null, null, null, null } );
+
+    assertEquals( 1, index.getSize() );
+    assertArrayEquals( new Object[] { null, null, null, null }, index.get( new Object[] { "a" } ) );
+    assertNull( index.get( new Object[] { "b" } ) );
+  }
+
+  @Test
+  public void testCompositeKeysWithNulls() throws KettleValueException {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "str" ) );
+    keyMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    keyMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+    keyMeta.addValueMeta( new ValueMetaBigNumber( "big" ) );
+    RowMetaInterface valueMeta = new RowMeta();
+    valueMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    ColumnarHashIndex index = new ColumnarHashIndex( keyMeta, valueMeta );
+
+    index.put( new Object[] { "a", 1.5, true, new BigDecimal( "10" ) }, new Object[] { 1L } );
+    index.put( new Object[] { "a", null, true, new BigDecimal( "10" ) }, new Object[] { 2L } );
+    index.put( new Object[] { null, 1.5, false, null }, new Object[] { 3L } );
+
+    assertEquals( 1L, index.get( new Object[] { "a", 1.5, true, new BigDecimal( "10" ) } )[0] );
+    assertEquals( 2L, index.get( new Object[] { "a", null, true, new BigDecimal( "10" ) } )[0] );
+    assertEquals( 3L, index.get( new Object[] { null, 1.5, false, null } )[0] );
+    assertNull( index.get( new Object[] { "a", 0.0, true, new BigDecimal( "10" ) } ) );
+    assertNull( index.get( new Object[] { "a", 1.5, false, new BigDecimal( "10" ) } ) );
+    assertNull( index.get( new Object[] { null, 1.5, false, new BigDecimal( "10" ) } ) );
+  }
+
+  @Test
+  public void testGetValuesReusesTarget() throws KettleValueException {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    ColumnarHashIndex index = new ColumnarHashIndex( keyMeta, createValueMeta() );
+    index.put( new Object[] { 1L }, new Object[] { 10L, 1.0, "x", null } );
+
+    Object[] target = new Object[4];
+    int entry = index.find( new Object[] { 1L } );
+    assertTrue( target == index.getValues( entry, target ) );
+    assertEquals( 10L, target[0] );
+  }
+
+  @Test
+  public void testEstimateMemory() throws KettleValueException {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    RowMetaInterface valueMeta = new RowMeta();
+    valueMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    ColumnarHashIndex index = new ColumnarHashIndex( keyMeta, valueMeta, 100000 );
+    for ( long i = 0; i < 100000; i++ ) {
+      index.put( new Object[] { i }, new Object[] { i } );
+    }
+
+    // A long key, a hash code, a long value and the slots of the index
+    long bytesPerEntry = index.estimateMemory() / index.getSize();
+    assertTrue( "Bytes per entry: " + bytesPerEntry, bytesPerEntry >= 20 && bytesPerEntry < 64 );
+  }
+}
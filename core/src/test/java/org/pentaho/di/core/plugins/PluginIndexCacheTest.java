@@ -0,0 +1,141 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginIndexCacheTest {
+
+  private static final String STEP_ANNOTATION = "org.pentaho.di.core.annotations.Step";
+
+  private File folder;
+  private File cacheFile;
+  private File jar;
+
+  @Before
+  public void setUp() throws IOException {
+    folder = Files.createTempDirectory( "PluginIndexCacheTest" ).toFile();
+    cacheFile = new File( folder, PluginIndexCache.CACHE_FILENAME );
+    jar = new File( folder, "plugin.jar" );
+    writeJar( 10 );
+  }
+
+  @After
+  public void tearDown() {
+    for ( File file : folder.listFiles() ) {
+      file.delete();
+    }
+    folder.delete();
+  }
+
+  @Test
+  public void testReadsSavedIndex() throws IOException {
+    PluginIndexCache cache = new PluginIndexCache( cacheFile );
+    assertNull( cache.getAnnotationIndex( jar ) );
+    cache.putAnnotationIndex( jar, getIndex() );
+    assertTrue( cache.isChanged() );
+    cache.save();
+    assertFalse( cache.isChanged() );
+
+    PluginIndexCache read = new PluginIndexCache( cacheFile );
+    assertEquals( getIndex(), read.getAnnotationIndex( jar ) );
+    assertFalse( read.isChanged() );
+  }
+
+  @Test
+  public void testChangedJarIsScannedAgain() throws IOException {
+    PluginIndexCache cache = new PluginIndexCache( cacheFile );
+    cache.putAnnotationIndex( jar, getIndex() );
+    cache.save();
+
+    writeJar( 20 );
+    assertNull( new PluginIndexCache( cacheFile ).getAnnotationIndex( jar ) );
+  }
+
+  @Test
+  public void testRemovedJarIsLeftOut() throws IOException {
+    File other = new File( folder, "other.jar" );
+    Files.copy( jar.toPath(), other.toPath() );
+    long lastModified = other.lastModified();
+    PluginIndexCache cache = new PluginIndexCache( cacheFile );
+    cache.putAnnotationIndex( jar, getIndex() );
+    cache.putAnnotationIndex( other, getIndex() );
+    cache.save();
+
+    // The next start scans a new version of the jar, the other one is gone
+    other.delete();
+    writeJar( 20 );
+    cache = new PluginIndexCache( cacheFile );
+    cache.putAnnotationIndex( jar, Collections.emptyMap() );
+    cache.save();
+
+    // The same other jar is back
+    try ( OutputStream out = new FileOutputStream( other ) ) {
+      out.write( new byte[ 10 ] );
+    }
+    other.setLastModified( lastModified );
+    cache = new PluginIndexCache( cacheFile );
+    assertEquals( Collections.emptyMap(), cache.getAnnotationIndex( jar ) );
+    assertNull( cache.getAnnotationIndex( other ) );
+  }
+
+  @Test
+  public void testDamagedCacheFileIsIgnored() throws IOException {
+    try ( OutputStream out = new FileOutputStream( cacheFile ) ) {
+      out.write( new byte[] { 0, 0, 0, 1, 0, 0, 0, 5, 1 } );
+    }
+    PluginIndexCache cache = new PluginIndexCache( cacheFile );
+    assertNull( cache.getAnnotationIndex( jar ) );
+    assertTrue( cache.isChanged() );
+
+    cache.putAnnotationIndex( jar, getIndex() );
+    cache.save();
+    assertEquals( getIndex(), new PluginIndexCache( cacheFile ).getAnnotationIndex( jar ) );
+  }
+
+  private static Map<String, Set<String>> getIndex() {
+    Map<String, Set<String>> index = new HashMap<>();
+    index.put( STEP_ANNOTATION, new LinkedHashSet<>( Arrays.asList( "org.example.FirstStep", "org.example.Second" ) ) );
+    index.put( Deprecated.class.getName(), Collections.singleton( "org.example.Second" ) );
+    return index;
+  }
+
+  private void writeJar( int size ) throws IOException {
+    long lastModified = jar.lastModified();
+    try ( OutputStream out = new FileOutputStream( jar ) ) {
+      out.write( new byte[ size ] );
+    }
+    // Not the same size and modification time as before
+    jar.setLastModified( Math.max( lastModified + 2000L, System.currentTimeMillis() ) );
+  }
+}
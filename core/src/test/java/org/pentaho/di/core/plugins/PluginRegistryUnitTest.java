@@ -15,6 +15,8 @@ package org.pentaho.di.core.plugins;
 
 import org.junit.ClassRule;
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettlePluginClassMapException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.extension.PluginMockInterface;
@@ -25,18 +27,26 @@ import org.pentaho.di.core.row.value.ValueMetaPluginType;
 import org.pentaho.di.junit.rules.RestorePDIEnvironment;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -218,4 +228,39 @@ public class PluginRegistryUnitTest {
     registry.registerPlugin( ValueMetaPluginType.class, plugin );
     assertEquals( 1, registry.getCategories( ValueMetaPluginType.class ).size() );
   }
+
+  @Test
+  public void testRegisterTypesKeepsExtensionsAndUnknownTypesOnTheCallingThread() throws Exception {
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = Collections.synchronizedList( new ArrayList<>() );
+    PluginTypeInterface firstType = mock( PluginTypeInterface.class );
+    PluginTypeInterface secondType = mock( PluginTypeInterface.class );
+    doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( firstType ).searchPlugins();
+    doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( secondType ).searchPlugins();
+    PluginRegistryExtension extension = mock( PluginRegistryExtension.class );
+    doAnswer( invocation -> threads.add( Thread.currentThread() ) ).when( extension ).searchForType( any() );
+
+    Field extensionsField = PluginRegistry.class.getDeclaredField( "extensions" );
+    extensionsField.setAccessible( true );
+    @SuppressWarnings( "unchecked" )
+    Set<PluginRegistryExtension> extensions = (Set<PluginRegistryExtension>) extensionsField.get( null );
+    extensions.add( extension );
+    System.setProperty( Const.KETTLE_PLUGIN_REGISTRATION_THREADS, "4" );
+    try {
+      PluginRegistry.getInstance().registerTypes( Arrays.asList( firstType, secondType ) );
+    } finally {
+      System.clearProperty( Const.KETTLE_PLUGIN_REGISTRATION_THREADS );
+      extensions.remove( extension );
+    }
+
+    // Mocked types are not known to be thread safe: they are searched on the calling thread, like the extensions
+    //
+    assertEquals( 4, threads.size() );
+    for ( Thread thread : threads ) {
+      assertSame( caller, thread );
+    }
+    InOrder inOrder = inOrder( extension );
+    inOrder.verify( extension ).searchForType( firstType );
+    inOrder.verify( extension ).searchForType( secondType );
+  }
 }
@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+public class BinaryStringSliceTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private static final byte[] ROW = "abc,Z\u00fcrich,,42,abd".getBytes( StandardCharsets.UTF_8 );
+
+  @Test
+  public void testSlice() throws Exception {
+    BinaryStringSlice abc = slice( 0, 3 );
+    assertEquals( "abc", abc.toString( "UTF-8" ) );
+    assertArrayEquals( "abc".getBytes( StandardCharsets.UTF_8 ), abc.toByteArray() );
+    assertEquals( "abc".hashCode(), abc.hashCode() );
+    assertEquals( abc, new BinaryStringSlice( "abc".getBytes( StandardCharsets.UTF_8 ) ) );
+    assertTrue( abc.compareTo( slice( ROW.length - 3, 3 ) ) < 0 );
+    assertTrue( abc.isAscii() );
+    assertFalse( slice( 4, 7 ).isAscii() );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    slice( 4, 7 ).writeTo( out );
+    assertEquals( "Z\u00fcrich", out.toString( "UTF-8" ) );
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void testSliceOutsideOfBuffer() {
+    slice( ROW.length - 2, 3 );
+  }
+
+  @Test
+  public void testStringStorage() throws Exception {
+    ValueMetaInterface meta = sliceMeta( new ValueMetaString( "string" ) );
+    assertEquals( "Z\u00fcrich", meta.getString( slice( 4, 7 ) ) );
+    assertEquals( "abc", meta.convertToNormalStorageType( slice( 0, 3 ) ) );
+    assertTrue( meta.isNull( slice( 12, 0 ) ) );
+    assertTrue( meta.isNull( null ) );
+    assertFalse( meta.isNull( slice( 0, 3 ) ) );
+    assertArrayEquals( "abc".getBytes( StandardCharsets.UTF_8 ), meta.getBinaryString( slice( 0, 3 ) ) );
+
+    // Compared and hashed the same way as the strings, decoded or not
+    //
+    assertTrue( meta.compare( slice( 0, 3 ), slice( ROW.length - 3, 3 ) ) < 0 );
+    assertEquals( 0, meta.compare( slice( 0, 3 ), new BinaryStringSlice( "abc".getBytes( StandardCharsets.UTF_8 ) ) ) );
+    assertTrue( meta.compare( slice( 4, 7 ), slice( 0, 3 ) ) < 0 );
+    assertEquals( meta.hashCode( slice( 0, 3 ) ), meta.hashCode( new BinaryStringSlice( "abc".getBytes() ) ) );
+
+    ValueMetaInterface normal = new ValueMetaString( "string" );
+    assertEquals( 0, meta.compare( slice( 0, 3 ), normal, "abc" ) );
+    assertEquals( 0, normal.compare( "abc", meta, slice( 0, 3 ) ) );
+  }
+
+  @Test
+  public void testCompareUsesTheStorageConversionMask() throws Exception {
+    byte[] bytes = "2024/03/15".getBytes( StandardCharsets.UTF_8 );
+    Date date = new SimpleDateFormat( "yyyy/MM/dd" ).parse( "2024/03/15" );
+    ValueMetaInterface normal = new ValueMetaDate( "date" );
+    normal.setConversionMask( "dd-MM-yyyy" );
+
+    ValueMetaInterface binaryString = sliceMeta( new ValueMetaDate( "date" ) );
+    binaryString.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    binaryString.getStorageMetadata().setConversionMask( "yyyy/MM/dd" );
+    ValueMetaInterface slice = sliceMeta( new ValueMetaDate( "date" ) );
+    slice.getStorageMetadata().setConversionMask( "yyyy/MM/dd" );
+
+    // The date is converted with the mask of the stored dates, not with the one of the normal value
+    //
+    assertEquals( 0, binaryString.compare( bytes, normal, date ) );
+    assertEquals( 0, slice.compare( new BinaryStringSlice( bytes ), normal, date ) );
+  }
+
+  @Test
+  public void testIntegerStorage() throws Exception {
+    ValueMetaInterface meta = sliceMeta( new ValueMetaInteger( "integer" ) );
+    assertEquals( Long.valueOf( 42L ), meta.getInteger( slice( 13, 2 ) ) );
+    assertEquals( Long.valueOf( 42L ), meta.convertToNormalStorageType( slice( 13, 2 ) ) );
+    assertNull( meta.getInteger( slice( 12, 0 ) ) );
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    ValueMetaInterface meta = sliceMeta( new ValueMetaString( "string" ) );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream( bytes );
+    meta.writeMeta( out );
+    meta.writeData( out, slice( 4, 7 ) );
+    meta.writeData( out, null );
+    out.close();
+
+    DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+    ValueMetaInterface read = new ValueMetaString( "string" );
+    assertEquals( ValueMetaInterface.TYPE_STRING, in.readInt() );
+    read.readMetaData( in );
+    assertEquals( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING_SLICE, read.getStorageType() );
+    assertEquals( slice( 4, 7 ), read.readData( in ) );
+    assertNull( read.readData( in ) );
+  }
+
+  private static BinaryStringSlice slice( int offset, int length ) {
+    return new BinaryStringSlice( ROW, offset, length );
+  }
+
+  private static ValueMetaInterface sliceMeta( ValueMetaInterface meta ) throws Exception {
+    meta.setStringEncoding( "UTF-8" );
+    ValueMetaInterface storageMetadata = ValueMetaFactory.cloneValueMeta( meta, ValueMetaInterface.TYPE_STRING );
+    storageMetadata.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    meta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING_SLICE );
+    meta.setStorageMetadata( storageMetadata );
+    return meta;
+  }
+}
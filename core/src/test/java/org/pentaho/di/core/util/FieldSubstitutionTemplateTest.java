@@ -0,0 +1,71 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class FieldSubstitutionTemplateTest {
+
+  @Test
+  public void testSameAsStringUtil() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "empty" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "nested" ) );
+    Object[] row = new Object[] { "Pentaho", 42L, null, "?{name}" };
+
+    String[] templates = new String[] { "", "no fields", "?{name}", "http://host/?{name}/?{id}?x=?{missing}",
+      "?{empty}-?{id}", "?{name", "?{}?{id}}", "before ?{nested} after", "?{id}?{id}" };
+    for ( String template : templates ) {
+      assertEquals( template, StringUtil.substituteField( template, rowMeta, row ),
+        FieldSubstitutionTemplate.compile( template ).substitute( rowMeta, row ) );
+    }
+  }
+
+  @Test
+  public void testNewRowLayout() throws Exception {
+    FieldSubstitutionTemplate template = FieldSubstitutionTemplate.compile( "/data/?{a}.txt" );
+    assertTrue( template.hasFields() );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "a" ) );
+    assertEquals( "/data/one.txt", template.substitute( rowMeta, new Object[] { "one" } ) );
+    assertEquals( "/data/two.txt", template.substitute( rowMeta, new Object[] { "two" } ) );
+
+    RowMetaInterface other = new RowMeta();
+    other.addValueMeta( new ValueMetaString( "b" ) );
+    other.addValueMeta( new ValueMetaString( "a" ) );
+    assertEquals( "/data/three.txt", template.substitute( other, new Object[] { "x", "three" } ) );
+
+    // The same row metadata with a field added
+    rowMeta.addValueMeta( 0, new ValueMetaString( "c" ) );
+    assertEquals( "/data/four.txt", template.substitute( rowMeta, new Object[] { "x", "four" } ) );
+  }
+
+  @Test
+  public void testNoFields() throws Exception {
+    FieldSubstitutionTemplate template = FieldSubstitutionTemplate.compile( "${VAR}/file.txt" );
+    assertFalse( template.hasFields() );
+    assertEquals( "${VAR}/file.txt", template.substitute( new RowMeta(), new Object[ 0 ] ) );
+  }
+}
@@ -165,6 +165,57 @@ public class VariablesTest {
       vars.environmentSubstitute( new String[]{ "${VarOne}", "The${VarOne}" } ) );
   }
 
+  @Test
+  public void testSubstitutionFollowsChanges() {
+    Variables vars = new Variables();
+    vars.setVariable( "VarOne", "DataOne" );
+    assertEquals( "/DataOne/%%VarTwo%%", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+    assertEquals( "/DataOne/%%VarTwo%%", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+
+    vars.setVariable( "VarTwo", "DataTwo" );
+    assertEquals( "/DataOne/DataTwo", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+
+    vars.setVariable( "VarOne", null );
+    assertEquals( "/${VarOne}/DataTwo", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+
+    Variables parent = new Variables();
+    parent.setVariable( "VarOne", "FromParent" );
+    vars.copyVariablesFrom( parent );
+    assertEquals( "/FromParent/DataTwo", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+
+    vars.initializeVariablesFrom( null );
+    Map<String, String> injectionMap = new HashMap<>();
+    injectionMap.put( "VarOne", "Injected" );
+    vars.injectVariables( injectionMap );
+    assertEquals( "/Injected/DataTwo", vars.environmentSubstitute( "/${VarOne}/%%VarTwo%%" ) );
+  }
+
+  @Test
+  public void testSubstitutionCacheIsBounded() {
+    Variables vars = new Variables();
+    vars.setVariable( "VarOne", "DataOne" );
+    for ( int i = 0; i < Variables.MAX_CACHED_SUBSTITUTIONS * 2; i++ ) {
+      assertEquals( "DataOne" + i, vars.environmentSubstitute( "${VarOne}" + i ) );
+    }
+    assertEquals( "DataOne$[41]", vars.environmentSubstitute( "${VarOne}$[41]", true ) );
+    assertEquals( "DataOneA", vars.environmentSubstitute( "${VarOne}$[41]" ) );
+  }
+
+  @Test
+  public void testFieldSubstitutionFollowsRowLayout() throws KettleValueException {
+    RowMeta rm = new RowMeta();
+    rm.addValueMeta( new ValueMetaString( "FieldOne" ) );
+    Variables vars = new Variables();
+    assertEquals( "/DataOne/?{FieldTwo}", vars.fieldSubstitute( "/?{FieldOne}/?{FieldTwo}", rm,
+      new Object[] { "DataOne" } ) );
+
+    RowMeta other = new RowMeta();
+    other.addValueMeta( new ValueMetaString( "FieldTwo" ) );
+    other.addValueMeta( new ValueMetaString( "FieldOne" ) );
+    assertEquals( "/DataOne/DataTwo", vars.fieldSubstitute( "/?{FieldOne}/?{FieldTwo}", other,
+      new Object[] { "DataTwo", "DataOne" } ) );
+  }
+
   @Test
   public void testInjection() {
     String systemPropertyName = this.getClass().getName() + "testInjection";
@@ -339,9 +339,10 @@ public class MetaFileLoaderImpl<T> implements IMetaFileLoader<T> {
     theMeta = attemptCacheRead( realFilename );
 
     if ( theMeta == null ) {
+      // The shared cache keeps the file between executions, the one of the job only during the job
       theMeta = isTransMeta()
-        ? (T) new TransMeta( bowl, realFilename, metaStore, rep, true, transSpace, null )
-        : (T) new JobMeta( bowl, jobSpace, realFilename, rep, metaStore, null );
+        ? (T) SharedMetaFileCache.getInstance().loadTransMeta( bowl, realFilename, metaStore, rep, true, transSpace )
+        : (T) SharedMetaFileCache.getInstance().loadJobMeta( bowl, jobSpace, realFilename, rep, metaStore );
       idContainer[ 0 ] = realFilename;  //only pass back the id used in the cache, if a cache entry should be created
     }
     return theMeta;
@@ -0,0 +1,328 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.base;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.bowl.Bowl;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.extension.ExtensionPointHandler;
+import org.pentaho.di.core.extension.KettleExtensionPoint;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.repository.Repository;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.metastore.api.IMetaStore;
+
+/**
+ * A cache of the transformations and jobs loaded from files, shared by all the executions of the process: Carte
+ * servlets, job entries, mapping and executor steps. Unlike {@link MetaFileCacheImpl} it outlives a job and knows when
+ * a file changes: an entry is found by the URI of the file and its last modification time.<br>
+ * <br>
+ * The cache holds at most {@link Const#KETTLE_SHARED_META_FILE_CACHE_SIZE} entries, the least recently used one is
+ * evicted first. Every load gets its own copy of the cached meta, with its own variables, so that what an execution
+ * changes is never seen by the next one. The cache is off when the size is 0, the default.
+ */
+public class SharedMetaFileCache {
+
+  private static SharedMetaFileCache instance;
+
+  private final int maxSize;
+
+  private final Map<String, Entry> entries;
+
+  private long hits;
+
+  private long misses;
+
+  private long evictions;
+
+  private static class Entry {
+    private final long lastModified;
+    private final AbstractMeta meta;
+
+    Entry( long lastModified, AbstractMeta meta ) {
+      this.lastModified = lastModified;
+      this.meta = meta;
+    }
+  }
+
+  /**
+   * @param maxSize
+   *          the maximum number of cached transformations and jobs, 0 to disable the cache
+   */
+  SharedMetaFileCache( int maxSize ) {
+    this.maxSize = Math.max( maxSize, 0 );
+    this.entries = new LinkedHashMap<String, Entry>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest ) {
+        if ( size() > SharedMetaFileCache.this.maxSize ) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return the cache of the process, sized with {@link Const#KETTLE_SHARED_META_FILE_CACHE_SIZE}
+   */
+  public static synchronized SharedMetaFileCache getInstance() {
+    if ( instance == null ) {
+      instance =
+        new SharedMetaFileCache( Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_SHARED_META_FILE_CACHE_SIZE ),
+          0 ) );
+    }
+    return instance;
+  }
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Loads a transformation file the way {@link TransMeta#TransMeta(Bowl, String, IMetaStore, Repository, boolean,
+   * VariableSpace, org.pentaho.di.core.gui.OverwritePrompter)} does, from the cache if the file didn't change since it
+   * was last loaded.
+   *
+   * @param bowl
+   *          the bowl to resolve the file with
+   * @param filename
+   *          the name of the transformation file
+   * @param metaStore
+   *          the metastore of the transformation
+   * @param rep
+   *          the repository of the transformation, or null
+   * @param setInternalVariables
+   *          true to set the internal variables of the transformation
+   * @param parentVariableSpace
+   *          the variables to resolve the file name and the transformation with, or null
+   * @return a transformation of its own
+   * @throws KettleException
+   *           in case the transformation can't be loaded
+   */
+  public TransMeta loadTransMeta( Bowl bowl, String filename, IMetaStore metaStore, Repository rep,
+    boolean setInternalVariables, VariableSpace parentVariableSpace ) throws KettleException {
+    FileObject file = getFile( bowl, filename, parentVariableSpace );
+    long lastModified = getLastModified( file );
+    TransMeta transMeta = file == null ? null : get( TransMeta.class, file, lastModified );
+    if ( transMeta == null ) {
+      transMeta = new TransMeta( bowl, filename, metaStore, rep, setInternalVariables, parentVariableSpace, null );
+      if ( file != null ) {
+        put( file, lastModified, transMeta );
+      }
+      return transMeta;
+    }
+
+    // Leave the transformation as a load from the file does
+    //
+    if ( bowl != null ) {
+      transMeta.setBowl( bowl );
+    }
+    transMeta.setMetaStore( metaStore );
+    transMeta.setRepository( rep );
+    transMeta.shareVariablesWith( new Variables() );
+    transMeta.initializeVariablesFrom( parentVariableSpace );
+    transMeta.initializeVariablesFrom( null );
+    if ( setInternalVariables ) {
+      transMeta.setInternalKettleVariables();
+    }
+    ExtensionPointHandler.callExtensionPoint( LogChannel.GENERAL, KettleExtensionPoint.TransformationMetaLoaded.id,
+      transMeta );
+    transMeta.clearChanged();
+    return transMeta;
+  }
+
+  /**
+   * Loads a job file the way {@link JobMeta#JobMeta(Bowl, VariableSpace, String, Repository, IMetaStore,
+   * org.pentaho.di.core.gui.OverwritePrompter)} does, from the cache if the file didn't change since it was last
+   * loaded.
+   *
+   * @param bowl
+   *          the bowl to resolve the file with
+   * @param parentSpace
+   *          the variables to resolve the file name and the job with, or null
+   * @param filename
+   *          the name of the job file
+   * @param rep
+   *          the repository of the job, or null
+   * @param metaStore
+   *          the metastore of the job
+   * @return a job of its own
+   * @throws KettleException
+   *           in case the job can't be loaded
+   */
+  public JobMeta loadJobMeta( Bowl bowl, VariableSpace parentSpace, String filename, Repository rep,
+    IMetaStore metaStore ) throws KettleException {
+    FileObject file = getFile( bowl, filename, parentSpace );
+    long lastModified = getLastModified( file );
+    JobMeta jobMeta = file == null ? null : get( JobMeta.class, file, lastModified );
+    if ( jobMeta == null ) {
+      jobMeta = new JobMeta( bowl, parentSpace, filename, rep, metaStore, null );
+      if ( file != null ) {
+        put( file, lastModified, jobMeta );
+      }
+      return jobMeta;
+    }
+
+    // Leave the job as a load from the file does
+    //
+    jobMeta.setBowl( bowl );
+    jobMeta.setMetaStore( metaStore );
+    jobMeta.setRepository( rep );
+    jobMeta.shareVariablesWith( new Variables() );
+    jobMeta.initializeVariablesFrom( parentSpace );
+    ExtensionPointHandler.callExtensionPoint( LogChannel.GENERAL, KettleExtensionPoint.JobMetaLoaded.id, jobMeta );
+    jobMeta.clearChanged();
+    jobMeta.setInternalKettleVariables();
+    return jobMeta;
+  }
+
+  /**
+   * @return the file to cache the meta of, null if the cache is off or the file can't be found: the meta is then
+   *         loaded without the cache, which reports the error
+   */
+  private FileObject getFile( Bowl bowl, String filename, VariableSpace space ) {
+    if ( !isEnabled() || Utils.isEmpty( filename ) ) {
+      return null;
+    }
+    try {
+      FileObject file = space == null ? KettleVFS.getInstance( bowl ).getFileObject( filename )
+        : KettleVFS.getInstance( bowl ).getFileObject( filename, space );
+      file.refresh();
+      return file.isFile() ? file : null;
+    } catch ( KettleFileException | FileSystemException e ) {
+      return null;
+    }
+  }
+
+  private static long getLastModified( FileObject file ) {
+    if ( file == null ) {
+      return 0L;
+    }
+    try {
+      return file.getContent().getLastModifiedTime();
+    } catch ( FileSystemException e ) {
+      return 0L;
+    }
+  }
+
+  private <T extends AbstractMeta> T get( Class<T> type, FileObject file, long lastModified ) {
+    return get( type, file.getName().getURI(), lastModified );
+  }
+
+  private void put( FileObject file, long lastModified, AbstractMeta meta ) {
+    put( file.getName().getURI(), lastModified, meta );
+  }
+
+  /**
+   * @param type
+   *          TransMeta or JobMeta
+   * @param uri
+   *          the URI of the file
+   * @param lastModified
+   *          the last modification time of the file
+   * @return a copy of the cached meta, null if it isn't cached or the file changed since
+   */
+  <T extends AbstractMeta> T get( Class<T> type, String uri, long lastModified ) {
+    String key = getKey( type, uri );
+    Entry entry;
+    synchronized ( this ) {
+      entry = entries.get( key );
+      if ( entry != null && entry.lastModified != lastModified ) {
+        entries.remove( key );
+        entry = null;
+      }
+      if ( entry == null ) {
+        misses++;
+        return null;
+      }
+      hits++;
+    }
+    // The copies of an entry are made one at a time
+    synchronized ( entry ) {
+      return type.cast( copy( entry.meta ) );
+    }
+  }
+
+  /**
+   * Keeps a copy of a meta that was just loaded from a file.
+   *
+   * @param uri
+   *          the URI of the file
+   * @param lastModified
+   *          the last modification time of the file when it was loaded
+   * @param meta
+   *          the TransMeta or JobMeta
+   */
+  void put( String uri, long lastModified, AbstractMeta meta ) {
+    if ( !isEnabled() ) {
+      return;
+    }
+    AbstractMeta copy = copy( meta );
+    if ( copy != null ) {
+      synchronized ( this ) {
+        entries.put( getKey( meta.getClass(), uri ), new Entry( lastModified, copy ) );
+      }
+    }
+  }
+
+  private static String getKey( Class<?> type, String uri ) {
+    return ( JobMeta.class.isAssignableFrom( type ) ? "job:" : "trans:" ) + uri;
+  }
+
+  private static AbstractMeta copy( AbstractMeta meta ) {
+    if ( meta instanceof TransMeta ) {
+      return (TransMeta) ( (TransMeta) meta ).realClone( false );
+    } else if ( meta instanceof JobMeta ) {
+      return (JobMeta) ( (JobMeta) meta ).realClone( false );
+    }
+    return null;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+}
@@ -25,6 +25,7 @@ import org.pentaho.di.core.compress.CompressionPluginType;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.lifecycle.KettleLifecycleSupport;
+import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LoggingRegistry;
 import org.pentaho.di.core.logging.LogTablePluginType;
 import org.pentaho.di.core.plugins.CartePluginType;
@@ -50,7 +51,10 @@ import org.pentaho.di.trans.step.RowDistributionPluginType;
 
 import com.google.common.util.concurrent.SettableFuture;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -71,6 +75,11 @@ public class KettleEnvironment {
     new AtomicReference<>( null );
   private static KettleLifecycleSupport kettleLifecycleSupport;
 
+  /**
+   * The duration of the phases of the last initialization, in milliseconds.
+   */
+  private static volatile Map<String, Long> startupTimings = Collections.emptyMap();
+
   /**
    * Initializes the Kettle environment. This method will attempt to configure Simple JNDI, by simply calling
    * init(true).
@@ -126,23 +135,27 @@ public class KettleEnvironment {
       // See https://jira.pentaho.com/browse/PDI-17496
       System.setProperties( ConcurrentMapProperties.convertProperties( System.getProperties() ) );
 
+      StartupPhases phases = new StartupPhases();
       try {
         // This creates .kettle and kettle.properties...
         //
         if ( !KettleClientEnvironment.isInitialized() ) {
           KettleClientEnvironment.init();
+          phases.end( "client environment" );
         }
 
         // Configure Simple JNDI when we run in stand-alone mode (spoon, pan, kitchen, carte, ... NOT on the platform
         //
         if ( simpleJndi ) {
           JndiUtil.initJNDI();
+          phases.end( "JNDI" );
         }
 
         // Register the native types and the plugins for the various plugin types...
         //
         pluginClasses.forEach( PluginRegistry::addPluginType );
         PluginRegistry.init();
+        phases.end( "plugin registry" );
 
         // Also read the list of variables.
         //
@@ -156,10 +169,17 @@ public class KettleEnvironment {
 
         // Schedule the purge timer task
         LoggingRegistry.getInstance().schedulePurgeTimer();
+        phases.end( "variables and logging" );
 
         // Initialize the Lifecycle Listeners
         //
         initLifecycleListeners();
+        phases.end( "lifecycle listeners" );
+
+        startupTimings = phases.getDurations();
+        if ( LogChannel.GENERAL.isDetailed() ) {
+          LogChannel.GENERAL.logDetailed( phases.getReport() );
+        }
         ready.set( true );
       } catch ( Throwable t ) {
         ready.setException( t );
@@ -252,11 +272,66 @@ public class KettleEnvironment {
     }
   }
 
+  /**
+   * Gets the duration of the phases of the initialization: client environment, JNDI, plugin registry, variables and
+   * logging, lifecycle listeners. The same report is logged at the detailed log level.
+   *
+   * @return the phases in the order they ran with their duration in milliseconds, empty if the environment isn't
+   *         initialized
+   */
+  public static Map<String, Long> getStartupTimings() {
+    return startupTimings;
+  }
+
+  /**
+   * Measures the phases of the initialization one after the other.
+   */
+  static class StartupPhases {
+    private final long start;
+    private long phaseStart;
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+
+    StartupPhases() {
+      start = System.currentTimeMillis();
+      phaseStart = start;
+    }
+
+    /**
+     * Ends the current phase: the next one starts now.
+     *
+     * @param phase the name of the phase that ends
+     */
+    void end( String phase ) {
+      long now = System.currentTimeMillis();
+      durations.put( phase, now - phaseStart );
+      phaseStart = now;
+    }
+
+    Map<String, Long> getDurations() {
+      return Collections.unmodifiableMap( new LinkedHashMap<>( durations ) );
+    }
+
+    String getReport() {
+      StringBuilder report = new StringBuilder( "Kettle environment initialized in " );
+      report.append( phaseStart - start ).append( "ms" );
+      String separator = " (";
+      for ( Map.Entry<String, Long> phase : durations.entrySet() ) {
+        report.append( separator ).append( phase.getKey() ).append( ' ' ).append( phase.getValue() ).append( "ms" );
+        separator = ", ";
+      }
+      if ( !durations.isEmpty() ) {
+        report.append( ')' );
+      }
+      return report.toString();
+    }
+  }
+
   // Note - this is only called from test cases
   public static void reset() {
     KettleClientEnvironment.reset();
     LoggingRegistry.getInstance().reset();
     initialized.set( null );
+    startupTimings = Collections.emptyMap();
   }
 
   /**
@@ -0,0 +1,78 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads a range of bytes of a file. The reads are positional: the position of the channel is not used or changed, so
+ * several streams can read different ranges of the same channel. Closing the stream doesn't close the channel.
+ */
+public class FileChannelRangeInputStream extends InputStream {
+
+  private final FileChannel channel;
+  private final long to;
+  private long position;
+
+  /**
+   * @param channel
+   *          the channel of the file
+   * @param from
+   *          the position of the first byte to read
+   * @param to
+   *          the position after the last byte to read
+   */
+  public FileChannelRangeInputStream( FileChannel channel, long from, long to ) {
+    this.channel = channel;
+    this.position = from;
+    this.to = to;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[ 1 ];
+    return read( b, 0, 1 ) < 0 ? -1 : b[ 0 ] & 0xFF;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( position >= to ) {
+      return -1;
+    }
+    int n = channel.read( ByteBuffer.wrap( b, off, (int) Math.min( len, to - position ) ), position );
+    if ( n < 0 ) {
+      return -1;
+    }
+    position += n;
+    return n;
+  }
+
+  @Override
+  public long skip( long n ) {
+    long skipped = Math.max( 0L, Math.min( n, to - position ) );
+    position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min( Math.max( 0L, to - position ), Integer.MAX_VALUE );
+  }
+}
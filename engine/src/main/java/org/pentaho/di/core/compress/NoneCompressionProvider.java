@@ -16,8 +16,9 @@ package org.pentaho.di.core.compress;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 
-public class NoneCompressionProvider implements CompressionProvider {
+public class NoneCompressionProvider implements SplittableCompressionProvider {
 
   @Override
   public CompressionInputStream createInputStream( InputStream in ) throws IOException {
@@ -64,6 +65,19 @@ public class NoneCompressionProvider implements CompressionProvider {
     return null;
   }
 
+  /**
+   * Any byte can start a part of a file that isn't compressed.
+   */
+  @Override
+  public long findBlockStart( FileChannel channel, long from, long limit ) {
+    return Math.min( from, limit );
+  }
+
+  @Override
+  public InputStream createBlockInputStream( FileChannel channel, long from, long to ) {
+    return new FileChannelRangeInputStream( channel, from, to );
+  }
+
   public static class NoneCompressionInputStream extends CompressionInputStream {
 
     public NoneCompressionInputStream( InputStream in, CompressionProvider provider ) {
@@ -0,0 +1,55 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * A compression provider for a format made of blocks that can be decompressed on their own: a compressed file can then
+ * be read in parts, in parallel. The concatenation of the decompressed parts is the decompressed file.
+ */
+public interface SplittableCompressionProvider extends CompressionProvider {
+
+  /**
+   * Looks for the start of a block in a part of a compressed file.
+   *
+   * @param channel
+   *          the channel of the compressed file
+   * @param from
+   *          the position to start looking at
+   * @param limit
+   *          the position to stop looking at
+   * @return the position of the first block that starts at or after from and before limit, limit if there is none
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  long findBlockStart( FileChannel channel, long from, long limit ) throws IOException;
+
+  /**
+   * Creates a stream that decompresses the blocks in a part of a compressed file.
+   *
+   * @param channel
+   *          the channel of the compressed file
+   * @param from
+   *          the start of the first block, see {@link #findBlockStart(FileChannel, long, long)}
+   * @param to
+   *          the start of the block after the last one or the size of the file
+   * @return the decompressed blocks
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  InputStream createBlockInputStream( FileChannel channel, long from, long to ) throws IOException;
+}
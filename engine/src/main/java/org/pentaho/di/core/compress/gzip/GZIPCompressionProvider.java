@@ -16,10 +16,25 @@ package org.pentaho.di.core.compress.gzip;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.GZIPInputStream;
 
-import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.FileChannelRangeInputStream;
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
 
-public class GZIPCompressionProvider implements CompressionProvider {
+/**
+ * GZIP compression. A file with several members, like the ones written by pigz or bgzip, can be read in parts: the
+ * members can be decompressed on their own.
+ */
+public class GZIPCompressionProvider implements SplittableCompressionProvider {
+
+  private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * The number of bytes decompressed from a possible member header to make sure it really starts a member.
+   */
+  private static final int MEMBER_CHECK_SIZE = 64 * 1024;
 
   @Override
   public GZIPCompressionInputStream createInputStream( InputStream in ) throws IOException {
@@ -55,4 +70,56 @@ public class GZIPCompressionProvider implements CompressionProvider {
   public String getDefaultExtension() {
     return "gz";
   }
+
+  /**
+   * The positions of the members are not recorded in the file. A member is recognized by its header (ID1, ID2, the
+   * deflate method and no reserved flags) and then checked by decompressing the start of it.
+   */
+  @Override
+  public long findBlockStart( FileChannel channel, long from, long limit ) throws IOException {
+    if ( from <= 0 ) {
+      return Math.min( 0L, limit );
+    }
+    byte[] buffer = new byte[ SCAN_BUFFER_SIZE ];
+    long position = from;
+    while ( position < limit ) {
+      int n = channel.read( ByteBuffer.wrap( buffer, 0, (int) Math.min( buffer.length, limit - position ) ), position );
+      if ( n <= 0 ) {
+        break;
+      }
+      for ( int i = 0; i < n; i++ ) {
+        if ( buffer[ i ] == (byte) 0x1f && isMemberStart( channel, position + i ) ) {
+          return position + i;
+        }
+      }
+      position += n;
+    }
+    return limit;
+  }
+
+  private boolean isMemberStart( FileChannel channel, long position ) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate( 4 );
+    if ( channel.read( header, position ) < 4 || header.get( 1 ) != (byte) 0x8b || header.get( 2 ) != 8
+      || ( header.get( 3 ) & 0xE0 ) != 0 ) {
+      return false;
+    }
+    InputStream member = new FileChannelRangeInputStream( channel, position, channel.size() );
+    try ( InputStream in = new GZIPInputStream( member ) ) {
+      byte[] buffer = new byte[ 8192 ];
+      long total = 0;
+      int n;
+      while ( total < MEMBER_CHECK_SIZE && ( n = in.read( buffer ) ) >= 0 ) {
+        total += n;
+      }
+      return true;
+    } catch ( IOException e ) {
+      // Not in GZIP format, invalid deflate data or a corrupt trailer: compressed data that looks like a header
+      return false;
+    }
+  }
+
+  @Override
+  public InputStream createBlockInputStream( FileChannel channel, long from, long to ) throws IOException {
+    return new GZIPInputStream( new FileChannelRangeInputStream( channel, from, to ), SCAN_BUFFER_SIZE );
+  }
 }
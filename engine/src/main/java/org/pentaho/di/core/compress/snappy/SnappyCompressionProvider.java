@@ -16,10 +16,27 @@ package org.pentaho.di.core.compress.snappy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
-import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.FileChannelRangeInputStream;
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
+import org.xerial.snappy.SnappyInputStream;
 
-public class SnappyCompressionProvider implements CompressionProvider {
+/**
+ * Snappy compression, in the stream format of snappy-java: a header followed by chunks, each one with its length.
+ * The chunks can be decompressed on their own, a file can be read in parts.
+ */
+public class SnappyCompressionProvider implements SplittableCompressionProvider {
+
+  private static final byte[] MAGIC = { (byte) 0x82, 'S', 'N', 'A', 'P', 'P', 'Y', 0 };
+
+  /**
+   * The magic bytes followed by the version and the compatible version.
+   */
+  private static final int HEADER_SIZE = MAGIC.length + 8;
 
   @Override
   public SnappyCompressionInputStream createInputStream( InputStream in ) throws IOException {
@@ -56,6 +73,47 @@ public class SnappyCompressionProvider implements CompressionProvider {
     return null;
   }
 
+  /**
+   * Walks the chunks from the start of the file: only the lengths of the chunks are read. Concatenated streams, with
+   * a header of their own, are skipped over.
+   */
+  @Override
+  public long findBlockStart( FileChannel channel, long from, long limit ) throws IOException {
+    long size = channel.size();
+    ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE );
+    long position = 0L;
+    while ( position < size && position < limit ) {
+      buffer.clear();
+      channel.read( buffer, position );
+      if ( buffer.position() >= HEADER_SIZE && Arrays.equals( buffer.array(), 0, MAGIC.length, MAGIC, 0,
+        MAGIC.length ) ) {
+        position += HEADER_SIZE;
+        continue;
+      }
+      if ( buffer.position() < 4 ) {
+        throw new IOException( "Truncated Snappy chunk at position " + position );
+      }
+      if ( position >= from ) {
+        return position;
+      }
+      int length = buffer.getInt( 0 );
+      if ( length < 0 ) {
+        throw new IOException( "Corrupt Snappy chunk length " + length + " at position " + position );
+      }
+      position += 4L + length;
+    }
+    return limit;
+  }
+
+  /**
+   * The chunks are decompressed by a stream that first reads the header of the file.
+   */
+  @Override
+  public InputStream createBlockInputStream( FileChannel channel, long from, long to ) throws IOException {
+    return new SnappyInputStream( new SequenceInputStream( new FileChannelRangeInputStream( channel, 0, HEADER_SIZE ),
+      new FileChannelRangeInputStream( channel, from, to ) ) );
+  }
+
   /*
    * } else if ( sFileCompression != null && sFileCompression.equals( "Hadoop-snappy" ) ) { if ( log.isDetailed() ) {
    * logDetailed( "This is a snappy compressed file" ); } // data.sis = new SnappyInputStream(data.fr); data.sis =
@@ -1270,12 +1270,9 @@ public class JobMeta extends AbstractMeta
        * read the job entries...
        */
       Node entriesnode = XMLHandler.getSubNode( jobnode, "entries" );
-      int tr = XMLHandler.countNodes( entriesnode, "entry" );
-      for ( int i = 0; i < tr; i++ ) {
-        Node entrynode = XMLHandler.getSubNodeByNr( entriesnode, "entry", i );
-        // System.out.println("Reading entry:\n"+entrynode);
-
-        JobEntryCopy je = new JobEntryCopy( entrynode, getDatabases(), getSlaveServers(), rep, metaStore );
+      List<SlaveServer> slaveServers = getSlaveServers();
+      for ( Node entrynode : XMLHandler.getNodes( entriesnode, "entry" ) ) {
+        JobEntryCopy je = new JobEntryCopy( entrynode, databases, slaveServers, rep, metaStore );
 
         if ( je.isSpecial() && je.isMissing() ) {
           addMissingEntry( (MissingEntry) je.getEntry() );
@@ -1312,9 +1309,7 @@ public class JobMeta extends AbstractMeta
       }
 
       Node hopsnode = XMLHandler.getSubNode( jobnode, "hops" );
-      int ho = XMLHandler.countNodes( hopsnode, "hop" );
-      for ( int i = 0; i < ho; i++ ) {
-        Node hopnode = XMLHandler.getSubNodeByNr( hopsnode, "hop", i );
+      for ( Node hopnode : XMLHandler.getNodes( hopsnode, "hop" ) ) {
         JobHopMeta hi = new JobHopMeta( hopnode, this );
         jobhops.add( hi );
       }
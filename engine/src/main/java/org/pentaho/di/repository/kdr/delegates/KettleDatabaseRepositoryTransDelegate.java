@@ -46,6 +46,7 @@ import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.repository.RepositoryObjectType;
 import org.pentaho.di.repository.kdr.KettleDatabaseRepository;
+import org.pentaho.di.trans.StepExecutionStrategy;
 import org.pentaho.di.trans.TransDependency;
 import org.pentaho.di.trans.TransHopMeta;
 import org.pentaho.di.trans.TransMeta;
@@ -767,6 +768,10 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_FEEDBACK_SIZE ) );
         transMeta.setUsingThreadPriorityManagment( !"N".equalsIgnoreCase( getTransAttributeString( transMeta
           .getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_USING_THREAD_PRIORITIES ) ) );
+        transMeta.setUsingLockFreeRowSets( getTransAttributeBoolean(
+          transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_USING_LOCK_FREE_ROWSETS ) );
+        transMeta.setStepExecutionStrategy( StepExecutionStrategy.getStrategyByCode( getTransAttributeString(
+          transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_STEP_EXECUTION_STRATEGY ) ) );
 
         // Performance monitoring for steps...
         //
@@ -1337,6 +1342,12 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
     repository.connectionDelegate.insertTransAttribute(
       transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_USING_THREAD_PRIORITIES, 0, transMeta
         .isUsingThreadPriorityManagment() ? "Y" : "N" );
+    repository.connectionDelegate.insertTransAttribute(
+      transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_USING_LOCK_FREE_ROWSETS, 0, transMeta
+        .isUsingLockFreeRowSets() ? "Y" : "N" );
+    repository.connectionDelegate.insertTransAttribute(
+      transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_STEP_EXECUTION_STRATEGY, 0, transMeta
+        .getStepExecutionStrategy().getCode() );
 
     repository.connectionDelegate.insertTransAttribute(
       transMeta.getObjectId(), 0, KettleDatabaseRepository.TRANS_ATTRIBUTE_CAPTURE_STEP_PERFORMANCE, 0,
@@ -0,0 +1,339 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.util.EnvUtil;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * The way the steps of a transformation get a thread to initialize and to run in.<br>
+ * <br>
+ * Every step copy of a running transformation occupies a thread until it is finished, so the threads of a
+ * transformation are reserved all at once with {@link #reserveThreads(int)} before they are started with
+ * {@link #start(Runnable, String)}.
+ */
+public enum StepExecutionStrategy {
+
+  /** Every step copy runs in a new platform thread. */
+  PlatformThread( "PlatformThread", BaseMessages.getString(
+    StepExecutionStrategy.class, "StepExecutionStrategy.PlatformThread" ) ),
+
+  /**
+   * Every step copy runs in a new virtual thread. Waiting steps release their carrier thread. Needs Java 21 or later,
+   * platform threads are used on older versions.
+   */
+  VirtualThread( "VirtualThread", BaseMessages.getString(
+    StepExecutionStrategy.class, "StepExecutionStrategy.VirtualThread" ) ),
+
+  /**
+   * The step copies run in a pool of platform threads that is shared by all transformations in the JVM. The size of
+   * the pool is set with the KETTLE_STEP_THREAD_POOL_SIZE system property (kettle.properties). A transformation waits
+   * to start until there are enough free threads for all its step copies, at most KETTLE_STEP_THREAD_POOL_WAIT_TIMEOUT
+   * seconds.<br>
+   * <br>
+   * A transformation started from a step running in the pool (Transformation executor, Mapping, a job started by a
+   * step...) doesn't reserve threads of the pool: its parent keeps its own until it is finished, waiting for more
+   * could wait forever. Its step copies run in platform threads, see {@link #isInPooledStep()}.
+   */
+  Pooled( "Pooled", BaseMessages.getString( StepExecutionStrategy.class, "StepExecutionStrategy.Pooled" ) );
+
+  /** The default size of the shared step thread pool. */
+  public static final int DEFAULT_THREAD_POOL_SIZE = 1000;
+
+  /** The default number of seconds a transformation waits for the threads of the shared step thread pool. */
+  public static final int DEFAULT_THREAD_POOL_WAIT_TIMEOUT = 600;
+
+  /** The code of the strategy. */
+  private final String code;
+
+  /** The description of the strategy. */
+  private final String description;
+
+  StepExecutionStrategy( String code, String description ) {
+    this.code = code;
+    this.description = description;
+  }
+
+  /**
+   * Gets the code of the strategy.
+   *
+   * @return the code
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * Gets the description of the strategy.
+   *
+   * @return the description
+   */
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Reserves the threads for the step copies of a transformation. Only the pooled strategy has a limit, it waits until
+   * the threads are available. The threads are given back as the started runnables finish.
+   *
+   * @param nrThreads
+   *          the number of runnables that are going to be started
+   * @throws KettleException
+   *           in case the pool can never hold that many threads or the waiting was interrupted
+   */
+  public void reserveThreads( int nrThreads ) throws KettleException {
+    if ( this == Pooled ) {
+      StepThreadPool.getInstance().reserve( nrThreads );
+    }
+  }
+
+  /**
+   * Gives back reserved threads that are not going to be started.
+   *
+   * @param nrThreads
+   *          the number of reserved threads that won't be used
+   */
+  public void releaseThreads( int nrThreads ) {
+    if ( this == Pooled && nrThreads > 0 ) {
+      StepThreadPool.getInstance().release( nrThreads );
+    }
+  }
+
+  /**
+   * Starts a runnable in a thread of this strategy.
+   *
+   * @param runnable
+   *          the step initialization or the step execution
+   * @param name
+   *          the name of the thread
+   * @return the future to wait for the end of the runnable
+   */
+  public Future<?> start( Runnable runnable, String name ) {
+    FutureTask<Void> task = new FutureTask<>( runnable, null );
+    switch ( this ) {
+      case VirtualThread:
+        VirtualThreads.newThread( task, name ).start();
+        break;
+      case Pooled:
+        StepThreadPool.getInstance().execute( task, name );
+        break;
+      default:
+        new Thread( task, name ).start();
+        break;
+    }
+    return task;
+  }
+
+  /**
+   * Tells if the current thread runs a step of the shared step thread pool, or was started by one. A transformation
+   * started from there doesn't use the pool: the parent transformation holds threads of the pool until it finishes.
+   *
+   * @return true if the current thread runs in a step of the shared step thread pool
+   */
+  public static boolean isInPooledStep() {
+    return StepThreadPool.IN_POOLED_STEP.get();
+  }
+
+  /**
+   * @return true if this Java version can create virtual threads
+   */
+  public static boolean isVirtualThreadSupported() {
+    return VirtualThreads.OF_VIRTUAL != null;
+  }
+
+  /**
+   * Gets the strategy by code.
+   *
+   * @param code
+   *          the code of the strategy
+   * @return the strategy, the platform thread strategy if the code is unknown
+   */
+  public static StepExecutionStrategy getStrategyByCode( String code ) {
+    if ( code != null ) {
+      for ( StepExecutionStrategy strategy : values() ) {
+        if ( strategy.code.equalsIgnoreCase( code ) ) {
+          return strategy;
+        }
+      }
+    }
+    return PlatformThread;
+  }
+
+  /**
+   * Gets the descriptions of the strategies.
+   *
+   * @return the descriptions
+   */
+  public static String[] getStrategyDescriptions() {
+    String[] desc = new String[ values().length ];
+    for ( int i = 0; i < values().length; i++ ) {
+      desc[ i ] = values()[ i ].getDescription();
+    }
+    return desc;
+  }
+
+  /**
+   * Creates virtual threads with reflection: the code still compiles and runs on Java versions without them.
+   */
+  private static class VirtualThreads {
+    private static final Method OF_VIRTUAL;
+    private static final Method NAME;
+    private static final Method UNSTARTED;
+
+    static {
+      Method ofVirtual = null;
+      Method name = null;
+      Method unstarted = null;
+      try {
+        Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+        ofVirtual = Thread.class.getMethod( "ofVirtual" );
+        name = builderClass.getMethod( "name", String.class );
+        unstarted = builderClass.getMethod( "unstarted", Runnable.class );
+      } catch ( ReflectiveOperationException e ) {
+        ofVirtual = null;
+      }
+      OF_VIRTUAL = ofVirtual;
+      NAME = name;
+      UNSTARTED = unstarted;
+    }
+
+    static Thread newThread( Runnable runnable, String threadName ) {
+      if ( OF_VIRTUAL != null ) {
+        try {
+          Object builder = NAME.invoke( OF_VIRTUAL.invoke( null ), threadName );
+          return (Thread) UNSTARTED.invoke( builder, runnable );
+        } catch ( ReflectiveOperationException e ) {
+          // Use a platform thread below
+        }
+      }
+      return new Thread( runnable, threadName );
+    }
+  }
+
+  /**
+   * The bounded pool of step threads shared by all transformations using the pooled strategy.
+   */
+  static class StepThreadPool {
+    /**
+     * Set in the threads of the pool while they run a step, and inherited by the threads they start
+     */
+    static final InheritableThreadLocal<Boolean> IN_POOLED_STEP = new InheritableThreadLocal<Boolean>() {
+      @Override
+      protected Boolean initialValue() {
+        return Boolean.FALSE;
+      }
+    };
+
+    private static StepThreadPool instance;
+
+    private final int size;
+    private final long waitTimeoutMillis;
+    private final Semaphore available;
+    private final ThreadPoolExecutor executor;
+
+    StepThreadPool( int size ) {
+      this( size, TimeUnit.SECONDS.toMillis( DEFAULT_THREAD_POOL_WAIT_TIMEOUT ) );
+    }
+
+    /**
+     * @param size
+     *          the number of threads
+     * @param waitTimeoutMillis
+     *          the maximum time to wait for threads in milliseconds, 0 or less to wait as long as it takes
+     */
+    StepThreadPool( int size, long waitTimeoutMillis ) {
+      this.size = size;
+      this.waitTimeoutMillis = waitTimeoutMillis;
+      this.available = new Semaphore( size, true );
+
+      final AtomicInteger threadNr = new AtomicInteger();
+      executor = new ThreadPoolExecutor( size, size, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+        runnable -> {
+          Thread thread = new Thread( runnable, "Kettle step thread pool - " + threadNr.incrementAndGet() );
+          thread.setDaemon( true );
+          return thread;
+        } );
+      executor.allowCoreThreadTimeOut( true );
+    }
+
+    static synchronized StepThreadPool getInstance() {
+      if ( instance == null ) {
+        int size = Math.max( 1, Const.toInt(
+          EnvUtil.getSystemProperty( Const.KETTLE_STEP_THREAD_POOL_SIZE ), DEFAULT_THREAD_POOL_SIZE ) );
+        int waitTimeout = Const.toInt(
+          EnvUtil.getSystemProperty( Const.KETTLE_STEP_THREAD_POOL_WAIT_TIMEOUT ), DEFAULT_THREAD_POOL_WAIT_TIMEOUT );
+        instance = new StepThreadPool( size, TimeUnit.SECONDS.toMillis( waitTimeout ) );
+      }
+      return instance;
+    }
+
+    // All or nothing: transformations holding part of the threads they need would block each other.
+    //
+    void reserve( int nrThreads ) throws KettleException {
+      if ( nrThreads > size ) {
+        throw new KettleException( BaseMessages.getString( StepExecutionStrategy.class,
+          "StepExecutionStrategy.Exception.TooManyStepThreads", String.valueOf( nrThreads ), String.valueOf( size ),
+          Const.KETTLE_STEP_THREAD_POOL_SIZE ) );
+      }
+      try {
+        if ( waitTimeoutMillis <= 0 ) {
+          available.acquire( nrThreads );
+        } else if ( !available.tryAcquire( nrThreads, waitTimeoutMillis, TimeUnit.MILLISECONDS ) ) {
+          throw new KettleException( BaseMessages.getString( StepExecutionStrategy.class,
+            "StepExecutionStrategy.Exception.StepThreadsTimeout", String.valueOf( nrThreads ),
+            String.valueOf( TimeUnit.MILLISECONDS.toSeconds( waitTimeoutMillis ) ), String.valueOf( size ),
+            Const.KETTLE_STEP_THREAD_POOL_SIZE, Const.KETTLE_STEP_THREAD_POOL_WAIT_TIMEOUT ) );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+    }
+
+    void release( int nrThreads ) {
+      available.release( nrThreads );
+    }
+
+    void execute( Runnable runnable, String name ) {
+      executor.execute( () -> {
+        Thread thread = Thread.currentThread();
+        String poolName = thread.getName();
+        thread.setName( name );
+        IN_POOLED_STEP.set( Boolean.TRUE );
+        try {
+          runnable.run();
+        } finally {
+          IN_POOLED_STEP.remove();
+          thread.setName( poolName );
+          available.release();
+        }
+      } );
+    }
+
+    int getAvailableThreads() {
+      return available.availablePermits();
+    }
+  }
+}
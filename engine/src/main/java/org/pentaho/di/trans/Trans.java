@@ -30,6 +30,7 @@ import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.SingleRowRowSet;
+import org.pentaho.di.core.SpscRingBufferRowSet;
 import org.pentaho.di.core.bowl.Bowl;
 import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.database.Database;
@@ -136,6 +137,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -493,6 +495,11 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   private int lastStepPerformanceSnapshotSeqNrAdded;
 
+  /**
+   * The step execution strategy of this execution, null to use the one of the transformation metadata.
+   */
+  private StepExecutionStrategy stepExecutionStrategy;
+
   /**
    * The active subtransformations.
    */
@@ -979,7 +986,13 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
                 //
                 Boolean batchingRowSet =
                   ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_BATCHING_ROWSET ) );
-                if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
+                if ( dispatchType == TYPE_DISP_1_1 && transMeta.isUsingLockFreeRowSets() ) {
+                  // Exactly one producer and one consumer thread: no locking needed to hand over rows.
+                  //
+                  rowSet = new SpscRingBufferRowSet( transMeta.getSizeRowset(),
+                    SpscRingBufferRowSet.WaitStrategy.getWaitStrategy( getVariable(
+                      Const.KETTLE_ROWSET_WAIT_STRATEGY ), SpscRingBufferRowSet.WaitStrategy.YIELD ) );
+                } else if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
                   rowSet = new BlockingBatchingRowSet( transMeta.getSizeRowset() );
                 } else {
                   rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
@@ -1234,11 +1247,13 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
 
     StepInitThread[] initThreads = new StepInitThread[ steps.size() ];
-    Thread[] threads = new Thread[ steps.size() ];
+    Future<?>[] threads = new Future<?>[ steps.size() ];
+    StepExecutionStrategy executionStrategy = getExecutionStrategy();
 
     // Initialize all the threads...
     //
     if ( !skipInit ) {
+      executionStrategy.reserveThreads( steps.size() );
       for ( int i = 0; i < steps.size(); i++ ) {
         final StepMetaDataCombi sid = steps.get( i );
 
@@ -1248,20 +1263,24 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
         //
         initThreads[ i ] = new StepInitThread( sid, log );
 
+        try {
+          ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeInitialize.id,
+            initThreads[ i ] );
+        } catch ( KettleException e ) {
+          executionStrategy.releaseThreads( steps.size() - i );
+          throw e;
+        }
+
         // Put it in a separate thread!
         //
-        threads[ i ] = new Thread( initThreads[ i ] );
-        threads[ i ].setName( "init of " + sid.stepname + "." + sid.copy + " (" + threads[ i ].getName() + ")" );
-
-        ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeInitialize.id, initThreads[ i ] );
-        threads[ i ].start();
+        threads[ i ] = executionStrategy.start( initThreads[ i ], "init of " + sid.stepname + "." + sid.copy );
       }
     }
 
     if ( !skipInit ) {
       for ( int i = 0; i < threads.length; i++ ) {
         try {
-          threads[ i ].join();
+          threads[ i ].get();
           ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepAfterInitialize.id, initThreads[ i ] );
         } catch ( Exception ex ) {
           log.logError( "Error with init thread: " + ex.getMessage(), ex.getMessage() );
@@ -1550,12 +1569,17 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
         // Now start all the threads...
         //
+        StepExecutionStrategy executionStrategy = getExecutionStrategy();
+        executionStrategy.reserveThreads( steps.size() );
         for ( int i = 0; i < steps.size(); i++ ) {
           final StepMetaDataCombi combi = steps.get( i );
           RunThread runThread = new RunThread( combi );
-          Thread thread = new Thread( runThread );
-          thread.setName( getName() + " - " + combi.stepname );
-          ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
+          try {
+            ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
+          } catch ( KettleException e ) {
+            executionStrategy.releaseThreads( steps.size() - i );
+            throw e;
+          }
           // Call an extension point at the end of the step
           //
           combi.step.addStepListener( new StepAdapter() {
@@ -1571,7 +1595,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
           } );
 
-          thread.start();
+          executionStrategy.start( runThread, getName() + " - " + combi.stepname );
         }
         break;
 
@@ -5467,6 +5491,55 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     }
   }
 
+  /**
+   * Gets the way the step copies get a thread to initialize and to run in: the strategy set for this execution or
+   * otherwise the one of the transformation metadata.
+   *
+   * @return the step execution strategy
+   */
+  public StepExecutionStrategy getStepExecutionStrategy() {
+    if ( stepExecutionStrategy != null ) {
+      return stepExecutionStrategy;
+    }
+    if ( transMeta != null && transMeta.getStepExecutionStrategy() != null ) {
+      return transMeta.getStepExecutionStrategy();
+    }
+    return StepExecutionStrategy.PlatformThread;
+  }
+
+  /**
+   * Sets the step execution strategy of this execution, for example from the execution configuration.
+   *
+   * @param stepExecutionStrategy
+   *          the step execution strategy, null to use the one of the transformation metadata
+   */
+  public void setStepExecutionStrategy( StepExecutionStrategy stepExecutionStrategy ) {
+    this.stepExecutionStrategy = stepExecutionStrategy;
+  }
+
+  private StepExecutionStrategy getExecutionStrategy() {
+    StepExecutionStrategy executionStrategy = getStepExecutionStrategy();
+    if ( executionStrategy == StepExecutionStrategy.VirtualThread
+      && !StepExecutionStrategy.isVirtualThreadSupported() ) {
+      log.logBasic( BaseMessages.getString( PKG, "Trans.Log.VirtualThreadsNotSupported" ) );
+    } else if ( executionStrategy == StepExecutionStrategy.Pooled && StepExecutionStrategy.isInPooledStep() ) {
+      // The parent transformation holds threads of the pool until this one is finished: waiting for more of them
+      // could wait forever
+      log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.NestedInPooledStep" ) );
+      executionStrategy = StepExecutionStrategy.PlatformThread;
+    } else if ( log.isDetailed() ) {
+      log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.StepExecutionStrategy", executionStrategy.getCode() ) );
+    }
+    return executionStrategy;
+  }
+
+  /**
+   * @return the step execution strategy set for this execution, null if the one of the transformation metadata is used
+   */
+  public StepExecutionStrategy getStepExecutionStrategyOverride() {
+    return stepExecutionStrategy;
+  }
+
   @Override
   public boolean isForcingSeparateLogging() {
     return log != null && log.isForcingSeparateLogging();
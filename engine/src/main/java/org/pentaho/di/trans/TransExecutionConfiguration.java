@@ -79,6 +79,7 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
 
   private boolean gatheringMetrics;
   private boolean showingSubComponents;
+  private StepExecutionStrategy stepExecutionStrategy;
   private boolean setLogfile;
   private boolean setAppendLogfile;
   private String logFileName;
@@ -482,6 +483,10 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     xml.append( "    " ).append( XMLHandler.addTagValue( "clear_log", clearingLog ) );
     xml.append( "    " ).append( XMLHandler.addTagValue( "gather_metrics", gatheringMetrics ) );
     xml.append( "    " ).append( XMLHandler.addTagValue( "show_subcomponents", showingSubComponents ) );
+    if ( stepExecutionStrategy != null ) {
+      xml.append( "    " ).append(
+        XMLHandler.addTagValue( "step_execution_strategy", stepExecutionStrategy.getCode() ) );
+    }
     if ( passedBatchId != null ) {
       xml.append( "    " ).append( XMLHandler.addTagValue( "passedBatchId", passedBatchId ) );
     }
@@ -581,6 +586,10 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     clearingLog = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "clear_log" ) );
     gatheringMetrics = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "gather_metrics" ) );
     showingSubComponents = "Y".equalsIgnoreCase( XMLHandler.getTagValue( trecNode, "show_subcomponents" ) );
+    String stepExecutionStrategyCode = XMLHandler.getTagValue( trecNode, "step_execution_strategy" );
+    if ( !StringUtils.isEmpty( stepExecutionStrategyCode ) ) {
+      stepExecutionStrategy = StepExecutionStrategy.getStrategyByCode( stepExecutionStrategyCode );
+    }
     String sPassedBatchId = XMLHandler.getTagValue( trecNode, "passedBatchId" );
     if ( !StringUtils.isEmpty( sPassedBatchId ) ) {
       passedBatchId = Long.parseLong( sPassedBatchId );
@@ -746,6 +755,21 @@ public class TransExecutionConfiguration implements ExecutionConfiguration {
     this.gatheringMetrics = gatheringMetrics;
   }
 
+  /**
+   * @return the step execution strategy of the execution, null to use the one of the transformation
+   */
+  public StepExecutionStrategy getStepExecutionStrategy() {
+    return stepExecutionStrategy;
+  }
+
+  /**
+   * @param stepExecutionStrategy
+   *          the step execution strategy of the execution, null to use the one of the transformation
+   */
+  public void setStepExecutionStrategy( StepExecutionStrategy stepExecutionStrategy ) {
+    this.stepExecutionStrategy = stepExecutionStrategy;
+  }
+
   /**
    * @return the showingSubComponents
    */
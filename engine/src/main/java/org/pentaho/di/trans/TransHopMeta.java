@@ -14,7 +14,9 @@
 package org.pentaho.di.trans;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 
 import org.pentaho.di.base.BaseHopMeta;
 import org.pentaho.di.core.Const;
@@ -56,9 +58,27 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
   }
 
   public TransHopMeta( Node hopnode, List<StepMeta> steps ) throws KettleXMLException {
+    readHop( hopnode, name -> searchStep( steps, name ) );
+  }
+
+  /**
+   * Reads a hop, finding its steps by name in a map instead of going over the list of steps.
+   *
+   * @param hopnode
+   *          the hop node
+   * @param stepsByName
+   *          the steps by name, compared without case
+   * @throws KettleXMLException
+   *           in case the hop can't be read
+   */
+  public TransHopMeta( Node hopnode, Map<String, StepMeta> stepsByName ) throws KettleXMLException {
+    readHop( hopnode, name -> searchStep( stepsByName, name ) );
+  }
+
+  private void readHop( Node hopnode, Function<String, StepMeta> stepFinder ) throws KettleXMLException {
     try {
-      this.from = searchStep( steps, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_FROM_TAG ) );
-      this.to = searchStep( steps, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_TO_TAG ) );
+      this.from = stepFinder.apply( XMLHandler.getTagValue( hopnode, TransHopMeta.XML_FROM_TAG ) );
+      this.to = stepFinder.apply( XMLHandler.getTagValue( hopnode, TransHopMeta.XML_TO_TAG ) );
       String en = XMLHandler.getTagValue( hopnode, "enabled" );
 
       if ( en == null ) {
@@ -97,6 +117,10 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     return null;
   }
 
+  private StepMeta searchStep( Map<String, StepMeta> stepsByName, String name ) {
+    return name == null ? null : stepsByName.get( name );
+  }
+
   public boolean equals( Object obj ) {
     TransHopMeta other = (TransHopMeta) obj;
     if ( this.from == null || this.to == null ) {
@@ -127,6 +127,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -283,6 +284,12 @@ public class TransMeta extends AbstractMeta
    */
   protected boolean usingThreadPriorityManagment;
 
+  /** Flag to indicate that hops between a single producer and a single consumer copy use lock-free row sets. */
+  protected boolean usingLockFreeRowSets;
+
+  /** The way the step copies get a thread to run in. */
+  protected StepExecutionStrategy stepExecutionStrategy;
+
   /** The slave-step-copy/partition distribution. Only used for slave transformations in a clustering environment. */
   protected SlaveStepCopyPartitionDistribution slaveStepCopyPartitionDistribution;
 
@@ -740,6 +747,9 @@ public class TransMeta extends AbstractMeta
     //
     usingThreadPriorityManagment = true;
 
+    usingLockFreeRowSets = false;
+    stepExecutionStrategy = StepExecutionStrategy.PlatformThread;
+
     // The performance monitoring options
     //
     capturingStepPerformanceSnapShots = false;
@@ -2566,6 +2576,9 @@ public class TransMeta extends AbstractMeta
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_shown", feedbackShown ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_size", feedbackSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "using_thread_priorities", usingThreadPriorityManagment ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "using_lock_free_rowsets", usingLockFreeRowSets ) );
+    retval.append( "    " ).append(
+      XMLHandler.addTagValue( "step_execution_strategy", stepExecutionStrategy.getCode() ) );
 
     // Performance monitoring
     //
@@ -3385,19 +3398,24 @@ public class TransMeta extends AbstractMeta
         }
 
         // Handle Steps
-        int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
+        List<Node> stepnodes = XMLHandler.getNodes( transnode, StepMeta.XML_TAG );
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + stepnodes.size() + " steps..." );
         }
-        for ( int i = 0; i < s; i++ ) {
-          Node stepnode = XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i );
+        // The steps by name, to find them without going over the list of steps for every step and hop
+        Map<String, StepMeta> stepsByName = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        for ( StepMeta stepMeta : steps ) {
+          stepsByName.putIfAbsent( stepMeta.getName(), stepMeta );
+        }
+        for ( int i = 0; i < stepnodes.size(); i++ ) {
+          Node stepnode = stepnodes.get( i );
 
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + i );
           }
 
-          StepMeta stepMeta = new StepMeta( stepnode, getDatabases(), metaStore );
+          StepMeta stepMeta = new StepMeta( stepnode, databases, metaStore );
           stepMeta.setParentTransMeta( this ); // for tracing, retain hierarchy
 
           if ( stepMeta.isMissing() ) {
@@ -3407,27 +3425,29 @@ public class TransMeta extends AbstractMeta
           // If so, then we will keep the shared version, not this one.
           // The stored XML is only for backup purposes.
           //
-          StepMeta check = findStep( stepMeta.getName() );
+          StepMeta check = stepMeta.getName() == null ? null : stepsByName.get( stepMeta.getName() );
           if ( check != null ) {
             if ( !check.isShared() ) {
               // Don't overwrite shared objects
 
               addOrReplaceStep( stepMeta );
+              stepsByName.put( stepMeta.getName(), stepMeta );
             } else {
               check.setDraw( stepMeta.isDrawn() ); // Just keep the drawn flag and location
               check.setLocation( stepMeta.getLocation() );
             }
           } else {
             addStep( stepMeta ); // simply add it.
+            if ( stepMeta.getName() != null ) {
+              stepsByName.put( stepMeta.getName(), stepMeta );
+            }
           }
         }
 
         // Read the error handling code of the steps...
         //
         Node errorHandlingNode = XMLHandler.getSubNode( transnode, XML_TAG_STEP_ERROR_HANDLING );
-        int nrErrorHandlers = XMLHandler.countNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG );
-        for ( int i = 0; i < nrErrorHandlers; i++ ) {
-          Node stepErrorMetaNode = XMLHandler.getSubNodeByNr( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG, i );
+        for ( Node stepErrorMetaNode : XMLHandler.getNodes( errorHandlingNode, StepErrorMeta.XML_ERROR_TAG ) ) {
           StepErrorMeta stepErrorMeta = new StepErrorMeta( this, stepErrorMetaNode, steps );
           if ( stepErrorMeta.getSourceStep() != null ) {
             stepErrorMeta.getSourceStep().setStepErrorMeta( stepErrorMeta ); // a bit of a trick, I know.
@@ -3447,19 +3467,21 @@ public class TransMeta extends AbstractMeta
         // Handle Hops
         //
         Node ordernode = XMLHandler.getSubNode( transnode, XML_TAG_ORDER );
-        n = XMLHandler.countNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        List<Node> hopnodes = XMLHandler.getNodes( ordernode, TransHopMeta.XML_HOP_TAG );
 
         if ( log.isDebug() ) {
-          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + n + " hops..." );
+          log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + hopnodes.size() + " hops..." );
         }
-        for ( int i = 0; i < n; i++ ) {
+        Set<String> errorHops = getErrorHops( errorHandlingNode );
+        for ( int i = 0; i < hopnodes.size(); i++ ) {
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtHop" ) + i );
           }
-          Node hopnode = XMLHandler.getSubNodeByNr( ordernode, TransHopMeta.XML_HOP_TAG, i );
+          Node hopnode = hopnodes.get( i );
 
-          TransHopMeta hopinf = new TransHopMeta( hopnode, steps );
-          hopinf.setErrorHop( isErrorNode( errorHandlingNode, hopnode ) );
+          TransHopMeta hopinf = new TransHopMeta( hopnode, stepsByName );
+          hopinf.setErrorHop( errorHops.contains( getHopKey( XMLHandler.getSubNode( hopnode,
+            TransHopMeta.XML_FROM_TAG ), XMLHandler.getSubNode( hopnode, TransHopMeta.XML_TO_TAG ) ) ) );
           addTransHop( hopinf );
         }
 
@@ -3679,6 +3701,9 @@ public class TransMeta extends AbstractMeta
         feedbackSize = Const.toInt( XMLHandler.getTagValue( infonode, "feedback_size" ), Const.ROWS_UPDATE );
         usingThreadPriorityManagment =
             !"N".equalsIgnoreCase( XMLHandler.getTagValue( infonode, "using_thread_priorities" ) );
+        usingLockFreeRowSets = "Y".equalsIgnoreCase( XMLHandler.getTagValue( infonode, "using_lock_free_rowsets" ) );
+        stepExecutionStrategy =
+          StepExecutionStrategy.getStrategyByCode( XMLHandler.getTagValue( infonode, "step_execution_strategy" ) );
 
         // Performance monitoring for steps...
         //
@@ -3967,37 +3992,37 @@ public class TransMeta extends AbstractMeta
 
   }
 
-  private boolean isErrorNode( Node errorHandingNode, Node checkNode ) {
+  /**
+   * Reads the source and target steps of the error handling once, so that a hop is checked without going over all the
+   * error handling nodes.
+   *
+   * @param errorHandingNode
+   *          the error handling node of the transformation, or null
+   * @return the keys of the error hops, see {@link #getHopKey(Node, Node)}
+   */
+  private static Set<String> getErrorHops( Node errorHandingNode ) {
+    Set<String> errorHops = new HashSet<>();
     if ( errorHandingNode != null ) {
       NodeList errors = errorHandingNode.getChildNodes();
-
-      Node nodeHopFrom = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_FROM_TAG );
-      Node nodeHopTo = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_TO_TAG );
-
-      int i = 0;
-      while ( i < errors.getLength() ) {
-
+      for ( int i = 0; i < errors.getLength(); i++ ) {
         Node errorNode = errors.item( i );
-
-        if ( !StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
-          i++;
-          continue;
-        }
-
-        Node errorSourceNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG );
-        Node errorTagetNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG );
-
-        String sourceContent = errorSourceNode.getTextContent().trim();
-        String tagetContent = errorTagetNode.getTextContent().trim();
-
-        if ( sourceContent.equals( nodeHopFrom.getTextContent().trim() )
-            && tagetContent.equals( nodeHopTo.getTextContent().trim() ) ) {
-          return true;
+        if ( StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
+          String key = getHopKey( XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG ),
+            XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG ) );
+          if ( key != null ) {
+            errorHops.add( key );
+          }
         }
-        i++;
       }
     }
-    return false;
+    return errorHops;
+  }
+
+  private static String getHopKey( Node fromNode, Node toNode ) {
+    if ( fromNode == null || toNode == null ) {
+      return null;
+    }
+    return fromNode.getTextContent().trim() + "\n" + toNode.getTextContent().trim();
   }
 
   /**
@@ -5960,6 +5985,45 @@ public class TransMeta extends AbstractMeta
     this.usingThreadPriorityManagment = usingThreadPriorityManagment;
   }
 
+  /**
+   * Checks whether hops between exactly one producer copy and one consumer copy use lock-free row sets.
+   *
+   * @return true if the transformation uses lock-free row sets, false otherwise
+   */
+  public boolean isUsingLockFreeRowSets() {
+    return usingLockFreeRowSets;
+  }
+
+  /**
+   * Sets whether hops between exactly one producer copy and one consumer copy use lock-free row sets.
+   *
+   * @param usingLockFreeRowSets
+   *          true if the transformation uses lock-free row sets, false otherwise
+   */
+  public void setUsingLockFreeRowSets( boolean usingLockFreeRowSets ) {
+    this.usingLockFreeRowSets = usingLockFreeRowSets;
+  }
+
+  /**
+   * Gets the way the step copies get a thread to initialize and to run in.
+   *
+   * @return the step execution strategy
+   */
+  public StepExecutionStrategy getStepExecutionStrategy() {
+    return stepExecutionStrategy;
+  }
+
+  /**
+   * Sets the way the step copies get a thread to initialize and to run in.
+   *
+   * @param stepExecutionStrategy
+   *          the step execution strategy, null for a thread per step copy
+   */
+  public void setStepExecutionStrategy( StepExecutionStrategy stepExecutionStrategy ) {
+    this.stepExecutionStrategy =
+      stepExecutionStrategy == null ? StepExecutionStrategy.PlatformThread : stepExecutionStrategy;
+  }
+
   /**
    * Check a step to see if there are no multiple steps to read from. If so, check to see if the receiving rows are all
    * the same in layout. We only want to ONLY use the DBCache for this to prevent GUI stalls.
@@ -6763,6 +6827,8 @@ public class TransMeta extends AbstractMeta
         .append( this.isFeedbackShown() )
         .append( this.getFeedbackSize() )
         .append( this.isUsingThreadPriorityManagment() )
+        .append( this.isUsingLockFreeRowSets() )
+        .append( this.getStepExecutionStrategy() )
         .append( this.isCapturingStepPerformanceSnapShots() )
         .append( this.getStepPerformanceCapturingDelay() )
         .append( this.getStepPerformanceCapturingSizeLimit() )
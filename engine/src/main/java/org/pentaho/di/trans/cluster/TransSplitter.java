@@ -21,6 +21,7 @@ import org.pentaho.di.core.NotePadMeta;
 import org.pentaho.di.core.encryption.CertificateGenEncryptUtil;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.TransLogTable;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.partition.PartitionSchema;
@@ -33,6 +34,7 @@ import org.pentaho.di.trans.TransMetaFactoryImpl;
 import org.pentaho.di.trans.step.RemoteStep;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.pentaho.di.trans.step.TwoPhaseAggregationMeta;
 import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
 import org.pentaho.di.trans.steps.socketreader.SocketReaderMeta;
 import org.pentaho.di.trans.steps.socketwriter.SocketWriterMeta;
@@ -339,6 +341,8 @@ public class TransSplitter {
 
     // Priority management
     transMeta.setUsingThreadPriorityManagment( originalTransformation.isUsingThreadPriorityManagment() );
+    transMeta.setUsingLockFreeRowSets( originalTransformation.isUsingLockFreeRowSets() );
+    transMeta.setStepExecutionStrategy( originalTransformation.getStepExecutionStrategy() );
 
     // Unique connections
     transMeta.setUsingUniqueConnections( originalTransformation.isUsingUniqueConnections() );
@@ -397,6 +401,12 @@ public class TransSplitter {
 
   private static final String STRING_TARGET_PARTITION_NAME_SUFFIX = " (target)";
 
+  private static final String STRING_FINAL_AGGREGATION_STEP_NAME_SUFFIX = " (final)";
+
+  public static String createFinalAggregationStepName( String name ) {
+    return name + STRING_FINAL_AGGREGATION_STEP_NAME_SUFFIX;
+  }
+
   public static String createTargetPartitionSchemaName( String name ) {
     return name + STRING_TARGET_PARTITION_NAME_SUFFIX;
   }
@@ -524,6 +534,37 @@ public class TransSplitter {
                 masterTransMeta.addStep( masterStep );
               }
 
+              // An aggregation in two phases: the slaves send the partial aggregates of their groups to a single step
+              // on the master. It merges them and passes the groups on to the reference step.
+              //
+              TwoPhaseAggregationMeta twoPhaseAggregationMeta = getTwoPhaseAggregationMeta( previousStep );
+              RowMetaInterface previousStepFields;
+              if ( twoPhaseAggregationMeta != null ) {
+                String finalStepName = createFinalAggregationStepName( previousStep.getName() );
+                StepMeta finalStep = masterTransMeta.findStep( finalStepName );
+                boolean finalStepExists = finalStep != null;
+                if ( !finalStepExists ) {
+                  finalStep = (StepMeta) previousStep.clone();
+                  finalStep.setName( finalStepName );
+                  finalStep.setStepMetaInterface( twoPhaseAggregationMeta.getFinalAggregationMeta() );
+                  finalStep.setClusterSchema( null );
+                  finalStep.setCopies( 1 );
+                  masterTransMeta.addStep( finalStep );
+                }
+                if ( masterTransMeta.findTransHop( finalStep, masterStep ) == null ) {
+                  masterTransMeta.addTransHop( new TransHopMeta( finalStep, masterStep ) );
+                }
+                if ( finalStepExists ) {
+                  // The slaves already send their partial aggregates to the final step
+                  //
+                  continue;
+                }
+                masterStep = finalStep;
+                previousStepFields = getPartialAggregationFields( previousStep, twoPhaseAggregationMeta );
+              } else {
+                previousStepFields = originalTransformation.getStepFields( previousStep );
+              }
+
               Queue<Integer> masterStepCopyNumbers = new LinkedList<Integer>();
               for ( int i = 0; i < masterStep.getCopies(); i++ ) {
                 masterStepCopyNumbers.add( i );
@@ -548,6 +589,9 @@ public class TransSplitter {
                   if ( slaveStep == null ) {
                     slaveStep = addSlaveCopy( slave, previousStep, sourceSlaveServer );
                   }
+                  if ( twoPhaseAggregationMeta != null ) {
+                    slaveStep.setStepMetaInterface( twoPhaseAggregationMeta.getPartialAggregationMeta() );
+                  }
 
                   // Make sure the data finds its way back to the master.
                   //
@@ -595,8 +639,7 @@ public class TransSplitter {
                         sourceSlaveServer.getHostname(), masterSlaveServer.getHostname(), Integer
                           .toString( port ), slaveStep.getName(), sourceCopyNr, masterStep.getName(),
                         masterStepCopyNr, sourceSlaveServer.getName(), masterSlaveServer.getName(),
-                        socketsBufferSize, compressingSocketStreams, originalTransformation
-                          .getStepFields( previousStep ) );
+                        socketsBufferSize, compressingSocketStreams, previousStepFields );
                     remoteMasterStep.setEncryptingStreams( encrypt );
                     remoteMasterStep.setKey( transformationKey );
                     masterStep.getRemoteInputSteps().add( remoteMasterStep );
@@ -606,8 +649,7 @@ public class TransSplitter {
                         sourceSlaveServer.getHostname(), masterSlaveServer.getHostname(), Integer
                           .toString( port ), slaveStep.getName(), sourceCopyNr, masterStep.getName(),
                         masterStepCopyNr, sourceSlaveServer.getName(), masterSlaveServer.getName(),
-                        socketsBufferSize, compressingSocketStreams, originalTransformation
-                          .getStepFields( previousStep ) );
+                        socketsBufferSize, compressingSocketStreams, previousStepFields );
                     remoteSlaveStep.setEncryptingStreams( encrypt );
                     remoteSlaveStep.setKey( transformationKey );
                     slaveStep.getRemoteOutputSteps().add( remoteSlaveStep );
@@ -1474,6 +1516,36 @@ public class TransSplitter {
     return copy;
   }
 
+  /**
+   * @param stepMeta
+   *          a clustered step
+   * @return the metadata of the step if it aggregates in two phases, null if it doesn't or if the groups of the step
+   *         also go to clustered steps: only the master can merge the partial aggregates
+   */
+  private TwoPhaseAggregationMeta getTwoPhaseAggregationMeta( StepMeta stepMeta ) {
+    if ( stepMeta.isPartitioned() || !( stepMeta.getStepMetaInterface() instanceof TwoPhaseAggregationMeta ) ) {
+      return null;
+    }
+    TwoPhaseAggregationMeta twoPhaseAggregationMeta = (TwoPhaseAggregationMeta) stepMeta.getStepMetaInterface();
+    if ( !twoPhaseAggregationMeta.isTwoPhaseAggregation() ) {
+      return null;
+    }
+    for ( StepMeta nextStep : originalTransformation.findNextSteps( stepMeta ) ) {
+      if ( nextStep.isClustered() ) {
+        return null;
+      }
+    }
+    return twoPhaseAggregationMeta;
+  }
+
+  private RowMetaInterface getPartialAggregationFields( StepMeta stepMeta,
+    TwoPhaseAggregationMeta twoPhaseAggregationMeta ) throws KettleException {
+    StepMeta partialStep = (StepMeta) stepMeta.clone();
+    partialStep.setStepMetaInterface( twoPhaseAggregationMeta.getPartialAggregationMeta() );
+    return originalTransformation.getThisStepFields( partialStep, null,
+      originalTransformation.getPrevStepFields( stepMeta ) );
+  }
+
   private void findUsedOriginalSteps() {
     List<StepMeta> transHopSteps = originalTransformation.getTransHopSteps( false );
     referenceSteps = transHopSteps.toArray( new StepMeta[transHopSteps.size()] );
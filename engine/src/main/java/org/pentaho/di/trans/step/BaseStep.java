@@ -32,6 +32,8 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -158,7 +160,53 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private Trans trans;
 
-  private final Object statusCountersLock = new Object();
+  /*
+   * The status counters are updated once or more for every row by the step thread and read by monitoring threads
+   * (Spoon, Carte status, performance snapshots). LongAdder keeps those updates free of locking and contention.
+   * The row handling in this class increments them directly, so that it doesn't pay for the sum the increment
+   * methods return.
+   */
+
+  /**
+   * nr of lines read from previous step(s)
+   */
+  private final LongAdder linesReadCounter = new LongAdder();
+
+  /**
+   * nr of lines written to next step(s)
+   */
+  private final LongAdder linesWrittenCounter = new LongAdder();
+
+  /**
+   * nr of lines read from file or database
+   */
+  private final LongAdder linesInputCounter = new LongAdder();
+
+  /**
+   * nr of lines written to file or database
+   */
+  private final LongAdder linesOutputCounter = new LongAdder();
+
+  /**
+   * nr of updates in a database table or file
+   */
+  private final LongAdder linesUpdatedCounter = new LongAdder();
+
+  /**
+   * nr of lines skipped
+   */
+  private final LongAdder linesSkippedCounter = new LongAdder();
+
+  /**
+   * nr of lines rejected
+   */
+  private final LongAdder linesRejectedCounter = new LongAdder();
+
+  /*
+   * The public fields below were the counters before they became LongAdders. They stay for the binary compatibility
+   * of compiled step plugins until the next major release: whatever such a plugin adds to them directly is included
+   * in the values returned by the getters.
+   */
 
   /**
    * nr of lines read from previous step(s)
@@ -209,7 +257,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public long linesSkipped;
 
   /**
-   * total sleep time in ns caused by an empty input buffer (previous step is slow)
+   * nr of lines rejected
    *
    * @deprecated use {@link #getLinesRejected()} or {@link #incrementLinesRejected()}
    */
@@ -366,6 +414,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private static int NR_OF_ROWS_IN_BLOCK = 500;
 
+  private static final Object[][] NO_ROWS = new Object[ 0 ][];
+
+  /** The time a step waits for a nearly full output or nearly empty input buffer with thread priority management. */
+  private static final long PRIORITY_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+
   private int blockPointer;
 
   /**
@@ -417,6 +470,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   private boolean allowEmptyFieldNamesAndTypes = false;
 
+  /**
+   * The maximum number of rows to read or write in one call for batch capable steps, lazily determined.
+   */
+  private int rowBatchSize;
+
   /**
    * Keeps track of the number of rows read for input deadlock verification.
    */
@@ -479,15 +537,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     init = false;
 
-    synchronized ( statusCountersLock ) {
-      linesRead = 0L; // new AtomicLong(0L); // Keep some statistics!
-      linesWritten = 0L; // new AtomicLong(0L);
-      linesUpdated = 0L; // new AtomicLong(0L);
-      linesSkipped = 0L; // new AtomicLong(0L);
-      linesRejected = 0L; // new AtomicLong(0L);
-      linesInput = 0L; // new AtomicLong(0L);
-      linesOutput = 0L; // new AtomicLong(0L);
-    }
+    // Keep some statistics!
+    linesReadCounter.reset();
+    linesWrittenCounter.reset();
+    linesUpdatedCounter.reset();
+    linesSkippedCounter.reset();
+    linesRejectedCounter.reset();
+    linesInputCounter.reset();
+    linesOutputCounter.reset();
 
     inputRowSets = null;
     outputRowSets = null;
@@ -905,9 +962,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
@@ -916,9 +971,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    linesReadCounter.increment();
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
@@ -927,18 +981,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    linesReadCounter.decrement();
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous steps
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    linesReadCounter.reset();
+    linesReadCounter.add( newLinesReadValue );
+    linesRead = 0;
   }
 
   /**
@@ -946,9 +999,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return linesInputCounter.sum() + linesInput;
   }
 
   /**
@@ -957,18 +1008,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    linesInputCounter.increment();
+    return linesInputCounter.sum() + linesInput;
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    linesInputCounter.reset();
+    linesInputCounter.add( newLinesInputValue );
+    linesInput = 0;
   }
 
   /**
@@ -976,9 +1026,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return linesOutputCounter.sum() + linesOutput;
   }
 
   /**
@@ -987,18 +1035,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    linesOutputCounter.increment();
+    return linesOutputCounter.sum() + linesOutput;
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    linesOutputCounter.reset();
+    linesOutputCounter.add( newLinesOutputValue );
+    linesOutput = 0;
   }
 
   /**
@@ -1006,9 +1053,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
@@ -1017,9 +1062,19 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    linesWrittenCounter.increment();
+    return linesWrittenCounter.sum() + linesWritten;
+  }
+
+  /**
+   * Increments the number of lines written to next steps in one go, for steps writing batches of rows.
+   *
+   * @param nrLines the number of lines written
+   * @return Returns the new value
+   */
+  public long incrementLinesWritten( long nrLines ) {
+    linesWrittenCounter.add( nrLines );
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
@@ -1028,18 +1083,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    linesWrittenCounter.decrement();
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next steps
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    linesWrittenCounter.reset();
+    linesWrittenCounter.add( newLinesWrittenValue );
+    linesWritten = 0;
   }
 
   /**
@@ -1047,9 +1101,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return linesUpdatedCounter.sum() + linesUpdated;
   }
 
   /**
@@ -1058,18 +1110,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    linesUpdatedCounter.increment();
+    return linesUpdatedCounter.sum() + linesUpdated;
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    linesUpdatedCounter.reset();
+    linesUpdatedCounter.add( newLinesUpdatedValue );
+    linesUpdated = 0;
   }
 
   /**
@@ -1077,9 +1128,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return linesRejectedCounter.sum() + linesRejected;
   }
 
   /**
@@ -1088,9 +1137,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    linesRejectedCounter.increment();
+    return linesRejectedCounter.sum() + linesRejected;
   }
 
   /**
@@ -1098,18 +1146,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    linesRejectedCounter.reset();
+    linesRejectedCounter.add( newLinesRejectedValue );
+    linesRejected = 0;
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return linesSkippedCounter.sum() + linesSkipped;
   }
 
   /**
@@ -1118,18 +1164,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    linesSkippedCounter.increment();
+    return linesSkippedCounter.sum() + linesSkipped;
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    linesSkippedCounter.reset();
+    linesSkippedCounter.add( newLinesSkippedValue );
+    linesSkipped = 0;
   }
 
   /*
@@ -1245,6 +1290,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void putRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+    checkFieldNamesAndTypes( rowMeta );
+    getRowHandler().putRow( rowMeta, row );
+  }
+
+  private void checkFieldNamesAndTypes( RowMetaInterface rowMeta ) throws KettleStepException {
     if ( rowMeta != null ) {
       if ( !allowEmptyFieldNamesAndTypes ) {
         // check row meta for empty field name (BACKLOG-18004)
@@ -1258,7 +1308,59 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         }
       }
     }
-    getRowHandler().putRow( rowMeta, row );
+  }
+
+  /**
+   * Puts a batch of rows to the next step(s). When there is a single, non-partitioned output rowset the rows are handed
+   * over in bulk, amortizing the locking and status counter updates over the whole batch. In all other situations this
+   * is the same as calling {@link #putRow(RowMetaInterface, Object[])} for every row.
+   *
+   * @param rowMeta The row metadata of the rows in the batch
+   * @param rows    The rows to put, only the first nrRows entries are used
+   * @param nrRows  The number of rows to put
+   * @throws KettleStepException In case something goes wrong
+   */
+  public void putRows( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws KettleStepException {
+    if ( nrRows <= 0 ) {
+      return;
+    }
+    if ( !checkTransRunning || paused.get() || terminator || rowDistribution != null
+      || !( getRowHandler() instanceof DefaultRowHandler ) ) {
+      putRowsOneByOne( rowMeta, rows, nrRows );
+      return;
+    }
+    checkFieldNamesAndTypes( rowMeta );
+    if ( stopped.get() && !safeStopped.get() ) {
+      if ( log.isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "BaseStep.Log.StopPuttingARow" ) );
+      }
+      stopAll();
+      return;
+    }
+
+    outputRowSetsLock.readLock().lock();
+    try {
+      if ( outputRowSets.size() == 1 && repartitioning == StepPartitioningMeta.PARTITIONING_METHOD_NONE ) {
+        for ( RowListener listener : rowListeners ) {
+          for ( int i = 0; i < nrRows; i++ ) {
+            listener.rowWrittenEvent( rowMeta, rows[i] );
+          }
+        }
+        int nrPut = putRowsToRowSet( outputRowSets.get( 0 ), rowMeta, rows, nrRows );
+        linesWrittenCounter.add( nrPut );
+        return;
+      }
+    } finally {
+      outputRowSetsLock.readLock().unlock();
+    }
+
+    putRowsOneByOne( rowMeta, rows, nrRows );
+  }
+
+  private void putRowsOneByOne( RowMetaInterface rowMeta, Object[][] rows, int nrRows ) throws KettleStepException {
+    for ( int i = 0; i < nrRows; i++ ) {
+      putRow( rowMeta, rows[i] );
+    }
   }
 
   private void handlePutRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
@@ -1266,7 +1368,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     while ( paused.get() && !stopped.get() ) {
       try {
-        Thread.sleep( 1 );
+        park( TimeUnit.MILLISECONDS.toNanos( 1 ) );
       } catch ( InterruptedException e ) {
         throw new KettleStepException( e );
       }
@@ -1290,7 +1392,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
         try {
-          Thread.sleep( 1 );
+          park( TimeUnit.MILLISECONDS.toNanos( 1 ) );
         } catch ( InterruptedException e ) {
           // Ignore
         }
@@ -1320,7 +1422,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // No more output rowsets!
         // Still update the nr of lines written.
         //
-        incrementLinesWritten();
+        linesWrittenCounter.increment();
 
         return; // we're done here!
       }
@@ -1455,7 +1557,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       } else {
         // Wait
         putRowToRowSet( selectedRowSet, rowMeta, row );
-        incrementLinesWritten();
+        linesWrittenCounter.increment();
 
         if ( log.isRowLevel() ) {
           try {
@@ -1484,7 +1586,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
           // Wait
           putRowToRowSet( selectedRowSet, rowMeta, row );
-          incrementLinesWritten();
+          linesWrittenCounter.increment();
 
           if ( log.isRowLevel() ) {
             try {
@@ -1505,7 +1607,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // Plugin defined row distribution!
         //
         rowDistribution.distributeRow( rowMeta, row, this );
-        incrementLinesWritten();
+        linesWrittenCounter.increment();
       } else {
         // ROUND ROBIN DISTRIBUTION:
         // --------------------------
@@ -1519,7 +1621,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         //
         if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
           try {
-            Thread.sleep( 0, 1 );
+            park( PRIORITY_PARK_NANOS );
           } catch ( InterruptedException e ) {
             // Ignore sleep interruption exception
           }
@@ -1528,7 +1630,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // Loop until we find room in the target rowset
         //
         putRowToRowSet( rs, rowMeta, row );
-        incrementLinesWritten();
+        linesWrittenCounter.increment();
 
         // Now determine the next output rowset!
         // Only if we have more then one output...
@@ -1555,7 +1657,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         //
         if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
           try {
-            Thread.sleep( 0, 1 );
+            park( PRIORITY_PARK_NANOS );
           } catch ( InterruptedException e ) {
             // Ignore sleep interruption exception
           }
@@ -1565,7 +1667,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           // Loop until we find room in the target rowset
           //
           putRowToRowSet( rs, rowMeta, rowMeta.cloneRow( row ) );
-          incrementLinesWritten();
+          linesWrittenCounter.increment();
         } catch ( KettleValueException e ) {
           throw new KettleStepException( "Unable to clone row while copying rows to multiple target steps", e );
         }
@@ -1575,7 +1677,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       //
       RowSet rs = outputRowSets.get( 0 );
       putRowToRowSet( rs, rowMeta, row );
-      incrementLinesWritten();
+      linesWrittenCounter.increment();
     }
   }
 
@@ -1597,6 +1699,34 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
   }
 
+  private int putRowsToRowSet( RowSet rs, RowMetaInterface rowMeta, Object[][] rows, int nrRows ) {
+    RowMetaInterface toBeSent;
+    RowMetaInterface metaFromRs = rs.getRowMeta();
+    if ( metaFromRs == null ) {
+      // RowSet is not initialised so far
+      toBeSent = rowMeta.clone();
+    } else {
+      // use the existing
+      toBeSent = metaFromRs;
+    }
+
+    int offset = 0;
+    Object[][] remaining = rows;
+    while ( offset < nrRows ) {
+      int nrPut = rs.putRows( toBeSent, remaining, nrRows - offset );
+      if ( nrPut > 0 ) {
+        offset += nrPut;
+        if ( offset < nrRows ) {
+          // The rowset filled up: offer the rest of the batch again
+          remaining = Arrays.copyOfRange( rows, offset, nrRows );
+        }
+      } else if ( isStopped() && !safeStopped.get() ) {
+        break;
+      }
+    }
+    return offset;
+  }
+
   /**
    * putRowTo is used to put a row in a certain specific RowSet.
    *
@@ -1615,7 +1745,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     while ( paused.get() && !stopped.get() ) {
       try {
-        Thread.sleep( 1 );
+        park( TimeUnit.MILLISECONDS.toNanos( 1 ) );
       } catch ( InterruptedException e ) {
         throw new KettleStepException( e );
       }
@@ -1651,7 +1781,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         break;
       }
     }
-    incrementLinesWritten();
+    linesWrittenCounter.increment();
   }
 
   /**
@@ -1710,7 +1840,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           break;
         }
       }
-      incrementLinesRejected();
+      linesRejectedCounter.increment();
     }
 
     verifyRejectionRates();
@@ -1799,7 +1929,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
         try {
-          Thread.sleep( 1 );
+          park( TimeUnit.MILLISECONDS.toNanos( 1 ) );
         } catch ( InterruptedException e ) {
           // Ignore sleep interruption exception
         }
@@ -1808,6 +1938,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
   }
 
+  /**
+   * Waits without spinning: a parked virtual step thread releases its carrier thread to the other steps.
+   *
+   * @param nanos
+   *          the maximum time to wait
+   * @throws InterruptedException
+   *           in case the step thread was interrupted
+   */
+  private static void park( long nanos ) throws InterruptedException {
+    LockSupport.parkNanos( nanos );
+    if ( Thread.interrupted() ) {
+      throw new InterruptedException();
+    }
+  }
+
 
   /**
    * In case of getRow, we receive data from previous steps through the input rowset. In case we split the stream, we
@@ -1818,6 +1963,92 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return getRowHandler().getRow();
   }
 
+  /**
+   * Gets a batch of rows from the previous step(s). This waits for the first row just like {@link #getRow()} and then
+   * adds the rows that are immediately available in the same input rowset, up to the given maximum. The rows of the
+   * batch are counted and passed to the row listeners one by one, like the rows read with {@link #getRow()}.
+   *
+   * @param max The maximum number of rows to return
+   * @return the rows in the batch (at least one) or null if there are no more rows to be expected.
+   * @throws KettleException In case something goes wrong
+   */
+  public Object[][] getRows( int max ) throws KettleException {
+    Object[] row = getRow();
+    if ( row == null ) {
+      return null;
+    }
+    if ( max <= 1 || !( getRowHandler() instanceof DefaultRowHandler ) ) {
+      return new Object[][] { row };
+    }
+
+    Object[][] more = getAvailableRows( max - 1 );
+    if ( more.length == 0 ) {
+      return new Object[][] { row };
+    }
+
+    Object[][] rows = new Object[ more.length + 1 ][];
+    rows[ 0 ] = row;
+    System.arraycopy( more, 0, rows, 1, more.length );
+    return rows;
+  }
+
+  /**
+   * Takes the rows that are immediately available in the input rowset the last row was read from, with the
+   * bookkeeping of {@link #handleGetRow()}: nothing is taken while the step is paused or stopped, the rows count
+   * towards the block read from the rowset before switching to the next one, and every row is counted and passed to
+   * the row listeners. Rowsets that are done are removed by the next {@link #getRow()}.
+   */
+  private Object[][] getAvailableRows( int max ) throws KettleException {
+    if ( paused.get() || stopped.get() ) {
+      return NO_ROWS;
+    }
+
+    Object[][] rows;
+    inputRowSetsLock.readLock().lock();
+    try {
+      if ( inputRowSets.isEmpty() || currentInputRowSetNr >= inputRowSets.size() ) {
+        return NO_ROWS;
+      }
+      int limit = max;
+      if ( inputRowSets.size() > 1 ) {
+        // Leave the switch to the next input rowset to handleGetRow()
+        limit = Math.min( max, NR_OF_ROWS_IN_BLOCK - blockPointer );
+        if ( limit <= 0 ) {
+          return NO_ROWS;
+        }
+      }
+      rows = inputRowSets.get( currentInputRowSetNr ).getRows( limit );
+      blockPointer += rows.length;
+    } finally {
+      inputRowSetsLock.readLock().unlock();
+    }
+
+    linesReadCounter.add( rows.length );
+    for ( Object[] row : rows ) {
+      for ( RowListener listener : rowListeners ) {
+        listener.rowReadEvent( inputRowMeta, row );
+      }
+    }
+    verifyRejectionRates();
+    return rows;
+  }
+
+  /**
+   * @return the maximum number of rows the step should read or write in one call: 1 if the step doesn't
+   *         {@link #supportsRowBatches() support row batches}.
+   * @see Const#KETTLE_ROW_BATCH_SIZE
+   */
+  protected int getRowBatchSize() {
+    if ( rowBatchSize <= 0 ) {
+      if ( supportsRowBatches() ) {
+        rowBatchSize = Math.max( 1, Const.toInt( getVariable( Const.KETTLE_ROW_BATCH_SIZE ), Const.ROWS_IN_BATCH ) );
+      } else {
+        rowBatchSize = 1;
+      }
+    }
+    return rowBatchSize;
+  }
+
 
   private Object[] handleGetRow() throws KettleException {
 
@@ -1825,7 +2056,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     while ( paused.get() && !stopped.get() ) {
       try {
-        Thread.sleep( 100 );
+        park( TimeUnit.MILLISECONDS.toNanos( 100 ) );
       } catch ( InterruptedException e ) {
         throw new KettleStepException( e );
       }
@@ -1872,7 +2103,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           row = inputRowSet.getRowImmediate();
         }
         if ( row != null ) {
-          incrementLinesRead();
+          linesReadCounter.increment();
         }
       } else {
         // What's the current input stream?
@@ -1886,7 +2117,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       if ( isUsingThreadPriorityManagment()
         && !inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped() ) {
         try {
-          Thread.sleep( 0, 1 );
+          park( PRIORITY_PARK_NANOS );
         } catch ( InterruptedException e ) {
           // Ignore sleep interruption exception
         }
@@ -1911,7 +2142,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         //
         row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
         if ( row != null ) {
-          incrementLinesRead();
+          linesReadCounter.increment();
           blockPointer++;
         } else {
           // Try once more...
@@ -1942,7 +2173,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
                 inputRowSetsLock.writeLock().unlock();
               }
             } else {
-              incrementLinesRead();
+              linesReadCounter.increment();
             }
           }
           nextInputStream();
@@ -2214,7 +2445,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     while ( paused.get() && !stopped.get() ) {
       try {
-        Thread.sleep( 10 );
+        park( TimeUnit.MILLISECONDS.toNanos( 10 ) );
       } catch ( InterruptedException e ) {
         throw new KettleStepException( e );
       }
@@ -2226,7 +2457,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
         try {
-          Thread.sleep( 1 );
+          park( TimeUnit.MILLISECONDS.toNanos( 1 ) );
         } catch ( InterruptedException e ) {
           // Ignore sleep interruption exception
         }
@@ -2242,7 +2473,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     if ( isUsingThreadPriorityManagment()
       && !rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped() ) {
       try {
-        Thread.sleep( 0, 1 );
+        park( PRIORITY_PARK_NANOS );
       } catch ( InterruptedException e ) {
         // Ignore sleep interruption exception
       }
@@ -2312,7 +2543,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         }
       }
     }
-    incrementLinesRead();
+    linesReadCounter.increment();
 
     // call all rowlisteners...
     //
@@ -3380,22 +3611,20 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
     }
   }
 
@@ -3730,6 +3959,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       && ( lines % getTransMeta().getFeedbackSize() ) == 0;
   }
 
+  /**
+   * Same as {@link #checkFeedback(long)} for steps processing batches of rows: checks if a multiple of the feedback size
+   * was passed while going from linesBefore to linesAfter.
+   */
+  protected boolean checkFeedback( long linesBefore, long linesAfter ) {
+    int feedbackSize = getTransMeta().getFeedbackSize();
+    return getTransMeta().isFeedbackShown()
+      && ( linesAfter > 0 ) && ( feedbackSize > 0 )
+      && ( linesAfter / feedbackSize ) > ( linesBefore / feedbackSize );
+  }
+
   /**
    * @return the rowMeta
    */
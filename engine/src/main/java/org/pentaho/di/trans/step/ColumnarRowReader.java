@@ -0,0 +1,273 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
+import org.pentaho.di.core.exception.KettleEOFException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Reads the rows written by a {@link ColumnarRowWriter}, frame by frame.
+ */
+public class ColumnarRowReader {
+
+  private final DataInputStream inputStream;
+  private final RowMetaInterface rowMeta;
+  private final CompressionProvider compressionProvider;
+  private final byte[] encodings;
+
+  private final ColumnarRowWriter.FrameBuffer frame = new ColumnarRowWriter.FrameBuffer();
+  private final ColumnarRowWriter.FrameBuffer payload = new ColumnarRowWriter.FrameBuffer();
+
+  private Object[][] rows = new Object[ 0 ][];
+  private boolean[] nulls = new boolean[ 0 ];
+  private int nrRows;
+  private int nextRow;
+  private boolean finished;
+
+  /**
+   * Reads the header of the stream, the magic number was already read.
+   *
+   * @param inputStream
+   *          the stream to read from
+   * @throws KettleException
+   *           in case the version or the compression provider is unknown
+   */
+  public ColumnarRowReader( DataInputStream inputStream ) throws KettleException, IOException {
+    this.inputStream = inputStream;
+
+    int version = inputStream.readInt();
+    if ( version != ColumnarRowWriter.VERSION ) {
+      throw new KettleException( "Unsupported version " + version + " of the columnar remote step protocol" );
+    }
+    String compressionName = inputStream.readUTF();
+    if ( compressionName.isEmpty() ) {
+      compressionProvider = null;
+    } else {
+      compressionProvider = CompressionProviderFactory.getInstance().getCompressionProviderByName( compressionName );
+      if ( compressionProvider == null ) {
+        throw new KettleException( "Unknown compression provider [" + compressionName
+          + "] in the columnar remote step protocol" );
+      }
+    }
+    rowMeta = new RowMeta( inputStream );
+
+    encodings = new byte[ rowMeta.size() ];
+    for ( int i = 0; i < encodings.length; i++ ) {
+      encodings[ i ] = ColumnarRowWriter.getEncoding( rowMeta.getValueMeta( i ) );
+    }
+  }
+
+  /**
+   * @return the metadata of the rows
+   */
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return the next row or null at the end of the stream
+   */
+  public Object[] getRow() throws KettleFileException, IOException {
+    if ( nextRow == nrRows ) {
+      if ( finished || !readFrame() ) {
+        return null;
+      }
+    }
+    Object[] row = rows[ nextRow ];
+    rows[ nextRow++ ] = null;
+    return row;
+  }
+
+  private boolean readFrame() throws KettleFileException, IOException {
+    nrRows = inputStream.readInt();
+    nextRow = 0;
+    if ( nrRows == 0 ) {
+      finished = true;
+      return false;
+    }
+
+    int length = inputStream.readInt();
+    frame.ensureCapacity( length );
+    inputStream.readFully( frame.getBuffer(), 0, length );
+    frame.setSize( length );
+
+    DataInputStream in;
+    if ( compressionProvider == null ) {
+      in = new DataInputStream( new ByteArrayInputStream( frame.getBuffer(), 0, length ) );
+    } else {
+      payload.reset();
+      try ( InputStream decompressed =
+              compressionProvider.createInputStream( new ByteArrayInputStream( frame.getBuffer(), 0, length ) ) ) {
+        byte[] buffer = new byte[ 8192 ];
+        int read;
+        while ( ( read = decompressed.read( buffer ) ) >= 0 ) {
+          payload.write( buffer, 0, read );
+        }
+      }
+      in = new DataInputStream( new ByteArrayInputStream( payload.getBuffer(), 0, payload.size() ) );
+    }
+
+    if ( rows.length < nrRows ) {
+      rows = new Object[ nrRows ][];
+      nulls = new boolean[ nrRows ];
+    }
+    for ( int r = 0; r < nrRows; r++ ) {
+      rows[ r ] = RowDataUtil.allocateRowData( rowMeta.size() );
+    }
+    for ( int i = 0; i < encodings.length; i++ ) {
+      readColumn( in, i );
+    }
+    return true;
+  }
+
+  private void readColumn( DataInputStream in, int column ) throws KettleFileException, IOException {
+    byte encoding = encodings[ column ];
+    if ( encoding == ColumnarRowWriter.ENCODING_VALUE_META ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( column );
+      for ( int r = 0; r < nrRows; r++ ) {
+        try {
+          rows[ r ][ column ] = valueMeta.readData( in );
+        } catch ( KettleEOFException e ) {
+          throw new KettleFileException( "Unexpected end of a columnar frame", e );
+        }
+      }
+      return;
+    }
+
+    readNulls( in );
+    switch ( encoding ) {
+      case ColumnarRowWriter.ENCODING_INTEGER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          if ( !nulls[ r ] ) {
+            rows[ r ][ column ] = unZigZag( readVarLong( in ) );
+          }
+        }
+        break;
+      case ColumnarRowWriter.ENCODING_NUMBER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          if ( !nulls[ r ] ) {
+            rows[ r ][ column ] = in.readDouble();
+          }
+        }
+        break;
+      case ColumnarRowWriter.ENCODING_DATE:
+        for ( int r = 0; r < nrRows; r++ ) {
+          if ( !nulls[ r ] ) {
+            rows[ r ][ column ] = new Date( unZigZag( readVarLong( in ) ) );
+          }
+        }
+        break;
+      case ColumnarRowWriter.ENCODING_BOOLEAN:
+        readBooleans( in, column );
+        break;
+      case ColumnarRowWriter.ENCODING_BIGNUMBER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          if ( !nulls[ r ] ) {
+            rows[ r ][ column ] = new BigDecimal( readString( in ) );
+          }
+        }
+        break;
+      default:
+        readStrings( in, column );
+        break;
+    }
+  }
+
+  private void readNulls( DataInputStream in ) throws IOException {
+    if ( in.readByte() == 0 ) {
+      for ( int r = 0; r < nrRows; r++ ) {
+        nulls[ r ] = false;
+      }
+      return;
+    }
+    int bits = 0;
+    for ( int r = 0; r < nrRows; r++ ) {
+      if ( ( r & 7 ) == 0 ) {
+        bits = in.readUnsignedByte();
+      }
+      nulls[ r ] = ( bits & ( 1 << ( r & 7 ) ) ) != 0;
+    }
+  }
+
+  private void readBooleans( DataInputStream in, int column ) throws IOException {
+    int bits = 0;
+    int nrBits = 8;
+    for ( int r = 0; r < nrRows; r++ ) {
+      if ( !nulls[ r ] ) {
+        if ( nrBits == 8 ) {
+          bits = in.readUnsignedByte();
+          nrBits = 0;
+        }
+        rows[ r ][ column ] = ( bits & ( 1 << nrBits++ ) ) != 0;
+      }
+    }
+  }
+
+  private void readStrings( DataInputStream in, int column ) throws IOException {
+    String[] strings = new String[ (int) readVarLong( in ) ];
+    for ( int i = 0; i < strings.length; i++ ) {
+      strings[ i ] = readString( in );
+    }
+
+    int runLength = 0;
+    String value = null;
+    for ( int r = 0; r < nrRows; r++ ) {
+      if ( !nulls[ r ] ) {
+        if ( runLength == 0 ) {
+          value = strings[ (int) readVarLong( in ) ];
+          runLength = (int) readVarLong( in );
+        }
+        rows[ r ][ column ] = value;
+        runLength--;
+      }
+    }
+  }
+
+  private static String readString( DataInputStream in ) throws IOException {
+    byte[] bytes = new byte[ (int) readVarLong( in ) ];
+    in.readFully( bytes );
+    return new String( bytes, StandardCharsets.UTF_8 );
+  }
+
+  private static long unZigZag( long value ) {
+    return ( value >>> 1 ) ^ -( value & 1 );
+  }
+
+  private static long readVarLong( DataInputStream in ) throws IOException {
+    long value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.readUnsignedByte();
+      value |= (long) ( b & 0x7F ) << shift;
+      shift += 7;
+    } while ( ( b & 0x80 ) != 0 );
+    return value;
+  }
+}
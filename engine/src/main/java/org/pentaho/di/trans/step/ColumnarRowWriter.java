@@ -0,0 +1,385 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Writes rows to a remote step in column oriented frames.<br>
+ * <br>
+ * The stream starts with a header: a magic number that can't be the field count of a row metadata, the protocol
+ * version, the name of the compression provider of the frames and the row metadata. The reader of a remote step
+ * recognizes the magic number and otherwise reads the stream row by row.<br>
+ * <br>
+ * Every frame holds up to the frame size rows: the number of rows, the length of the payload and the payload,
+ * compressed by the compression provider. The payload has the values per column: integers, dates and string
+ * dictionary codes as variable length numbers, strings in a dictionary with run-length encoded codes. Other values
+ * are written by their value metadata. A frame without rows ends the stream.<br>
+ * <br>
+ * The buffers are reused from frame to frame.
+ */
+public class ColumnarRowWriter {
+
+  /**
+   * "KCOL" with the sign bit set. A stream sent row by row starts with the field count of the row metadata, which is
+   * never negative, so the reader can't take one for the other.
+   */
+  public static final int MAGIC = 0xCB434F4C;
+  public static final int VERSION = 1;
+  public static final int DEFAULT_FRAME_SIZE = 1000;
+
+  static final byte ENCODING_INTEGER = 1;
+  static final byte ENCODING_NUMBER = 2;
+  static final byte ENCODING_STRING = 3;
+  static final byte ENCODING_DATE = 4;
+  static final byte ENCODING_BOOLEAN = 5;
+  static final byte ENCODING_BIGNUMBER = 6;
+  static final byte ENCODING_VALUE_META = 7;
+
+  private final RowMetaInterface rowMeta;
+  private final DataOutputStream outputStream;
+  private final CompressionProvider compressionProvider;
+  private final int frameSize;
+  private final byte[] encodings;
+
+  private final Object[][] rows;
+  private int nrRows;
+
+  private final FrameBuffer payload = new FrameBuffer();
+  private final DataOutputStream payloadStream = new DataOutputStream( payload );
+  private final FrameBuffer compressed = new FrameBuffer();
+  private final Map<String, Integer> dictionary = new HashMap<>();
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows
+   * @param outputStream
+   *          the stream to write to
+   * @param compressionProvider
+   *          the compression of the frames, null to not compress them
+   * @param frameSize
+   *          the maximum number of rows in a frame
+   */
+  public ColumnarRowWriter( RowMetaInterface rowMeta, DataOutputStream outputStream,
+    CompressionProvider compressionProvider, int frameSize ) {
+    this.rowMeta = rowMeta;
+    this.outputStream = outputStream;
+    this.compressionProvider = compressionProvider;
+    this.frameSize = Math.max( 1, frameSize );
+
+    encodings = new byte[ rowMeta.size() ];
+    for ( int i = 0; i < encodings.length; i++ ) {
+      encodings[ i ] = getEncoding( rowMeta.getValueMeta( i ) );
+    }
+    rows = new Object[ this.frameSize ][];
+  }
+
+  static byte getEncoding( ValueMetaInterface valueMeta ) {
+    if ( valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+      return ENCODING_VALUE_META;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return ENCODING_INTEGER;
+      case ValueMetaInterface.TYPE_NUMBER:
+        return ENCODING_NUMBER;
+      case ValueMetaInterface.TYPE_STRING:
+        return ENCODING_STRING;
+      case ValueMetaInterface.TYPE_DATE:
+        return ENCODING_DATE;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return ENCODING_BOOLEAN;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return ENCODING_BIGNUMBER;
+      default:
+        return ENCODING_VALUE_META;
+    }
+  }
+
+  /**
+   * Writes the header of the stream.
+   */
+  public void writeHeader() throws KettleFileException, IOException {
+    outputStream.writeInt( MAGIC );
+    outputStream.writeInt( VERSION );
+    outputStream.writeUTF( compressionProvider == null ? "" : compressionProvider.getName() );
+    rowMeta.writeMeta( outputStream );
+  }
+
+  /**
+   * Adds a row, the frame is written when it is full.
+   */
+  public void putRow( Object[] row ) throws KettleFileException, IOException {
+    rows[ nrRows++ ] = row;
+    if ( nrRows == frameSize ) {
+      writeFrame();
+    }
+  }
+
+  /**
+   * Writes the last frame and the end of the stream.
+   */
+  public void finish() throws KettleFileException, IOException {
+    if ( nrRows > 0 ) {
+      writeFrame();
+    }
+    outputStream.writeInt( 0 );
+    outputStream.flush();
+  }
+
+  private void writeFrame() throws KettleFileException, IOException {
+    payload.reset();
+    for ( int i = 0; i < encodings.length; i++ ) {
+      writeColumn( i );
+    }
+    payloadStream.flush();
+
+    FrameBuffer frame = payload;
+    if ( compressionProvider != null ) {
+      compressed.reset();
+      try ( OutputStream out = compressionProvider.createOutputStream( new NonClosingOutputStream( compressed ) ) ) {
+        payload.writeTo( out );
+      }
+      frame = compressed;
+    }
+
+    outputStream.writeInt( nrRows );
+    outputStream.writeInt( frame.size() );
+    frame.writeTo( outputStream );
+
+    for ( int r = 0; r < nrRows; r++ ) {
+      rows[ r ] = null;
+    }
+    nrRows = 0;
+  }
+
+  private void writeColumn( int column ) throws KettleFileException, IOException {
+    byte encoding = encodings[ column ];
+    if ( encoding == ENCODING_VALUE_META ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( column );
+      for ( int r = 0; r < nrRows; r++ ) {
+        valueMeta.writeData( payloadStream, rows[ r ][ column ] );
+      }
+      return;
+    }
+
+    writeNulls( column );
+    switch ( encoding ) {
+      case ENCODING_INTEGER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          Object value = rows[ r ][ column ];
+          if ( value != null ) {
+            writeVarLong( payloadStream, zigZag( (Long) value ) );
+          }
+        }
+        break;
+      case ENCODING_NUMBER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          Object value = rows[ r ][ column ];
+          if ( value != null ) {
+            payloadStream.writeDouble( (Double) value );
+          }
+        }
+        break;
+      case ENCODING_DATE:
+        for ( int r = 0; r < nrRows; r++ ) {
+          Object value = rows[ r ][ column ];
+          if ( value != null ) {
+            writeVarLong( payloadStream, zigZag( ( (Date) value ).getTime() ) );
+          }
+        }
+        break;
+      case ENCODING_BOOLEAN:
+        writeBooleans( column );
+        break;
+      case ENCODING_BIGNUMBER:
+        for ( int r = 0; r < nrRows; r++ ) {
+          Object value = rows[ r ][ column ];
+          if ( value != null ) {
+            writeString( payloadStream, ( (BigDecimal) value ).toString() );
+          }
+        }
+        break;
+      default:
+        writeStrings( column );
+        break;
+    }
+  }
+
+  private void writeNulls( int column ) throws IOException {
+    int nrNulls = 0;
+    for ( int r = 0; r < nrRows; r++ ) {
+      if ( rows[ r ][ column ] == null ) {
+        nrNulls++;
+      }
+    }
+    if ( nrNulls == 0 ) {
+      payloadStream.writeByte( 0 );
+      return;
+    }
+    payloadStream.writeByte( 1 );
+    int bits = 0;
+    for ( int r = 0; r < nrRows; r++ ) {
+      if ( rows[ r ][ column ] == null ) {
+        bits |= 1 << ( r & 7 );
+      }
+      if ( ( r & 7 ) == 7 ) {
+        payloadStream.writeByte( bits );
+        bits = 0;
+      }
+    }
+    if ( ( nrRows & 7 ) != 0 ) {
+      payloadStream.writeByte( bits );
+    }
+  }
+
+  private void writeBooleans( int column ) throws IOException {
+    int bits = 0;
+    int nrBits = 0;
+    for ( int r = 0; r < nrRows; r++ ) {
+      Object value = rows[ r ][ column ];
+      if ( value != null ) {
+        if ( (Boolean) value ) {
+          bits |= 1 << nrBits;
+        }
+        if ( ++nrBits == 8 ) {
+          payloadStream.writeByte( bits );
+          bits = 0;
+          nrBits = 0;
+        }
+      }
+    }
+    if ( nrBits > 0 ) {
+      payloadStream.writeByte( bits );
+    }
+  }
+
+  // The distinct strings of the frame, then runs of dictionary codes
+  //
+  private void writeStrings( int column ) throws IOException {
+    dictionary.clear();
+    for ( int r = 0; r < nrRows; r++ ) {
+      Object value = rows[ r ][ column ];
+      if ( value != null ) {
+        dictionary.putIfAbsent( (String) value, dictionary.size() );
+      }
+    }
+    String[] strings = new String[ dictionary.size() ];
+    for ( Map.Entry<String, Integer> entry : dictionary.entrySet() ) {
+      strings[ entry.getValue() ] = entry.getKey();
+    }
+    writeVarLong( payloadStream, strings.length );
+    for ( String string : strings ) {
+      writeString( payloadStream, string );
+    }
+
+    int runCode = -1;
+    int runLength = 0;
+    for ( int r = 0; r < nrRows; r++ ) {
+      Object value = rows[ r ][ column ];
+      if ( value != null ) {
+        int code = dictionary.get( value );
+        if ( code == runCode ) {
+          runLength++;
+        } else {
+          if ( runLength > 0 ) {
+            writeVarLong( payloadStream, runCode );
+            writeVarLong( payloadStream, runLength );
+          }
+          runCode = code;
+          runLength = 1;
+        }
+      }
+    }
+    if ( runLength > 0 ) {
+      writeVarLong( payloadStream, runCode );
+      writeVarLong( payloadStream, runLength );
+    }
+  }
+
+  static void writeString( DataOutputStream out, String string ) throws IOException {
+    byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+    writeVarLong( out, bytes.length );
+    out.write( bytes );
+  }
+
+  static long zigZag( long value ) {
+    return ( value << 1 ) ^ ( value >> 63 );
+  }
+
+  static void writeVarLong( DataOutputStream out, long value ) throws IOException {
+    while ( ( value & ~0x7FL ) != 0 ) {
+      out.writeByte( (int) ( ( value & 0x7F ) | 0x80 ) );
+      value >>>= 7;
+    }
+    out.writeByte( (int) value );
+  }
+
+  /**
+   * A byte array output stream that exposes its buffer so that it can be reused.
+   */
+  static class FrameBuffer extends ByteArrayOutputStream {
+    FrameBuffer() {
+      super( 64 * 1024 );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+
+    void ensureCapacity( int capacity ) {
+      if ( buf.length < capacity ) {
+        buf = new byte[ Math.max( capacity, buf.length * 2 ) ];
+      }
+    }
+
+    void setSize( int size ) {
+      count = size;
+    }
+  }
+
+  /**
+   * Compression streams close the stream they wrap, the frame buffer is reused.
+   */
+  private static class NonClosingOutputStream extends OutputStream {
+    private final OutputStream out;
+
+    NonClosingOutputStream( OutputStream out ) {
+      this.out = out;
+    }
+
+    @Override
+    public void write( int b ) throws IOException {
+      out.write( b );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException {
+      out.write( b, off, len );
+    }
+  }
+}
@@ -0,0 +1,259 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * Looks up many keys in a database table with a single query. The keys are compared with "=" and sent as parameters
+ * of a <code>WHERE key IN (?, ?, ...)</code> clause, or of a list of <code>(key1 = ? AND key2 = ?) OR ...</code>
+ * for composite keys. The statement is prepared once for the batch size, smaller batches repeat their last key.<br>
+ * <br>
+ * Lookup style steps can use this to replace a query per row with a query per batch of rows.
+ */
+public class DatabaseBatchLookup {
+
+  private final Database db;
+  private final RowMetaInterface keyMeta;
+  private final int nrKeys;
+  private final int batchSize;
+  private final String sql;
+  private final RowMetaInterface paramsMeta;
+
+  private PreparedStatement prepStatement;
+  private RowMetaInterface returnRowMeta;
+
+  /**
+   * @param db
+   *          the connected database
+   * @param schemaTable
+   *          the quoted schema and table combination
+   * @param keyFields
+   *          the key fields in the table
+   * @param keyMeta
+   *          the metadata of the keys to look up, in the order of the key fields
+   * @param returnFields
+   *          the fields in the table to return
+   * @param orderBy
+   *          the order by clause, the first row of a key in this order is the first returned row, may be empty
+   * @param batchSize
+   *          the maximum number of keys looked up with one query
+   */
+  public DatabaseBatchLookup( Database db, String schemaTable, String[] keyFields, RowMetaInterface keyMeta,
+    String[] returnFields, String orderBy, int batchSize ) {
+    this.db = db;
+    this.keyMeta = keyMeta;
+    this.nrKeys = keyFields.length;
+    this.batchSize = batchSize;
+
+    DatabaseMeta dbMeta = db.getDatabaseMeta();
+    StringBuilder select = new StringBuilder( "SELECT " );
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      select.append( dbMeta.quoteField( keyFields[ i ] ) ).append( ", " );
+    }
+    for ( int i = 0; i < returnFields.length; i++ ) {
+      if ( i > 0 ) {
+        select.append( ", " );
+      }
+      select.append( dbMeta.quoteField( returnFields[ i ] ) );
+    }
+    select.append( " FROM " ).append( schemaTable ).append( " WHERE " );
+
+    paramsMeta = new RowMeta();
+    if ( nrKeys == 1 ) {
+      select.append( dbMeta.quoteField( keyFields[ 0 ] ) ).append( " IN (" );
+      for ( int i = 0; i < batchSize; i++ ) {
+        select.append( i > 0 ? ", ?" : "?" );
+        paramsMeta.addValueMeta( keyMeta.getValueMeta( 0 ).clone() );
+      }
+      select.append( ")" );
+    } else {
+      for ( int i = 0; i < batchSize; i++ ) {
+        select.append( i > 0 ? " OR ( " : "( " );
+        for ( int k = 0; k < nrKeys; k++ ) {
+          if ( k > 0 ) {
+            select.append( " AND " );
+          }
+          select.append( dbMeta.quoteField( keyFields[ k ] ) ).append( " = ?" );
+          paramsMeta.addValueMeta( keyMeta.getValueMeta( k ).clone() );
+        }
+        select.append( " )" );
+      }
+    }
+
+    if ( !Utils.isEmpty( orderBy ) ) {
+      select.append( " ORDER BY " ).append( orderBy );
+    }
+    sql = select.toString();
+  }
+
+  /**
+   * Looks up the keys. Keys with a null value are never found, like with a "=" condition.<br>
+   * <br>
+   * The returned keys are matched to the keys looked up the way Kettle compares them, after a conversion to the key
+   * types. The database may compare differently, for example with padded CHAR columns or a case insensitive
+   * collation: a key without rows isn't necessarily missing from the table, look it up on its own before taking it
+   * as missing.
+   *
+   * @param keys
+   *          the keys to look up
+   * @return for every key, the rows of return values found. Only the first 2 rows of a key are kept, enough to see
+   *         that a key isn't unique.
+   * @throws KettleDatabaseException
+   *           in case the query fails or the keys can't be compared
+   */
+  public Map<Object[], List<Object[]>> lookup( List<Object[]> keys ) throws KettleDatabaseException {
+    try {
+      Map<Object[], List<Object[]>> results = new TreeMap<>( this::compareKeys );
+      for ( Object[] key : keys ) {
+        results.put( key, new ArrayList<>( 1 ) );
+      }
+
+      List<Object[]> batch = new ArrayList<>( batchSize );
+      for ( Object[] key : results.keySet() ) {
+        if ( !hasNull( key ) ) {
+          batch.add( key );
+        }
+        if ( batch.size() == batchSize ) {
+          lookupBatch( batch, results );
+          batch.clear();
+        }
+      }
+      if ( !batch.isEmpty() ) {
+        lookupBatch( batch, results );
+      }
+      return results;
+    } catch ( KeyComparisonException e ) {
+      throw new KettleDatabaseException( e.getMessage(), e.getCause() );
+    }
+  }
+
+  private void lookupBatch( List<Object[]> batch, Map<Object[], List<Object[]>> results )
+    throws KettleDatabaseException {
+    if ( prepStatement == null ) {
+      prepStatement = db.prepareSQL( sql );
+    }
+
+    Object[] params = new Object[ paramsMeta.size() ];
+    for ( int i = 0; i < batchSize; i++ ) {
+      Object[] key = batch.get( Math.min( i, batch.size() - 1 ) );
+      System.arraycopy( key, 0, params, i * nrKeys, nrKeys );
+    }
+
+    ResultSet resultSet = db.openQuery( prepStatement, paramsMeta, params );
+    try {
+      RowMetaInterface rowMeta = db.getReturnRowMeta();
+      if ( returnRowMeta == null ) {
+        returnRowMeta = new RowMeta();
+        for ( int i = nrKeys; i < rowMeta.size(); i++ ) {
+          returnRowMeta.addValueMeta( rowMeta.getValueMeta( i ) );
+        }
+      }
+
+      Object[] row = db.getRow( resultSet );
+      while ( row != null ) {
+        // The database may return another type than the type of the key, a BigDecimal for an Integer for example
+        Object[] key = new Object[ nrKeys ];
+        for ( int i = 0; i < nrKeys; i++ ) {
+          try {
+            key[ i ] = keyMeta.getValueMeta( i ).convertData( rowMeta.getValueMeta( i ), row[ i ] );
+          } catch ( KettleValueException e ) {
+            throw new KettleDatabaseException( "Batch lookup: unable to convert a returned key", e );
+          }
+        }
+        List<Object[]> rows = results.get( key );
+        if ( rows != null && rows.size() < 2 ) {
+          Object[] values = new Object[ returnRowMeta.size() ];
+          System.arraycopy( row, nrKeys, values, 0, values.length );
+          rows.add( values );
+        }
+        row = db.getRow( resultSet );
+      }
+    } finally {
+      // Don't use closeQuery(), the prepared statement is reused for the next batch
+      try {
+        resultSet.close();
+      } catch ( SQLException e ) {
+        throw new KettleDatabaseException( "Unable to close the result set of a batch lookup", e );
+      }
+    }
+  }
+
+  private int compareKeys( Object[] key1, Object[] key2 ) {
+    try {
+      return keyMeta.compare( key1, key2 );
+    } catch ( KettleValueException | ClassCastException e ) {
+      throw new KeyComparisonException( e );
+    }
+  }
+
+  /**
+   * Thrown out of the comparator of the results, turned into a {@link KettleDatabaseException} by the lookup.
+   */
+  private static class KeyComparisonException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    KeyComparisonException( Exception cause ) {
+      super( "Batch lookup: unable to compare keys because of a data conversion problem", cause );
+    }
+  }
+
+  private static boolean hasNull( Object[] key ) {
+    for ( Object value : key ) {
+      if ( value == null ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the metadata of the returned values, null before the first query
+   */
+  public RowMetaInterface getReturnRowMeta() {
+    return returnRowMeta;
+  }
+
+  /**
+   * @return the SQL of a batch
+   */
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * Closes the prepared statement, the database connection is left open.
+   *
+   * @throws KettleDatabaseException
+   *           in case the statement can't be closed
+   */
+  public void close() throws KettleDatabaseException {
+    db.closePreparedStatement( prepStatement );
+    prepStatement = null;
+  }
+}
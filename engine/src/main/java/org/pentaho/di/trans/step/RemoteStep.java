@@ -17,13 +17,16 @@ import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.spec.InvalidKeySpecException;
@@ -37,12 +40,15 @@ import javax.crypto.CipherOutputStream;
 
 import org.pentaho.di.core.BlockingRowSet;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
 import org.pentaho.di.core.encryption.CertificateGenEncryptUtil;
 import org.pentaho.di.core.exception.KettleEOFException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.core.xml.XMLInterface;
 import org.pentaho.di.www.SocketRepository;
@@ -51,7 +57,11 @@ import org.w3c.dom.Node;
 /**
  * Defines and handles communication to and from remote steps.
  *
- * TODO: add compression as a parameter/option TODO add buffer size as a parameter
+ * The rows are sent one by one, or in column oriented frames when the variable KETTLE_REMOTE_STEP_ROW_PROTOCOL is
+ * set to COLUMNAR on the sending side. The frames are compressed with the compression provider named in the variable
+ * KETTLE_REMOTE_STEP_COMPRESSION. The receiving side recognizes the protocol from the header of the stream.
+ *
+ * TODO add buffer size as a parameter
  *
  * @author Matt
  *
@@ -62,6 +72,9 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
   private static final long TIMEOUT_IN_SECONDS = 30;
 
+  /** The value of KETTLE_REMOTE_STEP_ROW_PROTOCOL that sends the rows in column oriented frames */
+  public static final String ROW_PROTOCOL_COLUMNAR = "COLUMNAR";
+
   /** The target or source slave server with which we're exchanging data */
   private String targetSlaveServerName;
 
@@ -109,6 +122,8 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
   private BufferedInputStream bufferedInputStream;
 
+  private PushbackInputStream pushbackInputStream;
+
   protected BufferedOutputStream bufferedOutputStream;
 
   protected RowMetaInterface rowMeta;
@@ -384,8 +399,15 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
           // get a row of data...
           Object[] rowData = baseStep.getRowFrom( rowSet );
+          ColumnarRowWriter columnarWriter = null;
           if ( rowData != null ) {
-            rowSet.getRowMeta().writeMeta( outputStream );
+            if ( isUsingColumnarProtocol() ) {
+              columnarWriter = new ColumnarRowWriter( rowSet.getRowMeta(), outputStream,
+                getFrameCompressionProvider(), ColumnarRowWriter.DEFAULT_FRAME_SIZE );
+              columnarWriter.writeHeader();
+            } else {
+              rowSet.getRowMeta().writeMeta( outputStream );
+            }
           }
 
           // Send that row to the remote step
@@ -397,7 +419,11 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             // Write the row to the remote step via the output stream....
             //
-            rowSet.getRowMeta().writeData( outputStream, rowData );
+            if ( columnarWriter != null ) {
+              columnarWriter.putRow( rowData );
+            } else {
+              rowSet.getRowMeta().writeData( outputStream, rowData );
+            }
             baseStep.incrementLinesOutput();
 
             if ( baseStep.log.isDebug() ) {
@@ -406,6 +432,10 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             rowData = baseStep.getRowFrom( rowSet );
           }
 
+          if ( columnarWriter != null ) {
+            columnarWriter.finish();
+          }
+
           if ( compressingStreams ) {
             outputStream.flush();
             gzipOutputStream.finish();
@@ -521,14 +551,64 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     }
   }
 
-  private Object[] getRowOfData( RowMetaInterface rowMeta ) throws KettleFileException {
+  private boolean isUsingColumnarProtocol() {
+    return ROW_PROTOCOL_COLUMNAR.equalsIgnoreCase( baseStep.getVariable( Const.KETTLE_REMOTE_STEP_ROW_PROTOCOL ) );
+  }
+
+  private CompressionProvider getFrameCompressionProvider() throws KettleException {
+    String name = baseStep.getVariable( Const.KETTLE_REMOTE_STEP_COMPRESSION );
+    if ( Utils.isEmpty( name ) || "None".equalsIgnoreCase( name ) ) {
+      return null;
+    }
+    CompressionProvider provider = CompressionProviderFactory.getInstance().getCompressionProviderByName( name );
+    if ( provider == null ) {
+      throw new KettleException( "Unknown compression provider [" + name + "] for the remote step frames" );
+    }
+    return provider;
+  }
+
+  /**
+   * Reads the header of the columnar protocol if the stream starts with it.
+   *
+   * @return the reader of the frames or null if the rows are sent one by one
+   */
+  private ColumnarRowReader openColumnarReader() throws KettleException, IOException {
+    byte[] magic = new byte[ 4 ];
+    int length = 0;
+    int read = 0;
+    while ( length < magic.length && read >= 0 ) {
+      read = pushbackInputStream.read( magic, length, magic.length - length );
+      if ( read > 0 ) {
+        length += read;
+      }
+    }
+    if ( length == magic.length && ByteBuffer.wrap( magic ).getInt() == ColumnarRowWriter.MAGIC ) {
+      return new ColumnarRowReader( inputStream );
+    }
+    pushbackInputStream.unread( magic, 0, length );
+    return null;
+  }
+
+  private Object[] getRowOfData( RowMetaInterface rowMeta, ColumnarRowReader columnarReader )
+    throws KettleFileException {
     Object[] rowData = null;
 
     while ( !baseStep.isStopped() && rowData == null ) {
       try {
-        rowData = rowMeta.readData( inputStream );
+        if ( columnarReader != null ) {
+          rowData = columnarReader.getRow();
+          if ( rowData == null ) {
+            throw new KettleEOFException();
+          }
+        } else {
+          rowData = rowMeta.readData( inputStream );
+        }
       } catch ( SocketTimeoutException e ) {
         rowData = null; // try again.
+      } catch ( EOFException e ) {
+        throw new KettleEOFException( e );
+      } catch ( IOException e ) {
+        throw new KettleFileException( e );
       }
     }
 
@@ -605,7 +685,8 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             baseStep.logError( "Error occurred during encryption initialization", ex );
           }
         }
-        inputStream = new DataInputStream( socketStream );
+        pushbackInputStream = new PushbackInputStream( socketStream, 4 );
+        inputStream = new DataInputStream( pushbackInputStream );
 
         lastException = null;
       } catch ( Exception e ) {
@@ -665,9 +746,11 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
           // First read the row meta data from the socket...
           //
           RowMetaInterface rowMeta = null;
+          ColumnarRowReader columnarReader = null;
           while ( !baseStep.isStopped() && rowMeta == null ) {
             try {
-              rowMeta = new RowMeta( inputStream );
+              columnarReader = openColumnarReader();
+              rowMeta = columnarReader != null ? columnarReader.getRowMeta() : new RowMeta( inputStream );
             } catch ( SocketTimeoutException e ) {
               rowMeta = null;
             }
@@ -679,7 +762,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
           // And a first row of data...
           //
-          Object[] rowData = getRowOfData( rowMeta );
+          Object[] rowData = getRowOfData( rowMeta, columnarReader );
 
           // Now get the data itself, row by row...
           //
@@ -693,7 +776,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             baseStep.putRowTo( rowMeta, rowData, rowSet );
             baseStep.decrementLinesWritten();
-            rowData = getRowOfData( rowMeta );
+            rowData = getRowOfData( rowMeta, columnarReader );
           }
         } catch ( KettleEOFException e ) {
           // Nothing, we're simply done reading...
@@ -496,6 +496,16 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
    */
   void setCurrentInputRowSetNr( int index );
 
+  /**
+   * Indicates that this step processes its input in batches of rows through {@link BaseStep#getRows(int)} and
+   * {@link BaseStep#putRows(RowMetaInterface, Object[][], int)} instead of one row per {@link #processRow} call.
+   *
+   * @return true if the step is batch capable, false (the default) otherwise
+   */
+  default boolean supportsRowBatches() {
+    return false;
+  }
+
   default Collection<StepStatus> subStatuses() {
     return Collections.emptyList();
   }
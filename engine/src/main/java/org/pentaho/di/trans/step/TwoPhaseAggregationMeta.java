@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+/**
+ * The metadata of an aggregating step that can run in two phases on a cluster: every copy of the step on the slave
+ * servers aggregates its own rows and a single step on the master merges the partial aggregates of the copies. Only the
+ * partial aggregates go over the network instead of all the rows.
+ */
+public interface TwoPhaseAggregationMeta {
+
+  /**
+   * @return true if the step aggregates in two phases when it runs clustered
+   */
+  public boolean isTwoPhaseAggregation();
+
+  /**
+   * @return a copy of the metadata for the copies of the step on the slave servers, they pass on the partial aggregates
+   *         of their groups
+   */
+  public StepMetaInterface getPartialAggregationMeta();
+
+  /**
+   * @return a copy of the metadata for the step on the master, it merges the partial aggregates of the groups
+   */
+  public StepMetaInterface getFinalAggregationMeta();
+}
@@ -0,0 +1,31 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Calculations compiled for the rows of one row metadata: they write their results in the row.
+ */
+public abstract class CompiledCalculation extends CompiledRowExpression {
+
+  /**
+   * @param rowMeta
+   *          the metadata of the row, the one the calculations were compiled for
+   * @param row
+   *          the row data, large enough to hold the results
+   */
+  public abstract void calculate( RowMetaInterface rowMeta, Object[] row ) throws KettleException;
+}
@@ -0,0 +1,32 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A condition compiled for the rows of one row metadata.
+ */
+public abstract class CompiledCondition extends CompiledRowExpression {
+
+  /**
+   * @param rowMeta
+   *          the metadata of the row, the one the condition was compiled for
+   * @param row
+   *          the row data
+   * @return true if the row matches the condition
+   */
+  public abstract boolean evaluate( RowMetaInterface rowMeta, Object[] row ) throws KettleException;
+}
@@ -0,0 +1,52 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * The base class of the classes generated by the {@link ExpressionCompiler}. The generated code reads the value
+ * metadata and the constants it can't write as a Java literal from the arrays of this class, the parts of an
+ * expression that aren't compiled are evaluated by the fallback.
+ */
+public abstract class CompiledRowExpression {
+
+  /**
+   * Evaluates the parts of an expression that are not compiled, usually with the interpreter of the step.
+   */
+  public interface Fallback {
+    /**
+     * @param nr
+     *          the number of the part, as given to the {@link ExpressionSource}
+     * @param rowMeta
+     *          the metadata of the row
+     * @param row
+     *          the row data
+     * @return the result of the part, if any
+     */
+    Object evaluate( int nr, RowMetaInterface rowMeta, Object[] row ) throws KettleException;
+  }
+
+  protected ValueMetaInterface[] metas;
+  protected Object[] constants;
+  protected Fallback fallback;
+
+  void setup( ValueMetaInterface[] metas, Object[] constants, Fallback fallback ) {
+    this.metas = metas;
+    this.constants = constants;
+    this.fallback = fallback;
+  }
+}
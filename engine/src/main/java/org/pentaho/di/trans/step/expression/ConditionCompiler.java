@@ -0,0 +1,328 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.pentaho.di.core.Condition;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaAndData;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * Compiles a {@link Condition} for the rows of one row metadata.<br>
+ * <br>
+ * The field positions are resolved once and the operators become Java boolean operators. Comparisons of plain
+ * values of the same type (see {@link ExpressionSource#isPlain(ValueMetaInterface)}) compare Java primitives, the
+ * other comparisons call the value metadata directly. The regular expressions, LIKE patterns and IN lists with a
+ * constant are prepared once. The conditions that can't be compiled, for example a regular expression in a field,
+ * are evaluated by the condition itself.
+ */
+public class ConditionCompiler {
+
+  private final RowMetaInterface rowMeta;
+  private final ExpressionSource source = new ExpressionSource();
+  private final boolean treatNullsAsNotZero;
+
+  private int nrCompiled;
+  private int nrInterpreted;
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows the condition is evaluated on
+   */
+  public ConditionCompiler( RowMetaInterface rowMeta ) {
+    this.rowMeta = rowMeta;
+    this.treatNullsAsNotZero =
+      "Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO, "N" ) );
+  }
+
+  /**
+   * @param condition
+   *          the condition to compile
+   * @return the compiled condition or null if no part of the condition can be compiled
+   * @throws KettleException
+   *           in case the generated source doesn't compile
+   */
+  public CompiledCondition compile( Condition condition ) throws KettleException {
+    String expression = generate( condition );
+    if ( nrCompiled == 0 ) {
+      return null;
+    }
+    source.append( "public boolean evaluate( RowMetaInterface rowMeta, Object[] row ) throws KettleException {\n" );
+    source.append( "  return " ).append( expression ).append( ";\n}\n" );
+    return ExpressionCompiler.compile( CompiledCondition.class, source, null );
+  }
+
+  /**
+   * @return the number of atomic conditions that are compiled
+   */
+  public int getNrCompiled() {
+    return nrCompiled;
+  }
+
+  /**
+   * @return the number of atomic conditions that are evaluated by the condition itself
+   */
+  public int getNrInterpreted() {
+    return nrInterpreted;
+  }
+
+  // The operators are applied from left to right, like Condition.evaluate() does
+  //
+  private String generate( Condition condition ) throws KettleException {
+    if ( condition.isAtomic() ) {
+      return generateAtomic( condition );
+    }
+
+    List<Condition> children = condition.getChildren();
+    String expression = generate( children.get( 0 ) );
+    for ( int i = 1; i < children.size(); i++ ) {
+      Condition child = children.get( i );
+      switch ( child.getOperator() ) {
+        case Condition.OPERATOR_OR:
+          expression = "( " + expression + " || " + generate( child ) + " )";
+          break;
+        case Condition.OPERATOR_AND:
+          expression = "( " + expression + " && " + generate( child ) + " )";
+          break;
+        case Condition.OPERATOR_OR_NOT:
+          expression = "( " + expression + " || !" + generate( child ) + " )";
+          break;
+        case Condition.OPERATOR_AND_NOT:
+          expression = "( " + expression + " && !" + generate( child ) + " )";
+          break;
+        case Condition.OPERATOR_XOR:
+          expression = "( " + expression + " ^ " + generate( child ) + " )";
+          break;
+        default:
+          break;
+      }
+    }
+    return condition.isNegated() ? "!" + expression : expression;
+  }
+
+  private String generateAtomic( Condition condition ) throws KettleException {
+    if ( condition.getFunction() == Condition.FUNC_TRUE ) {
+      return condition.isNegated() ? "false" : "true";
+    }
+
+    // Without the left field the condition is false, negated or not
+    //
+    String leftName = condition.getLeftValuename();
+    int leftIndex = Utils.isEmpty( leftName ) ? -1 : rowMeta.indexOfValue( leftName );
+    if ( leftIndex < 0 ) {
+      return "false";
+    }
+
+    // A constant value takes precedence over the right field
+    //
+    ValueMetaAndData rightExact = condition.getRightExact();
+    ValueMetaInterface rightMeta = rightExact != null ? rightExact.getValueMeta() : null;
+    Object rightData = rightExact != null ? rightExact.getValueData() : null;
+    int rightIndex = -1;
+    if ( rightData == null ) {
+      String rightName = condition.getRightValuename();
+      rightIndex = Utils.isEmpty( rightName ) ? -1 : rowMeta.indexOfValue( rightName );
+      if ( rightIndex >= 0 ) {
+        rightMeta = rowMeta.getValueMeta( rightIndex );
+      }
+    }
+
+    String body;
+    try {
+      body =
+        generateTest( condition.getFunction(), leftIndex, rowMeta.getValueMeta( leftIndex ), rightIndex, rightMeta,
+          rightData );
+    } catch ( KettleValueException | PatternSyntaxException e ) {
+      body = null;
+    }
+
+    if ( body == null ) {
+      nrInterpreted++;
+      return "( (Condition) " + source.constant( condition ) + " ).evaluate( rowMeta, row )";
+    }
+
+    nrCompiled++;
+    String method = source.newMethodName( "test" );
+    source.append( "private boolean " ).append( method ).append( "( Object[] row ) throws KettleException {\n" );
+    source.append( body );
+    source.append( "}\n" );
+    return ( condition.isNegated() ? "!" : "" ) + method + "( row )";
+  }
+
+  private String generateTest( int function, int leftIndex, ValueMetaInterface leftMeta, int rightIndex,
+    ValueMetaInterface rightMeta, Object rightData ) throws KettleValueException {
+    String left = "row[" + leftIndex + "]";
+
+    switch ( function ) {
+      case Condition.FUNC_NULL:
+        return "  return " + isNull( leftMeta, left ) + ";\n";
+      case Condition.FUNC_NOT_NULL:
+        return "  return !" + isNull( leftMeta, left ) + ";\n";
+      case Condition.FUNC_EQUAL:
+        return generateComparison( "==", false, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      case Condition.FUNC_NOT_EQUAL:
+        return generateComparison( "!=", false, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      case Condition.FUNC_SMALLER:
+        return generateComparison( "<", treatNullsAsNotZero, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      case Condition.FUNC_SMALLER_EQUAL:
+        return generateComparison( "<=", treatNullsAsNotZero, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      case Condition.FUNC_LARGER:
+        return generateComparison( ">", false, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      case Condition.FUNC_LARGER_EQUAL:
+        return generateComparison( ">=", false, leftIndex, leftMeta, rightIndex, rightMeta, rightData );
+      default:
+        break;
+    }
+
+    // The other functions are only compiled with a constant
+    //
+    if ( rightData == null || rightMeta == null ) {
+      return null;
+    }
+    String leftString = "String s = " + source.meta( leftMeta ) + ".getCompatibleString( " + left + " );\n";
+
+    switch ( function ) {
+      case Condition.FUNC_REGEXP:
+      case Condition.FUNC_LIKE:
+        String regex = rightMeta.getCompatibleString( rightData );
+        if ( function == Condition.FUNC_LIKE ) {
+          regex = regex.replace( "%", ".*" ).replace( "?", "." );
+        }
+        String pattern = source.constant( Pattern.compile( regex ) );
+        return "  Object v = " + left + ";\n"
+          + "  if ( " + isNull( leftMeta, "v" ) + " ) {\n"
+          + "    return false;\n"
+          + "  }\n"
+          + "  return ( (java.util.regex.Pattern) " + pattern + " ).matcher( " + source.meta( leftMeta )
+          + ".getCompatibleString( v ) ).matches();\n";
+      case Condition.FUNC_IN_LIST:
+        String[] inList = Const.splitString( rightMeta.getString( rightData ), ';', true );
+        for ( int i = 0; i < inList.length; i++ ) {
+          if ( inList[ i ] == null ) {
+            return null;
+          }
+          inList[ i ] = inList[ i ].replace( "\\", "" );
+        }
+        String set = source.constant( new HashSet<>( Arrays.asList( inList ) ) );
+        return "  " + leftString
+          + "  return s != null && ( (java.util.Set) " + set + " ).contains( s );\n";
+      case Condition.FUNC_CONTAINS:
+      case Condition.FUNC_STARTS_WITH:
+      case Condition.FUNC_ENDS_WITH:
+        String string = rightMeta.getCompatibleString( rightData );
+        if ( string == null ) {
+          return null;
+        }
+        String constant = "(String) " + source.constant( string );
+        if ( function == Condition.FUNC_CONTAINS ) {
+          return "  " + leftString + "  return s != null && s.contains( " + constant + " );\n";
+        }
+        if ( function == Condition.FUNC_STARTS_WITH ) {
+          return "  " + leftString + "  return s != null && s.startsWith( " + constant + " );\n";
+        }
+        return "  " + leftString + "  return s != null && s.length() > 0 && s.endsWith( " + constant + " );\n";
+      default:
+        return null;
+    }
+  }
+
+  private String generateComparison( String operator, boolean nullIsFalse, int leftIndex,
+    ValueMetaInterface leftMeta, int rightIndex, ValueMetaInterface rightMeta, Object rightData ) {
+    if ( rightMeta == null ) {
+      return null;
+    }
+    StringBuilder body = new StringBuilder();
+    body.append( "  Object v = row[" ).append( leftIndex ).append( "];\n" );
+
+    boolean plain = ExpressionSource.isPlain( leftMeta ) && ExpressionSource.isPlain( rightMeta )
+      && leftMeta.getType() == rightMeta.getType() && !leftMeta.isSortedDescending()
+      && ( rightData != null ? ExpressionSource.isPlainValue( rightMeta, rightData ) : rightIndex >= 0 );
+
+    if ( !plain ) {
+      String right = rightData != null ? source.constant( rightData ) : ( rightIndex >= 0 ? "row[" + rightIndex + "]"
+        : "null" );
+      if ( nullIsFalse ) {
+        body.append( "  if ( " ).append( isNull( leftMeta, "v" ) ).append( " ) {\n    return false;\n  }\n" );
+      }
+      body.append( "  return " ).append( source.meta( leftMeta ) ).append( ".compare( v, " )
+        .append( source.meta( rightMeta ) ).append( ", " ).append( right ).append( " ) " ).append( operator )
+        .append( " 0;\n" );
+      return body.toString();
+    }
+
+    // A null is smaller than any value, two nulls are equal
+    //
+    String right;
+    if ( rightData != null ) {
+      right = ExpressionSource.literal( rightMeta, rightData );
+      if ( right == null ) {
+        right = ExpressionSource.primitive( rightMeta, source.constant( rightData ) );
+      }
+      body.append( "  if ( v == null ) {\n" );
+      body.append( "    return " ).append( nullIsFalse ? "false" : matches( -1, operator ) ).append( ";\n" );
+      body.append( "  }\n" );
+    } else {
+      body.append( "  Object w = row[" ).append( rightIndex ).append( "];\n" );
+      body.append( "  if ( v == null ) {\n" );
+      if ( nullIsFalse ) {
+        body.append( "    return false;\n" );
+      } else {
+        body.append( "    return w == null ? " ).append( matches( 0, operator ) ).append( " : " )
+          .append( matches( -1, operator ) ).append( ";\n" );
+      }
+      body.append( "  }\n" );
+      body.append( "  if ( w == null ) {\n" );
+      body.append( "    return " ).append( matches( 1, operator ) ).append( ";\n" );
+      body.append( "  }\n" );
+      right = ExpressionSource.primitive( rightMeta, "w" );
+    }
+    body.append( "  return " ).append( ExpressionSource.compare( leftMeta, ExpressionSource.primitive( leftMeta, "v" ),
+      right ) ).append( " " ).append( operator ).append( " 0;\n" );
+    return body.toString();
+  }
+
+  private String isNull( ValueMetaInterface valueMeta, String value ) {
+    if ( ExpressionSource.isPlain( valueMeta ) ) {
+      return "( " + value + " == null )";
+    }
+    return source.meta( valueMeta ) + ".isNull( " + value + " )";
+  }
+
+  private static String matches( int comparison, String operator ) {
+    switch ( operator ) {
+      case "==":
+        return String.valueOf( comparison == 0 );
+      case "!=":
+        return String.valueOf( comparison != 0 );
+      case "<":
+        return String.valueOf( comparison < 0 );
+      case "<=":
+        return String.valueOf( comparison <= 0 );
+      case ">":
+        return String.valueOf( comparison > 0 );
+      default:
+        return String.valueOf( comparison >= 0 );
+    }
+  }
+}
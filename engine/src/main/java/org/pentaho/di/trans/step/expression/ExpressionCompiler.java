@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import java.io.StringReader;
+
+import org.codehaus.janino.ClassBodyEvaluator;
+import org.codehaus.janino.Scanner;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.i18n.BaseMessages;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Compiles the expressions of steps to Java classes with Janino.<br>
+ * <br>
+ * A step translates its expression, specialized to the value types of its input row, to the class body of a
+ * subclass of {@link CompiledCondition} or {@link CompiledCalculation}. The parts the step can't translate are left
+ * to its interpreter through the fallback. The compiled classes are cached by their source: the copies of a step and
+ * the next executions of a transformation don't compile them again.
+ */
+public class ExpressionCompiler {
+  private static Class<?> PKG = ExpressionCompiler.class; // for i18n purposes, needed by Translator2!!
+
+  private static final int CLASS_CACHE_SIZE = 500;
+
+  private static final Cache<String, Class<?>> classCache =
+    CacheBuilder.newBuilder().maximumSize( CLASS_CACHE_SIZE ).build();
+
+  private ExpressionCompiler() {
+  }
+
+  /**
+   * @return false if the KETTLE_COMPILE_EXPRESSIONS variable is N: the steps use their interpreter
+   */
+  public static boolean isEnabled() {
+    return !"N".equalsIgnoreCase( System.getProperty( Const.KETTLE_COMPILE_EXPRESSIONS, "Y" ) );
+  }
+
+  /**
+   * Compiles the source and creates an instance of the compiled class.
+   *
+   * @param baseClass
+   *          the class the source extends
+   * @param source
+   *          the class body
+   * @param fallback
+   *          the evaluation of the parts that are not compiled, can be null if the source doesn't use it
+   * @return the compiled expression
+   * @throws KettleException
+   *           in case the source doesn't compile
+   */
+  public static <T extends CompiledRowExpression> T compile( Class<T> baseClass, ExpressionSource source,
+    CompiledRowExpression.Fallback fallback ) throws KettleException {
+    String body = source.getBody();
+    try {
+      String key = baseClass.getName() + Const.CR + body;
+      Class<?> compiledClass = classCache.getIfPresent( key );
+      if ( compiledClass == null ) {
+        ClassBodyEvaluator cbe = new ClassBodyEvaluator();
+        cbe.setParentClassLoader( ExpressionCompiler.class.getClassLoader() );
+        cbe.setExtendedType( baseClass );
+        cbe.setDefaultImports( new String[] {
+          "org.pentaho.di.core.*", "org.pentaho.di.core.exception.*", "org.pentaho.di.core.row.*" } );
+        cbe.cook( new Scanner( null, new StringReader( body ) ) );
+        compiledClass = cbe.getClazz();
+        classCache.put( key, compiledClass );
+      }
+
+      T expression = baseClass.cast( compiledClass.getDeclaredConstructor().newInstance() );
+      expression.setup( source.getMetas(), source.getConstants(), fallback );
+      return expression;
+    } catch ( Exception e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "ExpressionCompiler.Exception.UnableToCompile", body ),
+        e );
+    }
+  }
+}
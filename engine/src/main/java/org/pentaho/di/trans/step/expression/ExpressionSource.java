@@ -0,0 +1,215 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+
+/**
+ * The Java source of the class body of a compiled expression, with the value metadata and the constants the code
+ * refers to.
+ */
+public class ExpressionSource {
+
+  private final StringBuilder body = new StringBuilder();
+  private final List<ValueMetaInterface> metas = new ArrayList<>();
+  private final List<Object> constants = new ArrayList<>();
+  private int nrMethods;
+
+  /**
+   * Adds code to the class body.
+   *
+   * @param code
+   *          the code to add
+   * @return this source
+   */
+  public ExpressionSource append( String code ) {
+    body.append( code );
+    return this;
+  }
+
+  /**
+   * @param prefix
+   *          the prefix of the method name
+   * @return a method name that isn't used yet in the class body
+   */
+  public String newMethodName( String prefix ) {
+    return prefix + nrMethods++;
+  }
+
+  /**
+   * @param valueMeta
+   *          the value metadata the code needs
+   * @return the expression of type ValueMetaInterface that refers to the value metadata in the generated code
+   */
+  public String meta( ValueMetaInterface valueMeta ) {
+    for ( int i = 0; i < metas.size(); i++ ) {
+      if ( metas.get( i ) == valueMeta ) {
+        return "metas[" + i + "]";
+      }
+    }
+    metas.add( valueMeta );
+    return "metas[" + ( metas.size() - 1 ) + "]";
+  }
+
+  /**
+   * @param value
+   *          a constant the code needs
+   * @return the expression of type Object that refers to the constant in the generated code
+   */
+  public String constant( Object value ) {
+    constants.add( value );
+    return "constants[" + ( constants.size() - 1 ) + "]";
+  }
+
+  public String getBody() {
+    return body.toString();
+  }
+
+  public ValueMetaInterface[] getMetas() {
+    return metas.toArray( new ValueMetaInterface[ metas.size() ] );
+  }
+
+  public Object[] getConstants() {
+    return constants.toArray();
+  }
+
+  /**
+   * A plain value is held in the row as the Java object of its type: the generated code can work with it directly
+   * instead of going through the value metadata. These are the integers, numbers, dates, booleans and big numbers in
+   * normal storage.
+   *
+   * @param valueMeta
+   *          the value metadata
+   * @return true if the values of the metadata are plain
+   */
+  public static boolean isPlain( ValueMetaInterface valueMeta ) {
+    if ( valueMeta == null || valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+      return false;
+    }
+    Class<?> metaClass = valueMeta.getClass();
+    return metaClass == ValueMetaInteger.class || metaClass == ValueMetaNumber.class
+      || metaClass == ValueMetaDate.class || metaClass == ValueMetaBoolean.class
+      || metaClass == ValueMetaBigNumber.class;
+  }
+
+  /**
+   * @param valueMeta
+   *          the metadata of a plain value
+   * @param value
+   *          the value
+   * @return true if the value is held as the Java object of the type of the metadata
+   */
+  public static boolean isPlainValue( ValueMetaInterface valueMeta, Object value ) {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return value instanceof Long;
+      case ValueMetaInterface.TYPE_NUMBER:
+        return value instanceof Double;
+      case ValueMetaInterface.TYPE_DATE:
+        return value instanceof java.util.Date;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return value instanceof Boolean;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return value instanceof java.math.BigDecimal;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * @param valueMeta
+   *          the metadata of a plain value
+   * @param object
+   *          the expression of type Object that holds a plain value
+   * @return the expression of the value as a Java primitive (a BigDecimal for big numbers)
+   */
+  public static String primitive( ValueMetaInterface valueMeta, String object ) {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return "( (Long) " + object + " ).longValue()";
+      case ValueMetaInterface.TYPE_NUMBER:
+        return "( (Double) " + object + " ).doubleValue()";
+      case ValueMetaInterface.TYPE_DATE:
+        return "( (java.util.Date) " + object + " ).getTime()";
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return "( (Boolean) " + object + " ).booleanValue()";
+      default:
+        return "( (java.math.BigDecimal) " + object + " )";
+    }
+  }
+
+  /**
+   * @param valueMeta
+   *          the metadata of a plain value
+   * @param value
+   *          a plain value, not null
+   * @return the value as a Java literal, null for big numbers
+   */
+  public static String literal( ValueMetaInterface valueMeta, Object value ) {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return longLiteral( (Long) value );
+      case ValueMetaInterface.TYPE_NUMBER:
+        return "Double.longBitsToDouble( " + longLiteral( Double.doubleToRawLongBits( (Double) value ) ) + " )";
+      case ValueMetaInterface.TYPE_DATE:
+        return longLiteral( ( (java.util.Date) value ).getTime() );
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return String.valueOf( value );
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @return the long as a Java literal
+   */
+  public static String longLiteral( long value ) {
+    if ( value == Long.MIN_VALUE ) {
+      return "Long.MIN_VALUE";
+    }
+    return value + "L";
+  }
+
+  /**
+   * Compares two primitives of the same plain type the way the value metadata does.
+   *
+   * @param valueMeta
+   *          the metadata of the plain values
+   * @param one
+   *          the first value, see {@link #primitive(ValueMetaInterface, String)}
+   * @param two
+   *          the second value
+   * @return the int expression that is negative, zero or positive like a comparator
+   */
+  public static String compare( ValueMetaInterface valueMeta, String one, String two ) {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_NUMBER:
+        return "Double.compare( " + one + ", " + two + " )";
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return "( " + one + " == " + two + " ? 0 : ( " + one + " ? 1 : -1 ) )";
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return one + ".compareTo( " + two + " )";
+      default:
+        return "( " + one + " < " + two + " ? -1 : ( " + one + " == " + two + " ? 0 : 1 ) )";
+    }
+  }
+}
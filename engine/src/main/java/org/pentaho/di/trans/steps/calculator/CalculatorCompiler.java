@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.calculator;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
+import org.pentaho.di.trans.step.expression.CompiledRowExpression;
+import org.pentaho.di.trans.step.expression.ExpressionCompiler;
+import org.pentaho.di.trans.step.expression.ExpressionSource;
+
+/**
+ * Compiles the calculations of the Calculator step for the types of its input row.<br>
+ * <br>
+ * The copies, constants, additions, subtractions, multiplications, squares, absolute values and NVLs of plain
+ * integers and numbers (see {@link ExpressionSource#isPlain(ValueMetaInterface)}) whose result has the type of the
+ * target field are compiled to Java arithmetic. The other calculations are done by the step, in the same order.
+ */
+public class CalculatorCompiler {
+
+  private final CalculatorMetaFunction[] calculations;
+  private final RowMetaInterface calcRowMeta;
+  private final Calculator.FieldIndexes[] fieldIndexes;
+  private final int inputSize;
+  private final ExpressionSource source = new ExpressionSource();
+
+  private int nrCompiled;
+
+  /**
+   * @param calculations
+   *          the calculations of the step
+   * @param calcRowMeta
+   *          the metadata of the input row with all the calculated fields
+   * @param fieldIndexes
+   *          the indexes of the calculated fields and their arguments in the row
+   * @param inputSize
+   *          the number of fields of the input row
+   */
+  public CalculatorCompiler( CalculatorMetaFunction[] calculations, RowMetaInterface calcRowMeta,
+    Calculator.FieldIndexes[] fieldIndexes, int inputSize ) {
+    this.calculations = calculations;
+    this.calcRowMeta = calcRowMeta;
+    this.fieldIndexes = fieldIndexes;
+    this.inputSize = inputSize;
+  }
+
+  /**
+   * @param fallback
+   *          does calculation number nr of the step on the row
+   * @return the compiled calculations or null if none of the calculations can be compiled
+   * @throws KettleException
+   *           in case the generated source doesn't compile
+   */
+  public CompiledCalculation compile( CompiledRowExpression.Fallback fallback ) throws KettleException {
+    StringBuilder calculate = new StringBuilder();
+    calculate.append( "public void calculate( RowMetaInterface rowMeta, Object[] row ) throws KettleException {\n" );
+    for ( int i = 0; i < calculations.length; i++ ) {
+      String body = generate( i );
+      if ( body == null ) {
+        calculate.append( "  fallback.evaluate( " ).append( i ).append( ", rowMeta, row );\n" );
+      } else {
+        String method = source.newMethodName( "calculate" );
+        source.append( "private void " ).append( method ).append( "( Object[] row ) {\n" );
+        source.append( body );
+        source.append( "}\n" );
+        calculate.append( "  " ).append( method ).append( "( row );\n" );
+        nrCompiled++;
+      }
+    }
+    if ( nrCompiled == 0 ) {
+      return null;
+    }
+    calculate.append( "}\n" );
+    source.append( calculate.toString() );
+    return ExpressionCompiler.compile( CompiledCalculation.class, source, fallback );
+  }
+
+  /**
+   * @return the number of compiled calculations
+   */
+  public int getNrCompiled() {
+    return nrCompiled;
+  }
+
+  private String generate( int nr ) {
+    CalculatorMetaFunction function = calculations[ nr ];
+    Calculator.FieldIndexes indexes = fieldIndexes[ nr ];
+    if ( Utils.isEmpty( function.getFieldName() ) ) {
+      return null;
+    }
+    ValueMetaInterface target = calcRowMeta.getValueMeta( inputSize + nr );
+    ValueMetaInterface metaA = indexes.indexA >= 0 ? calcRowMeta.getValueMeta( indexes.indexA ) : null;
+    ValueMetaInterface metaB = indexes.indexB >= 0 ? calcRowMeta.getValueMeta( indexes.indexB ) : null;
+
+    String result = "  row[" + ( inputSize + nr ) + "] = ";
+    String argumentA = "  Object a = row[" + indexes.indexA + "];\n";
+    String argumentB = "  Object b = row[" + indexes.indexB + "];\n";
+
+    switch ( function.getCalcType() ) {
+      case CalculatorMetaFunction.CALC_CONSTANT:
+        if ( target.getType() != ValueMetaInterface.TYPE_STRING ) {
+          return null;
+        }
+        return result + "(String) " + source.constant( function.getFieldA() ) + ";\n";
+      case CalculatorMetaFunction.CALC_COPY_OF_FIELD:
+        if ( metaA == null || metaA.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL
+          || metaA.getType() != target.getType() ) {
+          return null;
+        }
+        return result + "row[" + indexes.indexA + "];\n";
+      case CalculatorMetaFunction.CALC_ADD:
+        return isArithmetic( target, metaA, metaB )
+          ? argumentA + argumentB + result + "a == null || b == null ? null : " + box( target, "a", "+", "b" ) + ";\n"
+          : null;
+      case CalculatorMetaFunction.CALC_SUBTRACT:
+        return isArithmetic( target, metaA, metaB )
+          ? argumentA + argumentB + result + "a == null || b == null ? null : " + box( target, "a", "-", "b" ) + ";\n"
+          : null;
+      case CalculatorMetaFunction.CALC_MULTIPLY:
+        return isArithmetic( target, metaA, metaB )
+          ? argumentA + argumentB + result + "a == null || b == null ? null : " + box( target, "a", "*", "b" ) + ";\n"
+          : null;
+      case CalculatorMetaFunction.CALC_SQUARE:
+        return isArithmetic( target, metaA, metaA )
+          ? argumentA + result + "a == null ? null : " + box( target, "a", "*", "a" ) + ";\n"
+          : null;
+      case CalculatorMetaFunction.CALC_ABS:
+        if ( !isArithmetic( target, metaA, metaA ) ) {
+          return null;
+        }
+        // Integers go through a number, like ValueDataUtil.abs() does
+        //
+        if ( target.getType() == ValueMetaInterface.TYPE_INTEGER ) {
+          return argumentA + result
+            + "a == null ? null : Long.valueOf( Math.abs( (long) ( (Long) a ).doubleValue() ) );\n";
+        }
+        return argumentA + result + "a == null ? null : Double.valueOf( Math.abs( ( (Double) a ).doubleValue() ) );\n";
+      case CalculatorMetaFunction.CALC_NVL:
+        if ( !ExpressionSource.isPlain( metaA ) || !ExpressionSource.isPlain( metaB )
+          || metaA.getType() != metaB.getType() || metaA.getType() != target.getType() ) {
+          return null;
+        }
+        return argumentA + result + "a == null ? row[" + indexes.indexB + "] : a;\n";
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isArithmetic( ValueMetaInterface target, ValueMetaInterface metaA,
+    ValueMetaInterface metaB ) {
+    if ( !ExpressionSource.isPlain( metaA ) || !ExpressionSource.isPlain( metaB ) ) {
+      return false;
+    }
+    int type = metaA.getType();
+    return ( type == ValueMetaInterface.TYPE_INTEGER || type == ValueMetaInterface.TYPE_NUMBER )
+      && metaB.getType() == type && target.getType() == type;
+  }
+
+  private static String box( ValueMetaInterface target, String a, String operator, String b ) {
+    String boxClass = target.getType() == ValueMetaInterface.TYPE_INTEGER ? "Long" : "Double";
+    return boxClass + ".valueOf( " + ExpressionSource.primitive( target, a ) + " " + operator + " "
+      + ExpressionSource.primitive( target, b ) + " )";
+  }
+}
@@ -19,6 +19,7 @@ import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,6 +36,8 @@ public class CalculatorData extends BaseStepData implements StepDataInterface {
 
   private int[] tempIndexes;
 
+  private CompiledCalculation compiledCalculation;
+
   private final Map<Integer, ValueMetaInterface> resultMetaMapping;
 
   public CalculatorData() {
@@ -74,6 +77,14 @@ public class CalculatorData extends BaseStepData implements StepDataInterface {
     this.tempIndexes = tempIndexes;
   }
 
+  public CompiledCalculation getCompiledCalculation() {
+    return compiledCalculation;
+  }
+
+  public void setCompiledCalculation( CompiledCalculation compiledCalculation ) {
+    this.compiledCalculation = compiledCalculation;
+  }
+
   public ValueMetaInterface getValueMetaFor( int resultType, String name ) throws KettlePluginException {
     // don't need any synchronization as data instance belongs only to one step instance
     ValueMetaInterface meta = resultMetaMapping.get( resultType );
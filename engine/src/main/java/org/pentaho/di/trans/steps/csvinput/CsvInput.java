@@ -37,6 +37,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.BinaryStringSlice;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
@@ -317,6 +318,7 @@ public class CsvInput extends BaseStep implements StepInterface {
       // Close the previous file...
       //
       data.closeFile();
+      data.mappedReader = null;
 
       if ( data.filenr >= data.filenames.length ) {
         return false;
@@ -347,12 +349,33 @@ public class CsvInput extends BaseStep implements StepInterface {
       }
 
       data.fc = data.fis.getChannel();
-      data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      if ( data.memoryMapped ) {
+        data.mappedReader = new CsvMappedReader( data.fc, bomSize, data.delimiter, data.enclosure,
+          meta.isNewlinePossibleInFields(), data.fieldsMapping.size() );
+        if ( meta.isReadingBinaryStringSlices() ) {
+          data.mappedSlices = new BinaryStringSlice[ data.fieldsMapping.size() ];
+        } else {
+          data.mappedFields = new byte[ data.fieldsMapping.size() ][];
+        }
+      } else {
+        data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      }
 
       // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
       //
       if ( data.parallel ) {
-        if ( data.bytesToSkipInFirstFile > 0 ) {
+        if ( data.bytesToSkipInFirstFile > 0 && data.mappedReader != null ) {
+          // The memory mapped reader finds the start of the first row of the block, new lines in enclosed fields
+          // included. The bytes up to there belong to the previous block.
+          //
+          long rowStart = data.mappedReader.skipToRowStart( data.bytesToSkipInFirstFile );
+          data.totalBytesRead += rowStart - data.bytesToSkipInFirstFile;
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, data.mappedReader.isBoundaryScannedFromFileStart()
+              ? "CsvInput.Log.RowStartScanned" : "CsvInput.Log.RowStartSpeculated", Long.toString( rowStart ),
+              data.filenames[ data.filenr ] ) );
+          }
+        } else if ( data.bytesToSkipInFirstFile > 0 ) {
           data.fc.position( data.bytesToSkipInFirstFile );
 
           // evaluate whether there is a need to skip a row
@@ -559,6 +582,9 @@ public class CsvInput extends BaseStep implements StepInterface {
    * @throws KettleException
    */
   private Object[] readOneRow( boolean skipRow, boolean ignoreEnclosures ) throws KettleException {
+    if ( data.mappedReader != null ) {
+      return readMappedRow( skipRow );
+    }
 
     try {
 
@@ -592,19 +618,7 @@ public class CsvInput extends BaseStep implements StepInterface {
             // Make certain that at least one record exists before
             // filling the rest of them with null
             if ( outputIndex > 0 ) {
-              // Optionally add the current filename to the mix as well...
-              //
-              if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
-                if ( meta.isLazyConversionActive() ) {
-                  outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
-                } else {
-                  outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
-                }
-              }
-
-              if ( data.isAddingRowNumber ) {
-                outputRowData[data.rownumFieldIndex] = data.rowNumber++;
-              }
+              addFilenameAndRowNumber( outputRowData );
 
               incrementLinesInput();
               return outputRowData;
@@ -730,7 +744,11 @@ public class CsvInput extends BaseStep implements StepInterface {
         final int actualFieldIndex = data.fieldsMapping.fieldMetaIndex( currentFieldIndex );
         if ( actualFieldIndex != FieldsMapping.FIELD_DOES_NOT_EXIST ) {
           if ( !skipRow ) {
-            if ( meta.isLazyConversionActive() ) {
+            if ( meta.isReadingBinaryStringSlices() ) {
+              // The memory mapped mode isn't supported for this file, the fields are still passed on as slices
+              //
+              outputRowData[actualFieldIndex] = new BinaryStringSlice( field );
+            } else if ( meta.isLazyConversionActive() ) {
               outputRowData[actualFieldIndex] = field;
             } else {
               // We're not lazy so we convert the data right here and now.
@@ -826,19 +844,7 @@ public class CsvInput extends BaseStep implements StepInterface {
         data.setStartBuffer( data.getEndBuffer() );
       }
 
-      // Optionally add the current filename to the mix as well...
-      //
-      if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
-        if ( meta.isLazyConversionActive() ) {
-          outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
-        } else {
-          outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
-        }
-      }
-
-      if ( data.isAddingRowNumber ) {
-        outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
-      }
+      addFilenameAndRowNumber( outputRowData );
 
       if ( !ignoreEnclosures ) {
         incrementLinesInput();
@@ -860,6 +866,90 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Read a single row of data from the memory mapped file...
+   *
+   * @param skipRow if row should be skipped: header row
+   * @return a row of data or null at the end of the file
+   * @throws KettleException
+   */
+  private Object[] readMappedRow( boolean skipRow ) throws KettleException {
+    try {
+      long position = data.mappedReader.getPosition();
+      int nrFields;
+      if ( data.mappedSlices != null ) {
+        nrFields = data.mappedReader.readRowSlices( skipRow ? null : data.mappedSlices );
+      } else {
+        nrFields = data.mappedReader.readRow( skipRow ? null : data.mappedFields );
+      }
+      data.totalBytesRead += data.mappedReader.getPosition() - position;
+      if ( nrFields == CsvMappedReader.END_OF_FILE ) {
+        return null; // nothing more to read, call it a day.
+      }
+
+      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+      List<Exception> conversionExceptions = null;
+      List<ValueMetaInterface> exceptionFields = null;
+
+      int nrFieldsWanted = data.fieldsMapping.size();
+      for ( int i = 0; !skipRow && i < nrFields && i < nrFieldsWanted; i++ ) {
+        int actualFieldIndex = data.fieldsMapping.fieldMetaIndex( i );
+        if ( actualFieldIndex == FieldsMapping.FIELD_DOES_NOT_EXIST ) {
+          continue;
+        }
+        if ( data.mappedSlices != null ) {
+          outputRowData[ actualFieldIndex ] = data.mappedSlices[ i ];
+          continue;
+        }
+        byte[] field = data.mappedFields[ i ];
+        if ( meta.isLazyConversionActive() ) {
+          outputRowData[ actualFieldIndex ] = field;
+        } else {
+          ValueMetaInterface sourceValueMeta = data.convertRowMeta.getValueMeta( actualFieldIndex );
+          try {
+            outputRowData[ actualFieldIndex ] = sourceValueMeta.convertBinaryStringToNativeType( field );
+          } catch ( KettleValueException e ) {
+            if ( conversionExceptions == null ) {
+              conversionExceptions = new ArrayList<>();
+              exceptionFields = new ArrayList<>();
+            }
+            conversionExceptions.add( e );
+            exceptionFields.add( sourceValueMeta );
+          }
+        }
+      }
+
+      addFilenameAndRowNumber( outputRowData );
+      incrementLinesInput();
+
+      if ( conversionExceptions != null ) {
+        throw new KettleConversionException(
+          "There were " + conversionExceptions.size() + " conversion errors on line " + getLinesInput(),
+          conversionExceptions, exceptionFields, outputRowData );
+      }
+
+      return outputRowData;
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Exception reading line using a memory mapped file", e );
+    }
+  }
+
+  private void addFilenameAndRowNumber( Object[] outputRowData ) {
+    // Optionally add the current filename to the mix as well...
+    //
+    if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
+      } else {
+        outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
+      }
+    }
+
+    if ( data.isAddingRowNumber ) {
+      outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
+    }
+  }
+
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (CsvInputMeta) smi;
@@ -908,6 +998,14 @@ public class CsvInput extends BaseStep implements StepInterface {
         return false;
       }
 
+      // The memory mapped reader only handles single byte delimiters and enclosures in a single byte encoding
+      //
+      data.memoryMapped = meta.isMemoryMapped();
+      if ( data.memoryMapped && !CsvMappedReader.isSupported( data.encodingType, data.delimiter, data.enclosure ) ) {
+        logBasic( BaseMessages.getString( PKG, "CsvInput.Log.MemoryMappedNotSupported" ) );
+        data.memoryMapped = false;
+      }
+
       data.isAddingRowNumber = !Utils.isEmpty( meta.getRowNumField() );
 
       // Handle parallel reading capabilities...
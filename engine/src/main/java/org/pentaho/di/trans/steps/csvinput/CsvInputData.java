@@ -21,6 +21,7 @@ import java.util.List;
 
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.BinaryStringSlice;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.steps.textfileinput.EncodingType;
@@ -74,6 +75,11 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   public FieldsMapping fieldsMapping;
 
+  public boolean memoryMapped;
+  public CsvMappedReader mappedReader;
+  public byte[][] mappedFields;
+  public BinaryStringSlice[] mappedSlices;
+
   /**
    * Data class for CsvInput step
    *
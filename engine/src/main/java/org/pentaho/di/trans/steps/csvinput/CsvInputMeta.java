@@ -101,6 +101,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
 
   private boolean newlinePossibleInFields;
 
+  private boolean memoryMapped;
+
   public CsvInputMeta() {
     super(); // allocate BaseStepMeta
     allocate( 0 );
@@ -130,6 +132,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     isaddresult = false;
     bufferSize = "50000";
     fileFormat = "mixed";
+    memoryMapped = false;
   }
 
   private void readData( Node stepnode ) throws KettleXMLException {
@@ -157,6 +160,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       } else {
         newlinePossibleInFields = "Y".equalsIgnoreCase( nlp );
       }
+      memoryMapped = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, getXmlCode( "MEMORY_MAPPED" ) ) );
       fileFormat = XMLHandler.getTagValue( stepnode, getXmlCode( "FORMAT" ) );
       encoding = XMLHandler.getTagValue( stepnode, getXmlCode( "ENCODING" ) );
 
@@ -211,6 +215,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "PARALLEL" ), runningInParallel ) );
     retval.append( "    " ).append(
       XMLHandler.addTagValue( getXmlCode( "NEWLINE_POSSIBLE" ), newlinePossibleInFields ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "MEMORY_MAPPED" ), memoryMapped ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "FORMAT" ), fileFormat ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( getXmlCode( "ENCODING" ), encoding ) );
 
@@ -260,6 +265,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       runningInParallel = rep.getStepAttributeBoolean( id_step, getRepCode( "PARALLEL" ) );
       newlinePossibleInFields =
         rep.getStepAttributeBoolean( id_step, 0, getRepCode( "NEWLINE_POSSIBLE" ), !runningInParallel );
+      memoryMapped = rep.getStepAttributeBoolean( id_step, 0, getRepCode( "MEMORY_MAPPED" ), false );
       fileFormat = rep.getStepAttributeString( id_step, getRepCode( "FORMAT" ) );
       encoding = rep.getStepAttributeString( id_step, getRepCode( "ENCODING" ) );
 
@@ -306,6 +312,7 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
       rep
         .saveStepAttribute(
           id_transformation, id_step, getRepCode( "NEWLINE_POSSIBLE" ), newlinePossibleInFields );
+      rep.saveStepAttribute( id_transformation, id_step, getRepCode( "MEMORY_MAPPED" ), memoryMapped );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "FORMAT" ), fileFormat );
       rep.saveStepAttribute( id_transformation, id_step, getRepCode( "ENCODING" ), encoding );
 
@@ -366,7 +373,9 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
         valueMeta.setGroupingSymbol( field.getGroupSymbol() );
         valueMeta.setCurrencySymbol( field.getCurrencySymbol() );
         valueMeta.setTrimType( field.getTrimType() );
-        if ( lazyConversionActive ) {
+        if ( isReadingBinaryStringSlices() ) {
+          valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING_SLICE );
+        } else if ( lazyConversionActive ) {
           valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
         }
         valueMeta.setStringEncoding( space.environmentSubstitute( encoding ) );
@@ -846,6 +855,8 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
           runningInParallel = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "NEWLINE_POSSIBLE" ) ) {
           newlinePossibleInFields = (Boolean) entry.getValue();
+        } else if ( attr.getKey().equals( "MEMORY_MAPPED" ) ) {
+          memoryMapped = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "ADD_FILENAME_RESULT" ) ) {
           isaddresult = (Boolean) entry.getValue();
         } else if ( attr.getKey().equals( "FORMAT" ) ) {
@@ -934,6 +945,30 @@ public class CsvInputMeta extends BaseStepMeta implements StepMetaInterface, Inp
     this.newlinePossibleInFields = newlinePossibleInFields;
   }
 
+  /**
+   * @return true if the files are read through memory mapped windows instead of a NIO buffer. New lines in enclosed
+   *         fields are then also supported when running in parallel.
+   */
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /**
+   * @param memoryMapped
+   *          true if the files are to be read through memory mapped windows instead of a NIO buffer
+   */
+  public void setMemoryMapped( boolean memoryMapped ) {
+    this.memoryMapped = memoryMapped;
+  }
+
+  /**
+   * @return true if the fields are read as binary string slices of the bytes of their row: with lazy conversion in the
+   *         memory mapped mode
+   */
+  public boolean isReadingBinaryStringSlices() {
+    return lazyConversionActive && memoryMapped;
+  }
+
   @Override
   public FileObject getHeaderFileObject( final TransMeta transMeta ) {
     final String filename = transMeta.environmentSubstitute( getFilename() );
@@ -0,0 +1,556 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.pentaho.di.core.row.value.BinaryStringSlice;
+import org.pentaho.di.trans.steps.textfileinput.EncodingType;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Reads the rows of a CSV file through large memory mapped windows of the file, for the memory mapped mode of the CSV
+ * file input step.<br>
+ * <br>
+ * The delimiters, enclosures and line ends are searched eight bytes at a time: a long read from the file is compared
+ * with all the bytes of a pattern at once (SWAR, SIMD within a register). A field is copied once, from the mapped file
+ * to the binary string of the row, or the whole row is copied once and its fields are slices of the copy. A line ends
+ * with a carriage return, a line feed or both, whatever the file format.
+ * An enclosure is only recognized at the start of a field, like in the standard mode.<br>
+ * <br>
+ * When a file is read in parallel, a block starts at a byte offset, perhaps inside an enclosed field with new lines.
+ * The boundary scan first speculates: it looks for the first line end after the offset supposing the offset is outside
+ * and then inside an enclosure, checking the enclosures it meets on the way. An enclosure that opens a field must
+ * follow a delimiter or a line end and one that closes a field must be followed by one. If one supposition runs into
+ * an enclosure that breaks these rules and the other one doesn't, the row start is the one found by the other. If the
+ * speculation can't tell, the rows are read from the start of the file up to the offset, which is always right.
+ */
+public class CsvMappedReader {
+
+  /**
+   * The size of the part of the file that is mapped at once. The window grows for rows that don't fit.
+   */
+  public static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * The maximum number of bytes the speculative boundary scan checks.
+   */
+  static final int SPECULATION_SIZE = 1024 * 1024;
+
+  /**
+   * The number of line ends the speculative boundary scan checks after the row start.
+   */
+  static final int SPECULATION_LINES = 32;
+
+  /**
+   * How far the speculative boundary scan looks back for the first enclosure of a run of enclosures.
+   */
+  static final int SPECULATION_LOOK_BACK = 64;
+
+  /**
+   * Returned by {@link #readRow(byte[][])} when there are no more rows in the file.
+   */
+  public static final int END_OF_FILE = -1;
+
+  private static final int MORE = -2;
+  private static final long UNDECIDED = -3L;
+  private static final long INVALID = -4L;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private static final long CR_PATTERN = pattern( (byte) '\r' );
+  private static final long LF_PATTERN = pattern( (byte) '\n' );
+
+  private final FileChannel channel;
+  private final long fileStart;
+  private final long fileSize;
+  private final byte delimiter;
+  private final byte enclosure;
+  private final boolean hasEnclosure;
+  private final boolean newlinePossible;
+  private final int nrFields;
+
+  private final long delimiterPattern;
+  private final long enclosurePattern;
+
+  private int windowSize = WINDOW_SIZE;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private int windowLimit;
+
+  private long position;
+  private boolean boundaryScannedFromFileStart;
+
+  // The bounds of the fields of the row parsed last, in the window
+  //
+  private int nrWanted;
+  private int nrRecorded;
+  private int[] fieldFrom = new int[ 0 ];
+  private int[] fieldTo = new int[ 0 ];
+  private int[] fieldEscaped = new int[ 0 ];
+
+  /**
+   * @param channel
+   *          the channel of the file to read
+   * @param fileStart
+   *          the position of the first row in the file, after the byte order mark
+   * @param delimiter
+   *          the delimiter, a single byte
+   * @param enclosure
+   *          the enclosure, a single byte, or null if there is none
+   * @param newlinePossible
+   *          true if there are new lines in fields that are not enclosed, except in the last one
+   * @param nrFields
+   *          the number of fields in a row of the file
+   * @throws IOException
+   *           in case the size of the file can't be determined
+   */
+  public CsvMappedReader( FileChannel channel, long fileStart, byte[] delimiter, byte[] enclosure,
+    boolean newlinePossible, int nrFields ) throws IOException {
+    this.channel = channel;
+    this.fileStart = fileStart;
+    this.fileSize = channel.size();
+    this.delimiter = delimiter[ 0 ];
+    this.hasEnclosure = enclosure != null;
+    this.enclosure = hasEnclosure ? enclosure[ 0 ] : 0;
+    this.newlinePossible = newlinePossible;
+    this.nrFields = nrFields;
+
+    delimiterPattern = pattern( this.delimiter );
+    enclosurePattern = pattern( this.enclosure );
+    position = fileStart;
+  }
+
+  /**
+   * @return true if a file with this encoding, delimiter and enclosure can be read with memory mapping
+   */
+  public static boolean isSupported( EncodingType encodingType, byte[] delimiter, byte[] enclosure ) {
+    return encodingType == EncodingType.SINGLE && delimiter != null && delimiter.length == 1
+      && ( enclosure == null || enclosure.length == 1 );
+  }
+
+  /**
+   * @return the position in the file of the next row to read
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * @return true if the last {@link #skipToRowStart(long)} had to read the rows from the start of the file
+   */
+  public boolean isBoundaryScannedFromFileStart() {
+    return boundaryScannedFromFileStart;
+  }
+
+  @VisibleForTesting
+  void setWindowSize( int windowSize ) {
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Positions the reader on the first row that starts at or after the given position.
+   *
+   * @param from
+   *          the position in the file, the start of the block to read
+   * @return the position of the row
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public long skipToRowStart( long from ) throws IOException {
+    boundaryScannedFromFileStart = false;
+    if ( from <= fileStart ) {
+      position = fileStart;
+      return position;
+    }
+    if ( from >= fileSize ) {
+      position = fileSize;
+      return position;
+    }
+
+    // Fields that aren't enclosed can have new lines: a line end doesn't tell where a row starts.
+    //
+    long rowStart = UNDECIDED;
+    if ( !newlinePossible ) {
+      long outside = speculate( from - 1, false );
+      long inside = hasEnclosure ? speculate( from - 1, true ) : INVALID;
+      if ( outside >= 0 && ( inside == INVALID || inside == outside ) ) {
+        rowStart = outside;
+      } else if ( inside >= 0 && outside == INVALID ) {
+        rowStart = inside;
+      }
+    }
+
+    if ( rowStart < 0 ) {
+      boundaryScannedFromFileStart = true;
+      rowStart = scanFromFileStart( from );
+    }
+    position = rowStart;
+    return rowStart;
+  }
+
+  /**
+   * Reads the next row of the file.
+   *
+   * @param fields
+   *          receives the fields of the row, the ones after the length of the array are skipped. Null to skip the row.
+   * @return the number of fields found in the row or {@link #END_OF_FILE}
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public int readRow( byte[][] fields ) throws IOException {
+    int nr = readRow( fields == null ? 0 : fields.length );
+    for ( int k = 0; k < Math.min( nr, nrRecorded ); k++ ) {
+      fields[ k ] = field( fieldFrom[ k ], fieldTo[ k ], fieldEscaped[ k ] );
+    }
+    return nr;
+  }
+
+  /**
+   * Reads the next row of the file. The bytes of the row are copied once to a buffer and the fields are slices of it.
+   *
+   * @param fields
+   *          receives the fields of the row, the ones after the length of the array are skipped. Null to skip the row.
+   * @return the number of fields found in the row or {@link #END_OF_FILE}
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public int readRowSlices( BinaryStringSlice[] fields ) throws IOException {
+    int nr = readRow( fields == null ? 0 : fields.length );
+    int nrFieldsRead = Math.min( nr, nrRecorded );
+    if ( nrFieldsRead <= 0 ) {
+      return nr;
+    }
+
+    int rowFrom = fieldFrom[ 0 ];
+    int rowTo = rowFrom;
+    for ( int k = 0; k < nrFieldsRead; k++ ) {
+      rowTo = Math.max( rowTo, fieldTo[ k ] );
+    }
+    byte[] row = new byte[ rowTo - rowFrom ];
+    window.get( rowFrom, row );
+
+    for ( int k = 0; k < nrFieldsRead; k++ ) {
+      int offset = fieldFrom[ k ] - rowFrom;
+      int length = Math.max( fieldTo[ k ] - fieldFrom[ k ], 0 );
+      if ( fieldEscaped[ k ] > 0 ) {
+        length = collapseEscapedEnclosures( row, offset, length, fieldEscaped[ k ] );
+      }
+      fields[ k ] = new BinaryStringSlice( row, offset, length );
+    }
+    return nr;
+  }
+
+  private int readRow( int nrWanted ) throws IOException {
+    if ( fieldFrom.length < nrWanted ) {
+      fieldFrom = new int[ nrWanted ];
+      fieldTo = new int[ nrWanted ];
+      fieldEscaped = new int[ nrWanted ];
+    }
+    this.nrWanted = nrWanted;
+
+    if ( window == null || position < windowStart || position > windowStart + windowLimit ) {
+      map( position );
+    }
+    while ( true ) {
+      int nr = parseRow();
+      if ( nr != MORE ) {
+        return nr;
+      }
+
+      // The row doesn't fit in the rest of the window: map the file from the start of the row.
+      // Make the window larger if the row doesn't fit in a whole window.
+      //
+      if ( position == windowStart ) {
+        if ( windowSize > Integer.MAX_VALUE / 2 ) {
+          throw new IOException( "The row at position " + position + " is longer than " + windowSize + " bytes" );
+        }
+        windowSize *= 2;
+      }
+      map( position );
+    }
+  }
+
+  private void map( long start ) throws IOException {
+    long size = Math.min( windowSize, fileSize - start );
+    window = channel.map( FileChannel.MapMode.READ_ONLY, start, size );
+    window.order( ByteOrder.LITTLE_ENDIAN );
+    windowStart = start;
+    windowLimit = (int) size;
+  }
+
+  /**
+   * Parses the row at the current position in the window.
+   *
+   * @return the number of fields, {@link #END_OF_FILE} or {@link #MORE} if the row doesn't end in the window
+   */
+  private int parseRow() {
+    nrRecorded = 0;
+    boolean endOfFile = windowStart + windowLimit >= fileSize;
+    int i = (int) ( position - windowStart );
+    if ( i >= windowLimit ) {
+      return endOfFile ? END_OF_FILE : MORE;
+    }
+
+    int nr = 0;
+    while ( true ) {
+      int start = i;
+      int nrEscaped = 0;
+      boolean enclosed = hasEnclosure && i < windowLimit && window.get( i ) == enclosure;
+      if ( enclosed ) {
+        i++;
+        while ( true ) {
+          i = scan( i, enclosurePattern, enclosurePattern, enclosurePattern );
+          if ( i >= windowLimit ) {
+            if ( !endOfFile ) {
+              return MORE;
+            }
+            // No closing enclosure, the field is read as is
+            //
+            enclosed = false;
+            break;
+          }
+          if ( i + 1 >= windowLimit && !endOfFile ) {
+            return MORE;
+          }
+          if ( i + 1 < windowLimit && window.get( i + 1 ) == enclosure ) {
+            nrEscaped++;
+            i += 2;
+          } else {
+            i++;
+            break;
+          }
+        }
+      }
+
+      // The rest of the field, up to the delimiter or the end of the line
+      //
+      if ( !newlinePossible || nr >= nrFields - 1 ) {
+        i = scan( i, delimiterPattern, CR_PATTERN, LF_PATTERN );
+      } else {
+        i = scan( i, delimiterPattern, delimiterPattern, delimiterPattern );
+      }
+      if ( i >= windowLimit && !endOfFile ) {
+        return MORE;
+      }
+
+      if ( nr < nrWanted ) {
+        fieldFrom[ nr ] = enclosed ? start + 1 : start;
+        fieldTo[ nr ] = enclosed ? i - 1 : i;
+        fieldEscaped[ nr ] = enclosed ? nrEscaped : 0;
+        nrRecorded = nr + 1;
+      }
+      nr++;
+
+      if ( i >= windowLimit ) {
+        position = windowStart + i;
+        return nr;
+      }
+      byte b = window.get( i++ );
+      if ( b == delimiter ) {
+        continue;
+      }
+      if ( b == '\r' ) {
+        if ( i >= windowLimit ) {
+          if ( !endOfFile ) {
+            return MORE;
+          }
+        } else if ( window.get( i ) == '\n' ) {
+          i++;
+        }
+      }
+      position = windowStart + i;
+      return nr;
+    }
+  }
+
+  private byte[] field( int from, int to, int nrEscaped ) {
+    int length = Math.max( to - from, 0 );
+    byte[] field = new byte[ Math.max( length - nrEscaped, 0 ) ];
+    if ( nrEscaped == 0 ) {
+      window.get( from, field );
+      return field;
+    }
+
+    // [abcd "" defg] --> [abcd " defg]
+    //
+    int j = 0;
+    for ( int k = from; k < to && j < field.length; k++ ) {
+      byte b = window.get( k );
+      field[ j++ ] = b;
+      if ( b == enclosure && k + 1 < to && window.get( k + 1 ) == enclosure ) {
+        k++;
+      }
+    }
+    return field;
+  }
+
+  /**
+   * [abcd "" defg] --> [abcd " defg], in place.
+   *
+   * @return the length of the field without the escaping enclosures
+   */
+  private int collapseEscapedEnclosures( byte[] row, int offset, int length, int nrEscaped ) {
+    int to = offset + length;
+    int newLength = Math.max( length - nrEscaped, 0 );
+    int j = offset;
+    for ( int k = offset; k < to && j < offset + newLength; k++ ) {
+      byte b = row[ k ];
+      row[ j++ ] = b;
+      if ( b == enclosure && k + 1 < to && row[ k + 1 ] == enclosure ) {
+        k++;
+      }
+    }
+    return newLength;
+  }
+
+  /**
+   * Looks for the first row start after the given position, supposing the position is inside an enclosure or not.
+   *
+   * @return the row start, the size of the file if there is none, {@link #INVALID} if an enclosure is misplaced or
+   *         {@link #UNDECIDED} if no line end is found in {@link #SPECULATION_SIZE} bytes
+   */
+  private long speculate( long from, boolean inside ) throws IOException {
+    long mapStart = Math.max( fileStart, from - SPECULATION_LOOK_BACK );
+    map( mapStart );
+    int limit = Math.min( windowLimit, SPECULATION_SIZE );
+    boolean endOfFile = windowStart + limit >= fileSize;
+    long outsidePattern = hasEnclosure ? enclosurePattern : CR_PATTERN;
+
+    // Between two enclosures of a run, like the escaped ones, it isn't known which ones are pairs.
+    // Start at the first enclosure of the run.
+    //
+    int i = (int) ( from - mapStart );
+    if ( i >= limit ) {
+      return UNDECIDED;
+    }
+    if ( hasEnclosure ) {
+      while ( i > 0 && window.get( i ) == enclosure && window.get( i - 1 ) == enclosure ) {
+        i--;
+      }
+      if ( i == 0 && mapStart > fileStart ) {
+        return UNDECIDED;
+      }
+    }
+
+    long rowStart = UNDECIDED;
+    int nrLines = 0;
+    while ( nrLines <= SPECULATION_LINES ) {
+      if ( inside ) {
+        i = scan( i, enclosurePattern, enclosurePattern, enclosurePattern );
+      } else {
+        i = scan( i, outsidePattern, CR_PATTERN, LF_PATTERN );
+      }
+      if ( i >= limit ) {
+        if ( !endOfFile ) {
+          return rowStart;
+        }
+        if ( inside ) {
+          return INVALID; // an enclosure that is never closed
+        }
+        return rowStart == UNDECIDED ? fileSize : rowStart;
+      }
+      boolean last = i + 1 >= limit;
+      if ( last && !endOfFile ) {
+        return rowStart;
+      }
+
+      byte b = window.get( i );
+      if ( inside ) {
+        if ( !last && window.get( i + 1 ) == enclosure ) {
+          i += 2;
+          continue;
+        }
+        if ( !last && !isFieldEnd( window.get( i + 1 ) ) ) {
+          return INVALID;
+        }
+        inside = false;
+        i++;
+      } else if ( hasEnclosure && b == enclosure ) {
+        if ( i > 0 && !isFieldEnd( window.get( i - 1 ) ) ) {
+          return INVALID;
+        }
+        inside = true;
+        i++;
+      } else {
+        i++;
+        if ( b == '\r' && !last && window.get( i ) == '\n' ) {
+          i++;
+        }
+        if ( rowStart == UNDECIDED ) {
+          rowStart = windowStart + i;
+        }
+        nrLines++;
+      }
+    }
+    return rowStart;
+  }
+
+  private long scanFromFileStart( long from ) throws IOException {
+    position = fileStart;
+    while ( position < from && readRow( null ) != END_OF_FILE ) {
+      // Skip the rows before the block
+    }
+    return position;
+  }
+
+  private boolean isFieldEnd( byte b ) {
+    return b == delimiter || b == '\r' || b == '\n';
+  }
+
+  /**
+   * @return the position of the first byte from the given position in the window that matches one of the patterns or
+   *         the end of the window
+   */
+  private int scan( int from, long pattern1, long pattern2, long pattern3 ) {
+    int i = from;
+    while ( i + Long.BYTES <= windowLimit ) {
+      long word = window.getLong( i );
+      long found = matches( word, pattern1 ) | matches( word, pattern2 ) | matches( word, pattern3 );
+      if ( found != 0 ) {
+        return i + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+      i += Long.BYTES;
+    }
+    byte b1 = (byte) pattern1;
+    byte b2 = (byte) pattern2;
+    byte b3 = (byte) pattern3;
+    while ( i < windowLimit ) {
+      byte b = window.get( i );
+      if ( b == b1 || b == b2 || b == b3 ) {
+        return i;
+      }
+      i++;
+    }
+    return windowLimit;
+  }
+
+  /**
+   * Sets the high bit of the bytes of the word that are equal to the byte of the pattern. A byte after a match can be
+   * set as well, the lowest one set is always a match.
+   */
+  private static long matches( long word, long pattern ) {
+    long x = word ^ pattern;
+    return ( x - ONES ) & ~x & HIGHS;
+  }
+
+  private static long pattern( byte b ) {
+    return ( b & 0xFFL ) * ONES;
+  }
+}
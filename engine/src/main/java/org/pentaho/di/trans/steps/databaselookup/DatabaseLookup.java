@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -21,6 +22,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
@@ -38,6 +40,7 @@ import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.DatabaseBatchLookup;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
@@ -70,8 +73,10 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
    */
   @VisibleForTesting
   synchronized Object[] lookupValues( RowMetaInterface inputRowMeta, Object[] row ) throws KettleException {
-    Object[] outputRow = RowDataUtil.resizeArray( row, data.outputRowMeta.size() );
+    return lookupValues( inputRowMeta, row, createLookupRow( inputRowMeta, row ) );
+  }
 
+  private Object[] createLookupRow( RowMetaInterface inputRowMeta, Object[] row ) throws KettleException {
     Object[] lookupRow = new Object[ data.lookupMeta.size() ];
     int lookupIndex = 0;
 
@@ -83,7 +88,8 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
         // Try to convert type if needed
         if ( input.getType() != value.getType()
-          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
+          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING == input.getStorageType()
+          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING_SLICE == input.getStorageType() ) {
           lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
           value.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
         }
@@ -103,15 +109,23 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
         // Try to convert type if needed
         if ( input.getType() != value.getType()
-          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING == input.getStorageType() ) {
+          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING == input.getStorageType()
+          || ValueMetaInterface.STORAGE_TYPE_BINARY_STRING_SLICE == input.getStorageType() ) {
           lookupRow[ lookupIndex ] = value.convertData( input, lookupRow[ lookupIndex ] );
           value.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
         }
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
+
+  private synchronized Object[] lookupValues( RowMetaInterface inputRowMeta, Object[] row, Object[] lookupRow )
+    throws KettleException {
+    Object[] outputRow = RowDataUtil.resizeArray( row, data.outputRowMeta.size() );
 
     Object[] add;
+    RowMetaInterface returnRowMeta = null;
     boolean cacheNow = false;
     boolean cacheHit = false;
 
@@ -134,9 +148,24 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
           + data.lookupMeta.getString( lookupRow ) );
       }
 
-      data.db.setValuesLookup( data.lookupMeta, lookupRow );
-      add = data.db.getLookup( meta.isFailingOnMultipleResults() );
-      cacheNow = true;
+      if ( !isKnownMissing( lookupRow ) ) {
+        if ( data.batchResults != null && data.batchResults.containsKey( lookupRow ) ) {
+          add = getBatchResult( lookupRow );
+          returnRowMeta = data.batchLookup.getReturnRowMeta();
+        }
+        if ( add == null ) {
+          // Not looked up in a batch, or not found by it: the database may compare the keys differently (padding,
+          // collation), so only a lookup of the row on its own tells that the key is missing
+          data.db.setValuesLookup( data.lookupMeta, lookupRow );
+          add = data.db.getLookup( meta.isFailingOnMultipleResults() );
+          returnRowMeta = data.db.getReturnRowMeta();
+        }
+        cacheNow = true;
+
+        if ( add == null && data.missingKeys != null ) {
+          data.missingKeys.add( data.lookupMeta, lookupRow );
+        }
+      }
     }
 
 
@@ -180,7 +209,7 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         // that should not be a problem.
         //
         for ( int i = 0; i < types.length; i++ ) {
-          ValueMetaInterface returned = data.db.getReturnRowMeta().getValueMeta( i );
+          ValueMetaInterface returned = returnRowMeta.getValueMeta( i );
           ValueMetaInterface expected = data.returnMeta.getValueMeta( i );
 
           if ( returned != null && types[ i ] > 0 && types[ i ] != returned.getType() ) {
@@ -205,6 +234,34 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return outputRow;
   }
 
+  private Object[] getBatchResult( Object[] lookupRow ) throws KettleException {
+    List<Object[]> rows = data.batchResults.get( lookupRow );
+    if ( rows.isEmpty() ) {
+      return null;
+    }
+    if ( meta.isFailingOnMultipleResults() && rows.size() > 1 ) {
+      throw new KettleDatabaseException(
+        "Only 1 row was expected as a result of a lookup, and at least 2 were found!" );
+    }
+    // Rows with the same keys share the result, the values might get converted
+    return rows.get( 0 ).clone();
+  }
+
+  /**
+   * @return true if the lookup values are certainly not in the table and the database doesn't need to be queried
+   */
+  private boolean isKnownMissing( Object[] lookupRow ) {
+    if ( data.keyFilter != null && !data.keyFilter.mightContain( lookupRow ) ) {
+      data.nrFilteredLookups++;
+      return true;
+    }
+    if ( data.missingKeys != null && data.missingKeys.contains( data.lookupMeta, lookupRow ) ) {
+      data.nrMissingKeysCacheHits++;
+      return true;
+    }
+    return false;
+  }
+
   @VisibleForTesting
   boolean isTimelessMask( String dateMask ) {
     if ( dateMask == null ) {
@@ -344,15 +401,19 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
 
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+    meta = (DatabaseLookupMeta) smi;
+    data = (DatabaseLookupData) sdi;
+
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      // Look up the rows still waiting for a batch
+      if ( data.batchRows != null && !data.batchRows.isEmpty() && !processBatch() ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
 
-    meta = (DatabaseLookupMeta) smi;
-    data = (DatabaseLookupData) sdi;
-
     if ( first ) {
       first = false;
 
@@ -420,6 +481,34 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       if ( meta.isCached() && meta.isLoadingAllDataInCache() ) {
         loadAllTableDataIntoTheCache();
       }
+
+      if ( meta.getNegativeCacheSize() > 0 ) {
+        data.missingKeys = new MissingKeysCache( meta.getNegativeCacheSize() );
+      }
+
+      // The Bloom filter can only tell that a key is missing when all the keys are compared with "="
+      //
+      if ( meta.isUsingBloomFilter() && !( meta.isCached() && meta.isLoadingAllDataInCache() ) ) {
+        if ( isAllKeysEqual() ) {
+          loadKeyFilter();
+        } else {
+          logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.KeyFilterNotSupported" ) );
+        }
+      }
+
+      // Batches of keys are looked up with an IN list, this only works when all the keys are compared with "="
+      //
+      if ( meta.getLookupBatchSize() > 1 && !( meta.isCached() && meta.isLoadingAllDataInCache() ) ) {
+        if ( isAllKeysEqual() ) {
+          String schemaTable = meta.getDatabaseMeta().getQuotedSchemaTableCombination(
+            environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta.getTablename() ) );
+          data.batchLookup = new DatabaseBatchLookup( data.db, schemaTable, meta.getTableKeyField(), data.lookupMeta,
+            meta.getReturnValueField(), meta.getOrderByClause(), meta.getLookupBatchSize() );
+          data.batchRows = new ArrayList<>( meta.getLookupBatchSize() );
+        } else {
+          logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookupNotSupported" ) );
+        }
+      }
     }
 
     if ( log.isRowLevel() ) {
@@ -427,9 +516,80 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
         + getInputRowMeta().getString( r ) );
     }
 
+    if ( data.batchLookup != null ) {
+      data.batchRows.add( r );
+      return data.batchRows.size() < meta.getLookupBatchSize() || processBatch();
+    }
+
+    return processLookupRow( r, null );
+  }
+
+  /**
+   * Looks up the values of the waiting rows with one query and passes the rows on in input order.
+   *
+   * @return false if the step has to stop
+   */
+  private boolean processBatch() throws KettleException {
+    try {
+      List<Object[]> lookupRows = new ArrayList<>( data.batchRows.size() );
+      List<Object[]> keys = new ArrayList<>( data.batchRows.size() );
+      for ( Object[] row : data.batchRows ) {
+        Object[] lookupRow;
+        try {
+          lookupRow = createLookupRow( getInputRowMeta(), row );
+        } catch ( KettleException e ) {
+          // The row is looked up on its own, that handles the error
+          lookupRow = null;
+        }
+        lookupRows.add( lookupRow );
+        if ( lookupRow != null && isDatabaseLookupNeeded( lookupRow ) ) {
+          keys.add( lookupRow );
+        }
+      }
+
+      if ( !keys.isEmpty() ) {
+        try {
+          data.batchResults = data.batchLookup.lookup( keys );
+          data.nrBatchLookups++;
+        } catch ( KettleException e ) {
+          // Fall back to a lookup per row
+          logBasic( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookupFailed", e.getMessage() ) );
+        }
+      }
+
+      for ( int i = 0; i < data.batchRows.size(); i++ ) {
+        if ( !processLookupRow( data.batchRows.get( i ), lookupRows.get( i ) ) ) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      data.batchRows.clear();
+      data.batchResults = null;
+    }
+  }
+
+  private boolean isDatabaseLookupNeeded( Object[] lookupRow ) throws KettleException {
+    if ( meta.isCached() && data.cache.getRowFromCache( data.lookupMeta, lookupRow ) != null ) {
+      return false;
+    }
+    if ( data.keyFilter != null && !data.keyFilter.mightContain( lookupRow ) ) {
+      return false;
+    }
+    return data.missingKeys == null || !data.missingKeys.contains( data.lookupMeta, lookupRow );
+  }
+
+  /**
+   * Looks up the values of a row and passes it on.
+   *
+   * @param lookupRow the lookup values of the row, null to calculate them
+   * @return false if the step has to stop
+   */
+  private boolean processLookupRow( Object[] r, Object[] lookupRow ) throws KettleException {
     try {
       // add new lookup values to the row
-      Object[] outputRow = lookupValues( getInputRowMeta(), r );
+      Object[] outputRow = lookupRow == null
+        ? lookupValues( getInputRowMeta(), r ) : lookupValues( getInputRowMeta(), r, lookupRow );
 
       if ( outputRow != null ) {
         // copy row to output rowset(s);
@@ -507,6 +667,49 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     }
   }
 
+  private boolean isAllKeysEqual() {
+    for ( int condition : data.conditions ) {
+      if ( condition != DatabaseLookupMeta.CONDITION_EQ ) {
+        return false;
+      }
+    }
+    return data.lookupMeta.size() == meta.getTableKeyField().length;
+  }
+
+  private void loadKeyFilter() throws KettleException {
+    DatabaseMeta dbMeta = meta.getDatabaseMeta();
+    String schemaTable = dbMeta.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
+      environmentSubstitute( meta.getTablename() ) );
+
+    try ( Database db = getDatabase( dbMeta ) ) {
+      connectDatabase( db );
+
+      // Size the filter with the number of rows in the table
+      //
+      RowMetaAndData count = db.getOneRow( "SELECT COUNT(*) FROM " + schemaTable );
+      long nrRows = count == null ? 0L : count.getInteger( 0, 0L );
+      KeyBloomFilter keyFilter = new KeyBloomFilter( nrRows );
+
+      StringBuilder sql = new StringBuilder( "SELECT " );
+      for ( int i = 0; i < meta.getTableKeyField().length; i++ ) {
+        if ( i > 0 ) {
+          sql.append( ", " );
+        }
+        sql.append( dbMeta.quoteField( meta.getTableKeyField()[ i ] ) );
+      }
+      sql.append( " FROM " ).append( schemaTable );
+
+      db.forEachRow( sql.toString(), 0, keyFilter::put );
+      data.keyFilter = keyFilter;
+    } catch ( Exception e ) {
+      throw new KettleException( e );
+    }
+
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.KeyFilterLoaded", data.keyFilter.getNrKeys() ) );
+    }
+  }
+
   private void putToDefaultCache( Database db, String sql ) throws KettleDatabaseException {
     final int keysAmount = meta.getStreamKeyField1().length;
     AtomicReference<RowMetaInterface> prototype = new AtomicReference<>();
@@ -645,9 +848,29 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       data.db.close();
     }
 
+    if ( ( data.keyFilter != null || data.missingKeys != null ) && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.SkippedLookups", data.nrFilteredLookups,
+        data.nrMissingKeysCacheHits ) );
+    }
+
+    if ( data.batchLookup != null ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookups", data.nrBatchLookups ) );
+      }
+      try {
+        data.batchLookup.close();
+      } catch ( KettleDatabaseException e ) {
+        logError( BaseMessages.getString( PKG, "DatabaseLookup.Log.BatchLookupFailed", e.getMessage() ) );
+      }
+      data.batchLookup = null;
+      data.batchRows = null;
+    }
+
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
+    data.keyFilter = null;
+    data.missingKeys = null;
 
     super.dispose( smi, sdi );
   }
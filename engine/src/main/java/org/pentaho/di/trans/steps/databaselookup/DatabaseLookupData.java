@@ -13,10 +13,14 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import java.util.List;
+import java.util.Map;
+
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.DatabaseBatchLookup;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 /**
@@ -40,6 +44,16 @@ public class DatabaseLookupData extends BaseStepData implements StepDataInterfac
   public int[] conditions;
   public boolean hasDBCondition;
 
+  public KeyBloomFilter keyFilter; // The keys in the table, null if not used
+  public MissingKeysCache missingKeys; // The keys not found in the table, null if not used
+  public long nrFilteredLookups;
+  public long nrMissingKeysCacheHits;
+
+  public DatabaseBatchLookup batchLookup; // Looks up the keys of many rows at once, null if not used
+  public List<Object[]> batchRows; // The rows waiting for the next batch lookup
+  public Map<Object[], List<Object[]>> batchResults; // The results of the current batch lookup
+  public long nrBatchLookups;
+
   public DatabaseLookupData() {
     super();
 
@@ -56,6 +56,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   private static final String TAG_CACHE = "cache";
   private static final String TAG_CACHE_LOAD_ALL = "cache_load_all";
   private static final String TAG_CACHE_SIZE = "cache_size";
+  private static final String TAG_BLOOM_FILTER = "bloom_filter";
+  private static final String TAG_NEGATIVE_CACHE_SIZE = "negative_cache_size";
+  private static final String TAG_LOOKUP_BATCH_SIZE = "lookup_batch_size";
   private static final String TAG_CONDITION = "condition";
   private static final String TAG_CONNECTION = "connection";
   private static final String TAG_DEFAULT = "default";
@@ -146,6 +149,15 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   /** Flag to make it load all data into the cache at startup */
   private boolean loadingAllDataInCache;
 
+  /** Skip the lookups of keys that are not in the table, using a Bloom filter of the keys loaded at startup */
+  private boolean usingBloomFilter;
+
+  /** Remember this many keys that were not found, 0 to disable */
+  private int negativeCacheSize;
+
+  /** Look up the keys of this many rows with one query, 0 or 1 to look up every row on its own */
+  private int lookupBatchSize;
+
   /** Have the lookup fail if multiple results were found, renders the orderByClause useless */
   private boolean failingOnMultipleResults;
 
@@ -424,6 +436,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE ) );
       loadingAllDataInCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE_LOAD_ALL ) );
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_CACHE_SIZE ), 0 );
+      usingBloomFilter = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_BLOOM_FILTER ) );
+      negativeCacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_NEGATIVE_CACHE_SIZE ), 0 );
+      lookupBatchSize = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_LOOKUP_BATCH_SIZE ), 0 );
       schemaName = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_SCHEMA );
       tablename = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_TABLE );
 
@@ -476,6 +491,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     databaseMeta = null;
     cached = false;
     cacheSize = 0;
+    usingBloomFilter = false;
+    negativeCacheSize = 0;
+    lookupBatchSize = 0;
     schemaName = "";
     tablename = BaseMessages.getString( PKG, "DatabaseLookupMeta.Default.TableName" );
 
@@ -522,6 +540,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE, cached ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_LOAD_ALL, loadingAllDataInCache ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_SIZE, cacheSize ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_BLOOM_FILTER, usingBloomFilter ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_NEGATIVE_CACHE_SIZE, negativeCacheSize ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_LOOKUP_BATCH_SIZE, lookupBatchSize ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_SCHEMA, schemaName ) );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_TABLE, tablename ) );
@@ -561,6 +582,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = rep.getStepAttributeBoolean( id_step, TAG_CACHE );
       loadingAllDataInCache = rep.getStepAttributeBoolean( id_step, TAG_CACHE_LOAD_ALL );
       cacheSize = (int) rep.getStepAttributeInteger( id_step, TAG_CACHE_SIZE );
+      usingBloomFilter = rep.getStepAttributeBoolean( id_step, TAG_BLOOM_FILTER );
+      negativeCacheSize = (int) rep.getStepAttributeInteger( id_step, TAG_NEGATIVE_CACHE_SIZE );
+      lookupBatchSize = (int) rep.getStepAttributeInteger( id_step, TAG_LOOKUP_BATCH_SIZE );
       schemaName = rep.getStepAttributeString( id_step, TAG_LOOKUP_SCHEMA );
       tablename = rep.getStepAttributeString( id_step, TAG_LOOKUP_TABLE );
       orderByClause = rep.getStepAttributeString( id_step, TAG_LOOKUP_ORDERBY );
@@ -599,6 +623,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE, cached );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_LOAD_ALL, loadingAllDataInCache );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_SIZE, cacheSize );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_BLOOM_FILTER, usingBloomFilter );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_NEGATIVE_CACHE_SIZE, negativeCacheSize );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_BATCH_SIZE, lookupBatchSize );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_SCHEMA, schemaName );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_TABLE, tablename );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_ORDERBY, orderByClause );
@@ -882,6 +909,52 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * @return true if the lookups of keys that are not in the table are skipped using a Bloom filter
+   */
+  public boolean isUsingBloomFilter() {
+    return usingBloomFilter;
+  }
+
+  /**
+   * @param usingBloomFilter
+   *          true to skip the lookups of keys that are not in the table using a Bloom filter
+   */
+  public void setUsingBloomFilter( boolean usingBloomFilter ) {
+    this.usingBloomFilter = usingBloomFilter;
+  }
+
+  /**
+   * @return the number of keys that were not found to remember, 0 if they are not remembered
+   */
+  public int getNegativeCacheSize() {
+    return negativeCacheSize;
+  }
+
+  /**
+   * @param negativeCacheSize
+   *          the number of keys that were not found to remember, 0 to not remember them
+   */
+  public void setNegativeCacheSize( int negativeCacheSize ) {
+    this.negativeCacheSize = negativeCacheSize;
+  }
+
+  /**
+   * @return the number of rows of which the keys are looked up with one query, 0 or 1 if every row is looked up on
+   *         its own
+   */
+  public int getLookupBatchSize() {
+    return lookupBatchSize;
+  }
+
+  /**
+   * @param lookupBatchSize
+   *          the number of rows of which the keys are looked up with one query, 0 or 1 to look up every row on its own
+   */
+  public void setLookupBatchSize( int lookupBatchSize ) {
+    this.lookupBatchSize = lookupBatchSize;
+  }
+
   @Override
   public RowMeta getRowMeta( StepDataInterface stepData ) {
     return (RowMeta) ( (DatabaseLookupData) stepData ).returnMeta;
@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Locale;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+
+/**
+ * A Bloom filter of the keys in the lookup table. When the filter doesn't contain a key, the key is certainly not in
+ * the table and the lookup doesn't need to go to the database.<br>
+ * <br>
+ * The values are normalized before they are hashed so that keys the database considers equal end up with the same
+ * hash: numbers of different types with the same value, strings that only differ in case or trailing spaces. This only
+ * adds false positives, never false negatives.
+ */
+public class KeyBloomFilter {
+
+  public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  private final BloomFilter<Object[]> filter;
+  private long nrKeys;
+
+  /**
+   * @param expectedKeys
+   *          the expected number of keys in the table
+   */
+  public KeyBloomFilter( long expectedKeys ) {
+    this( expectedKeys, DEFAULT_FALSE_POSITIVE_PROBABILITY );
+  }
+
+  /**
+   * @param expectedKeys
+   *          the expected number of keys in the table
+   * @param falsePositiveProbability
+   *          the probability that the filter contains a key that isn't in the table
+   */
+  public KeyBloomFilter( long expectedKeys, double falsePositiveProbability ) {
+    filter = BloomFilter.create( KeysFunnel.INSTANCE, Math.max( 1L, expectedKeys ), falsePositiveProbability );
+  }
+
+  /**
+   * Add the keys of a row of the table. Keys with a null value are skipped, they are never equal to a lookup key.
+   *
+   * @param keys
+   *          the key values in the table
+   */
+  public void put( Object[] keys ) {
+    if ( hasNull( keys ) ) {
+      return;
+    }
+    filter.put( keys );
+    nrKeys++;
+  }
+
+  /**
+   * @param keys
+   *          the key values to look up
+   * @return false if the keys are certainly not in the table, true if they might be
+   */
+  public boolean mightContain( Object[] keys ) {
+    // A condition key = NULL is never true
+    return !hasNull( keys ) && filter.mightContain( keys );
+  }
+
+  /**
+   * @return the number of keys added to the filter
+   */
+  public long getNrKeys() {
+    return nrKeys;
+  }
+
+  private static boolean hasNull( Object[] keys ) {
+    for ( Object key : keys ) {
+      if ( key == null ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private enum KeysFunnel implements Funnel<Object[]> {
+    INSTANCE;
+
+    private static final byte TAG_NUMBER = 1;
+    private static final byte TAG_STRING = 2;
+    private static final byte TAG_DATE = 3;
+    private static final byte TAG_BOOLEAN = 4;
+    private static final byte TAG_BINARY = 5;
+    private static final byte TAG_OTHER = 6;
+
+    private static final BigInteger MIN_LONG = BigInteger.valueOf( Long.MIN_VALUE );
+    private static final BigInteger MAX_LONG = BigInteger.valueOf( Long.MAX_VALUE );
+
+    @Override
+    public void funnel( Object[] keys, PrimitiveSink into ) {
+      for ( Object key : keys ) {
+        if ( key instanceof Number ) {
+          into.putByte( TAG_NUMBER );
+          funnelNumber( (Number) key, into );
+        } else if ( key instanceof String ) {
+          into.putByte( TAG_STRING );
+          into.putString( normalizeString( (String) key ), StandardCharsets.UTF_8 );
+        } else if ( key instanceof Date ) {
+          into.putByte( TAG_DATE );
+          into.putLong( ( (Date) key ).getTime() );
+        } else if ( key instanceof Boolean ) {
+          into.putByte( TAG_BOOLEAN );
+          into.putBoolean( (Boolean) key );
+        } else if ( key instanceof byte[] ) {
+          into.putByte( TAG_BINARY );
+          into.putBytes( (byte[]) key );
+        } else {
+          into.putByte( TAG_OTHER );
+          into.putString( String.valueOf( key ), StandardCharsets.UTF_8 );
+        }
+      }
+    }
+
+    // Whole numbers are hashed as a long, whatever their type
+    //
+    private static void funnelNumber( Number number, PrimitiveSink into ) {
+      if ( number instanceof Long || number instanceof Integer || number instanceof Short
+        || number instanceof Byte ) {
+        into.putLong( number.longValue() );
+      } else if ( number instanceof BigDecimal ) {
+        BigDecimal bigDecimal = (BigDecimal) number;
+        if ( bigDecimal.signum() == 0 ) {
+          into.putLong( 0L );
+        } else if ( bigDecimal.stripTrailingZeros().scale() <= 0 ) {
+          BigInteger bigInteger = bigDecimal.toBigInteger();
+          if ( bigInteger.compareTo( MIN_LONG ) >= 0 && bigInteger.compareTo( MAX_LONG ) <= 0 ) {
+            into.putLong( bigInteger.longValue() );
+          } else {
+            into.putDouble( bigDecimal.doubleValue() );
+          }
+        } else {
+          into.putDouble( bigDecimal.doubleValue() );
+        }
+      } else {
+        double value = number.doubleValue();
+        if ( value == Math.rint( value ) && Math.abs( value ) < 0x1p63 ) {
+          into.putLong( (long) value );
+        } else {
+          into.putDouble( value );
+        }
+      }
+    }
+
+    // Many databases compare strings ignoring case and trailing spaces
+    //
+    private static String normalizeString( String string ) {
+      int length = string.length();
+      while ( length > 0 && string.charAt( length - 1 ) == ' ' ) {
+        length--;
+      }
+      return string.substring( 0, length ).toLowerCase( Locale.ROOT );
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A bounded cache of the lookup keys that were not found in the database. When the cache is full, the least recently
+ * used key is removed.
+ */
+public class MissingKeysCache {
+
+  private final LinkedHashMap<RowMetaAndData, Boolean> map;
+
+  /**
+   * @param maxSize
+   *          the maximum number of keys in the cache
+   */
+  public MissingKeysCache( final int maxSize ) {
+    map = new LinkedHashMap<RowMetaAndData, Boolean>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<RowMetaAndData, Boolean> eldest ) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * @param lookupMeta
+   *          the metadata of the lookup row
+   * @param lookupRow
+   *          the lookup values
+   * @return true if the lookup values were not found before
+   */
+  public boolean contains( RowMetaInterface lookupMeta, Object[] lookupRow ) {
+    return map.get( new RowMetaAndData( lookupMeta, lookupRow ) ) != null;
+  }
+
+  /**
+   * @param lookupMeta
+   *          the metadata of the lookup row
+   * @param lookupRow
+   *          the lookup values that were not found
+   */
+  public void add( RowMetaInterface lookupMeta, Object[] lookupRow ) {
+    map.put( new RowMetaAndData( lookupMeta, lookupRow ), Boolean.TRUE );
+  }
+
+  public int size() {
+    return map.size();
+  }
+}
@@ -124,7 +124,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       data.lazyList = new ArrayList<Integer>();
       for ( int i = 0; i < data.inputRowMeta.size(); i++ ) {
         ValueMetaInterface valueMeta = data.inputRowMeta.getValueMeta( i );
-        if ( valueMeta.isStorageBinaryString() ) {
+        if ( valueMeta.isStorageBinaryString() || valueMeta.isStorageBinaryStringSlice() ) {
           data.lazyList.add( i );
           valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
         }
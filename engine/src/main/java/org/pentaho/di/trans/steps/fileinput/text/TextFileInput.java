@@ -13,11 +13,17 @@
 
 package org.pentaho.di.trans.steps.fileinput.text;
 
+import java.io.FileInputStream;
 import java.util.Date;
 
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.provider.local.LocalFile;
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
 import org.pentaho.di.core.playlist.FilePlayListAll;
 import org.pentaho.di.core.playlist.FilePlayListReplay;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -78,8 +84,87 @@ public class TextFileInput extends BaseFileInputStep<TextFileInputMeta, TextFile
       return false;
     }
 
+    // Are we running in parallel? Then every step copy reads its own part of the files.
+    //
+    data.stepNumber = getUniqueStepNrAcrossSlaves();
+    data.totalNumberOfSteps = getUniqueStepCountAcrossSlaves();
+    data.parallel =
+      meta.content.runningInParallel && data.totalNumberOfSteps > 1 && !meta.inputFiles.acceptingFilenames;
+    data.split = null;
+
     return true;
   }
+
+  /**
+   * When running in parallel, the files are cut in parts that are read by the step copies: the parts of file i are read
+   * by the copies i, i+1, i+2, ... (modulo the number of copies). A file that can't be cut is read as a whole by copy
+   * i.
+   */
+  @Override
+  protected boolean openNextFile() {
+    if ( !data.parallel ) {
+      return super.openNextFile();
+    }
+    while ( data.currentFileIndex < data.files.nrOfFiles() ) {
+      int splitNr = Math.floorMod( data.stepNumber - data.currentFileIndex, data.totalNumberOfSteps );
+      FileObject file = data.files.getFile( data.currentFileIndex );
+      TextFileSplit split = getSplit( file, splitNr );
+      if ( split != null ) {
+        data.split = split.getNrSplits() > 1 ? split : null;
+        return super.openNextFile();
+      }
+      data.currentFileIndex++;
+    }
+    return false;
+  }
+
+  /**
+   * @return the part of the file for this step copy, null if the file has fewer parts
+   */
+  TextFileSplit getSplit( FileObject file, int splitNr ) {
+    int nrSplits = 1;
+    String bomCharset = null;
+    CompressionProvider provider =
+      CompressionProviderFactory.getInstance().getCompressionProviderByName( meta.content.fileCompression );
+    if ( file instanceof LocalFile && provider instanceof SplittableCompressionProvider && isSplittingFiles() ) {
+      try {
+        nrSplits = TextFileSplit.getNrSplits( file.getContent().getSize(), data.totalNumberOfSteps );
+        if ( nrSplits > 1 ) {
+          try ( FileInputStream fis = new FileInputStream( KettleVFS.getFilename( file ) ) ) {
+            bomCharset = TextFileSplit.getBomCharset( fis.getChannel(), (SplittableCompressionProvider) provider );
+          }
+          if ( bomCharset != null && !"UTF-8".equals( bomCharset ) ) {
+            nrSplits = 1;
+          }
+        }
+      } catch ( Exception e ) {
+        // Let the reader report the problem with the file
+        //
+        nrSplits = 1;
+      }
+    }
+    if ( nrSplits == 1 && splitNr == 0 && log.isDetailed() ) {
+      logDetailed(
+        BaseMessages.getString( PKG, "TextFileInput.Log.FileReadAsAWhole", file.getName().getFriendlyURI() ) );
+    }
+    return splitNr < nrSplits ? new TextFileSplit( splitNr, nrSplits, bomCharset ) : null;
+  }
+
+  /**
+   * @return true if the lines of the files can be read in any order: the files can then be cut in parts
+   */
+  private boolean isSplittingFiles() {
+    if ( meta.content.layoutPaged || meta.content.lineWrapped || meta.content.breakInEnclosureAllowed
+      || ( meta.content.includeRowNumber && meta.content.rowNumberByFile ) ) {
+      return false;
+    }
+    for ( TextFileFilter filter : meta.getFilter() ) {
+      if ( filter.isFilterLastLine() ) {
+        return false;
+      }
+    }
+    return EncodingType.guessEncodingType( meta.getEncoding() ) == EncodingType.SINGLE;
+  }
   public boolean isWaitingForData() {
     return true;
   }
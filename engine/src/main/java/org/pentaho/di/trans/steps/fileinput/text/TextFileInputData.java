@@ -62,6 +62,20 @@ public class TextFileInputData extends BaseFileInputStepData {
 
   public EncodingType encodingType;
 
+  /**
+   * Are the files read in parallel by the step copies?
+   */
+  public boolean parallel;
+
+  public int stepNumber;
+
+  public int totalNumberOfSteps;
+
+  /**
+   * The part of the current file this step copy reads, null if it reads the whole file
+   */
+  public TextFileSplit split;
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<TextFileLine>();
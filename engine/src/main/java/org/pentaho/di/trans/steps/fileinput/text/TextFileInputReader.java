@@ -14,12 +14,14 @@
 package org.pentaho.di.trans.steps.fileinput.text;
 
 import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 
 import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.compress.CompressionInputStream;
 import org.pentaho.di.core.compress.CompressionProvider;
 import org.pentaho.di.core.compress.CompressionProviderFactory;
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
 import org.pentaho.di.core.logging.LogChannelInterface;
@@ -42,7 +44,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   private final TextFileInputData data;
   private final LogChannelInterface log;
 
-  private final CompressionInputStream in;
+  private final InputStream in;
 
   private final BufferedInputStreamReader isr;
 
@@ -50,6 +52,16 @@ public class TextFileInputReader implements IBaseFileInputReader {
 
   private boolean first;
 
+  /**
+   * Does this reader read the header lines: false if it reads a part of the file that is not at its start
+   */
+  private final boolean header;
+
+  /**
+   * Does this reader read the footer lines: false if it reads a part of the file that is not at its end
+   */
+  private final boolean footer;
+
   protected long lineNumberInFile;
 
   protected long linesWritten;
@@ -69,16 +81,26 @@ public class TextFileInputReader implements IBaseFileInputReader {
       log.logDetailed( "This is a compressed file being handled by the " + provider.getName() + " provider" );
     }
 
-    in = provider.createInputStream( KettleVFS.getInputStream( file ) );
+    TextFileSplit split = data.split;
+    header = meta.content.header && ( split == null || split.isFirst() );
+    footer = meta.content.footer && ( split == null || split.isLast() );
 
-    in.nextEntry();
+    if ( split != null ) {
+      in = split.createInputStream( KettleVFS.getFilename( file ), (SplittableCompressionProvider) provider );
+    } else {
+      CompressionInputStream compressionInputStream = provider.createInputStream( KettleVFS.getInputStream( file ) );
+      compressionInputStream.nextEntry();
+      in = compressionInputStream;
+    }
 
     BufferedInputStream inStream = new BufferedInputStream( in, BUFFER_SIZE_INPUT_STREAM );
-    BOMDetector bom = new BOMDetector( inStream );
+    // Only the first part of a file starts with the byte order mark
+    String bomCharset = split == null || split.isFirst() ? new BOMDetector( inStream ).getCharset()
+      : split.getBomCharset();
 
-    if ( bom.bomExist() ) {
+    if ( bomCharset != null ) {
       // if BOM exist, use it instead defined charset
-      isr = new BufferedInputStreamReader( new InputStreamReader( inStream, bom.getCharset() ) );
+      isr = new BufferedInputStreamReader( new InputStreamReader( inStream, bomCharset ) );
     } else if ( meta.getEncoding() != null && meta.getEncoding().length() > 0 ) {
       isr = new BufferedInputStreamReader( new InputStreamReader( inStream, meta.getEncoding() ) );
     } else {
@@ -92,7 +114,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.content.header;
+    data.doneWithHeader = !header;
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -105,12 +127,12 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.content.header ? meta.content.nrHeaderLines : 0;
+    bufferSize += header ? meta.content.nrHeaderLines : 0;
     bufferSize +=
         meta.content.layoutPaged ? meta.content.nrLinesPerPage * ( Math.max( 0, meta.content.nrWraps ) + 1 ) : Math.max(
             0, meta.content.nrWraps ); // it helps when we have wrapped input w/o header
 
-    bufferSize += meta.content.footer ? meta.content.nrFooterLines : 0;
+    bufferSize += footer ? meta.content.nrFooterLines : 0;
 
     // See if we need to skip the document header lines...
     if ( meta.content.layoutPaged ) {
@@ -119,7 +141,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
     }
 
     for ( int i = 0; i < bufferSize && !data.doneReading; i++ ) {
-      boolean wasNotFiltered = tryToReadLine( !meta.content.header || i >= meta.content.nrHeaderLines );
+      boolean wasNotFiltered = tryToReadLine( !header || i >= meta.content.nrHeaderLines );
       if ( !wasNotFiltered ) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -219,7 +241,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
           // We need to reset these BEFORE the next header line is read, so that it
           // is treated as a header ... obviously, only if there is no footer, and we are
           // done reading data.
-          if ( !meta.content.footer && ( data.pageLinesRead == meta.content.nrLinesPerPage ) ) {
+          if ( !footer && ( data.pageLinesRead == meta.content.nrLinesPerPage ) ) {
             /*
              * OK, we are done reading the footer lines, start again on 'next page' with the header
              */
@@ -234,14 +256,14 @@ public class TextFileInputReader implements IBaseFileInputReader {
         } else {
           // done reading the data lines, skip the footer lines
 
-          if ( meta.content.footer && data.footerLinesRead < meta.content.nrFooterLines ) {
+          if ( footer && data.footerLinesRead < meta.content.nrFooterLines ) {
             if ( log.isRowLevel() ) {
               log.logRowlevel( "P-FOOTER: " + textLine.line );
             }
             data.footerLinesRead++;
           }
 
-          if ( !meta.content.footer || data.footerLinesRead >= meta.content.nrFooterLines ) {
+          if ( !footer || data.footerLinesRead >= meta.content.nrFooterLines ) {
             /*
              * OK, we are done reading the footer lines, start again on 'next page' with the header
              */
@@ -269,7 +291,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
          * IF we are done reading and we have a footer AND the number of lines in the buffer is smaller then the number
          * of footer lines THEN we can remove the remaining rows from the buffer: they are all footer rows.
          */
-        if ( data.doneReading && meta.content.footer && data.lineBuffer.size() < meta.content.nrFooterLines ) {
+        if ( data.doneReading && footer && data.lineBuffer.size() < meta.content.nrFooterLines ) {
           data.lineBuffer.clear();
         } else {
           // Not yet a footer line: it's a normal data line.
@@ -0,0 +1,178 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fileinput.text;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
+
+/**
+ * A part of a text file read by a step copy when the file is read in parallel. The file is cut in parts of about the
+ * same size at the starts of the blocks of its compression format and every part reads the lines that start in it,
+ * see {@link TextFileSplitInputStream}.
+ */
+public class TextFileSplit {
+
+  /**
+   * The minimum size of a part: smaller files are read by fewer step copies
+   */
+  public static final long MIN_SPLIT_SIZE = 1024L * 1024L;
+
+  private final int nr;
+  private final int nrSplits;
+  private final String bomCharset;
+
+  /**
+   * @param nr
+   *          the number of the part, starting at 0
+   * @param nrSplits
+   *          the number of parts of the file
+   * @param bomCharset
+   *          the charset of the byte order mark at the start of the file, null if there is none
+   */
+  public TextFileSplit( int nr, int nrSplits, String bomCharset ) {
+    this.nr = nr;
+    this.nrSplits = nrSplits;
+    this.bomCharset = bomCharset;
+  }
+
+  /**
+   * @param size
+   *          the size of the file
+   * @param nrCopies
+   *          the number of step copies reading the file
+   * @return the number of parts to cut the file in
+   */
+  public static int getNrSplits( long size, int nrCopies ) {
+    return (int) Math.max( 1L, Math.min( nrCopies, size / MIN_SPLIT_SIZE ) );
+  }
+
+  /**
+   * @param channel
+   *          the channel of the file
+   * @param provider
+   *          the compression provider of the file
+   * @return the charset of the byte order mark at the start of the decompressed file, null if there is none
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public static String getBomCharset( FileChannel channel, SplittableCompressionProvider provider )
+    throws IOException {
+    long size = channel.size();
+    try ( BufferedInputStream in = new BufferedInputStream(
+      provider.createBlockInputStream( channel, provider.findBlockStart( channel, 0, size ), size ) ) ) {
+      return new BOMDetector( in ).getCharset();
+    }
+  }
+
+  public int getNr() {
+    return nr;
+  }
+
+  public int getNrSplits() {
+    return nrSplits;
+  }
+
+  public String getBomCharset() {
+    return bomCharset;
+  }
+
+  /**
+   * @return true if the part is at the start of the file: it reads the header lines
+   */
+  public boolean isFirst() {
+    return nr == 0;
+  }
+
+  /**
+   * @return true if the part is at the end of the file: it reads the footer lines
+   */
+  public boolean isLast() {
+    return nr == nrSplits - 1;
+  }
+
+  /**
+   * Opens the part of a local file. Closing the stream closes the file.
+   *
+   * @param filename
+   *          the name of the local file
+   * @param provider
+   *          the compression provider of the file
+   * @return the decompressed lines of the part
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public InputStream createInputStream( String filename, SplittableCompressionProvider provider ) throws IOException {
+    final FileInputStream fis = new FileInputStream( filename );
+    try {
+      return new FilterInputStream( createInputStream( fis.getChannel(), provider ) ) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            fis.close();
+          }
+        }
+      };
+    } catch ( IOException | RuntimeException e ) {
+      fis.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the part of a file. Closing the stream doesn't close the channel.
+   *
+   * @param channel
+   *          the channel of the file
+   * @param provider
+   *          the compression provider of the file
+   * @return the decompressed lines of the part
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public InputStream createInputStream( FileChannel channel, SplittableCompressionProvider provider )
+    throws IOException {
+    long size = channel.size();
+    long start = size * nr / nrSplits;
+    long end = size * ( nr + 1 ) / nrSplits;
+
+    long blockStart = provider.findBlockStart( channel, isFirst() ? 0 : start, isFirst() ? size : end );
+    long blockEnd;
+    if ( isLast() ) {
+      blockEnd = size;
+    } else if ( blockStart >= end ) {
+      // No block starts in the part: it holds no bytes
+      //
+      blockEnd = blockStart;
+    } else {
+      blockEnd = provider.findBlockStart( channel, end, size );
+    }
+
+    InputStream part = blockStart < blockEnd ? provider.createBlockInputStream( channel, blockStart, blockEnd )
+      : new ByteArrayInputStream( new byte[ 0 ] );
+    // A part that reads nothing has no first line to finish
+    //
+    InputStream following = blockEnd < size && ( blockStart < blockEnd || isFirst() )
+      ? provider.createBlockInputStream( channel, blockEnd, size ) : null;
+    return new TextFileSplitInputStream( part, following, isFirst() );
+  }
+}
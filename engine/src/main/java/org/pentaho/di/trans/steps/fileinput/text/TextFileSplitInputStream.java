@@ -0,0 +1,188 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fileinput.text;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The lines of a part of a text file. A line belongs to the part that holds the line end before it, the first line of
+ * the file to the first part. A line end is a line feed or a carriage return that isn't followed by a line feed.<br>
+ * <br>
+ * The part skips the bytes up to its first line end, unless it is the first part, and goes on after its end with the
+ * bytes of the next parts up to the line end of its last line. The lines of all the parts are then the lines of the
+ * file, each one read once, wherever the parts start.
+ */
+public class TextFileSplitInputStream extends InputStream {
+
+  private static final int CR = '\r';
+  private static final int LF = '\n';
+
+  private final InputStream part;
+  private final InputStream following;
+  private final boolean firstPart;
+
+  private boolean skipping;
+  private boolean inPart = true;
+  private boolean done;
+  private int last = -1;
+  private int pending = -1;
+
+  /**
+   * @param part
+   *          the bytes of the part
+   * @param following
+   *          the bytes after the part, up to the end of the file, null if there are none
+   * @param firstPart
+   *          true if the part starts at the start of the file
+   */
+  public TextFileSplitInputStream( InputStream part, InputStream following, boolean firstPart ) {
+    this.part = new BufferedInputStream( part );
+    this.following = following == null ? null : new BufferedInputStream( following );
+    this.firstPart = firstPart;
+    this.skipping = !firstPart;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ( done ) {
+      return -1;
+    }
+    if ( skipping && !skipFirstLine() ) {
+      done = true;
+      return -1;
+    }
+    if ( inPart ) {
+      int b = next( part );
+      if ( b >= 0 ) {
+        last = b;
+        return b;
+      }
+      inPart = false;
+      if ( ( last < 0 && !firstPart ) || following == null ) {
+        // No line starts in the part
+        //
+        done = true;
+        return -1;
+      }
+      if ( last == CR ) {
+        // A line end split in two: the line after it belongs to the next part
+        //
+        int b2 = next( following );
+        if ( b2 == LF ) {
+          done = true;
+          return LF;
+        }
+        pending = b2;
+      }
+    }
+
+    // After the part: the rest of its last line
+    //
+    int b = next( following );
+    if ( b < 0 || b == LF ) {
+      done = true;
+    } else if ( b == CR ) {
+      int b2 = next( following );
+      if ( b2 != LF ) {
+        done = true;
+      }
+      pending = b2;
+    }
+    return b;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( inPart && !skipping && pending < 0 && !done ) {
+      int n = part.read( b, off, len );
+      if ( n > 0 ) {
+        last = b[ off + n - 1 ] & 0xFF;
+        return n;
+      }
+    }
+    int c = read();
+    if ( c < 0 ) {
+      return -1;
+    }
+    b[ off ] = (byte) c;
+    return 1;
+  }
+
+  /**
+   * @return true if a line end was found in the part
+   */
+  private boolean skipFirstLine() throws IOException {
+    skipping = false;
+    int b;
+    while ( ( b = next( part ) ) >= 0 ) {
+      if ( b == LF ) {
+        last = b;
+        return true;
+      }
+      if ( b == CR ) {
+        int b2 = next( part );
+        if ( b2 == LF ) {
+          last = b2;
+          return true;
+        }
+        if ( b2 >= 0 ) {
+          pending = b2;
+          last = b;
+          return true;
+        }
+        // The carriage return is the last byte of the part, the line end is the line feed after it if there is one
+        //
+        if ( following == null ) {
+          return false;
+        }
+        b2 = next( following );
+        if ( b2 == LF ) {
+          return false;
+        }
+        // The line starts in the next part but it belongs to this one
+        //
+        pending = b2;
+        last = b;
+        inPart = false;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int next( InputStream in ) throws IOException {
+    if ( pending >= 0 ) {
+      int b = pending;
+      pending = -1;
+      return b;
+    }
+    return in.read();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      part.close();
+    } finally {
+      if ( following != null ) {
+        following.close();
+      }
+    }
+  }
+}
@@ -28,6 +28,9 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.step.expression.CompiledCondition;
+import org.pentaho.di.trans.step.expression.ConditionCompiler;
+import org.pentaho.di.trans.step.expression.ExpressionCompiler;
 
 /**
  * Filters input rows base on conditions.
@@ -48,6 +51,9 @@ public class FilterRows extends BaseStep implements StepInterface {
 
   private synchronized boolean keepRow( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     try {
+      if ( data.compiledCondition != null ) {
+        return data.compiledCondition.evaluate( rowMeta, row );
+      }
       return meta.getCondition().evaluate( rowMeta, row );
     } catch ( Exception e ) {
       String message =
@@ -82,6 +88,10 @@ public class FilterRows extends BaseStep implements StepInterface {
       // if filter refers to non-existing fields, throw exception
       checkNonExistingFields();
 
+      // The condition is compiled for the layout of the input rows
+      //
+      data.compiledCondition = compileCondition();
+
       // Cache the position of the RowSet for the output.
       //
       if ( data.chosesTargetSteps ) {
@@ -163,6 +173,24 @@ public class FilterRows extends BaseStep implements StepInterface {
     return false;
   }
 
+  private CompiledCondition compileCondition() {
+    if ( !ExpressionCompiler.isEnabled() ) {
+      return null;
+    }
+    try {
+      ConditionCompiler compiler = new ConditionCompiler( getInputRowMeta() );
+      CompiledCondition compiledCondition = compiler.compile( meta.getCondition() );
+      if ( compiledCondition != null && log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "FilterRows.Log.CompiledCondition",
+          String.valueOf( compiler.getNrCompiled() ), String.valueOf( compiler.getNrInterpreted() ) ) );
+      }
+      return compiledCondition;
+    } catch ( KettleException e ) {
+      logBasic( BaseMessages.getString( PKG, "FilterRows.Log.UnableToCompileCondition", e.getMessage() ) );
+      return null;
+    }
+  }
+
   protected void checkNonExistingFields() throws KettleException {
     List<String> orphanFields = meta.getOrphanFields(
       meta.getCondition(), getInputRowMeta() );
@@ -17,6 +17,7 @@ import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.expression.CompiledCondition;
 
 /**
  * @author Matt
@@ -31,6 +32,7 @@ public class FilterRowsData extends BaseStepData implements StepDataInterface {
   public boolean chosesTargetSteps;
   public String trueStepname;
   public String falseStepname;
+  public CompiledCondition compiledCondition;
 
   public FilterRowsData() {
     super();
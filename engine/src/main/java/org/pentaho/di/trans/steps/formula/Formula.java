@@ -32,6 +32,8 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
+import org.pentaho.di.trans.step.expression.ExpressionCompiler;
 import org.pentaho.reporting.libraries.formula.LibFormulaErrorValue;
 import org.pentaho.reporting.libraries.formula.parser.FormulaParser;
 
@@ -74,6 +76,8 @@ public class Formula extends BaseStep implements StepInterface {
       // Calculate replace indexes...
       //
       data.replaceIndex = new int[meta.getFormula().length];
+      data.resultIndex = new int[meta.getFormula().length];
+      int tempIndex = getInputRowMeta().size();
       for ( int i = 0; i < meta.getFormula().length; i++ ) {
         FormulaMetaFunction fn = meta.getFormula()[i];
         if ( !Utils.isEmpty( fn.getReplaceField() ) ) {
@@ -85,6 +89,13 @@ public class Formula extends BaseStep implements StepInterface {
         } else {
           data.replaceIndex[i] = -1;
         }
+        data.resultIndex[i] = ( data.replaceIndex[i] < 0 ) ? tempIndex++ : data.replaceIndex[i];
+      }
+
+      // Compile the formulas for the types of the input row, the others are evaluated by calcField()
+      //
+      if ( ExpressionCompiler.isEnabled() ) {
+        data.compiledFormulas = compileFormulas();
       }
     }
 
@@ -108,7 +119,6 @@ public class Formula extends BaseStep implements StepInterface {
   private Object[] calcFields( RowMetaInterface rowMeta, Object[] r ) throws KettleValueException {
     try {
       Object[] outputRowData = RowDataUtil.createResizedCopy( r, data.outputRowMeta.size() );
-      int tempIndex = rowMeta.size();
 
       // Assign this tempRowData to the formula context
       //
@@ -130,63 +140,11 @@ public class Formula extends BaseStep implements StepInterface {
         }
       }
 
-      for ( int i = 0; i < meta.getFormula().length; i++ ) {
-        FormulaMetaFunction fn = meta.getFormula()[i];
-        if ( !Utils.isEmpty( fn.getFieldName() ) ) {
-          if ( data.formulas[i] == null ) {
-            data.formulas[i] = data.createFormula( meta.getFormula()[i].getFormula() );
-          }
-
-          // this is main part of all this step: calculate formula
-          Object formulaResult = data.formulas[i].evaluate();
-          if ( formulaResult instanceof LibFormulaErrorValue ) {
-            // inspect why it is happens to get clear error message.
-            throw new KettleException( "Error calculate formula. Formula "
-                + fn.getFormula() + " output field: " + fn.getFieldName() + ", error is: " + formulaResult.toString() );
-          }
-
-          // Calculate the return type on the first row...
-          // for most cases we can try to convert data on a fly.
-          if ( data.returnType[i] < 0 ) {
-            if ( formulaResult instanceof String ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_STRING;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_STRING );
-            } else if ( formulaResult instanceof Integer ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_INTEGER;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_INTEGER );
-            } else if ( formulaResult instanceof Long ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_LONG;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_INTEGER );
-            } else if ( formulaResult instanceof Date ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_DATE;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_DATE );
-            } else if ( formulaResult instanceof BigDecimal ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_BIGDECIMAL;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_BIGNUMBER );
-            } else if ( formulaResult instanceof Number ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_NUMBER;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_NUMBER );
-            // this types we will not make attempt to auto-convert
-            } else if ( formulaResult instanceof byte[] ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_BYTE_ARRAY;
-              if ( fn.getValueType() != ValueMetaInterface.TYPE_BINARY ) {
-                throw new KettleValueException( "Please specify a Binary type for field ["
-                  + fn.getFieldName() + "] as a result of formula [" + fn.getFormula() + "]" );
-              }
-            } else if ( formulaResult instanceof Boolean ) {
-              data.returnType[i] = FormulaData.RETURN_TYPE_BOOLEAN;
-              if ( fn.getValueType() != ValueMetaInterface.TYPE_BOOLEAN ) {
-                throw new KettleValueException( "Please specify a Boolean type for field ["
-                  + fn.getFieldName() + "] as a result of formula [" + fn.getFormula() + "]" );
-              }
-            } else {
-              data.returnType[i] = FormulaData.RETURN_TYPE_STRING;
-              fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_STRING );
-            }
-          }
-
-          int realIndex = ( data.replaceIndex[i] < 0 ) ? tempIndex++ : data.replaceIndex[i];
-          outputRowData[realIndex] = getReturnValue( formulaResult, data.returnType[i], realIndex, fn );
+      if ( data.compiledFormulas != null ) {
+        data.compiledFormulas.calculate( data.outputRowMeta, outputRowData );
+      } else {
+        for ( int i = 0; i < meta.getFormula().length; i++ ) {
+          calcField( outputRowData, i );
         }
       }
 
@@ -196,6 +154,87 @@ public class Formula extends BaseStep implements StepInterface {
     }
   }
 
+  private void calcField( Object[] outputRowData, int i ) throws KettleException {
+    FormulaMetaFunction fn = meta.getFormula()[i];
+    if ( !Utils.isEmpty( fn.getFieldName() ) ) {
+      if ( data.formulas[i] == null ) {
+        try {
+          data.formulas[i] = data.createFormula( meta.getFormula()[i].getFormula() );
+        } catch ( Exception e ) {
+          throw new KettleValueException( e );
+        }
+      }
+
+      // this is main part of all this step: calculate formula
+      Object formulaResult = data.formulas[i].evaluate();
+      if ( formulaResult instanceof LibFormulaErrorValue ) {
+        // inspect why it is happens to get clear error message.
+        throw new KettleException( "Error calculate formula. Formula "
+            + fn.getFormula() + " output field: " + fn.getFieldName() + ", error is: " + formulaResult.toString() );
+      }
+
+      // Calculate the return type on the first row...
+      // for most cases we can try to convert data on a fly.
+      if ( data.returnType[i] < 0 ) {
+        if ( formulaResult instanceof String ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_STRING;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_STRING );
+        } else if ( formulaResult instanceof Integer ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_INTEGER;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_INTEGER );
+        } else if ( formulaResult instanceof Long ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_LONG;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_INTEGER );
+        } else if ( formulaResult instanceof Date ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_DATE;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_DATE );
+        } else if ( formulaResult instanceof BigDecimal ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_BIGDECIMAL;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_BIGNUMBER );
+        } else if ( formulaResult instanceof Number ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_NUMBER;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_NUMBER );
+        // this types we will not make attempt to auto-convert
+        } else if ( formulaResult instanceof byte[] ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_BYTE_ARRAY;
+          if ( fn.getValueType() != ValueMetaInterface.TYPE_BINARY ) {
+            throw new KettleValueException( "Please specify a Binary type for field ["
+              + fn.getFieldName() + "] as a result of formula [" + fn.getFormula() + "]" );
+          }
+        } else if ( formulaResult instanceof Boolean ) {
+          data.returnType[i] = FormulaData.RETURN_TYPE_BOOLEAN;
+          if ( fn.getValueType() != ValueMetaInterface.TYPE_BOOLEAN ) {
+            throw new KettleValueException( "Please specify a Boolean type for field ["
+              + fn.getFieldName() + "] as a result of formula [" + fn.getFormula() + "]" );
+          }
+        } else {
+          data.returnType[i] = FormulaData.RETURN_TYPE_STRING;
+          fn.setNeedDataConversion( fn.getValueType() != ValueMetaInterface.TYPE_STRING );
+        }
+      }
+
+      int realIndex = data.resultIndex[i];
+      outputRowData[realIndex] = getReturnValue( formulaResult, data.returnType[i], realIndex, fn );
+    }
+  }
+
+  private CompiledCalculation compileFormulas() {
+    FormulaCompiler compiler = new FormulaCompiler( meta.getFormula(), data.outputRowMeta, data.resultIndex );
+    try {
+      CompiledCalculation compiled = compiler.compile( ( nr, rowMeta, row ) -> {
+        calcField( row, nr );
+        return null;
+      } );
+      if ( log.isDetailed() ) {
+        logDetailed( compiler.getNrCompiled() + " of the " + meta.getFormula().length + " formulas are compiled" );
+      }
+      return compiled;
+    } catch ( KettleException e ) {
+      logBasic( "Unable to compile the formulas, they are evaluated by LibFormula: " + e.getMessage() );
+      return null;
+    }
+  }
+
   protected Object getReturnValue( Object formulaResult, int returnType, int realIndex, FormulaMetaFunction fn )
     throws KettleException {
     if ( formulaResult == null ) {
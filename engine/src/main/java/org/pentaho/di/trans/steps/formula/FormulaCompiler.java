@@ -0,0 +1,300 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.formula;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
+import org.pentaho.di.trans.step.expression.CompiledRowExpression;
+import org.pentaho.di.trans.step.expression.ExpressionCompiler;
+import org.pentaho.di.trans.step.expression.ExpressionSource;
+
+/**
+ * Compiles the formulas of the Formula step for the types of its input row.<br>
+ * <br>
+ * Only the integer arithmetic is compiled: integer literals, references to integer fields, +, -, *, unary minus,
+ * parentheses and one comparison, with an integer, number or boolean result field. LibFormula calculates with big
+ * decimals: the compiled code stays exact by falling back to LibFormula for the rows where a referenced field is null
+ * or a value gets as large as {@link #LIMIT}. The other formulas are evaluated by LibFormula, in the same order.
+ */
+public class FormulaCompiler {
+
+  /**
+   * The integers below this limit, in absolute value, are the same in a long, a double and the big decimals of
+   * LibFormula.
+   */
+  public static final long LIMIT = 1000000000000000L;
+
+  private final FormulaMetaFunction[] formulas;
+  private final RowMetaInterface outputRowMeta;
+  private final int[] resultIndex;
+  private final ExpressionSource source = new ExpressionSource();
+
+  private int nrCompiled;
+
+  private String text;
+  private int pos;
+
+  /**
+   * @param formulas
+   *          the formulas of the step
+   * @param outputRowMeta
+   *          the metadata of the output row, the row the formulas are evaluated on
+   * @param resultIndex
+   *          the index of the result field of each formula in the output row
+   */
+  public FormulaCompiler( FormulaMetaFunction[] formulas, RowMetaInterface outputRowMeta, int[] resultIndex ) {
+    this.formulas = formulas;
+    this.outputRowMeta = outputRowMeta;
+    this.resultIndex = resultIndex;
+  }
+
+  /**
+   * @param fallback
+   *          evaluates formula number nr with LibFormula and stores the result in the row
+   * @return the compiled formulas or null if none of the formulas can be compiled
+   * @throws KettleException
+   *           in case the generated source doesn't compile
+   */
+  public CompiledCalculation compile( CompiledRowExpression.Fallback fallback ) throws KettleException {
+    // The value of an integer field, the interpreter evaluates the formula if it's null or too large
+    //
+    source.append( "private static long field( Object value ) {\n" );
+    source.append( "  if ( !( value instanceof Long ) ) {\n" );
+    source.append( "    throw new ArithmeticException();\n" );
+    source.append( "  }\n" );
+    source.append( "  return exact( ( (Long) value ).longValue() );\n" );
+    source.append( "}\n" );
+    source.append( "private static long exact( long value ) {\n" );
+    source.append( "  if ( value <= -" ).append( ExpressionSource.longLiteral( LIMIT ) )
+      .append( " || value >= " ).append( ExpressionSource.longLiteral( LIMIT ) ).append( " ) {\n" );
+    source.append( "    throw new ArithmeticException();\n" );
+    source.append( "  }\n" );
+    source.append( "  return value;\n" );
+    source.append( "}\n" );
+
+    StringBuilder calculate = new StringBuilder();
+    calculate.append( "public void calculate( RowMetaInterface rowMeta, Object[] row ) throws KettleException {\n" );
+    for ( int i = 0; i < formulas.length; i++ ) {
+      String assignment = generate( i );
+      if ( assignment == null ) {
+        calculate.append( "  fallback.evaluate( " ).append( i ).append( ", rowMeta, row );\n" );
+      } else {
+        String method = source.newMethodName( "calculate" );
+        source.append( "private void " ).append( method );
+        source.append( "( RowMetaInterface rowMeta, Object[] row ) throws KettleException {\n" );
+        source.append( "  try {\n" );
+        source.append( "    " ).append( assignment );
+        source.append( "  } catch ( ArithmeticException e ) {\n" );
+        source.append( "    fallback.evaluate( " ).append( i ).append( ", rowMeta, row );\n" );
+        source.append( "  }\n" );
+        source.append( "}\n" );
+        calculate.append( "  " ).append( method ).append( "( rowMeta, row );\n" );
+        nrCompiled++;
+      }
+    }
+    if ( nrCompiled == 0 ) {
+      return null;
+    }
+    calculate.append( "}\n" );
+    source.append( calculate.toString() );
+    return ExpressionCompiler.compile( CompiledCalculation.class, source, fallback );
+  }
+
+  /**
+   * @return the number of compiled formulas
+   */
+  public int getNrCompiled() {
+    return nrCompiled;
+  }
+
+  private String generate( int nr ) {
+    FormulaMetaFunction fn = formulas[ nr ];
+    if ( Utils.isEmpty( fn.getFieldName() ) || Utils.isEmpty( fn.getFormula() ) ) {
+      return null;
+    }
+
+    text = fn.getFormula();
+    pos = 0;
+    Expression expression = parseComparison();
+    skipSpaces();
+    if ( expression == null || pos < text.length() ) {
+      return null;
+    }
+
+    ValueMetaInterface target = outputRowMeta.getValueMeta( resultIndex[ nr ] );
+    String value;
+    if ( expression.isBoolean ) {
+      if ( target.getType() != ValueMetaInterface.TYPE_BOOLEAN ) {
+        return null;
+      }
+      value = "Boolean.valueOf( " + expression.code + " )";
+    } else if ( target.getType() == ValueMetaInterface.TYPE_INTEGER ) {
+      value = "Long.valueOf( " + expression.code + " )";
+    } else if ( target.getType() == ValueMetaInterface.TYPE_NUMBER ) {
+      value = "Double.valueOf( (double) " + expression.code + " )";
+    } else {
+      return null;
+    }
+    return "row[" + resultIndex[ nr ] + "] = " + value + ";\n";
+  }
+
+  private Expression parseComparison() {
+    Expression left = parseAdditive();
+    if ( left == null ) {
+      return null;
+    }
+    skipSpaces();
+    String token;
+    if ( text.startsWith( "<>", pos ) || text.startsWith( "<=", pos ) || text.startsWith( ">=", pos ) ) {
+      token = text.substring( pos, pos + 2 );
+    } else if ( text.startsWith( "=", pos ) || text.startsWith( "<", pos ) || text.startsWith( ">", pos ) ) {
+      token = text.substring( pos, pos + 1 );
+    } else {
+      return left;
+    }
+    pos += token.length();
+    String operator = token.equals( "<>" ) ? "!=" : token.equals( "=" ) ? "==" : token;
+    Expression right = parseAdditive();
+    if ( right == null ) {
+      return null;
+    }
+    return new Expression( "( " + left.code + " " + operator + " " + right.code + " )", true );
+  }
+
+  private Expression parseAdditive() {
+    Expression left = parseMultiplicative();
+    while ( left != null ) {
+      skipSpaces();
+      String function;
+      if ( text.startsWith( "+", pos ) ) {
+        function = "Math.addExact";
+      } else if ( text.startsWith( "-", pos ) ) {
+        function = "Math.subtractExact";
+      } else {
+        return left;
+      }
+      pos++;
+      Expression right = parseMultiplicative();
+      if ( right == null ) {
+        return null;
+      }
+      left = new Expression( "exact( " + function + "( " + left.code + ", " + right.code + " ) )", false );
+    }
+    return null;
+  }
+
+  private Expression parseMultiplicative() {
+    Expression left = parseUnary();
+    while ( left != null ) {
+      skipSpaces();
+      if ( !text.startsWith( "*", pos ) ) {
+        return left;
+      }
+      pos++;
+      Expression right = parseUnary();
+      if ( right == null ) {
+        return null;
+      }
+      left = new Expression( "exact( Math.multiplyExact( " + left.code + ", " + right.code + " ) )", false );
+    }
+    return null;
+  }
+
+  private Expression parseUnary() {
+    skipSpaces();
+    if ( text.startsWith( "-", pos ) ) {
+      pos++;
+      Expression operand = parseUnary();
+      return operand == null ? null : new Expression( "Math.negateExact( " + operand.code + " )", false );
+    }
+    return parsePrimary();
+  }
+
+  private Expression parsePrimary() {
+    skipSpaces();
+    if ( pos >= text.length() ) {
+      return null;
+    }
+    char c = text.charAt( pos );
+    if ( c == '(' ) {
+      pos++;
+      Expression inner = parseComparison();
+      skipSpaces();
+      if ( inner == null || inner.isBoolean || !text.startsWith( ")", pos ) ) {
+        return null;
+      }
+      pos++;
+      return new Expression( "( " + inner.code + " )", false );
+    }
+    if ( c == '[' ) {
+      int end = text.indexOf( ']', pos );
+      if ( end < 0 ) {
+        return null;
+      }
+      String name = text.substring( pos + 1, end );
+      pos = end + 1;
+      // Leave the quoted and special references to LibFormula
+      //
+      if ( name.isEmpty() || name.startsWith( "." ) || name.indexOf( '"' ) >= 0 || name.indexOf( '[' ) >= 0 ) {
+        return null;
+      }
+      int index = outputRowMeta.indexOfValue( name );
+      if ( index < 0 ) {
+        return null;
+      }
+      ValueMetaInterface valueMeta = outputRowMeta.getValueMeta( index );
+      if ( !ExpressionSource.isPlain( valueMeta ) || valueMeta.getType() != ValueMetaInterface.TYPE_INTEGER ) {
+        return null;
+      }
+      return new Expression( "field( row[" + index + "] )", false );
+    }
+    if ( c >= '0' && c <= '9' ) {
+      int start = pos;
+      while ( pos < text.length() && text.charAt( pos ) >= '0' && text.charAt( pos ) <= '9' ) {
+        pos++;
+      }
+      // Decimals and exponents are big decimals in LibFormula
+      //
+      if ( pos < text.length() && ( text.charAt( pos ) == '.' || Character.isLetter( text.charAt( pos ) ) ) ) {
+        return null;
+      }
+      String digits = text.substring( start, pos );
+      if ( digits.length() > 15 ) {
+        return null;
+      }
+      long value = Long.parseLong( digits );
+      return value >= LIMIT ? null : new Expression( ExpressionSource.longLiteral( value ), false );
+    }
+    return null;
+  }
+
+  private void skipSpaces() {
+    while ( pos < text.length() && Character.isWhitespace( text.charAt( pos ) ) ) {
+      pos++;
+    }
+  }
+
+  private static class Expression {
+    private final String code;
+    private final boolean isBoolean;
+
+    Expression( String code, boolean isBoolean ) {
+      this.code = code;
+      this.isBoolean = isBoolean;
+    }
+  }
+}
@@ -16,6 +16,7 @@ package org.pentaho.di.trans.steps.formula;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
 import org.pentaho.reporting.libraries.formula.EvaluationException;
 import org.pentaho.reporting.libraries.formula.Formula;
 import org.pentaho.reporting.libraries.formula.parser.FormulaParser;
@@ -42,6 +43,8 @@ public class FormulaData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface outputRowMeta;
   public int[] returnType;
   public int[] replaceIndex;
+  public int[] resultIndex;
+  public CompiledCalculation compiledFormulas;
 
   public FormulaData() {
     super();
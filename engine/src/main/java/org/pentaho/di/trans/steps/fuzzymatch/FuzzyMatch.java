@@ -127,7 +127,7 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
         storeData[0] = "";
       } else {
         ValueMetaInterface fromStreamRowMeta = rowSet.getRowMeta().getValueMeta( data.indexOfCachedFields[0] );
-        if ( fromStreamRowMeta.isStorageBinaryString() ) {
+        if ( fromStreamRowMeta.isStorageBinaryString() || fromStreamRowMeta.isStorageBinaryStringSlice() ) {
           storeData[0] = fromStreamRowMeta.convertToNormalStorageType( rowData[data.indexOfCachedFields[0]] );
         } else {
           storeData[0] = rowData[data.indexOfCachedFields[0]];
@@ -137,7 +137,7 @@ public class FuzzyMatch extends BaseStep implements StepInterface {
       // Add additional fields?
       for ( int i = 1; i < data.nrCachedFields; i++ ) {
         ValueMetaInterface fromStreamRowMeta = rowSet.getRowMeta().getValueMeta( data.indexOfCachedFields[i] );
-        if ( fromStreamRowMeta.isStorageBinaryString() ) {
+        if ( fromStreamRowMeta.isStorageBinaryString() || fromStreamRowMeta.isStorageBinaryStringSlice() ) {
           storeData[i] = fromStreamRowMeta.convertToNormalStorageType( rowData[data.indexOfCachedFields[i]] );
         } else {
           storeData[i] = rowData[data.indexOfCachedFields[i]];
@@ -513,6 +513,7 @@ public class Mapping extends BaseStep implements StepInterface {
     // Pass down the metrics gathering flag:
     //
     getData().getMappingTrans().setGatheringMetrics( getTrans().isGatheringMetrics() );
+    getData().getMappingTrans().setStepExecutionStrategy( getTrans().getStepExecutionStrategyOverride() );
 
     // Also set the name of this step in the mapping transformation for logging
     // purposes
@@ -13,12 +13,58 @@
 
 package org.pentaho.di.trans.steps.memgroupby;
 
+import java.util.Collection;
 import java.util.Set;
 
 public class Aggregate {
+  // Rough heap sizes in bytes, only used to decide when the hash table has to spill to disk
+  //
+  private static final long OBJECT_SIZE = 24L;
+  private static final long ARRAY_SIZE = 16L;
+  private static final long COLLECTION_ENTRY_SIZE = 40L;
+
   public Object[] agg;
   public long[] counts;
   public Set<Object>[] distinctObjs;
   public double[] mean;
 
+  /**
+   * @return the estimated heap size of this aggregate in bytes
+   */
+  public long estimateSize() {
+    int nrAggregates = agg == null ? 0 : agg.length;
+    long size = OBJECT_SIZE + 3 * ARRAY_SIZE + nrAggregates * 24L;
+    for ( int i = 0; i < nrAggregates; i++ ) {
+      Object value = agg[i];
+      if ( value instanceof Collection ) {
+        size += OBJECT_SIZE + ( (Collection<?>) value ).size() * COLLECTION_ENTRY_SIZE;
+      } else if ( value instanceof StringBuilder ) {
+        size += OBJECT_SIZE + ARRAY_SIZE + ( (StringBuilder) value ).capacity();
+      } else {
+        size += estimateSize( value );
+      }
+      if ( distinctObjs != null && distinctObjs[i] != null ) {
+        size += OBJECT_SIZE + distinctObjs[i].size() * ( COLLECTION_ENTRY_SIZE + OBJECT_SIZE );
+      }
+    }
+    return size;
+  }
+
+  /**
+   * @param value
+   *          a value of a row
+   * @return the estimated heap size of the value in bytes
+   */
+  public static long estimateSize( Object value ) {
+    if ( value == null ) {
+      return 0L;
+    }
+    if ( value instanceof String ) {
+      return OBJECT_SIZE + ARRAY_SIZE + ( (String) value ).length();
+    }
+    if ( value instanceof byte[] ) {
+      return ARRAY_SIZE + ( (byte[]) value ).length;
+    }
+    return OBJECT_SIZE;
+  }
 }
@@ -0,0 +1,271 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Writes and reads the partial aggregates of a group: the state that is needed to merge them with the partial
+ * aggregates of the same group computed elsewhere. It is used to spill groups to disk and to pass partial aggregates
+ * from the partial to the final phase of a two phase aggregation.
+ */
+public class AggregateSerializer {
+
+  // The tags of the distinct values, their type isn't known in the final phase
+  //
+  private static final byte TAG_STRING = 1;
+  private static final byte TAG_LONG = 2;
+  private static final byte TAG_DOUBLE = 3;
+  private static final byte TAG_BIGNUMBER = 4;
+  private static final byte TAG_DATE = 5;
+  private static final byte TAG_TIMESTAMP = 6;
+  private static final byte TAG_BOOLEAN = 7;
+  private static final byte TAG_BINARY = 8;
+  private static final byte TAG_INET = 9;
+
+  private final RowMetaInterface valueMeta;
+  private final int[] aggregateTypes;
+
+  /**
+   * @param valueMeta
+   *          the metadata of the aggregate values in normal storage
+   * @param aggregateTypes
+   *          the aggregate types, see {@link MemoryGroupByMeta}
+   */
+  public AggregateSerializer( RowMetaInterface valueMeta, int[] aggregateTypes ) {
+    this.valueMeta = valueMeta;
+    this.aggregateTypes = aggregateTypes;
+  }
+
+  /**
+   * @param output
+   *          the stream to write to
+   * @param aggregate
+   *          the partial aggregates, the values in normal storage
+   */
+  @SuppressWarnings( "unchecked" )
+  public void write( DataOutputStream output, Aggregate aggregate ) throws IOException, KettleException {
+    for ( int i = 0; i < aggregateTypes.length; i++ ) {
+      ValueMetaInterface meta = valueMeta.getValueMeta( i );
+      output.writeLong( aggregate.counts[i] );
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+          List<Double> values = (List<Double>) aggregate.agg[i];
+          output.writeInt( values.size() );
+          for ( Double value : values ) {
+            output.writeDouble( value );
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+          output.writeDouble( aggregate.mean[i] );
+          meta.writeData( output, aggregate.agg[i] );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+          Set<Object> distinct = aggregate.distinctObjs == null ? null : aggregate.distinctObjs[i];
+          output.writeInt( distinct == null ? 0 : distinct.size() );
+          if ( distinct != null ) {
+            for ( Object value : distinct ) {
+              writeDistinctValue( output, value );
+            }
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          meta.writeData( output, aggregate.agg[i].toString() );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          break;
+        default:
+          meta.writeData( output, aggregate.agg[i] );
+          break;
+      }
+    }
+  }
+
+  /**
+   * @param input
+   *          the stream to read from
+   * @return the partial aggregates, the values in normal storage
+   */
+  @SuppressWarnings( "unchecked" )
+  public Aggregate read( DataInputStream input ) throws IOException, KettleException {
+    Aggregate aggregate = new Aggregate();
+    aggregate.agg = new Object[aggregateTypes.length];
+    aggregate.counts = new long[aggregateTypes.length];
+    aggregate.mean = new double[aggregateTypes.length];
+
+    for ( int i = 0; i < aggregateTypes.length; i++ ) {
+      ValueMetaInterface meta = valueMeta.getValueMeta( i );
+      aggregate.counts[i] = input.readLong();
+      switch ( aggregateTypes[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+          int nrValues = input.readInt();
+          List<Double> values = new ArrayList<>( nrValues );
+          for ( int v = 0; v < nrValues; v++ ) {
+            values.add( input.readDouble() );
+          }
+          aggregate.agg[i] = values;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+          aggregate.mean[i] = input.readDouble();
+          aggregate.agg[i] = meta.readData( input );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+          if ( aggregate.distinctObjs == null ) {
+            aggregate.distinctObjs = new Set[aggregateTypes.length];
+          }
+          aggregate.distinctObjs[i] = new TreeSet<>();
+          int nrDistinct = input.readInt();
+          for ( int v = 0; v < nrDistinct; v++ ) {
+            aggregate.distinctObjs[i].add( readDistinctValue( input ) );
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          aggregate.agg[i] = new StringBuilder( (String) meta.readData( input ) );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          break;
+        default:
+          aggregate.agg[i] = meta.readData( input );
+          break;
+      }
+    }
+    return aggregate;
+  }
+
+  /**
+   * @param aggregate
+   *          the partial aggregates, the values in normal storage
+   * @return the partial aggregates as a binary value
+   */
+  public byte[] serialize( Aggregate aggregate ) throws KettleException {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream( bytes );
+      write( output, aggregate );
+      output.flush();
+      return bytes.toByteArray();
+    } catch ( IOException e ) {
+      throw new KettleException( "Unable to serialize partial aggregates", e );
+    }
+  }
+
+  /**
+   * @param data
+   *          the partial aggregates as a binary value
+   * @return the partial aggregates, the values in normal storage
+   */
+  public Aggregate deserialize( byte[] data ) throws KettleException {
+    try {
+      return read( new DataInputStream( new ByteArrayInputStream( data ) ) );
+    } catch ( IOException e ) {
+      throw new KettleException( "Unable to deserialize partial aggregates", e );
+    }
+  }
+
+  private static void writeDistinctValue( DataOutputStream output, Object value ) throws IOException,
+    KettleException {
+    if ( value instanceof String ) {
+      output.writeByte( TAG_STRING );
+      writeBytes( output, ( (String) value ).getBytes( "UTF-8" ) );
+    } else if ( value instanceof Long ) {
+      output.writeByte( TAG_LONG );
+      output.writeLong( (Long) value );
+    } else if ( value instanceof Double ) {
+      output.writeByte( TAG_DOUBLE );
+      output.writeDouble( (Double) value );
+    } else if ( value instanceof BigDecimal ) {
+      output.writeByte( TAG_BIGNUMBER );
+      writeBytes( output, value.toString().getBytes( "UTF-8" ) );
+    } else if ( value instanceof Timestamp ) {
+      output.writeByte( TAG_TIMESTAMP );
+      output.writeLong( ( (Timestamp) value ).getTime() );
+      output.writeInt( ( (Timestamp) value ).getNanos() );
+    } else if ( value instanceof Date ) {
+      output.writeByte( TAG_DATE );
+      output.writeLong( ( (Date) value ).getTime() );
+    } else if ( value instanceof Boolean ) {
+      output.writeByte( TAG_BOOLEAN );
+      output.writeBoolean( (Boolean) value );
+    } else if ( value instanceof byte[] ) {
+      output.writeByte( TAG_BINARY );
+      writeBytes( output, (byte[]) value );
+    } else if ( value instanceof InetAddress ) {
+      output.writeByte( TAG_INET );
+      writeBytes( output, ( (InetAddress) value ).getAddress() );
+    } else {
+      throw new KettleException( "Unable to serialize distinct value of class " + value.getClass().getName() );
+    }
+  }
+
+  private static Object readDistinctValue( DataInputStream input ) throws IOException, KettleException {
+    byte tag = input.readByte();
+    switch ( tag ) {
+      case TAG_STRING:
+        return new String( readBytes( input ), "UTF-8" );
+      case TAG_LONG:
+        return input.readLong();
+      case TAG_DOUBLE:
+        return input.readDouble();
+      case TAG_BIGNUMBER:
+        return new BigDecimal( new String( readBytes( input ), "UTF-8" ) );
+      case TAG_TIMESTAMP:
+        Timestamp timestamp = new Timestamp( input.readLong() );
+        timestamp.setNanos( input.readInt() );
+        return timestamp;
+      case TAG_DATE:
+        return new Date( input.readLong() );
+      case TAG_BOOLEAN:
+        return input.readBoolean();
+      case TAG_BINARY:
+        return readBytes( input );
+      case TAG_INET:
+        return InetAddress.getByAddress( readBytes( input ) );
+      default:
+        throw new KettleException( "Unknown distinct value tag " + tag );
+    }
+  }
+
+  private static void writeBytes( DataOutputStream output, byte[] bytes ) throws IOException {
+    output.writeInt( bytes.length );
+    output.write( bytes );
+  }
+
+  private static byte[] readBytes( DataInputStream input ) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully( bytes );
+    return bytes;
+  }
+}
@@ -16,11 +16,13 @@ package org.pentaho.di.trans.steps.memgroupby;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
@@ -34,6 +36,7 @@ import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaNumber;
 import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -53,6 +56,10 @@ import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.HashEntry;
 public class MemoryGroupBy extends BaseStep implements StepInterface {
   private static Class<?> PKG = MemoryGroupByMeta.class; // for i18n purposes, needed by Translator2!!
 
+  // Beyond this level a partition that doesn't fit is aggregated in memory anyway: its groups don't spread
+  //
+  private static final int MAX_SPILL_LEVEL = 8;
+
   private MemoryGroupByMeta meta;
 
   private MemoryGroupByData data;
@@ -115,14 +122,17 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       // If the step does not receive any rows, we can not lookup field position indexes
       if ( r != null ) {
         for ( int i = 0; i < meta.getSubjectField().length; i++ ) {
-          if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY ) {
+          // The aggregates of the partial phase are the subjects of the final phase
+          //
+          String subjectField = isFinalPhase() ? meta.getAggregateField()[i] : meta.getSubjectField()[i];
+          if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY && !isFinalPhase() ) {
             data.subjectnrs[i] = 0;
           } else {
-            data.subjectnrs[i] = data.inputRowMeta.indexOfValue( meta.getSubjectField()[i] );
+            data.subjectnrs[i] = data.inputRowMeta.indexOfValue( subjectField );
           }
           if ( data.subjectnrs[i] < 0 ) {
-            logError( BaseMessages.getString( PKG, "MemoryGroupBy.Log.AggregateSubjectFieldCouldNotFound", meta
-              .getSubjectField()[i] ) );
+            logError( BaseMessages.getString( PKG, "MemoryGroupBy.Log.AggregateSubjectFieldCouldNotFound",
+              subjectField ) );
             setErrors( 1 );
             stopAll();
             return false;
@@ -139,6 +149,17 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
             return false;
           }
         }
+
+        if ( isFinalPhase() ) {
+          data.partialAggregatesIndex = data.inputRowMeta.indexOfValue( MemoryGroupByMeta.PARTIAL_AGGREGATES_FIELD );
+          if ( data.partialAggregatesIndex < 0 ) {
+            logError( BaseMessages.getString( PKG, "MemoryGroupBy.Log.PartialAggregatesFieldNotFound",
+              MemoryGroupByMeta.PARTIAL_AGGREGATES_FIELD ) );
+            setErrors( 1 );
+            stopAll();
+            return false;
+          }
+        }
       }
 
       // Create a metadata value for the counter Integers
@@ -162,6 +183,13 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       data.groupAggMeta = new RowMeta();
       data.groupAggMeta.addRowMeta( data.groupMeta );
       data.groupAggMeta.addRowMeta( data.aggMeta );
+
+      // The partial aggregates of a two phase aggregation are passed on in normal storage
+      //
+      if ( meta.getAggregationPhase() != MemoryGroupByMeta.AGGREGATION_PHASE_NONE ) {
+        data.spillMeta = createSpillMeta();
+        data.serializer = new AggregateSerializer( data.spillMeta, meta.getAggregateType() );
+      }
     }
 
     // Here is where we start to do the real work...
@@ -180,7 +208,15 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       data.newBatch = false;
     }
 
-    addToAggregate( r );
+    if ( isFinalPhase() ) {
+      addPartialAggregate( r );
+    } else {
+      addToAggregate( r );
+    }
+
+    if ( data.memoryLimit > 0 && data.memoryUsage > data.memoryLimit ) {
+      spillMap();
+    }
 
     if ( checkFeedback( getLinesRead() ) ) {
       if ( log.isBasic() ) {
@@ -192,27 +228,34 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
   }
 
   private void handleLastOfGroup() throws KettleException {
-    // Dump the content of the map...
-    //
-    for ( HashEntry entry : data.map.keySet() ) {
-      Aggregate aggregate = data.map.get( entry );
-      Object[] aggregateResult = getAggregateResult( aggregate );
+    boolean hasGroups = !data.map.isEmpty();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
-      int index = 0;
-      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
-        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
+    if ( data.spillPartitions == null ) {
+      // Dump the content of the map...
+      //
+      for ( HashEntry entry : data.map.keySet() ) {
+        putGroup( entry, data.map.get( entry ), data.aggMeta, false );
       }
-      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
-        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+    } else {
+      // Spill what is left and aggregate the partitions one by one
+      //
+      spillMap();
+      SpillPartitions partitions = data.spillPartitions;
+      data.spillPartitions = null;
+      hasGroups = true;
+      try {
+        aggregatePartitions( partitions );
+      } finally {
+        partitions.delete();
       }
-      putRow( data.outputRowMeta, outputRowData );
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
+    // In a two phase aggregation the final phase gives back the row
     //
-    if ( data.map.isEmpty() && meta.isAlwaysGivingBackOneRow() ) {
+    if ( !hasGroups && meta.isAlwaysGivingBackOneRow()
+      && meta.getAggregationPhase() != MemoryGroupByMeta.AGGREGATION_PHASE_PARTIAL ) {
       Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
       int index = 0;
       for ( int i = 0; i < data.groupMeta.size(); i++ ) {
@@ -231,6 +274,315 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     }
   }
 
+  private void putGroup( HashEntry entry, Aggregate aggregate, RowMetaInterface aggMeta, boolean normalStorage )
+    throws KettleException {
+    Object[] aggregateResult = getAggregateResult( aggregate );
+
+    Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    int index = 0;
+    for ( int i = 0; i < data.groupMeta.size(); i++ ) {
+      outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
+    }
+    for ( int i = 0; i < aggMeta.size(); i++ ) {
+      outputRowData[index++] = aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+    }
+    if ( meta.getAggregationPhase() == MemoryGroupByMeta.AGGREGATION_PHASE_PARTIAL ) {
+      // The results above are converted from the storage type of the input, so convert the aggregate after them
+      //
+      if ( !normalStorage ) {
+        convertToNormalStorage( aggregate );
+      }
+      outputRowData[index++] = data.serializer.serialize( aggregate );
+    }
+    putRow( data.outputRowMeta, outputRowData );
+  }
+
+  private boolean isFinalPhase() {
+    return meta.getAggregationPhase() == MemoryGroupByMeta.AGGREGATION_PHASE_FINAL;
+  }
+
+  /**
+   * Write the groups in the hash table with their partial aggregates to the spill partitions and empty the hash table.
+   */
+  @VisibleForTesting
+  void spillMap() throws KettleException {
+    if ( data.spillPartitions == null ) {
+      if ( data.spillMeta == null ) {
+        data.spillMeta = createSpillMeta();
+      }
+      data.spillPartitions = createSpillPartitions( 0 );
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.SpillingGroups", data.map.size(),
+        data.memoryUsage / 1024 / 1024 ) );
+    }
+
+    for ( Aggregate aggregate : data.map.values() ) {
+      convertToNormalStorage( aggregate );
+    }
+    writeGroups( data.map, data.spillPartitions );
+    data.map.clear();
+    data.memoryUsage = 0L;
+  }
+
+  // The first, last, minimum and maximum values are the values of the input rows, maybe in binary string storage
+  //
+  private void convertToNormalStorage( Aggregate aggregate ) throws KettleValueException {
+    for ( int i = 0; i < data.subjectnrs.length; i++ ) {
+      switch ( meta.getAggregateType()[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST:
+        case MemoryGroupByMeta.TYPE_GROUP_LAST:
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL:
+        case MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL:
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          ValueMetaInterface subjMeta = data.inputRowMeta.getValueMeta( data.subjectnrs[i] );
+          aggregate.agg[i] = subjMeta.convertToNormalStorageType( aggregate.agg[i] );
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private RowMetaInterface createSpillMeta() {
+    RowMetaInterface spillMeta = new RowMeta();
+    for ( int i = 0; i < data.aggMeta.size(); i++ ) {
+      ValueMetaInterface valueMeta = data.aggMeta.getValueMeta( i ).clone();
+      valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+      spillMeta.addValueMeta( valueMeta );
+    }
+    return spillMeta;
+  }
+
+  private SpillPartitions createSpillPartitions( int level ) {
+    return new SpillPartitions( level, data.groupMeta, data.spillMeta, meta.getAggregateType(),
+      this::createTempFile );
+  }
+
+  @VisibleForTesting
+  FileObject createTempFile() throws KettleException {
+    return KettleVFS.getInstance( getTransMeta().getBowl() )
+      .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+  }
+
+  private void writeGroups( Map<HashEntry, Aggregate> map, SpillPartitions partitions ) throws KettleException {
+    for ( Map.Entry<HashEntry, Aggregate> entry : map.entrySet() ) {
+      partitions.write( entry.getKey().hashCode(), entry.getKey().getGroupData(), entry.getValue() );
+    }
+  }
+
+  private void aggregatePartitions( SpillPartitions partitions ) throws KettleException {
+    partitions.closeOutput();
+    for ( int partition = 0; partition < SpillPartitions.NR_PARTITIONS; partition++ ) {
+      if ( partitions.getRowCount( partition ) > 0 ) {
+        aggregatePartition( partitions, partition );
+      }
+    }
+  }
+
+  // Merge the partial aggregates of the groups in the partition. If the partition doesn't fit in memory either, it is
+  // partitioned again on the next level and the new partitions are aggregated recursively.
+  //
+  private void aggregatePartition( SpillPartitions partitions, int partition ) throws KettleException {
+    int level = partitions.getLevel() + 1;
+    Map<HashEntry, Aggregate> map = new HashMap<>();
+    long memoryUsage = 0L;
+    SpillPartitions subPartitions = null;
+
+    try {
+      try ( SpillPartitions.Reader reader = partitions.openPartition( partition ) ) {
+        while ( reader.next() ) {
+          HashEntry entry = data.getHashEntry( reader.getGroupData() );
+          Aggregate partial = reader.getAggregate();
+          Aggregate aggregate = map.get( entry );
+          if ( aggregate == null ) {
+            map.put( entry, partial );
+            memoryUsage += entry.estimateSize() + partial.estimateSize();
+          } else {
+            memoryUsage -= aggregate.estimateSize();
+            mergeAggregate( aggregate, partial );
+            memoryUsage += aggregate.estimateSize();
+          }
+
+          if ( memoryUsage > data.memoryLimit && level < MAX_SPILL_LEVEL ) {
+            if ( subPartitions == null ) {
+              subPartitions = createSpillPartitions( level );
+              if ( log.isDetailed() ) {
+                logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.PartitionTooLarge", partition, level ) );
+              }
+            }
+            writeGroups( map, subPartitions );
+            map.clear();
+            memoryUsage = 0L;
+          }
+        }
+      }
+
+      if ( subPartitions == null ) {
+        for ( Map.Entry<HashEntry, Aggregate> entry : map.entrySet() ) {
+          putGroup( entry.getKey(), entry.getValue(), data.spillMeta, true );
+        }
+      } else {
+        writeGroups( map, subPartitions );
+        map.clear();
+        aggregatePartitions( subPartitions );
+      }
+    } finally {
+      if ( subPartitions != null ) {
+        subPartitions.delete();
+      }
+    }
+  }
+
+  /**
+   * Merge the partial aggregates of a group of the partial phase into the hash table, in the final phase of a two phase
+   * aggregation.
+   *
+   * @param r
+   *          the row with the group, the results of the partial phase and the partial aggregates
+   * @throws KettleException
+   */
+  private void addPartialAggregate( Object[] r ) throws KettleException {
+    Object[] groupData = new Object[data.groupMeta.size()];
+    for ( int i = 0; i < data.groupnrs.length; i++ ) {
+      groupData[i] = r[data.groupnrs[i]];
+    }
+    HashEntry entry = data.getHashEntry( groupData );
+    Aggregate partial =
+      data.serializer.deserialize( data.inputRowMeta.getBinary( r, data.partialAggregatesIndex ) );
+    boolean trackMemory = data.memoryLimit > 0;
+
+    Aggregate aggregate = data.map.get( entry );
+    if ( aggregate == null ) {
+      data.map.put( entry, partial );
+      if ( trackMemory ) {
+        data.memoryUsage += entry.estimateSize() + partial.estimateSize();
+      }
+    } else {
+      if ( trackMemory ) {
+        data.memoryUsage -= aggregate.estimateSize();
+      }
+      mergeAggregate( aggregate, partial );
+      if ( trackMemory ) {
+        data.memoryUsage += aggregate.estimateSize();
+      }
+    }
+  }
+
+  /**
+   * Merge the partial aggregates of a group that were spilled or received later on into the partial aggregates of the
+   * group.
+   *
+   * @param aggregate
+   *          the partial aggregates of the earlier rows, the values in normal storage
+   * @param later
+   *          the partial aggregates of the later rows, the values in normal storage
+   * @throws KettleException
+   */
+  @SuppressWarnings( "unchecked" ) void mergeAggregate( Aggregate aggregate, Aggregate later ) throws KettleException {
+    for ( int i = 0; i < data.subjectnrs.length; i++ ) {
+      Object value = aggregate.agg[i];
+      Object laterValue = later.agg[i];
+      ValueMetaInterface valueMeta = data.spillMeta.getValueMeta( i );
+
+      switch ( meta.getAggregateType()[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, laterValue );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, laterValue );
+          aggregate.counts[i] += later.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+          ( (List<Double>) value ).addAll( (List<Double>) laterValue );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+          // Combine the means and the sums of squared differences of both parts
+          //
+          long count = aggregate.counts[i];
+          long laterCount = later.counts[i];
+          if ( laterCount == 0 ) {
+            break;
+          }
+          if ( count == 0 ) {
+            aggregate.agg[i] = laterValue;
+            aggregate.mean[i] = later.mean[i];
+            aggregate.counts[i] = laterCount;
+            break;
+          }
+          double n = count + laterCount;
+          double delta = later.mean[i] - aggregate.mean[i];
+          double sum = value == null ? 0.0 : (Double) value;
+          double laterSum = laterValue == null ? 0.0 : (Double) laterValue;
+
+          aggregate.mean[i] = aggregate.mean[i] + delta * laterCount / n;
+          aggregate.agg[i] = sum + laterSum + delta * delta * count * laterCount / n;
+          aggregate.counts[i] = count + laterCount;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+          aggregate.distinctObjs[i].addAll( later.distinctObjs[i] );
+          aggregate.counts[i] = aggregate.distinctObjs[i].size();
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          aggregate.counts[i] += later.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          boolean laterIsNull = valueMeta.isNull( laterValue );
+          boolean valueIsNull = valueMeta.isNull( value );
+          if ( minNullIsValued || ( !laterIsNull && !valueIsNull ) ) {
+            aggregate.agg[i] = valueMeta.compare( laterValue, value ) < 0 ? laterValue : value;
+          } else if ( valueIsNull && !laterIsNull ) {
+            aggregate.agg[i] = laterValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if ( valueMeta.compare( laterValue, value ) > 0 ) {
+            aggregate.agg[i] = laterValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST:
+          if ( value == null ) {
+            aggregate.agg[i] = laterValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST:
+          if ( laterValue != null ) {
+            aggregate.agg[i] = laterValue;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL:
+          if ( aggregate.counts[i] == 0 ) {
+            aggregate.agg[i] = laterValue;
+            aggregate.counts[i] = later.counts[i];
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL:
+          aggregate.agg[i] = laterValue;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          String separator = ", ";
+          if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING ) {
+            separator = Utils.isEmpty( meta.getValueField()[i] ) ? "" : environmentSubstitute( meta.getValueField()[i] );
+          }
+          StringBuilder sb = (StringBuilder) value;
+          StringBuilder laterSb = (StringBuilder) laterValue;
+          if ( laterSb.length() > 0 ) {
+            if ( sb.length() > 0 ) {
+              sb.append( separator );
+            }
+            sb.append( laterSb );
+          }
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
   @VisibleForTesting
   void updateValueMeta() throws KettleException {
 
@@ -259,6 +611,7 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       groupData[i] = r[data.groupnrs[i]];
     }
     HashEntry entry = data.getHashEntry( groupData );
+    boolean trackMemory = data.memoryLimit > 0;
 
     Aggregate aggregate = data.map.get( entry );
     if ( aggregate == null ) {
@@ -270,6 +623,11 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       // Store it in the map!
       //
       data.map.put( entry, aggregate );
+      if ( trackMemory ) {
+        data.memoryUsage += entry.estimateSize();
+      }
+    } else if ( trackMemory ) {
+      data.memoryUsage -= aggregate.estimateSize();
     }
 
     for ( int i = 0; i < data.subjectnrs.length; i++ ) {
@@ -402,6 +760,10 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
           break;
       }
     }
+
+    if ( trackMemory ) {
+      data.memoryUsage += aggregate.estimateSize();
+    }
   }
 
   /**
@@ -575,6 +937,11 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     if ( super.init( smi, sdi ) ) {
       data.map = new HashMap<HashEntry, Aggregate>( 5000 );
+      if ( meta.isSpillToDisk() ) {
+        long memoryLimitMb =
+          Const.toLong( environmentSubstitute( meta.getMemoryLimit() ), MemoryGroupByMeta.DEFAULT_MEMORY_LIMIT_MB );
+        data.memoryLimit = Math.max( memoryLimitMb, 1L ) * 1024 * 1024;
+      }
       return true;
     }
     return false;
@@ -583,7 +950,12 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     super.dispose( smi, sdi );
-    ( (MemoryGroupByData) sdi ).clear();
+    MemoryGroupByData groupByData = (MemoryGroupByData) sdi;
+    if ( groupByData.spillPartitions != null ) {
+      groupByData.spillPartitions.delete();
+      groupByData.spillPartitions = null;
+    }
+    groupByData.clear();
   }
 
   @Override
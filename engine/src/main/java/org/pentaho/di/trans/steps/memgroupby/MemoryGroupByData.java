@@ -27,6 +27,10 @@ import org.pentaho.di.trans.step.StepDataInterface;
  *
  */
 public class MemoryGroupByData extends BaseStepData implements StepDataInterface {
+  // The hash entry, its group data array and the node in the map
+  //
+  private static final long ENTRY_SIZE = 96L;
+
   public class HashEntry {
     private Object[] groupData;
 
@@ -56,6 +60,17 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
       }
     }
 
+    /**
+     * @return the estimated heap size of the entry in the hash table in bytes
+     */
+    public long estimateSize() {
+      long size = ENTRY_SIZE;
+      for ( Object value : groupData ) {
+        size += Aggregate.estimateSize( value );
+      }
+      return size;
+    }
+
     private Object[] getHashValue() throws KettleValueException {
       Object[] groupDataHash = new Object[groupMeta.size()];
       for ( int i = 0; i < groupMeta.size(); i++ ) {
@@ -90,6 +105,20 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
 
   public boolean newBatch;
 
+  /** The memory limit of the hash table in bytes, 0 if the hash table never spills to disk */
+  public long memoryLimit;
+  /** The estimated heap size of the hash table in bytes, only tracked when there is a memory limit */
+  public long memoryUsage;
+  /** The metadata of the spilled aggregate values, in normal storage */
+  public RowMetaInterface spillMeta;
+  /** The partitions with the spilled groups, null as long as the hash table fits in memory */
+  public SpillPartitions spillPartitions;
+
+  /** Writes and reads the partial aggregates of a two phase aggregation */
+  public AggregateSerializer serializer;
+  /** The index of the partial aggregates in the input rows of the final phase */
+  public int partialAggregatesIndex;
+
   public MemoryGroupByData() {
     super();
 
@@ -104,5 +133,6 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
    */
   public void clear() {
     map = new HashMap<MemoryGroupByData.HashEntry, Aggregate>();
+    memoryUsage = 0L;
   }
 }
@@ -31,6 +31,7 @@ import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
 import org.pentaho.di.core.row.value.ValueMetaNone;
 import org.pentaho.di.core.variables.VariableSpace;
@@ -45,6 +46,7 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.step.TwoPhaseAggregationMeta;
 import org.pentaho.metastore.api.IMetaStore;
 import org.w3c.dom.Node;
 
@@ -54,7 +56,7 @@ import org.w3c.dom.Node;
  */
 
 @InjectionSupported( localizationPrefix = "MemoryGroupBy.Injection.", groups = { "FIELDS", "AGGREGATES" } )
-public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface {
+public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface, TwoPhaseAggregationMeta {
   private static Class<?> PKG = MemoryGroupByMeta.class; // for i18n purposes, needed by Translator2!!
 
   public static final int TYPE_GROUP_NONE = 0;
@@ -96,6 +98,22 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     "-", "SUM", "AVERAGE", "MEDIAN", "PERCENTILE", "MIN", "MAX", "COUNT_ALL", "CONCAT_COMMA", "FIRST", "LAST",
     "FIRST_INCL_NULL", "LAST_INCL_NULL", "STD_DEV", "CONCAT_STRING", "COUNT_DISTINCT", "COUNT_ANY", };
 
+  /** Aggregate the rows of the input in a single step */
+  public static final int AGGREGATION_PHASE_NONE = 0;
+  /** Aggregate the rows of a step copy and pass the partial aggregates of the groups on */
+  public static final int AGGREGATION_PHASE_PARTIAL = 1;
+  /** Merge the partial aggregates of the groups of the step copies of the partial phase */
+  public static final int AGGREGATION_PHASE_FINAL = 2;
+
+  public static final String[] aggregationPhaseCode = /* WARNING: DO NOT TRANSLATE THIS. */
+  { "NONE", "PARTIAL", "FINAL", };
+
+  /** The binary field with the partial aggregates of a group, added in the partial phase */
+  public static final String PARTIAL_AGGREGATES_FIELD = "partial_aggregates";
+
+  /** The default memory limit of the hash table in MB before it spills to disk */
+  public static final int DEFAULT_MEMORY_LIMIT_MB = 512;
+
   public static final String[] typeGroupLongDesc = {
     "-", BaseMessages.getString( PKG, "MemoryGroupByMeta.TypeGroupLongDesc.SUM" ),
     BaseMessages.getString( PKG, "MemoryGroupByMeta.TypeGroupLongDesc.AVERAGE" ),
@@ -138,6 +156,29 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   /** Flag to indicate that we always give back one row. Defaults to true for existing transformations. */
   private boolean alwaysGivingBackOneRow;
 
+  @Injection( name = "SPILL_TO_DISK" )
+  /** Flag to indicate that the groups are spilled to temporary files when the memory limit is reached */
+  private boolean spillToDisk;
+
+  @Injection( name = "MEMORY_LIMIT" )
+  /** The memory limit of the hash table in MB */
+  private String memoryLimit;
+
+  @Injection( name = "DIRECTORY" )
+  /** Directory to store the temporary files */
+  private String directory;
+
+  @Injection( name = "PREFIX" )
+  /** Temporary files prefix */
+  private String prefix;
+
+  /** Flag to indicate that the copies of a clustered step aggregate their rows and a single step merges them */
+  @Injection( name = "TWO_PHASE_AGGREGATION" )
+  private boolean twoPhaseAggregation;
+
+  /** The phase of a two phase aggregation, set on the steps of the cluster by the transformation splitter */
+  private int aggregationPhase;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -281,6 +322,13 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase( giveBackRow );
       }
+
+      spillToDisk = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "spill_to_disk" ) );
+      memoryLimit = XMLHandler.getTagValue( stepnode, "memory_limit" );
+      directory = XMLHandler.getTagValue( stepnode, "directory" );
+      prefix = XMLHandler.getTagValue( stepnode, "prefix" );
+      twoPhaseAggregation = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "two_phase_aggregation" ) );
+      aggregationPhase = getAggregationPhase( XMLHandler.getTagValue( stepnode, "aggregation_phase" ) );
     } catch ( Exception e ) {
       throw new KettleXMLException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnableToLoadStepInfoFromXML" ), e );
@@ -315,17 +363,53 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     return typeGroupLongDesc[i];
   }
 
+  public static final int getAggregationPhase( String code ) {
+    for ( int i = 0; i < aggregationPhaseCode.length; i++ ) {
+      if ( aggregationPhaseCode[i].equalsIgnoreCase( code ) ) {
+        return i;
+      }
+    }
+    return AGGREGATION_PHASE_NONE;
+  }
+
+  public static final String getAggregationPhaseCode( int i ) {
+    if ( i < 0 || i >= aggregationPhaseCode.length ) {
+      return aggregationPhaseCode[AGGREGATION_PHASE_NONE];
+    }
+    return aggregationPhaseCode[i];
+  }
+
   @Override
   public void setDefault() {
     int sizegroup = 0;
     int nrfields = 0;
 
     allocate( sizegroup, nrfields );
+
+    spillToDisk = false;
+    memoryLimit = Integer.toString( DEFAULT_MEMORY_LIMIT_MB );
+    directory = "%%java.io.tmpdir%%";
+    prefix = "mgrp";
+    twoPhaseAggregation = false;
+    aggregationPhase = AGGREGATION_PHASE_NONE;
   }
 
   @Override
   public void getFields( Bowl bowl, RowMetaInterface r, String origin, RowMetaInterface[] info, StepMeta nextStep,
     VariableSpace space, Repository repository, IMetaStore metaStore ) {
+    // The final phase receives the grouping fields and the aggregates of the partial phase: only the partial
+    // aggregates are left out
+    //
+    if ( aggregationPhase == AGGREGATION_PHASE_FINAL ) {
+      if ( r.indexOfValue( PARTIAL_AGGREGATES_FIELD ) >= 0 ) {
+        r.removeValueMeta( r.indexOfValue( PARTIAL_AGGREGATES_FIELD ) );
+      }
+      for ( ValueMetaInterface valueMeta : r.getValueMetaList() ) {
+        valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+      }
+      return;
+    }
+
     // Check compatibility mode
     boolean compatibilityMode = ValueMetaBase.convertStringToBoolean(
       space.getVariable( Const.KETTLE_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE, "N" ) );
@@ -426,6 +510,12 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       }
     }
 
+    if ( aggregationPhase == AGGREGATION_PHASE_PARTIAL ) {
+      ValueMetaInterface v = new ValueMetaBinary( PARTIAL_AGGREGATES_FIELD );
+      v.setOrigin( origin );
+      fields.addValueMeta( v );
+    }
+
     // Now that we have all the fields we want, we should clear the original row and replace the values...
     //
     r.clear();
@@ -437,6 +527,13 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     StringBuilder retval = new StringBuilder( 500 );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "give_back_row", alwaysGivingBackOneRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "spill_to_disk", spillToDisk ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "memory_limit", memoryLimit ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "directory", directory ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "prefix", prefix ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "two_phase_aggregation", twoPhaseAggregation ) );
+    retval.append( "      " ).append(
+      XMLHandler.addTagValue( "aggregation_phase", getAggregationPhaseCode( aggregationPhase ) ) );
 
     retval.append( "      <group>" ).append( Const.CR );
     for ( int i = 0; i < groupField.length; i++ ) {
@@ -486,6 +583,12 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       }
 
       alwaysGivingBackOneRow = rep.getStepAttributeBoolean( id_step, 0, "give_back_row", hasNumberOfValues );
+      spillToDisk = rep.getStepAttributeBoolean( id_step, "spill_to_disk" );
+      memoryLimit = rep.getStepAttributeString( id_step, "memory_limit" );
+      directory = rep.getStepAttributeString( id_step, "directory" );
+      prefix = rep.getStepAttributeString( id_step, "prefix" );
+      twoPhaseAggregation = rep.getStepAttributeBoolean( id_step, "two_phase_aggregation" );
+      aggregationPhase = getAggregationPhase( rep.getStepAttributeString( id_step, "aggregation_phase" ) );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnexpectedErrorInReadingStepInfoFromRepository" ), e );
@@ -496,6 +599,13 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   public void saveRep( Repository rep, IMetaStore metaStore, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "give_back_row", alwaysGivingBackOneRow );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_to_disk", spillToDisk );
+      rep.saveStepAttribute( id_transformation, id_step, "memory_limit", memoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
+      rep.saveStepAttribute( id_transformation, id_step, "prefix", prefix );
+      rep.saveStepAttribute( id_transformation, id_step, "two_phase_aggregation", twoPhaseAggregation );
+      rep.saveStepAttribute( id_transformation, id_step, "aggregation_phase",
+        getAggregationPhaseCode( aggregationPhase ) );
 
       for ( int i = 0; i < groupField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "group_name", groupField[i] );
@@ -559,6 +669,111 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return true if the groups are spilled to temporary files when the memory limit is reached
+   */
+  public boolean isSpillToDisk() {
+    return spillToDisk;
+  }
+
+  /**
+   * @param spillToDisk
+   *          true to spill the groups to temporary files when the memory limit is reached
+   */
+  public void setSpillToDisk( boolean spillToDisk ) {
+    this.spillToDisk = spillToDisk;
+  }
+
+  /**
+   * @return the memory limit of the hash table in MB
+   */
+  public String getMemoryLimit() {
+    return memoryLimit;
+  }
+
+  /**
+   * @param memoryLimit
+   *          the memory limit of the hash table in MB
+   */
+  public void setMemoryLimit( String memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * @return Returns the directory.
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          The directory to set.
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return Returns the prefix.
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix
+   *          The prefix to set.
+   */
+  public void setPrefix( String prefix ) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * @return true if the copies of a clustered step aggregate their own rows and a single step merges the results
+   */
+  @Override
+  public boolean isTwoPhaseAggregation() {
+    return twoPhaseAggregation;
+  }
+
+  /**
+   * @param twoPhaseAggregation
+   *          true if the copies of a clustered step aggregate their own rows and a single step merges the results
+   */
+  public void setTwoPhaseAggregation( boolean twoPhaseAggregation ) {
+    this.twoPhaseAggregation = twoPhaseAggregation;
+  }
+
+  /**
+   * @return the phase of a two phase aggregation, one of the AGGREGATION_PHASE_ constants
+   */
+  public int getAggregationPhase() {
+    return aggregationPhase;
+  }
+
+  /**
+   * @param aggregationPhase
+   *          the phase of a two phase aggregation, one of the AGGREGATION_PHASE_ constants
+   */
+  public void setAggregationPhase( int aggregationPhase ) {
+    this.aggregationPhase = aggregationPhase;
+  }
+
+  @Override
+  public StepMetaInterface getPartialAggregationMeta() {
+    MemoryGroupByMeta partialMeta = (MemoryGroupByMeta) clone();
+    partialMeta.setAggregationPhase( AGGREGATION_PHASE_PARTIAL );
+    return partialMeta;
+  }
+
+  @Override
+  public StepMetaInterface getFinalAggregationMeta() {
+    MemoryGroupByMeta finalMeta = (MemoryGroupByMeta) clone();
+    finalMeta.setAggregationPhase( AGGREGATION_PHASE_FINAL );
+    return finalMeta;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -0,0 +1,270 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+/**
+ * The groups of a hash aggregation that ran out of memory. The groups are partitioned on the hash code of their keys
+ * and every partition is written to its own temporary file, together with the partial aggregates of the group. A
+ * partition only holds a fraction of the groups, so it can be aggregated in memory later on. If it still doesn't fit,
+ * it is partitioned again with the next level, which uses different bits of the hash code.
+ *
+ * The groups are read back in the order they were written, so the partial aggregates of a group can be merged in
+ * input order: first and last values stay correct.
+ */
+public class SpillPartitions {
+
+  /** The number of partitions per level, a power of 2 */
+  public static final int NR_PARTITIONS = 16;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Creates the temporary files of the partitions.
+   */
+  public interface TempFileProvider {
+    FileObject createTempFile() throws KettleException;
+  }
+
+  private final int level;
+  private final RowMetaInterface groupMeta;
+  private final AggregateSerializer serializer;
+  private final TempFileProvider tempFileProvider;
+
+  private final FileObject[] files = new FileObject[NR_PARTITIONS];
+  private final DataOutputStream[] outputs = new DataOutputStream[NR_PARTITIONS];
+  private final long[] rowCounts = new long[NR_PARTITIONS];
+
+  /**
+   * @param level
+   *          the partitioning level, 0 for the partitions of the input
+   * @param groupMeta
+   *          the metadata of the group keys
+   * @param valueMeta
+   *          the metadata of the aggregate values in normal storage
+   * @param aggregateTypes
+   *          the aggregate types, see {@link MemoryGroupByMeta}
+   * @param tempFileProvider
+   *          creates the temporary files
+   */
+  public SpillPartitions( int level, RowMetaInterface groupMeta, RowMetaInterface valueMeta, int[] aggregateTypes,
+    TempFileProvider tempFileProvider ) {
+    this.level = level;
+    this.groupMeta = groupMeta;
+    this.serializer = new AggregateSerializer( valueMeta, aggregateTypes );
+    this.tempFileProvider = tempFileProvider;
+  }
+
+  /**
+   * @return the partitioning level
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  /**
+   * @param hashCode
+   *          the hash code of the group keys
+   * @param level
+   *          the partitioning level
+   * @return the partition of the group on the level
+   */
+  public static int getPartition( int hashCode, int level ) {
+    // Mix the bits so every level spreads the groups of the partition of the previous level
+    //
+    int h = hashCode ^ ( level * 0x9E3779B9 );
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h & ( NR_PARTITIONS - 1 );
+  }
+
+  /**
+   * Write a group with its partial aggregates to its partition.
+   *
+   * @param hashCode
+   *          the hash code of the group keys
+   * @param groupData
+   *          the group keys
+   * @param aggregate
+   *          the partial aggregates, the values in normal storage
+   */
+  public void write( int hashCode, Object[] groupData, Aggregate aggregate ) throws KettleException {
+    int partition = getPartition( hashCode, level );
+    DataOutputStream output = outputs[partition];
+    try {
+      if ( output == null ) {
+        files[partition] = tempFileProvider.createTempFile();
+        output = new DataOutputStream(
+          new BufferedOutputStream( KettleVFS.getOutputStream( files[partition], false ), BUFFER_SIZE ) );
+        outputs[partition] = output;
+      }
+
+      groupMeta.writeData( output, groupData );
+      serializer.write( output, aggregate );
+      rowCounts[partition]++;
+    } catch ( IOException e ) {
+      throw new KettleException( "Unable to write to temporary file " + files[partition], e );
+    }
+  }
+
+  /**
+   * Finish writing the partitions.
+   */
+  public void closeOutput() throws KettleException {
+    KettleException exception = null;
+    for ( int i = 0; i < NR_PARTITIONS; i++ ) {
+      if ( outputs[i] != null ) {
+        try {
+          outputs[i].close();
+        } catch ( IOException e ) {
+          exception = new KettleException( "Unable to close temporary file " + files[i], e );
+        }
+        outputs[i] = null;
+      }
+    }
+    if ( exception != null ) {
+      throw exception;
+    }
+  }
+
+  /**
+   * @param partition
+   *          the partition
+   * @return the number of groups written to the partition, the same group can be written more than once
+   */
+  public long getRowCount( int partition ) {
+    return rowCounts[partition];
+  }
+
+  /**
+   * Read back the groups of a partition, call {@link #closeOutput()} first.
+   *
+   * @param partition
+   *          the partition
+   * @return a reader of the groups in the order they were written
+   */
+  public Reader openPartition( int partition ) throws KettleException {
+    return new Reader( partition );
+  }
+
+  /**
+   * Close and delete the temporary files.
+   */
+  public void delete() {
+    for ( int i = 0; i < NR_PARTITIONS; i++ ) {
+      try {
+        if ( outputs[i] != null ) {
+          outputs[i].close();
+          outputs[i] = null;
+        }
+      } catch ( IOException e ) {
+        // Ignore, we delete the file anyway
+      }
+      deleteFile( i );
+    }
+  }
+
+  private void deleteFile( int partition ) {
+    if ( files[partition] != null ) {
+      try {
+        files[partition].delete();
+      } catch ( IOException e ) {
+        // Ignore, the temporary file is removed when the JVM exits or by the system
+      }
+      files[partition] = null;
+    }
+  }
+
+  /**
+   * Reads the groups of a partition. Closing the reader deletes the temporary file of the partition.
+   */
+  public class Reader implements Closeable {
+    private final int partition;
+    private final DataInputStream input;
+    private long remaining;
+
+    private Object[] groupData;
+    private Aggregate aggregate;
+
+    private Reader( int partition ) throws KettleException {
+      this.partition = partition;
+      this.remaining = rowCounts[partition];
+      try {
+        input = remaining == 0 ? null : new DataInputStream(
+          new BufferedInputStream( KettleVFS.getInputStream( files[partition] ), BUFFER_SIZE ) );
+      } catch ( IOException e ) {
+        throw new KettleException( "Unable to open temporary file " + files[partition], e );
+      }
+    }
+
+    /**
+     * Read the next group.
+     *
+     * @return false if there are no more groups in the partition
+     */
+    public boolean next() throws KettleException {
+      if ( remaining == 0 ) {
+        return false;
+      }
+      try {
+        groupData = groupMeta.readData( input );
+        aggregate = serializer.read( input );
+      } catch ( IOException e ) {
+        throw new KettleException( "Unable to read from temporary file " + files[partition], e );
+      }
+      remaining--;
+      return true;
+    }
+
+    /**
+     * @return the group keys of the last group read
+     */
+    public Object[] getGroupData() {
+      return groupData;
+    }
+
+    /**
+     * @return the partial aggregates of the last group read, the values in normal storage
+     */
+    public Aggregate getAggregate() {
+      return aggregate;
+    }
+
+    @Override
+    public void close() {
+      try {
+        if ( input != null ) {
+          input.close();
+        }
+      } catch ( IOException e ) {
+        // Ignore, we delete the file anyway
+      }
+      deleteFile( partition );
+    }
+  }
+}
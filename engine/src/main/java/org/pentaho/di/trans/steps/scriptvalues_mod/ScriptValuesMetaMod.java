@@ -113,6 +113,9 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "OPTIMIZATION_LEVEL" )
   private String optimizationLevel;
 
+  @Injection( name = "HIGH_PERFORMANCE_MODE" )
+  private boolean highPerformance;
+
   public ScriptValuesMetaMod() {
     super(); // allocate BaseStepMeta
     compatible = true;
@@ -314,6 +317,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
       String script = XMLHandler.getTagValue( stepnode, "script" );
       String strCompatible = XMLHandler.getTagValue( stepnode, "compatible" );
       optimizationLevel = XMLHandler.getTagValue( stepnode, "optimizationLevel" );
+      highPerformance = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "highPerformance" ) );
 
       if ( strCompatible == null ) {
         compatible = true;
@@ -385,6 +389,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     compatible = false;
     optimizationLevel = OPTIMIZATION_LEVEL_DEFAULT;
+    highPerformance = false;
   }
 
   @Override
@@ -447,6 +452,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "compatible", compatible ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "optimizationLevel", optimizationLevel ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "highPerformance", highPerformance ) );
 
     retval.append( "    <jsScripts>" );
     for ( int i = 0; i < jsScripts.length; i++ ) {
@@ -482,6 +488,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
       String script = rep.getStepAttributeString( id_step, "script" );
       compatible = rep.getStepAttributeBoolean( id_step, 0, "compatible", true );
       optimizationLevel = rep.getStepAttributeString( id_step, 0, "optimizationLevel" );
+      highPerformance = rep.getStepAttributeBoolean( id_step, 0, "highPerformance", false );
 
       // When in compatibility mode, we load the script, not the other tabs...
       //
@@ -520,6 +527,7 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
     try {
       rep.saveStepAttribute( id_transformation, id_step, 0, "compatible", compatible );
       rep.saveStepAttribute( id_transformation, id_step, 0, "optimizationLevel", optimizationLevel );
+      rep.saveStepAttribute( id_transformation, id_step, 0, "highPerformance", highPerformance );
 
       for ( int i = 0; i < jsScripts.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, JSSCRIPT_TAG_NAME, jsScripts[i].getScriptName() );
@@ -1056,4 +1064,20 @@ public class ScriptValuesMetaMod extends BaseStepMeta implements StepMetaInterfa
   public String getOptimizationLevel() {
     return this.optimizationLevel;
   }
+
+  /**
+   * @return true if the script is compiled to Java bytecode and runs in a scope that shares the sealed standard
+   *         objects and reads the fields of the row only when the script uses them. Not used in compatibility mode.
+   */
+  public boolean isHighPerformance() {
+    return highPerformance;
+  }
+
+  /**
+   * @param highPerformance
+   *          true to run the script in high performance mode
+   */
+  public void setHighPerformance( boolean highPerformance ) {
+    this.highPerformance = highPerformance;
+  }
 }
@@ -30,6 +30,7 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -189,7 +190,25 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         throw new KettleException( iae.getMessage() );
       }
 
-      data.scope = data.cx.initStandardObjects( null, false );
+      // In high performance mode the script is always compiled and the standard objects are shared
+      //
+      boolean highPerformance = meta.isHighPerformance();
+      if ( highPerformance && meta.isCompatible() ) {
+        logBasic( BaseMessages.getString( PKG, "ScriptValuesMod.Log.HighPerformanceNotCompatible" ) );
+        highPerformance = false;
+      }
+      if ( highPerformance ) {
+        if ( data.cx.getOptimizationLevel() < 0 ) {
+          data.cx.setOptimizationLevel( Integer.parseInt( ScriptValuesMetaMod.OPTIMIZATION_LEVEL_DEFAULT ) );
+        }
+        logBasic( BaseMessages.getString( PKG, "ScriptValuesMod.Optimization.HighPerformance",
+          String.valueOf( data.cx.getOptimizationLevel() ) ) );
+        data.rowScope =
+          new ScriptValuesRowScope( ScriptValuesRowScope.getSharedScope( data.cx ), rowMeta, data.fields_used );
+        data.scope = data.rowScope;
+      } else {
+        data.scope = data.cx.initStandardObjects( null, false );
+      }
 
       bFirstRun = true;
 
@@ -209,44 +228,48 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         // add these now (they will be re-added later) to make compilation succeed
         //
 
-        // Add the old style row object for compatibility reasons...
-        //
-        if ( meta.isCompatible() ) {
-          Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
-          Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
-          data.scope.put( "row", data.scope, jsV2Row );
+        if ( data.rowScope != null ) {
+          data.rowScope.setRow( row );
         } else {
-          Scriptable jsrow = Context.toObject( row, data.scope );
-          data.scope.put( "row", data.scope, jsrow );
-        }
+          // Add the old style row object for compatibility reasons...
+          //
+          if ( meta.isCompatible() ) {
+            Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
+            Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
+            data.scope.put( "row", data.scope, jsV2Row );
+          } else {
+            Scriptable jsrow = Context.toObject( row, data.scope );
+            data.scope.put( "row", data.scope, jsrow );
+          }
 
-        // Add the used fields...
-        //
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
+          // Add the used fields...
+          //
+          for ( int i = 0; i < data.fields_used.length; i++ ) {
+            ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
+            Object valueData = row[ data.fields_used[ i ] ];
 
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
+            if ( meta.isCompatible() ) {
+              data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
 
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
+              Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
+              data.scope.put( valueMeta.getName(), data.scope, jsarg );
             } else {
-              jsarg = null;
+              Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
+              Scriptable jsarg;
+              if ( normalStorageValueData != null ) {
+                jsarg = Context.toObject( normalStorageValueData, data.scope );
+              } else {
+                jsarg = null;
+              }
+              data.scope.put( valueMeta.getName(), data.scope, jsarg );
             }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
           }
-        }
 
-        // also add the meta information for the whole row
-        //
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+          // also add the meta information for the whole row
+          //
+          Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
+          data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        }
 
         // Modification for Additional Script parsing
         //
@@ -334,50 +357,58 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
 
     try {
       try {
-        if ( meta.isCompatible() ) {
-          Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
-          Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
-          data.scope.put( "row", data.scope, jsV2Row );
-          v2Row.getUsedValueListeners().add( new ValueUsedListener() {
-            public void valueIsUsed( int index, Value value ) {
-              usedRowValues.put( index, value );
-            }
-          } );
+        if ( data.rowScope != null ) {
+          // The fields are converted when the script reads them
+          //
+          data.rowScope.setRow( row );
         } else {
-          Scriptable jsrow = Context.toObject( row, data.scope );
-          data.scope.put( "row", data.scope, jsrow );
-        }
+          if ( meta.isCompatible() ) {
+            Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
+            Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
+            data.scope.put( "row", data.scope, jsV2Row );
+            v2Row.getUsedValueListeners().add( new ValueUsedListener() {
+              public void valueIsUsed( int index, Value value ) {
+                usedRowValues.put( index, value );
+              }
+            } );
+          } else {
+            Scriptable jsrow = Context.toObject( row, data.scope );
+            data.scope.put( "row", data.scope, jsrow );
+          }
 
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
+          for ( int i = 0; i < data.fields_used.length; i++ ) {
+            ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
+            Object valueData = row[ data.fields_used[ i ] ];
 
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
+            data.nrConversionsToJs++;
+            if ( meta.isCompatible() ) {
+              data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
 
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
+              Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
+              data.scope.put( valueMeta.getName(), data.scope, jsarg );
             } else {
-              jsarg = null;
+              Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
+              Scriptable jsarg;
+              if ( normalStorageValueData != null ) {
+                jsarg = Context.toObject( normalStorageValueData, data.scope );
+              } else {
+                jsarg = null;
+              }
+              data.scope.put( valueMeta.getName(), data.scope, jsarg );
             }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
           }
-        }
 
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+          // also add the meta information for the hole row
+          Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
+          data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        }
       } catch ( Exception e ) {
         throw new KettleValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UnexpectedeError" ), e );
       }
 
       // Executing our Script
       data.script.exec( data.cx, data.scope );
+      data.nrRows++;
 
       if ( bFirstRun ) {
         bFirstRun = false;
@@ -407,6 +438,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         for ( int i = 0; i < meta.getFieldname().length; i++ ) {
           Object result = data.scope.get( meta.getFieldname()[ i ], data.scope );
           Object valueData = getValueFromJScript( result, i );
+          data.nrConversionsFromJs++;
           if ( data.replaceIndex[ i ] < 0 ) {
             outputRow[ outputIndex++ ] = valueData;
           } else {
@@ -590,6 +622,20 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
   }
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( data.nrRows > 0 ) {
+      long nrConversionsToJs = data.nrConversionsToJs;
+      if ( data.rowScope != null ) {
+        nrConversionsToJs += data.rowScope.getNrConversions();
+      }
+      log.snap( Metrics.METRIC_JAVASCRIPT_CONVERSIONS_TO_JS, nrConversionsToJs );
+      log.snap( Metrics.METRIC_JAVASCRIPT_CONVERSIONS_FROM_JS, data.nrConversionsFromJs );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "ScriptValuesMod.Log.Conversions",
+          String.valueOf( nrConversionsToJs ), String.valueOf( data.nrConversionsFromJs ),
+          String.valueOf( data.nrRows ) ) );
+      }
+    }
+
     try {
       if ( data.cx != null ) {
         Context.exit();
@@ -37,6 +37,13 @@ public class ScriptValuesModData extends BaseStepData implements StepDataInterfa
   public RowMetaInterface outputRowMeta;
   public int[] replaceIndex;
 
+  /** The scope in high performance mode, null otherwise */
+  public ScriptValuesRowScope rowScope;
+
+  public long nrRows;
+  public long nrConversionsToJs;
+  public long nrConversionsFromJs;
+
   public ScriptValuesModData() {
     super();
     cx = null;
@@ -0,0 +1,182 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.scriptvalues_mod;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * The scope of the high performance mode of the Modified JavaScript value step.<br>
+ * <br>
+ * The standard objects are not created for every step copy: they live in a sealed scope that is shared by all the
+ * scripts and is the prototype of this scope. The fields the script uses are not converted and put in the scope for
+ * every row: the current row is set and a field is converted to a JavaScript value the first time the script reads
+ * it. The same goes for the "row" and "rowMeta" variables.
+ */
+public class ScriptValuesRowScope extends ScriptableObject {
+
+  private static final long serialVersionUID = -5328457619314203752L;
+
+  private static final String ROW = "row";
+  private static final String ROW_META = "rowMeta";
+
+  private static ScriptableObject sharedScope;
+
+  private final transient RowMetaInterface rowMeta;
+  private final Map<String, Integer> slots = new HashMap<>();
+  private final int[] fieldIndexes;
+  private final Object[] values;
+  private final int rowSlot;
+  private final int rowMetaSlot;
+
+  private transient Object[] row;
+  private Object jsRowMeta;
+  private long nrConversions;
+
+  /**
+   * @param sharedScope
+   *          the sealed scope with the standard objects, see {@link #getSharedScope(Context)}
+   * @param rowMeta
+   *          the metadata of the input rows
+   * @param fieldsUsed
+   *          the indexes of the fields the script uses
+   */
+  public ScriptValuesRowScope( Scriptable sharedScope, RowMetaInterface rowMeta, int[] fieldsUsed ) {
+    this.rowMeta = rowMeta;
+    setPrototype( sharedScope );
+    setParentScope( null );
+
+    fieldIndexes = fieldsUsed.clone();
+    for ( int i = 0; i < fieldsUsed.length; i++ ) {
+      slots.put( rowMeta.getValueMeta( fieldsUsed[i] ).getName(), i );
+    }
+
+    // Like in the other modes, a field called row hides the row and the row metadata hides a field called rowMeta
+    //
+    rowSlot = fieldsUsed.length;
+    rowMetaSlot = fieldsUsed.length + 1;
+    slots.putIfAbsent( ROW, rowSlot );
+    slots.put( ROW_META, rowMetaSlot );
+    values = new Object[fieldsUsed.length + 2];
+    Arrays.fill( values, NOT_FOUND );
+  }
+
+  /**
+   * The scope with the standard objects, created once and sealed: the scripts can't change it.
+   *
+   * @param cx
+   *          the current context
+   * @return the shared scope
+   */
+  public static synchronized Scriptable getSharedScope( Context cx ) {
+    if ( sharedScope == null ) {
+      ScriptableObject scope = cx.initStandardObjects( null, true );
+      scope.sealObject();
+      sharedScope = scope;
+    }
+    return sharedScope;
+  }
+
+  /**
+   * Sets the row the script runs on. The values the script assigned to the fields during the previous row are
+   * forgotten.
+   *
+   * @param row
+   *          the input row
+   */
+  public void setRow( Object[] row ) {
+    this.row = row;
+    Arrays.fill( values, NOT_FOUND );
+  }
+
+  /**
+   * @return the number of field values converted to JavaScript
+   */
+  public long getNrConversions() {
+    return nrConversions;
+  }
+
+  @Override
+  public String getClassName() {
+    return "global";
+  }
+
+  @Override
+  public Object get( String name, Scriptable start ) {
+    Integer slot = slots.get( name );
+    if ( slot == null ) {
+      return super.get( name, start );
+    }
+    Object value = values[slot];
+    if ( value == NOT_FOUND ) {
+      value = load( slot );
+      values[slot] = value;
+    }
+    return value;
+  }
+
+  @Override
+  public boolean has( String name, Scriptable start ) {
+    return slots.containsKey( name ) || super.has( name, start );
+  }
+
+  @Override
+  public void put( String name, Scriptable start, Object value ) {
+    Integer slot = slots.get( name );
+    if ( slot == null ) {
+      super.put( name, start, value );
+    } else {
+      values[slot] = value;
+    }
+  }
+
+  @Override
+  public void delete( String name ) {
+    Integer slot = slots.get( name );
+    if ( slot == null ) {
+      super.delete( name );
+    } else {
+      values[slot] = null;
+    }
+  }
+
+  private Object load( int slot ) {
+    if ( slot == rowSlot ) {
+      return Context.toObject( row, this );
+    }
+    if ( slot == rowMetaSlot ) {
+      if ( jsRowMeta == null ) {
+        jsRowMeta = Context.toObject( rowMeta, this );
+      }
+      return jsRowMeta;
+    }
+
+    ValueMetaInterface valueMeta = rowMeta.getValueMeta( fieldIndexes[slot] );
+    try {
+      Object valueData = valueMeta.convertToNormalStorageType( row[fieldIndexes[slot]] );
+      nrConversions++;
+      return valueData == null ? null : Context.javaToJS( valueData, this );
+    } catch ( KettleValueException e ) {
+      throw Context.throwAsScriptRuntimeEx( e );
+    }
+  }
+}
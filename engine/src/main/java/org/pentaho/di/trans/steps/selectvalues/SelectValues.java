@@ -311,9 +311,9 @@ public class SelectValues extends BaseStep implements StepInterface {
       // If we need to change from BINARY_STRING storage type to NORMAL...
       //
       try {
-        if ( fromMeta.isStorageBinaryString()
+        if ( ( fromMeta.isStorageBinaryString() || fromMeta.isStorageBinaryStringSlice() )
           && meta.getMeta()[ i ].getStorageType() == ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
-          rowData[ index ] = fromMeta.convertBinaryStringToNativeType( (byte[]) rowData[ index ] );
+          rowData[ index ] = fromMeta.convertToNormalStorageType( rowData[ index ] );
         }
         if ( meta.getMeta()[ i ].getType() != ValueMetaInterface.TYPE_NONE && fromMeta.getType() != toMeta.getType() ) {
           rowData[ index ] = toMeta.convertData( fromMeta, rowData[ index ] );
@@ -331,23 +331,13 @@ public class SelectValues extends BaseStep implements StepInterface {
     meta = (SelectValuesMeta) smi;
     data = (SelectValuesData) sdi;
 
-    Object[] rowData = getRow(); // get row from rowset, wait for our turn, indicate busy!
-    if ( rowData == null ) { // no more input to be expected...
+    Object[][] rows = getRows( getRowBatchSize() ); // get rows from rowset, wait for our turn, indicate busy!
+    if ( rows == null ) { // no more input to be expected...
 
       setOutputDone();
       return false;
     }
 
-    Object[] rowCopy = null;
-    if ( getStepMeta().isDoingErrorHandling() ) {
-      rowCopy = getInputRowMeta().cloneRow( rowData );
-    }
-
-    if ( log.isRowLevel() ) {
-      logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
-        + getInputRowMeta().getString( rowData ) );
-    }
-
     if ( first ) {
       first = false;
 
@@ -359,54 +349,79 @@ public class SelectValues extends BaseStep implements StepInterface {
       meta.getMetadataFields( data.metadataRowMeta, getStepname(), this );
     }
 
-    try {
-      Object[] outputData = rowData;
-
-      if ( data.select ) {
-        outputData = selectValues( getInputRowMeta(), outputData );
-      }
-      if ( data.deselect ) {
-        outputData = removeValues( data.selectRowMeta, outputData );
-      }
-      if ( data.metadata ) {
-        outputData = metadataValues( data.deselectRowMeta, outputData );
-      }
+    Object[][] outputRows = new Object[ rows.length ][];
+    int nrOutputRows = 0;
 
-      if ( outputData == null ) {
-        setOutputDone(); // signal end to receiver(s)
-        return false;
+    for ( Object[] rowData : rows ) {
+      Object[] rowCopy = null;
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        rowCopy = getInputRowMeta().cloneRow( rowData );
       }
 
-      // Send the row on its way
-      //
-      putRow( data.metadataRowMeta, outputData );
       if ( log.isRowLevel() ) {
-        logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextStep" )
-          + data.metadataRowMeta.getString( outputData ) );
+        logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.GotRowFromPreviousStep" )
+          + getInputRowMeta().getString( rowData ) );
       }
 
-    } catch ( KettleException e ) {
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        String field;
-        if ( e instanceof KettleConversionException ) {
-          List<ValueMetaInterface> fields = ( (KettleConversionException) e ).getFields();
-          field = fields.isEmpty() ? null : fields.get( 0 ).getName();
+      try {
+        Object[] outputData = rowData;
+
+        if ( data.select ) {
+          outputData = selectValues( getInputRowMeta(), outputData );
+        }
+        if ( data.deselect ) {
+          outputData = removeValues( data.selectRowMeta, outputData );
+        }
+        if ( data.metadata ) {
+          outputData = metadataValues( data.deselectRowMeta, outputData );
+        }
+
+        if ( outputData == null ) {
+          putRows( data.metadataRowMeta, outputRows, nrOutputRows );
+          setOutputDone(); // signal end to receiver(s)
+          return false;
+        }
+
+        // Send the row on its way with the rest of the batch
+        //
+        outputRows[ nrOutputRows++ ] = outputData;
+        if ( log.isRowLevel() ) {
+          logRowlevel( BaseMessages.getString( PKG, "SelectValues.Log.WroteRowToNextStep" )
+            + data.metadataRowMeta.getString( outputData ) );
+        }
+
+      } catch ( KettleException e ) {
+        if ( getStepMeta().isDoingErrorHandling() ) {
+          String field;
+          if ( e instanceof KettleConversionException ) {
+            List<ValueMetaInterface> fields = ( (KettleConversionException) e ).getFields();
+            field = fields.isEmpty() ? null : fields.get( 0 ).getName();
+          } else {
+            field = null;
+          }
+          putError( getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001" );
         } else {
-          field = null;
+          putRows( data.metadataRowMeta, outputRows, nrOutputRows );
+          throw e;
         }
-        putError( getInputRowMeta(), rowCopy, 1, e.getMessage(), field, "SELECT001" );
-      } else {
-        throw e;
       }
     }
 
-    if ( checkFeedback( getLinesRead() ) ) {
-      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + getLinesRead() );
+    putRows( data.metadataRowMeta, outputRows, nrOutputRows );
+
+    long linesRead = getLinesRead();
+    if ( checkFeedback( linesRead - rows.length, linesRead ) ) {
+      logBasic( BaseMessages.getString( PKG, "SelectValues.Log.LineNumber" ) + linesRead );
     }
 
     return true;
   }
 
+  @Override
+  public boolean supportsRowBatches() {
+    return true;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (SelectValuesMeta) smi;
     data = (SelectValuesData) sdi;
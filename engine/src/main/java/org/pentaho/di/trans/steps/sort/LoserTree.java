@@ -0,0 +1,120 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.Comparator;
+
+/**
+ * A tournament tree of losers to merge k sorted sources. Every source contributes its current head; the tree keeps
+ * the loser of each match in the inner nodes so replacing the winner only replays the matches on its path to the
+ * root: log2(k) comparisons per row instead of the k comparisons of a linear scan.
+ *
+ * A null head means the source is exhausted. Equal heads are won by the source with the lowest index, which keeps the
+ * merge stable when the sources are in input order.
+ *
+ * @param <T>
+ *          the type of the heads
+ */
+public class LoserTree<T> {
+  private final Comparator<T> comparator;
+  private final Object[] heads;
+  private final int[] tree;
+  private final int size;
+
+  /**
+   * @param heads
+   *          the first element of every source, null if the source is empty
+   * @param comparator
+   *          the order of the sources
+   */
+  public LoserTree( T[] heads, Comparator<T> comparator ) {
+    this.comparator = comparator;
+    this.size = heads.length;
+    this.heads = heads.clone();
+    this.tree = new int[Math.max( size, 1 )];
+
+    if ( size > 0 ) {
+      tree[0] = build( 1 );
+    }
+  }
+
+  // Play the matches of the sub tree below the node, store the losers and return the winner
+  //
+  private int build( int node ) {
+    if ( node >= size ) {
+      return node - size;
+    }
+    int left = build( node * 2 );
+    int right = build( node * 2 + 1 );
+    if ( beats( left, right ) ) {
+      tree[node] = right;
+      return left;
+    } else {
+      tree[node] = left;
+      return right;
+    }
+  }
+
+  @SuppressWarnings( "unchecked" )
+  private boolean beats( int source1, int source2 ) {
+    T head1 = (T) heads[source1];
+    T head2 = (T) heads[source2];
+    if ( head1 == null ) {
+      return head2 == null && source1 < source2;
+    }
+    if ( head2 == null ) {
+      return true;
+    }
+    int cmp = comparator.compare( head1, head2 );
+    return cmp < 0 || ( cmp == 0 && source1 < source2 );
+  }
+
+  /**
+   * @return the index of the source with the smallest head or -1 if all sources are exhausted
+   */
+  public int getWinner() {
+    if ( size == 0 || heads[tree[0]] == null ) {
+      return -1;
+    }
+    return tree[0];
+  }
+
+  /**
+   * @return the smallest head or null if all sources are exhausted
+   */
+  @SuppressWarnings( "unchecked" )
+  public T peek() {
+    return size == 0 ? null : (T) heads[tree[0]];
+  }
+
+  /**
+   * Replace the head of the winning source with its next element and replay its matches.
+   *
+   * @param next
+   *          the next element of the winning source, null if it is exhausted
+   */
+  public void replaceWinner( T next ) {
+    int winner = tree[0];
+    heads[winner] = next;
+
+    for ( int node = ( winner + size ) / 2; node > 0; node /= 2 ) {
+      if ( beats( tree[node], winner ) ) {
+        int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+}
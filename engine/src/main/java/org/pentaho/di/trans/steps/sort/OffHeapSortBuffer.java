@@ -0,0 +1,574 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.trans.step.BaseStep;
+
+/**
+ * The sort buffer of the off-heap sort engine. Rows are serialized into a direct (off-heap) byte buffer of a fixed
+ * size: the row data grows from the start of the buffer, an index entry per row grows from the end. An index entry
+ * holds the normalized key prefix of the row (see {@link SortKeyNormalizer}) and the location of the row data.
+ *
+ * Sorting only moves the index entries and compares the prefixes as two unsigned longs. Rows are only deserialized to
+ * break ties between equal prefixes. When the buffer is full, the sorted run is written to a temporary file as is.
+ * The runs are merged with a {@link LoserTree} when the rows are read back.
+ *
+ * Since the buffer size is a byte budget, the number of rows per run doesn't depend on a guess of the free heap
+ * memory and the rows that are waiting to be sorted don't put any pressure on the garbage collector.
+ */
+public class OffHeapSortBuffer {
+
+  /**
+   * Creates the temporary files for the sorted runs.
+   */
+  public interface TempFileProvider {
+    FileObject createTempFile() throws KettleException;
+  }
+
+  private static final int PREFIX_LENGTH = SortKeyNormalizer.PREFIX_LENGTH;
+
+  /** The prefix, the offset and the length of the row */
+  private static final int ENTRY_SIZE = PREFIX_LENGTH + 8;
+
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private final RowMetaInterface rowMeta;
+  private final Comparator<Object[]> rowComparator;
+  private final SortKeyNormalizer normalizer;
+  private final boolean compressFiles;
+  private final boolean onlyPassingUniqueRows;
+  private final TempFileProvider tempFileProvider;
+
+  private ByteBuffer buffer;
+  private final int capacity;
+  private int recordsEnd;
+  private int nrRows;
+
+  private final byte[] prefix = new byte[PREFIX_LENGTH];
+  private final RowOutputStream rowBytes = new RowOutputStream();
+  private final DataOutputStream rowOutput = new DataOutputStream( rowBytes );
+  private final ByteBufferInputStream rowInputStream;
+  private final DataInputStream rowInput;
+  private byte[] copyBuffer = new byte[1024];
+
+  // The sorted runs on disk
+  //
+  private final List<FileObject> runs = new ArrayList<>();
+  private final List<Integer> runSizes = new ArrayList<>();
+
+  // Reading back
+  //
+  private int readIndex;
+  private RunReader[] readers;
+  private LoserTree<MergeRow> mergeTree;
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows to sort
+   * @param fieldnrs
+   *          the indexes of the sort keys
+   * @param rowComparator
+   *          compares the rows on the sort keys
+   * @param bufferSize
+   *          the size of the off-heap sort buffer in bytes
+   * @param compressFiles
+   *          compress the temporary files
+   * @param onlyPassingUniqueRows
+   *          remove the rows with duplicate keys from the temporary files
+   * @param tempFileProvider
+   *          creates the temporary files
+   */
+  public OffHeapSortBuffer( RowMetaInterface rowMeta, int[] fieldnrs, Comparator<Object[]> rowComparator,
+    int bufferSize, boolean compressFiles, boolean onlyPassingUniqueRows, TempFileProvider tempFileProvider ) {
+    this.rowMeta = rowMeta;
+    this.rowComparator = rowComparator;
+    this.normalizer = new SortKeyNormalizer( rowMeta, fieldnrs );
+    this.compressFiles = compressFiles;
+    this.onlyPassingUniqueRows = onlyPassingUniqueRows;
+    this.tempFileProvider = tempFileProvider;
+
+    this.buffer = ByteBuffer.allocateDirect( bufferSize );
+    this.capacity = bufferSize;
+    this.rowInputStream = new ByteBufferInputStream( buffer );
+    this.rowInput = new DataInputStream( rowInputStream );
+  }
+
+  /**
+   * Add a row to the sort buffer.
+   *
+   * @param row
+   *          the row to add, the sort keys have to be in native storage
+   * @return false if the row doesn't fit in the buffer anymore: the buffer needs to be spilled first
+   * @throws KettleException
+   *           in case the row can't be serialized or is larger than the whole buffer
+   */
+  public boolean addRow( Object[] row ) throws KettleException {
+    rowBytes.reset();
+    rowMeta.writeData( rowOutput, row );
+    int length = rowBytes.size();
+
+    if ( (long) recordsEnd + length + (long) ( nrRows + 1 ) * ENTRY_SIZE > capacity ) {
+      if ( nrRows == 0 ) {
+        throw new KettleException( "A row of " + length + " bytes doesn't fit in the sort buffer of " + capacity
+          + " bytes" );
+      }
+      return false;
+    }
+
+    buffer.put( recordsEnd, rowBytes.getBuffer(), 0, length );
+    normalizer.normalize( row, prefix );
+    int entry = entryPosition( nrRows );
+    buffer.put( entry, prefix );
+    buffer.putInt( entry + PREFIX_LENGTH, recordsEnd );
+    buffer.putInt( entry + PREFIX_LENGTH + 4, length );
+
+    recordsEnd += length;
+    nrRows++;
+    return true;
+  }
+
+  /**
+   * @return the number of rows in the sort buffer
+   */
+  public int getRowCount() {
+    return nrRows;
+  }
+
+  /**
+   * @return the number of sorted runs written to disk
+   */
+  public int getRunCount() {
+    return runs.size();
+  }
+
+  /**
+   * @return the temporary files with the sorted runs
+   */
+  public List<FileObject> getRuns() {
+    return runs;
+  }
+
+  /**
+   * Sort the rows in the buffer and write them to a new temporary file. The buffer is empty afterwards.
+   */
+  public void spill() throws KettleException {
+    if ( nrRows == 0 ) {
+      return;
+    }
+    sort();
+
+    FileObject fileObject = tempFileProvider.createTempFile();
+    runs.add( fileObject );
+
+    int written = 0;
+    try ( OutputStream outputStream = openOutputStream( fileObject ) ) {
+      for ( int i = 0; i < nrRows; i++ ) {
+        int entry = entryPosition( i );
+        if ( onlyPassingUniqueRows && i > 0 && hasSameKeys( i - 1, i ) ) {
+          continue;
+        }
+        int offset = buffer.getInt( entry + PREFIX_LENGTH );
+        int length = buffer.getInt( entry + PREFIX_LENGTH + 4 );
+        if ( copyBuffer.length < length ) {
+          copyBuffer = new byte[Math.max( length, copyBuffer.length * 2 )];
+        }
+        buffer.get( offset, copyBuffer, 0, length );
+        outputStream.write( copyBuffer, 0, length );
+        written++;
+      }
+    } catch ( IOException e ) {
+      throw new KettleException( "Error writing sorted rows to temp-file " + fileObject, e );
+    }
+    runSizes.add( written );
+
+    recordsEnd = 0;
+    nrRows = 0;
+  }
+
+  private boolean hasSameKeys( int index1, int index2 ) throws KettleException {
+    if ( compareEntries( index1, index2, false ) != 0 ) {
+      return false;
+    }
+    return normalizer.isExact() || rowComparator.compare( readRow( index1 ), readRow( index2 ) ) == 0;
+  }
+
+  private OutputStream openOutputStream( FileObject fileObject ) throws IOException {
+    OutputStream outputStream = KettleVFS.getOutputStream( fileObject, false );
+    if ( compressFiles ) {
+      return new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
+    } else {
+      return new BufferedOutputStream( outputStream, 500000 );
+    }
+  }
+
+  /**
+   * Sort the index entries in the buffer on the key prefixes. Rows with equal prefixes are put in order by comparing
+   * the rows themselves, unless the prefix holds all keys.
+   */
+  public void sort() throws KettleException {
+    if ( nrRows < 2 ) {
+      return;
+    }
+    sortEntries( 0, nrRows - 1 );
+
+    if ( !normalizer.isExact() ) {
+      int start = 0;
+      for ( int i = 1; i <= nrRows; i++ ) {
+        if ( i == nrRows || compareEntries( start, i, false ) != 0 ) {
+          if ( i - start > 1 ) {
+            sortTies( start, i );
+          }
+          start = i;
+        }
+      }
+    }
+  }
+
+  // The entries are already in input order, so a stable sort keeps the sort stable as a whole
+  //
+  private void sortTies( int start, int end ) throws KettleException {
+    int nrTies = end - start;
+    final Object[][] rows = new Object[nrTies][];
+    long[] locations = new long[nrTies];
+    Integer[] order = new Integer[nrTies];
+    for ( int i = 0; i < nrTies; i++ ) {
+      int entry = entryPosition( start + i );
+      rows[i] = readRow( start + i );
+      locations[i] = buffer.getLong( entry + PREFIX_LENGTH );
+      order[i] = i;
+    }
+    Arrays.sort( order, ( a, b ) -> rowComparator.compare( rows[a], rows[b] ) );
+    for ( int i = 0; i < nrTies; i++ ) {
+      buffer.putLong( entryPosition( start + i ) + PREFIX_LENGTH, locations[order[i]] );
+    }
+  }
+
+  private void sortEntries( int low, int high ) {
+    while ( high - low > INSERTION_SORT_THRESHOLD ) {
+      int middle = ( low + high ) >>> 1;
+      if ( compareEntries( middle, low, true ) < 0 ) {
+        swapEntries( middle, low );
+      }
+      if ( compareEntries( high, low, true ) < 0 ) {
+        swapEntries( high, low );
+      }
+      if ( compareEntries( high, middle, true ) < 0 ) {
+        swapEntries( high, middle );
+      }
+
+      int pivot = entryPosition( middle );
+      long pivotHigh = buffer.getLong( pivot );
+      long pivotLow = buffer.getLong( pivot + 8 );
+      int pivotOffset = buffer.getInt( pivot + PREFIX_LENGTH );
+
+      int i = low;
+      int j = high;
+      while ( i <= j ) {
+        while ( compareToPivot( i, pivotHigh, pivotLow, pivotOffset ) < 0 ) {
+          i++;
+        }
+        while ( compareToPivot( j, pivotHigh, pivotLow, pivotOffset ) > 0 ) {
+          j--;
+        }
+        if ( i <= j ) {
+          swapEntries( i, j );
+          i++;
+          j--;
+        }
+      }
+
+      // Recurse into the smaller part, loop over the larger one
+      //
+      if ( j - low < high - i ) {
+        sortEntries( low, j );
+        low = i;
+      } else {
+        sortEntries( i, high );
+        high = j;
+      }
+    }
+
+    for ( int i = low + 1; i <= high; i++ ) {
+      for ( int j = i; j > low && compareEntries( j, j - 1, true ) < 0; j-- ) {
+        swapEntries( j, j - 1 );
+      }
+    }
+  }
+
+  private int compareToPivot( int index, long pivotHigh, long pivotLow, int pivotOffset ) {
+    int entry = entryPosition( index );
+    int cmp = Long.compareUnsigned( buffer.getLong( entry ), pivotHigh );
+    if ( cmp == 0 ) {
+      cmp = Long.compareUnsigned( buffer.getLong( entry + 8 ), pivotLow );
+    }
+    if ( cmp == 0 ) {
+      cmp = Integer.compare( buffer.getInt( entry + PREFIX_LENGTH ), pivotOffset );
+    }
+    return cmp;
+  }
+
+  // Compare the prefixes of 2 entries and optionally the location of the rows to keep the input order
+  //
+  private int compareEntries( int index1, int index2, boolean stable ) {
+    int entry1 = entryPosition( index1 );
+    int entry2 = entryPosition( index2 );
+    int cmp = Long.compareUnsigned( buffer.getLong( entry1 ), buffer.getLong( entry2 ) );
+    if ( cmp == 0 ) {
+      cmp = Long.compareUnsigned( buffer.getLong( entry1 + 8 ), buffer.getLong( entry2 + 8 ) );
+    }
+    if ( cmp == 0 && stable ) {
+      cmp = Integer.compare( buffer.getInt( entry1 + PREFIX_LENGTH ), buffer.getInt( entry2 + PREFIX_LENGTH ) );
+    }
+    return cmp;
+  }
+
+  private void swapEntries( int index1, int index2 ) {
+    int entry1 = entryPosition( index1 );
+    int entry2 = entryPosition( index2 );
+    for ( int i = 0; i < ENTRY_SIZE; i += 8 ) {
+      long value = buffer.getLong( entry1 + i );
+      buffer.putLong( entry1 + i, buffer.getLong( entry2 + i ) );
+      buffer.putLong( entry2 + i, value );
+    }
+  }
+
+  private int entryPosition( int index ) {
+    return capacity - ( index + 1 ) * ENTRY_SIZE;
+  }
+
+  private Object[] readRow( int index ) throws KettleException {
+    int entry = entryPosition( index );
+    int offset = buffer.getInt( entry + PREFIX_LENGTH );
+    int length = buffer.getInt( entry + PREFIX_LENGTH + 4 );
+    rowInputStream.setWindow( offset, offset + length );
+    try {
+      return rowMeta.readData( rowInput );
+    } catch ( Exception e ) {
+      throw new KettleException( "Error reading a row from the sort buffer", e );
+    }
+  }
+
+  /**
+   * Prepare to read back the sorted rows: sort the buffer if all rows fit in memory, otherwise spill the remaining
+   * rows and start merging the runs.
+   */
+  public void startReading() throws KettleException {
+    readIndex = 0;
+    if ( runs.isEmpty() ) {
+      sort();
+      return;
+    }
+    spill();
+
+    readers = new RunReader[runs.size()];
+    MergeRow[] heads = new MergeRow[runs.size()];
+    for ( int i = 0; i < runs.size(); i++ ) {
+      readers[i] = new RunReader( runs.get( i ), runSizes.get( i ) );
+      heads[i] = readers[i].next();
+    }
+    mergeTree = new LoserTree<>( heads, this::compareMergeRows );
+  }
+
+  private int compareMergeRows( MergeRow row1, MergeRow row2 ) {
+    int cmp = SortKeyNormalizer.comparePrefixes( row1.prefix, row2.prefix );
+    if ( cmp != 0 || normalizer.isExact() ) {
+      return cmp;
+    }
+    return rowComparator.compare( row1.row, row2.row );
+  }
+
+  /**
+   * @return the next row in sort order or null if there are no more rows
+   */
+  public Object[] getRow() throws KettleException {
+    if ( mergeTree == null ) {
+      if ( readIndex < nrRows ) {
+        return readRow( readIndex++ );
+      }
+      return null;
+    }
+
+    int winner = mergeTree.getWinner();
+    if ( winner < 0 ) {
+      return null;
+    }
+    Object[] row = mergeTree.peek().row;
+    mergeTree.replaceWinner( readers[winner].next() );
+    return row;
+  }
+
+  /**
+   * Empty the buffer, close the runs and remove the temporary files.
+   */
+  public void clear() throws KettleException {
+    recordsEnd = 0;
+    nrRows = 0;
+    readIndex = 0;
+    mergeTree = null;
+
+    if ( readers != null ) {
+      for ( RunReader reader : readers ) {
+        reader.close();
+      }
+      readers = null;
+    }
+    try {
+      for ( FileObject run : runs ) {
+        if ( run.exists() ) {
+          run.delete();
+        }
+      }
+    } catch ( FileSystemException e ) {
+      throw new KettleException( "Unable to remove the sort temp-files", e );
+    } finally {
+      runs.clear();
+      runSizes.clear();
+    }
+  }
+
+  /**
+   * Clear the buffer and release the off-heap memory.
+   */
+  public void dispose() throws KettleException {
+    try {
+      clear();
+    } finally {
+      buffer = null;
+      rowInputStream.buffer = null;
+    }
+  }
+
+  /**
+   * The current row of a run with its key prefix. Each run reuses its own instance.
+   */
+  private class MergeRow {
+    private final byte[] prefix = new byte[PREFIX_LENGTH];
+    private Object[] row;
+  }
+
+  private class RunReader {
+    private final InputStream inputStream;
+    private final DataInputStream dataInputStream;
+    private final MergeRow current = new MergeRow();
+    private int remaining;
+
+    RunReader( FileObject fileObject, int nrRows ) throws KettleException {
+      try {
+        InputStream fileInputStream = KettleVFS.getInputStream( fileObject );
+        if ( compressFiles ) {
+          inputStream = new GZIPInputStream( new BufferedInputStream( fileInputStream ) );
+        } else {
+          inputStream = new BufferedInputStream( fileInputStream, 50000 );
+        }
+      } catch ( IOException e ) {
+        throw new KettleException( "Unable to open temp-file " + fileObject, e );
+      }
+      dataInputStream = new DataInputStream( inputStream );
+      remaining = nrRows;
+    }
+
+    MergeRow next() throws KettleException {
+      if ( remaining <= 0 ) {
+        close();
+        return null;
+      }
+      remaining--;
+      try {
+        current.row = rowMeta.readData( dataInputStream );
+      } catch ( Exception e ) {
+        throw new KettleException( "Error reading back a sorted temp-file", e );
+      }
+      normalizer.normalize( current.row, current.prefix );
+      return current;
+    }
+
+    void close() {
+      BaseStep.closeQuietly( dataInputStream );
+    }
+  }
+
+  /**
+   * Exposes the internal array to copy the serialized row without an extra copy.
+   */
+  private static class RowOutputStream extends ByteArrayOutputStream {
+    RowOutputStream() {
+      super( 1024 );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+
+  /**
+   * Reads a window of the sort buffer.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+    private ByteBuffer buffer;
+    private int position;
+    private int limit;
+
+    ByteBufferInputStream( ByteBuffer buffer ) {
+      this.buffer = buffer;
+    }
+
+    void setWindow( int start, int end ) {
+      position = start;
+      limit = end;
+    }
+
+    @Override
+    public int read() {
+      if ( position >= limit ) {
+        return -1;
+      }
+      return buffer.get( position++ ) & 0xff;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) {
+      if ( len == 0 ) {
+        return 0;
+      }
+      if ( position >= limit ) {
+        return -1;
+      }
+      int nrBytes = Math.min( len, limit - position );
+      buffer.get( position, b, off, nrBytes );
+      position += nrBytes;
+      return nrBytes;
+    }
+  }
+}
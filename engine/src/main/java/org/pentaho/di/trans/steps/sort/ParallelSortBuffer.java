@@ -0,0 +1,318 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.util.ExecutorUtil;
+
+/**
+ * Sorts rows with a number of worker threads. The rows are handed out to the workers in batches, round robin. Every
+ * worker serializes, sorts and spills its rows in its own {@link OffHeapSortBuffer}. When all rows are in, the workers
+ * finish their sort in parallel and the sorted streams of the workers are merged with a {@link LoserTree}.
+ *
+ * Every row gets its input sequence number in an extra field after the last field of the row metadata. The merge
+ * uses it to break ties between the workers, so the output is the same as the output of a stable single threaded
+ * sort. Steps ignore the values after the last field of the row metadata, so the extra field is passed on as is.
+ */
+public class ParallelSortBuffer {
+
+  private static final int BATCH_SIZE = 1000;
+  private static final int QUEUE_SIZE = 4;
+  private static final long POLL_MILLIS = 100L;
+
+  private static final Object[][] FLUSH = new Object[0][];
+  private static final Object[][] STOP = new Object[0][];
+
+  private final RowMetaInterface rowMeta;
+  private final int[] fieldnrs;
+  private final int sequenceIndex;
+  private final LogChannelInterface log;
+  private final Worker[] workers;
+
+  private Object[][] batch = new Object[BATCH_SIZE][];
+  private int batchSize;
+  private int nextWorker;
+  private long sequence;
+
+  private volatile CountDownLatch flushLatch;
+  private LoserTree<Object[]> mergeTree;
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows to sort
+   * @param fieldnrs
+   *          the indexes of the sort keys
+   * @param nrWorkers
+   *          the number of worker threads
+   * @param bufferSize
+   *          the total size of the off-heap sort buffers of the workers in bytes
+   * @param compressFiles
+   *          compress the temporary files
+   * @param onlyPassingUniqueRows
+   *          remove the rows with duplicate keys from the temporary files
+   * @param tempFileProvider
+   *          creates the temporary files, called by the worker threads
+   * @param log
+   *          the log channel of the step
+   */
+  public ParallelSortBuffer( RowMetaInterface rowMeta, int[] fieldnrs, int nrWorkers, int bufferSize,
+    boolean compressFiles, boolean onlyPassingUniqueRows, OffHeapSortBuffer.TempFileProvider tempFileProvider,
+    LogChannelInterface log ) {
+    this.sequenceIndex = rowMeta.size();
+    this.rowMeta = rowMeta.clone();
+    this.rowMeta.addValueMeta( new ValueMetaInteger( "sort_sequence" ) );
+    this.fieldnrs = fieldnrs;
+    this.log = log;
+
+    // Each worker sorts on the keys only: the sort is stable, so the rows with equal keys stay in sequence
+    //
+    workers = new Worker[nrWorkers];
+    for ( int i = 0; i < nrWorkers; i++ ) {
+      RowMetaInterface workerRowMeta = this.rowMeta.clone();
+      OffHeapSortBuffer buffer =
+        new OffHeapSortBuffer( workerRowMeta, fieldnrs, new KeyComparator( workerRowMeta, fieldnrs, log ),
+          bufferSize / nrWorkers, compressFiles, onlyPassingUniqueRows, tempFileProvider );
+      workers[i] = new Worker( buffer );
+    }
+    for ( Worker worker : workers ) {
+      worker.future = ExecutorUtil.getExecutor().submit( worker );
+    }
+  }
+
+  /**
+   * @return the number of worker threads
+   */
+  public int getWorkerCount() {
+    return workers.length;
+  }
+
+  /**
+   * Add a row to the sort. The row is handed to a worker as part of a batch.
+   *
+   * @param row
+   *          the row to add, the sort keys have to be in native storage
+   */
+  public void addRow( Object[] row ) throws KettleException {
+    row = RowDataUtil.resizeArray( row, sequenceIndex + 1 );
+    row[sequenceIndex] = sequence++;
+
+    batch[batchSize++] = row;
+    if ( batchSize == BATCH_SIZE ) {
+      dispatchBatch();
+    }
+  }
+
+  private void dispatchBatch() throws KettleException {
+    if ( batchSize == 0 ) {
+      return;
+    }
+    Object[][] rows = batchSize == BATCH_SIZE ? batch : Arrays.copyOf( batch, batchSize );
+    dispatch( workers[nextWorker], rows );
+    nextWorker = ( nextWorker + 1 ) % workers.length;
+
+    batch = new Object[BATCH_SIZE][];
+    batchSize = 0;
+  }
+
+  private void dispatch( Worker worker, Object[][] rows ) throws KettleException {
+    try {
+      while ( !worker.queue.offer( rows, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        checkWorkers();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while handing rows to a sort worker", e );
+    }
+  }
+
+  private void checkWorkers() throws KettleException {
+    for ( Worker worker : workers ) {
+      if ( worker.error != null ) {
+        throw new KettleException( "Error in sort worker", worker.error );
+      }
+    }
+  }
+
+  /**
+   * Let the workers finish their sort and start the merge of their sorted rows.
+   */
+  public void startReading() throws KettleException {
+    dispatchBatch();
+
+    flushLatch = new CountDownLatch( workers.length );
+    for ( Worker worker : workers ) {
+      dispatch( worker, FLUSH );
+    }
+    try {
+      while ( !flushLatch.await( POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        checkWorkers();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while waiting for the sort workers", e );
+    }
+    checkWorkers();
+
+    Object[][] heads = new Object[workers.length][];
+    for ( int i = 0; i < workers.length; i++ ) {
+      heads[i] = workers[i].buffer.getRow();
+    }
+    mergeTree = new LoserTree<>( heads, new SequenceComparator() );
+  }
+
+  /**
+   * @return the next row in sort order or null if there are no more rows
+   */
+  public Object[] getRow() throws KettleException {
+    int winner = mergeTree == null ? -1 : mergeTree.getWinner();
+    if ( winner < 0 ) {
+      return null;
+    }
+    Object[] row = mergeTree.peek();
+    mergeTree.replaceWinner( workers[winner].buffer.getRow() );
+    return row;
+  }
+
+  /**
+   * Empty the sort buffers of the workers. Only call this after the rows are read back.
+   */
+  public void clear() throws KettleException {
+    mergeTree = null;
+    batch = new Object[BATCH_SIZE][];
+    batchSize = 0;
+    nextWorker = 0;
+    sequence = 0L;
+    for ( Worker worker : workers ) {
+      worker.buffer.clear();
+    }
+  }
+
+  /**
+   * Stop the worker threads and release the sort buffers.
+   */
+  public void dispose() throws KettleException {
+    KettleException exception = null;
+    for ( Worker worker : workers ) {
+      // We're the only producer: after the clear there is room to stop
+      //
+      worker.queue.clear();
+      worker.queue.offer( STOP );
+    }
+    for ( Worker worker : workers ) {
+      try {
+        worker.future.get();
+      } catch ( Exception e ) {
+        log.logError( "Error stopping sort worker", e );
+      }
+      try {
+        worker.buffer.dispose();
+      } catch ( KettleException e ) {
+        exception = e;
+      }
+    }
+    if ( exception != null ) {
+      throw exception;
+    }
+  }
+
+  private class Worker implements Runnable {
+    private final BlockingQueue<Object[][]> queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+    private final OffHeapSortBuffer buffer;
+    private volatile Throwable error;
+    private Future<?> future;
+
+    Worker( OffHeapSortBuffer buffer ) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void run() {
+      try {
+        while ( true ) {
+          Object[][] rows = queue.take();
+          if ( rows == STOP ) {
+            return;
+          }
+          if ( rows == FLUSH ) {
+            buffer.startReading();
+            flushLatch.countDown();
+            continue;
+          }
+          for ( Object[] row : rows ) {
+            if ( !buffer.addRow( row ) ) {
+              buffer.spill();
+              buffer.addRow( row );
+            }
+          }
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      } catch ( Throwable e ) {
+        error = e;
+      }
+    }
+  }
+
+  private static class KeyComparator implements Comparator<Object[]> {
+    private final RowMetaInterface rowMeta;
+    private final int[] fieldnrs;
+    private final LogChannelInterface log;
+
+    KeyComparator( RowMetaInterface rowMeta, int[] fieldnrs, LogChannelInterface log ) {
+      this.rowMeta = rowMeta;
+      this.fieldnrs = fieldnrs;
+      this.log = log;
+    }
+
+    @Override
+    public int compare( Object[] o1, Object[] o2 ) {
+      try {
+        return rowMeta.compare( o1, o2, fieldnrs );
+      } catch ( KettleValueException e ) {
+        log.logError( "Error comparing rows: " + e.toString() );
+        return 0;
+      }
+    }
+  }
+
+  // Compare on the keys, then on the input sequence
+  //
+  private class SequenceComparator extends KeyComparator {
+    SequenceComparator() {
+      super( rowMeta, fieldnrs, log );
+    }
+
+    @Override
+    public int compare( Object[] o1, Object[] o2 ) {
+      int cmp = super.compare( o1, o2 );
+      if ( cmp == 0 ) {
+        cmp = Long.compare( (Long) o1[sequenceIndex], (Long) o2[sequenceIndex] );
+      }
+      return cmp;
+    }
+  }
+}
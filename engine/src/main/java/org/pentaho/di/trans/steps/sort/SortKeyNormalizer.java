@@ -0,0 +1,207 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Encodes the sort keys of a row into a fixed length, normalized binary prefix. Comparing two prefixes byte by byte
+ * (unsigned) gives the same order as {@link RowMetaInterface#compare(Object[], Object[], int[])} whenever the prefixes
+ * differ. Equal prefixes only mean equal keys if the normalizer is {@link #isExact() exact}, otherwise the rows have
+ * to be compared in full.
+ *
+ * Only the leading keys of a supported type are normalized: integers, numbers, dates, booleans and case sensitive
+ * strings without a collator. The first key of another type ends the prefix, as does the first string key since a
+ * string can't be encoded in a fixed number of bytes.
+ */
+public class SortKeyNormalizer {
+
+  /** The length of the normalized prefix in bytes */
+  public static final int PREFIX_LENGTH = 16;
+
+  private static final int LONG_KEY_LENGTH = 9;
+  private static final int BOOLEAN_KEY_LENGTH = 2;
+
+  private final ValueMetaInterface[] keyMetas;
+  private final int[] keyIndexes;
+  private final boolean exact;
+
+  public SortKeyNormalizer( RowMetaInterface rowMeta, int[] fieldnrs ) {
+    List<ValueMetaInterface> metas = new ArrayList<>();
+    int length = 0;
+    boolean allKeysFixed = true;
+    for ( int fieldnr : fieldnrs ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( fieldnr );
+      int keyLength = getKeyLength( valueMeta );
+      if ( keyLength == 0 ) {
+        allKeysFixed = false;
+        break;
+      }
+      metas.add( valueMeta );
+      if ( keyLength < 0 ) {
+        allKeysFixed = false;
+        break;
+      }
+      length += keyLength;
+    }
+    keyMetas = metas.toArray( new ValueMetaInterface[metas.size()] );
+    keyIndexes = Arrays.copyOf( fieldnrs, keyMetas.length );
+    exact = allKeysFixed && length <= PREFIX_LENGTH;
+  }
+
+  /**
+   * @return the number of bytes needed to encode the key, -1 for a variable length key or 0 if the key can't be
+   *         normalized.
+   */
+  private static int getKeyLength( ValueMetaInterface valueMeta ) {
+    // Only the standard value types: a plugin type could bring its own comparator
+    //
+    Class<?> valueMetaClass = valueMeta.getClass();
+    if ( valueMetaClass == ValueMetaInteger.class || valueMetaClass == ValueMetaNumber.class
+      || valueMetaClass == ValueMetaDate.class ) {
+      return LONG_KEY_LENGTH;
+    }
+    if ( valueMetaClass == ValueMetaBoolean.class ) {
+      return BOOLEAN_KEY_LENGTH;
+    }
+    if ( valueMetaClass == ValueMetaString.class && valueMeta.isCollatorDisabled() && !valueMeta.isCaseInsensitive() ) {
+      return -1;
+    }
+    return 0;
+  }
+
+  /**
+   * @return true if equal prefixes mean that all the sort keys are equal.
+   */
+  public boolean isExact() {
+    return exact;
+  }
+
+  /**
+   * @return true if at least one sort key is encoded in the prefix.
+   */
+  public boolean isUsed() {
+    return keyMetas.length > 0;
+  }
+
+  /**
+   * Encode the sort keys of the row.
+   *
+   * @param row
+   *          the row to encode
+   * @param prefix
+   *          the target of {@link #PREFIX_LENGTH} bytes
+   * @throws KettleValueException
+   *           in case a key value can't be converted
+   */
+  public void normalize( Object[] row, byte[] prefix ) throws KettleValueException {
+    Arrays.fill( prefix, (byte) 0 );
+    int position = 0;
+    for ( int i = 0; i < keyMetas.length && position < PREFIX_LENGTH; i++ ) {
+      ValueMetaInterface valueMeta = keyMetas[i];
+      Object value = row[keyIndexes[i]];
+      int start = position;
+
+      // Nulls sort before any other value: 0 for null, 1 for a value
+      //
+      boolean isNull = valueMeta.isNull( value );
+      position = putByte( prefix, position, isNull ? 0 : 1 );
+
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_STRING:
+          if ( !isNull ) {
+            String string = valueMeta.getString( value );
+            if ( valueMeta.isIgnoreWhitespace() ) {
+              string = string.trim();
+            }
+            // UTF-16 code units, big endian: the order of String.compareTo()
+            //
+            for ( int c = 0; c < string.length() && position < PREFIX_LENGTH; c++ ) {
+              char ch = string.charAt( c );
+              position = putByte( prefix, position, ch >>> 8 );
+              position = putByte( prefix, position, ch );
+            }
+          }
+          position = PREFIX_LENGTH;
+          break;
+        case ValueMetaInterface.TYPE_BOOLEAN:
+          if ( !isNull ) {
+            position = putByte( prefix, position, valueMeta.getBoolean( value ) ? 1 : 0 );
+          } else {
+            position++;
+          }
+          break;
+        default:
+          if ( !isNull ) {
+            position = putLong( prefix, position, getSortableLong( valueMeta, value ) );
+          } else {
+            position += 8;
+          }
+          break;
+      }
+
+      if ( valueMeta.isSortedDescending() ) {
+        for ( int p = start; p < Math.min( position, PREFIX_LENGTH ); p++ ) {
+          prefix[p] = (byte) ~prefix[p];
+        }
+      }
+    }
+  }
+
+  private static long getSortableLong( ValueMetaInterface valueMeta, Object value ) throws KettleValueException {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_NUMBER:
+        // Same order as Double.compare(): flip all bits of negative numbers, only the sign bit of positive ones
+        //
+        long bits = Double.doubleToLongBits( valueMeta.getNumber( value ) );
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+      case ValueMetaInterface.TYPE_DATE:
+        return valueMeta.getDate( value ).getTime() ^ Long.MIN_VALUE;
+      default:
+        return valueMeta.getInteger( value ) ^ Long.MIN_VALUE;
+    }
+  }
+
+  private static int putLong( byte[] prefix, int position, long value ) {
+    for ( int shift = 56; shift >= 0; shift -= 8 ) {
+      position = putByte( prefix, position, (int) ( value >>> shift ) );
+    }
+    return position;
+  }
+
+  private static int putByte( byte[] prefix, int position, int value ) {
+    if ( position < PREFIX_LENGTH ) {
+      prefix[position] = (byte) value;
+    }
+    return position + 1;
+  }
+
+  /**
+   * Compare two prefixes as unsigned bytes.
+   */
+  public static int comparePrefixes( byte[] prefix1, byte[] prefix2 ) {
+    return Arrays.compareUnsigned( prefix1, prefix2 );
+  }
+}
@@ -71,10 +71,31 @@ public class SortRows extends BaseStep implements StepInterface {
     if ( data.convertKeysToNative != null ) {
       for ( int i = 0; i < data.convertKeysToNative.length; i++ ) {
         int index = data.convertKeysToNative[i];
-        r[index] = rowMeta.getValueMeta( index ).convertBinaryStringToNativeType( (byte[]) r[index] );
+        r[index] = rowMeta.getValueMeta( index ).convertToNormalStorageType( r[index] );
       }
     }
 
+    // The sort workers of the parallel sort take care of the sort buffers
+    //
+    if ( data.parallelSortBuffer != null ) {
+      data.parallelSortBuffer.addRow( r );
+      return;
+    }
+
+    // The off-heap sort engine spills when its buffer is full, not based on the free memory
+    //
+    if ( data.offHeapSortBuffer != null ) {
+      if ( !data.offHeapSortBuffer.addRow( r ) ) {
+        if ( log.isDebug() ) {
+          logDebug( BaseMessages.getString( PKG, "SortRows.Debug.OffHeapBufferFull", data.offHeapSortBuffer
+              .getRowCount() ) );
+        }
+        data.offHeapSortBuffer.spill();
+        data.offHeapSortBuffer.addRow( r );
+      }
+      return;
+    }
+
     // Save row
     data.buffer.add( r );
 
@@ -128,9 +149,7 @@ public class SortRows extends BaseStep implements StepInterface {
     int p;
 
     try {
-      FileObject fileObject =
-          KettleVFS.getInstance( getTransMeta().getBowl() )
-            .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+      FileObject fileObject = createTempFile();
 
       data.files.add( fileObject ); // Remember the files!
       OutputStream outputStream = KettleVFS.getInstance( getTransMeta().getBowl() )
@@ -222,6 +241,11 @@ public class SortRows extends BaseStep implements StepInterface {
     data.getBufferIndex = 0;
   }
 
+  FileObject createTempFile() throws KettleException {
+    return KettleVFS.getInstance( getTransMeta().getBowl() )
+      .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+  }
+
   private DataInputStream getDataInputStream( GZIPInputStream gzipInputStream ) {
     DataInputStream result = new DataInputStream( gzipInputStream );
     data.gzis.add( gzipInputStream );
@@ -420,7 +444,9 @@ public class SortRows extends BaseStep implements StepInterface {
               meta.getFieldName()[i], getStepname() ) );
         }
         // do we need binary conversion for this type?
-        if ( inputRowMeta.getValueMeta( data.fieldnrs[i] ).isStorageBinaryString() ) {
+        if ( inputRowMeta.getValueMeta( data.fieldnrs[i] ).isStorageBinaryString()
+          || ( inputRowMeta.getValueMeta( data.fieldnrs[i] ).isStorageBinaryStringSlice()
+            && !data.outputRowMeta.getValueMeta( data.fieldnrs[i] ).isStorageBinaryStringSlice() ) ) {
           toConvert.add( data.fieldnrs[i] );
         }
       }
@@ -431,6 +457,19 @@ public class SortRows extends BaseStep implements StepInterface {
         i++;
       }
       data.rowComparator = new RowObjectArrayComparator( data.outputRowMeta, data.fieldnrs );
+
+      if ( meta.isParallelSort() ) {
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.StartingSortThreads", data.nrSortThreads ) );
+        }
+        data.parallelSortBuffer =
+            new ParallelSortBuffer( data.outputRowMeta, data.fieldnrs, data.nrSortThreads, data.sortBufferSize,
+                data.compressFiles, meta.isOnlyPassingUniqueRows(), this::createTempFile, log );
+      } else if ( meta.isOffHeapSort() ) {
+        data.offHeapSortBuffer =
+            new OffHeapSortBuffer( data.outputRowMeta, data.fieldnrs, data.rowComparator, data.sortBufferSize,
+                data.compressFiles, meta.isOnlyPassingUniqueRows(), this::createTempFile );
+      }
     } // end if first
 
     // it is not first row and it is null
@@ -490,7 +529,7 @@ public class SortRows extends BaseStep implements StepInterface {
   void passBuffer() throws KettleException {
     // Now we can start the output!
     //
-    Object[] r = getBuffer();
+    Object[] r = getSortedRow();
     Object[] previousRow = null;
 
     // log time spent for external merge (expected time consuming operation)
@@ -524,7 +563,7 @@ public class SortRows extends BaseStep implements StepInterface {
                                          // rowset(s).
       }
 
-      r = getBuffer();
+      r = getSortedRow();
     }
 
     if ( log.isDebug() && !data.files.isEmpty() ) {
@@ -536,6 +575,16 @@ public class SortRows extends BaseStep implements StepInterface {
     clearBuffers();
   }
 
+  private Object[] getSortedRow() throws KettleException {
+    if ( data.parallelSortBuffer != null ) {
+      return data.parallelSortBuffer.getRow();
+    }
+    if ( data.offHeapSortBuffer != null ) {
+      return data.offHeapSortBuffer.getRow();
+    }
+    return getBuffer();
+  }
+
   @Override
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (SortRowsMeta) smi;
@@ -559,6 +608,23 @@ public class SortRows extends BaseStep implements StepInterface {
       data.freeMemoryPctLimit = 25;
     }
 
+    if ( meta.isParallelSort() ) {
+      data.nrSortThreads = Const.toInt( environmentSubstitute( meta.getParallelSortThreads() ), -1 );
+      if ( data.nrSortThreads <= 0 ) {
+        data.nrSortThreads = Runtime.getRuntime().availableProcessors();
+      }
+    }
+
+    if ( meta.isOffHeapSort() || meta.isParallelSort() ) {
+      long bufferSizeMb =
+          Const.toLong( environmentSubstitute( meta.getSortBufferSize() ), SortRowsMeta.DEFAULT_SORT_BUFFER_SIZE_MB );
+      if ( bufferSizeMb <= 0 ) {
+        bufferSizeMb = SortRowsMeta.DEFAULT_SORT_BUFFER_SIZE_MB;
+      }
+      // A direct buffer is indexed by an int
+      data.sortBufferSize = (int) Math.min( bufferSizeMb * 1024 * 1024, Integer.MAX_VALUE - 8 );
+    }
+
     // In memory buffer
     //
     data.buffer = new ArrayList<Object[]>( 5000 );
@@ -578,7 +644,24 @@ public class SortRows extends BaseStep implements StepInterface {
 
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    // Stop the sort workers before the buffers are cleared
+    if ( data.parallelSortBuffer != null ) {
+      try {
+        data.parallelSortBuffer.dispose();
+      } catch ( KettleException e ) {
+        logError( e.getLocalizedMessage(), e );
+      }
+      data.parallelSortBuffer = null;
+    }
     clearBuffers();
+    if ( data.offHeapSortBuffer != null ) {
+      try {
+        data.offHeapSortBuffer.dispose();
+      } catch ( KettleException e ) {
+        logError( e.getLocalizedMessage(), e );
+      }
+      data.offHeapSortBuffer = null;
+    }
     super.dispose( smi, sdi );
   }
 
@@ -589,6 +672,21 @@ public class SortRows extends BaseStep implements StepInterface {
     data.getBufferIndex = 0;
     data.rowbuffer.clear();
 
+    if ( data.parallelSortBuffer != null ) {
+      try {
+        data.parallelSortBuffer.clear();
+      } catch ( KettleException e ) {
+        logError( e.getLocalizedMessage(), e );
+      }
+    }
+    if ( data.offHeapSortBuffer != null ) {
+      try {
+        data.offHeapSortBuffer.clear();
+      } catch ( KettleException e ) {
+        logError( e.getLocalizedMessage(), e );
+      }
+    }
+
     // close any open DataInputStream objects
     if ( ( data.dis != null ) && ( data.dis.size() > 0 ) ) {
       for ( DataInputStream dis : data.dis ) {
@@ -644,7 +742,13 @@ public class SortRows extends BaseStep implements StepInterface {
   }
 
   private void preSortBeforeFlush() throws KettleException {
-    if ( data.files.size() > 0 ) {
+    if ( data.parallelSortBuffer != null ) {
+      // let the workers finish and start merging their rows
+      data.parallelSortBuffer.startReading();
+    } else if ( data.offHeapSortBuffer != null ) {
+      // sort in memory or spill the last run and start the merge
+      data.offHeapSortBuffer.startReading();
+    } else if ( data.files.size() > 0 ) {
       // dump to dist and then read from disk
       sortExternalRows();
     } else {
@@ -60,6 +60,18 @@ public class SortRowsData extends BaseStepData implements StepDataInterface {
   public int freeMemoryPctLimit;
   public int memoryReporting;
 
+  /*
+   * Off-heap sort engine
+   */
+  public int sortBufferSize;
+  public OffHeapSortBuffer offHeapSortBuffer;
+
+  /*
+   * Parallel sort
+   */
+  public int nrSortThreads;
+  public ParallelSortBuffer parallelSortBuffer;
+
   /*
    * Group Fields Implementation heroic
    */
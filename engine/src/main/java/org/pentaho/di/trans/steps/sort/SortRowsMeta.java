@@ -58,6 +58,9 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
   private static final long serialVersionUID = -9075883720765645655L;
   private static Class<?> PKG = SortRowsMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The default size of the off-heap sort buffer in MB */
+  public static final int DEFAULT_SORT_BUFFER_SIZE_MB = 256;
+
   /** order by which fields? */
   @Injection( name = "NAME", group = "FIELDS" )
   private String[] fieldName;
@@ -113,6 +116,28 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * Use the off-heap sort engine: the sort keys are normalized into binary prefixes and the rows are kept in an
+   * off-heap buffer of a fixed size instead of on the heap
+   */
+  @Injection( name = "OFF_HEAP_SORT" )
+  private boolean offHeapSort;
+
+  /** The size of the off-heap sort buffer in MB, used instead of the sort size and the free memory limit */
+  @Injection( name = "SORT_BUFFER_SIZE_MB" )
+  private String sortBufferSize;
+
+  /**
+   * Sort with a number of worker threads and merge their sorted rows in the step. The workers use off-heap sort
+   * buffers, sharing the sort buffer size
+   */
+  @Injection( name = "PARALLEL_SORT" )
+  private boolean parallelSort;
+
+  /** The number of sort worker threads, the number of available processors if empty */
+  @Injection( name = "PARALLEL_SORT_THREADS" )
+  private String parallelSortThreads;
+
   public SortRowsMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -218,6 +243,10 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFiles = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compress" ) );
       compressFilesVariable = XMLHandler.getTagValue( stepnode, "compress_variable" );
       onlyPassingUniqueRows = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "unique_rows" ) );
+      offHeapSort = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "off_heap_sort" ) );
+      sortBufferSize = XMLHandler.getTagValue( stepnode, "sort_buffer_size" );
+      parallelSort = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel_sort" ) );
+      parallelSortThreads = XMLHandler.getTagValue( stepnode, "parallel_sort_threads" );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrfields = XMLHandler.countNodes( fields, "field" );
@@ -254,6 +283,10 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     compressFiles = false;
     compressFilesVariable = null;
     onlyPassingUniqueRows = false;
+    offHeapSort = false;
+    sortBufferSize = Integer.toString( DEFAULT_SORT_BUFFER_SIZE_MB );
+    parallelSort = false;
+    parallelSortThreads = null;
 
     int nrfields = 0;
 
@@ -284,6 +317,10 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress", compressFiles ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress_variable", compressFilesVariable ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "unique_rows", onlyPassingUniqueRows ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "off_heap_sort", offHeapSort ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "sort_buffer_size", sortBufferSize ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallel_sort", parallelSort ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "parallel_sort_threads", parallelSortThreads ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < fieldName.length; i++ ) {
@@ -314,6 +351,10 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       compressFilesVariable = rep.getStepAttributeString( id_step, "compress_variable" );
 
       onlyPassingUniqueRows = rep.getStepAttributeBoolean( id_step, "unique_rows" );
+      offHeapSort = rep.getStepAttributeBoolean( id_step, "off_heap_sort" );
+      sortBufferSize = rep.getStepAttributeString( id_step, "sort_buffer_size" );
+      parallelSort = rep.getStepAttributeBoolean( id_step, "parallel_sort" );
+      parallelSortThreads = rep.getStepAttributeString( id_step, "parallel_sort_threads" );
 
       int nrfields = rep.countNrStepAttributes( id_step, "field_name" );
 
@@ -366,6 +407,10 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       rep.saveStepAttribute( id_transformation, id_step, "compress", compressFiles );
       rep.saveStepAttribute( id_transformation, id_step, "compress_variable", compressFilesVariable );
       rep.saveStepAttribute( id_transformation, id_step, "unique_rows", onlyPassingUniqueRows );
+      rep.saveStepAttribute( id_transformation, id_step, "off_heap_sort", offHeapSort );
+      rep.saveStepAttribute( id_transformation, id_step, "sort_buffer_size", sortBufferSize );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_sort", parallelSort );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel_sort_threads", parallelSortThreads );
 
       for ( int i = 0; i < fieldName.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "field_name", fieldName[i] );
@@ -410,13 +455,21 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
         // Also see if lazy conversion is active on these key fields.
         // If so we want to automatically convert them to the normal storage type.
         // This will improve performance, see also: PDI-346
+        // Binary string slices of plain strings are kept: they are compared byte by byte without being decoded.
         //
-        valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
-        valueMeta.setStorageMetadata( null );
+        if ( !isSliceComparedAsIs( valueMeta ) ) {
+          valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+          valueMeta.setStorageMetadata( null );
+        }
       }
     }
   }
 
+  static boolean isSliceComparedAsIs( ValueMetaInterface valueMeta ) {
+    return valueMeta.isStorageBinaryStringSlice() && valueMeta.isString() && valueMeta.isCollatorDisabled()
+      && !valueMeta.isCaseInsensitive() && valueMeta.getTrimType() == ValueMetaInterface.TRIM_TYPE_NONE;
+  }
+
   @Override
   public void check( List<CheckResultInterface> remarks, TransMeta transMeta, StepMeta stepMeta, RowMetaInterface prev,
       String[] input, String[] output, RowMetaInterface info, VariableSpace space, Repository repository,
@@ -574,6 +627,66 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /**
+   * @return true if the off-heap sort engine is used
+   */
+  public boolean isOffHeapSort() {
+    return offHeapSort;
+  }
+
+  /**
+   * @param offHeapSort
+   *          true to use the off-heap sort engine
+   */
+  public void setOffHeapSort( boolean offHeapSort ) {
+    this.offHeapSort = offHeapSort;
+  }
+
+  /**
+   * @return the size of the off-heap sort buffer in MB
+   */
+  public String getSortBufferSize() {
+    return sortBufferSize;
+  }
+
+  /**
+   * @param sortBufferSize
+   *          the size of the off-heap sort buffer in MB
+   */
+  public void setSortBufferSize( String sortBufferSize ) {
+    this.sortBufferSize = sortBufferSize;
+  }
+
+  /**
+   * @return true if the rows are sorted by a number of worker threads
+   */
+  public boolean isParallelSort() {
+    return parallelSort;
+  }
+
+  /**
+   * @param parallelSort
+   *          true to sort the rows with a number of worker threads
+   */
+  public void setParallelSort( boolean parallelSort ) {
+    this.parallelSort = parallelSort;
+  }
+
+  /**
+   * @return the number of sort worker threads
+   */
+  public String getParallelSortThreads() {
+    return parallelSortThreads;
+  }
+
+  /**
+   * @param parallelSortThreads
+   *          the number of sort worker threads
+   */
+  public void setParallelSortThreads( String parallelSortThreads ) {
+    this.parallelSortThreads = parallelSortThreads;
+  }
+
   /**
    * @return the caseSensitive
    */
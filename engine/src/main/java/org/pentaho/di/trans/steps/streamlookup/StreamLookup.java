@@ -19,6 +19,8 @@ import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
+import org.pentaho.di.core.hash.ColumnarHashIndex;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -189,6 +191,16 @@ public class StreamLookup extends BaseStep implements StepInterface {
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
+
+        if ( meta.isMemoryPreservationActive() && meta.isUsingColumnarIndex() && !meta.isUsingSortedList()
+          && !meta.isUsingIntegerPair() ) {
+          if ( ColumnarHashIndex.isSupported( cacheKeyMeta ) ) {
+            data.columnarIndex = new ColumnarHashIndex( cacheKeyMeta, cacheValueMeta );
+            data.columnarValues = new Object[cacheValueMeta.size()];
+          } else {
+            logBasic( BaseMessages.getString( PKG, "StreamLookup.Log.ColumnarIndexNotSupported" ) );
+          }
+        }
       }
 
       Object[] keyData = new Object[keyNrs.length];
@@ -209,6 +221,18 @@ public class StreamLookup extends BaseStep implements StepInterface {
       rowData = getRowFrom( rowSet );
     }
 
+    if ( data.columnarIndex != null ) {
+      long bytes = data.columnarIndex.estimateMemory();
+      int entries = data.columnarIndex.getSize();
+      long bytesPerEntry = entries == 0 ? 0L : bytes / entries;
+      log.snap( Metrics.METRIC_STREAM_LOOKUP_INDEX_SIZE, entries );
+      log.snap( Metrics.METRIC_STREAM_LOOKUP_INDEX_BYTES_PER_ENTRY, bytesPerEntry );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "StreamLookup.Log.ColumnarIndexLoaded", entries, bytes,
+          bytesPerEntry ) );
+      }
+    }
+
     return true;
   }
 
@@ -238,7 +262,7 @@ public class StreamLookup extends BaseStep implements StepInterface {
       // If the input is binary storage data, we convert it to normal storage.
       //
       if ( data.convertKeysToNative[i] ) {
-        lu[i] = data.lookupMeta.getValueMeta( i ).convertBinaryStringToNativeType( (byte[]) row[data.keynrs[i]] );
+        lu[i] = data.lookupMeta.getValueMeta( i ).convertToNormalStorageType( row[data.keynrs[i]] );
       } else {
         lu[i] = row[data.keynrs[i]];
       }
@@ -311,6 +335,8 @@ public class StreamLookup extends BaseStep implements StepInterface {
           Long key = keyMeta.getInteger( keyData, 0 );
           Long value = valueMeta.getInteger( valueData, 0 );
           data.longIndex.put( key, value );
+        } else if ( data.columnarIndex != null ) {
+          data.columnarIndex.put( keyData, valueData );
         } else {
           if ( data.hashIndex == null ) {
             data.hashIndex = new ByteArrayHashIndex( keyMeta );
@@ -344,6 +370,13 @@ public class StreamLookup extends BaseStep implements StepInterface {
             return null;
           }
           return new Object[] { value, };
+        } else if ( data.columnarIndex != null ) {
+          // The values are copied into the output row, the array can be reused
+          int entry = data.columnarIndex.find( keyData );
+          if ( entry < 0 ) {
+            return null;
+          }
+          return data.columnarIndex.getValues( entry, data.columnarValues );
         } else {
           try {
             byte[] value = data.hashIndex.get( RowMeta.extractData( keyMeta, keyData ) );
@@ -422,7 +455,8 @@ public class StreamLookup extends BaseStep implements StepInterface {
         // If we have binary storage data coming in, we convert it to normal data storage.
         // The storage in the lookup data store is also normal data storage. TODO: enforce normal data storage??
         //
-        data.convertKeysToNative[i] = getInputRowMeta().getValueMeta( data.keynrs[i] ).isStorageBinaryString();
+        data.convertKeysToNative[i] = getInputRowMeta().getValueMeta( data.keynrs[i] ).isStorageBinaryString()
+          || getInputRowMeta().getValueMeta( data.keynrs[i] ).isStorageBinaryStringSlice();
       }
 
       data.outputRowMeta = getInputRowMeta().clone();
@@ -474,6 +508,8 @@ public class StreamLookup extends BaseStep implements StepInterface {
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    data.columnarIndex = null;
+    data.columnarValues = null;
 
     super.dispose( smi, sdi );
   }
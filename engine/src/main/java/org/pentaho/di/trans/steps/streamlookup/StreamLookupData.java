@@ -22,6 +22,7 @@ import java.util.Map;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
+import org.pentaho.di.core.hash.ColumnarHashIndex;
 import org.pentaho.di.core.hash.LongHashIndex;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -64,6 +65,10 @@ public class StreamLookupData extends BaseStepData implements StepDataInterface
 
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
+  public ColumnarHashIndex columnarIndex;
+
+  /** The values found in the columnar index, reused for every lookup */
+  public Object[] columnarValues;
 
   public RowMetaInterface lookupMeta;
 
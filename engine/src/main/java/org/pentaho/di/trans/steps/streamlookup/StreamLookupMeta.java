@@ -94,6 +94,10 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
   @Injection( name = "INTEGER_PAIR" )
   private boolean usingIntegerPair;
 
+  /** Store the keys and values in columns of primitive arrays */
+  @Injection( name = "COLUMNAR_INDEX" )
+  private boolean usingColumnarIndex;
+
   public StreamLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -156,6 +160,7 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserve_memory" ) ) );
       setUsingSortedList( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "sorted_list" ) ) );
       setUsingIntegerPair( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "integer_pair" ) ) );
+      setUsingColumnarIndex( "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "columnar_index" ) ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrkeys = XMLHandler.countNodes( lookup, "key" );
@@ -204,6 +209,7 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     setMemoryPreservationActive( true );
     setUsingSortedList( false );
     setUsingIntegerPair( false );
+    setUsingColumnarIndex( false );
 
     allocate( 0, 0 );
   }
@@ -247,6 +253,7 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     retval.append( "    " ).append( XMLHandler.addTagValue( "preserve_memory", isMemoryPreservationActive() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "sorted_list", isUsingSortedList() ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "integer_pair", isUsingIntegerPair() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "columnar_index", isUsingColumnarIndex() ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
     for ( int i = 0; i < getKeystream().length; i++ ) {
@@ -281,6 +288,7 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       setMemoryPreservationActive( rep.getStepAttributeBoolean( id_step, "preserve_memory" ) );
       setUsingSortedList( rep.getStepAttributeBoolean( id_step, "sorted_list" ) );
       setUsingIntegerPair( rep.getStepAttributeBoolean( id_step, "integer_pair" ) );
+      setUsingColumnarIndex( rep.getStepAttributeBoolean( id_step, "columnar_index" ) );
 
       int nrkeys = rep.countNrStepAttributes( id_step, "lookup_key_name" );
       int nrvalues = rep.countNrStepAttributes( id_step, "return_value_name" );
@@ -318,6 +326,7 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
       rep.saveStepAttribute( id_transformation, id_step, "preserve_memory", isMemoryPreservationActive() );
       rep.saveStepAttribute( id_transformation, id_step, "sorted_list", isUsingSortedList() );
       rep.saveStepAttribute( id_transformation, id_step, "integer_pair", isUsingIntegerPair() );
+      rep.saveStepAttribute( id_transformation, id_step, "columnar_index", isUsingColumnarIndex() );
 
       for ( int i = 0; i < getKeystream().length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "lookup_key_name", getKeystream()[i] );
@@ -660,6 +669,21 @@ public class StreamLookupMeta extends BaseStepMeta implements StepMetaInterface
     this.usingIntegerPair = usingIntegerPair;
   }
 
+  /**
+   * @return true if the keys and values are stored in columns of primitive arrays
+   */
+  public boolean isUsingColumnarIndex() {
+    return usingColumnarIndex;
+  }
+
+  /**
+   * @param usingColumnarIndex
+   *          true to store the keys and values in columns of primitive arrays
+   */
+  public void setUsingColumnarIndex( boolean usingColumnarIndex ) {
+    this.usingColumnarIndex = usingColumnarIndex;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -17,6 +17,7 @@ import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.database.BulkLoadTransport;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseInterface;
 import org.pentaho.di.core.exception.KettleDatabaseBatchException;
@@ -116,6 +117,12 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           }
         }
       }
+
+      if ( data.bulkLoadTransport != null
+        && !data.bulkLoadTransport.canLoad( data.db.getConnection(), data.insertRowMeta ) ) {
+        logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadNotAvailable" ) );
+        data.bulkLoadTransport = null;
+      }
     }
 
     try {
@@ -236,6 +243,11 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       throw new KettleStepException( "The tablename is not defined (empty)" );
     }
 
+    if ( data.bulkLoadTransport != null ) {
+      writeToBulkLoad( tableName, insertRowData );
+      return outputRowData;
+    }
+
     insertStatement = data.preparedStatements.get( tableName );
     if ( insertStatement == null ) {
       String sql =
@@ -424,6 +436,61 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     return outputRowData;
   }
 
+  /**
+   * Streams a row with the bulk load transport of the database. The load is finished and committed every commit size
+   * rows.
+   */
+  private void writeToBulkLoad( String tableName, Object[] insertRowData ) throws KettleException {
+    try {
+      if ( data.bulkLoad == null ) {
+        data.bulkLoad =
+          data.bulkLoadTransport.start( data.db.getConnection(), data.databaseMeta,
+            environmentSubstitute( meta.getSchemaName() ), tableName, data.insertRowMeta );
+      }
+      data.bulkLoad.addRow( insertRowData );
+      if ( isRowLevel() ) {
+        logRowlevel( "Written row: " + data.insertRowMeta.getString( insertRowData ) );
+      }
+
+      data.bulkLoadCounter++;
+      if ( data.bulkLoadCounter >= data.commitSize ) {
+        finishBulkLoad( tableName );
+      }
+    } catch ( KettleDatabaseException dbe ) {
+      setErrors( getErrors() + 1 );
+      cancelBulkLoad();
+      data.db.rollback();
+      throw new KettleException( "Error bulk loading rows into table [" + tableName + "]", dbe );
+    }
+  }
+
+  private void finishBulkLoad( String tableName ) throws KettleDatabaseException {
+    BulkLoadTransport.BulkLoad bulkLoad = data.bulkLoad;
+    data.bulkLoad = null;
+    data.bulkLoadCounter = 0;
+
+    long nrRows;
+    try {
+      nrRows = bulkLoad.finish();
+    } catch ( KettleDatabaseException e ) {
+      // End the load so that the connection can be rolled back
+      bulkLoad.cancel();
+      throw e;
+    }
+    data.db.commit();
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadFinished", nrRows, tableName ) );
+    }
+  }
+
+  private void cancelBulkLoad() {
+    if ( data.bulkLoad != null ) {
+      data.bulkLoad.cancel();
+      data.bulkLoad = null;
+      data.bulkLoadCounter = 0;
+    }
+  }
+
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
@@ -506,6 +573,19 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           throw new KettleException( dbInterface.getUnsupportedTableOutputMessage() );
         }
 
+        // The rows of a bulk load go to a single table, with no way to tell which one failed
+        if ( meta.useBulkLoad() ) {
+          if ( meta.isTableNameInField() || meta.isPartitioningEnabled() || meta.isReturningGeneratedKeys()
+            || meta.ignoreErrors() || getStepMeta().isDoingErrorHandling() ) {
+            logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadNotUsed" ) );
+          } else {
+            data.bulkLoadTransport = dbInterface.getBulkLoadTransport();
+            if ( data.bulkLoadTransport == null ) {
+              logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadNotAvailable" ) );
+            }
+          }
+        }
+
         if ( log.isBasic() ) {
           logBasic( "Connected to database [" + meta.getDatabaseMeta() + "] (commit=" + data.commitSize + ")" );
         }
@@ -554,6 +634,13 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
 
     if ( data.db != null ) {
       try {
+        if ( data.bulkLoad != null ) {
+          if ( getErrors() == 0 ) {
+            finishBulkLoad( data.tableName );
+          } else {
+            cancelBulkLoad();
+          }
+        }
         for ( String schemaTable : data.preparedStatements.keySet() ) {
           // Get a commit counter per prepared statement to keep track of separate tables, etc.
           //
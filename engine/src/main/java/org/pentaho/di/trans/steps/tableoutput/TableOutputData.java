@@ -22,6 +22,7 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 
+import org.pentaho.di.core.database.BulkLoadTransport;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -69,6 +70,15 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
   public int commitSize;
 
+  /** The bulk load transport of the database, null if the rows are inserted one by one */
+  public BulkLoadTransport bulkLoadTransport;
+
+  /** The bulk load in progress, null until the next row after a commit */
+  public BulkLoadTransport.BulkLoad bulkLoad;
+
+  /** The number of rows in the bulk load in progress */
+  public int bulkLoadCounter;
+
   public TableOutputData() {
     super();
 
@@ -99,6 +99,14 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
   }
   private boolean useBatchUpdate;
 
+  /**
+   * Stream the rows with the bulk load transport of the database, if it has one
+   */
+  @Injection( name = "USE_BULK_LOAD" )
+  public void metaSetUseBulkLoad( String value ) {
+    setUseBulkLoad( "Y".equalsIgnoreCase( value ) );
+  }
+  private boolean useBulkLoad;
 
   @Injection( name = "PARTITION_OVER_TABLES" )
   public void metaSetPartitionOverTables( String value ) {
@@ -438,6 +446,20 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     return useBatchUpdate;
   }
 
+  /**
+   * @param useBulkLoad The useBulkLoad flag to set.
+   */
+  public void setUseBulkLoad( boolean useBulkLoad ) {
+    this.useBulkLoad = useBulkLoad;
+  }
+
+  /**
+   * @return Returns the useBulkLoad flag.
+   */
+  public boolean useBulkLoad() {
+    return useBulkLoad;
+  }
+
   private void readData( Node stepnode, List<DatabaseMeta> databases ) throws KettleXMLException {
     try {
       String con = XMLHandler.getTagValue( stepnode, "connection" );
@@ -448,6 +470,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "truncate" ) );
       ignoreErrors = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ignore_errors" ) );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_batch" ) );
+      useBulkLoad = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_bulk_load" ) );
 
       // If not present it will be false to be compatible with pre-v3.2
       specifyFields = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "specify_fields" ) );
@@ -506,6 +529,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     retval.append( "    " + XMLHandler.addTagValue( "truncate", truncateTable ) );
     retval.append( "    " + XMLHandler.addTagValue( "ignore_errors", ignoreErrors ) );
     retval.append( "    " + XMLHandler.addTagValue( "use_batch", useBatchUpdate ) );
+    retval.append( "    " + XMLHandler.addTagValue( "use_bulk_load", useBulkLoad ) );
     retval.append( "    " + XMLHandler.addTagValue( "specify_fields", specifyFields ) );
 
     retval.append( "    " + XMLHandler.addTagValue( "partitioning_enabled", partitioningEnabled ) );
@@ -543,6 +567,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       truncateTable = rep.getStepAttributeBoolean( id_step, "truncate" );
       ignoreErrors = rep.getStepAttributeBoolean( id_step, "ignore_errors" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "use_batch" );
+      useBulkLoad = rep.getStepAttributeBoolean( id_step, "use_bulk_load" );
       specifyFields = rep.getStepAttributeBoolean( id_step, "specify_fields" );
 
       partitioningEnabled = rep.getStepAttributeBoolean( id_step, "partitioning_enabled" );
@@ -582,6 +607,7 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "truncate", truncateTable );
       rep.saveStepAttribute( id_transformation, id_step, "ignore_errors", ignoreErrors );
       rep.saveStepAttribute( id_transformation, id_step, "use_batch", useBatchUpdate );
+      rep.saveStepAttribute( id_transformation, id_step, "use_bulk_load", useBulkLoad );
       rep.saveStepAttribute( id_transformation, id_step, "specify_fields", specifyFields );
 
       rep.saveStepAttribute( id_transformation, id_step, "partitioning_enabled", partitioningEnabled );
@@ -0,0 +1,170 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.textfileoutput;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A buffered stream that hands its full buffers over to an {@link AsyncOutputWriter}: the writer thread writes them to
+ * the underlying (compression) stream while the step fills the next buffer. The buffers are reused once written. When
+ * all of them wait to be written the step waits too, so a slow disk slows the step down instead of filling the
+ * memory.<br>
+ * <br>
+ * Flushing and closing the stream hand the flush and close over to the writer thread as well: they don't wait.
+ */
+public class AsyncBufferedOutputStream extends BufferedOutputStream {
+
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_NR_BUFFERS = 4;
+
+  private final AsyncOutputWriter writer;
+  private final Closeable[] alsoClose;
+  private final int bufferSize;
+  private final int nrBuffers;
+  private final BlockingQueue<byte[]> freeBuffers;
+  private int nrAllocated;
+  private boolean closed;
+
+  /**
+   * @param out
+   *          the stream the writer thread writes to
+   * @param writer
+   *          the writer thread
+   * @param bufferSize
+   *          the size of a buffer
+   * @param nrBuffers
+   *          the number of buffers, the one being filled included
+   * @param alsoClose
+   *          the streams the writer thread closes after the underlying stream, when this one is closed
+   */
+  public AsyncBufferedOutputStream( OutputStream out, AsyncOutputWriter writer, int bufferSize, int nrBuffers,
+    Closeable... alsoClose ) {
+    super( out, bufferSize );
+    this.writer = writer;
+    this.alsoClose = alsoClose;
+    this.bufferSize = bufferSize;
+    this.nrBuffers = Math.max( 2, nrBuffers );
+    this.freeBuffers = new ArrayBlockingQueue<>( this.nrBuffers );
+    this.nrAllocated = 1;
+  }
+
+  @Override
+  public void write( int b ) throws IOException {
+    if ( count >= buf.length ) {
+      handOver();
+    }
+    buf[ count++ ] = (byte) b;
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    while ( len > 0 ) {
+      if ( count >= buf.length ) {
+        handOver();
+      }
+      int n = Math.min( len, buf.length - count );
+      System.arraycopy( b, off, buf, count, n );
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Hands the buffered bytes and a flush of the underlying stream over to the writer thread.
+   */
+  @Override
+  public void flush() throws IOException {
+    handOver();
+    writer.submit( out::flush );
+  }
+
+  /**
+   * Hands the buffered bytes and the close of the underlying streams over to the writer thread. The streams are closed
+   * after an error of the writer thread as well, the error is thrown once the close is handed over.
+   */
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    final OutputStream target = out;
+    try {
+      handOver();
+    } finally {
+      try {
+        writer.submit( () -> closeStreams( target ) );
+      } catch ( RejectedExecutionException e ) {
+        // The writer thread is stopped already
+        closeStreams( target );
+      }
+    }
+  }
+
+  private void closeStreams( OutputStream target ) throws IOException {
+    try {
+      target.close();
+    } finally {
+      for ( Closeable closeable : alsoClose ) {
+        closeable.close();
+      }
+    }
+  }
+
+  private void handOver() throws IOException {
+    writer.checkError();
+    if ( count == 0 ) {
+      return;
+    }
+    final byte[] full = buf;
+    final int length = count;
+    final OutputStream target = out;
+    writer.submit( () -> {
+      try {
+        target.write( full, 0, length );
+      } finally {
+        freeBuffers.offer( full );
+      }
+    } );
+    buf = takeFreeBuffer();
+    count = 0;
+  }
+
+  private byte[] takeFreeBuffer() throws IOException {
+    byte[] buffer = freeBuffers.poll();
+    if ( buffer != null ) {
+      return buffer;
+    }
+    if ( nrAllocated < nrBuffers ) {
+      nrAllocated++;
+      return new byte[ bufferSize ];
+    }
+    try {
+      // All the buffers are waiting to be written
+      return freeBuffers.take();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while waiting for a buffer to be written" );
+    }
+  }
+}
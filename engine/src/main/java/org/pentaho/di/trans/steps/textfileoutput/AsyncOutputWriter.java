@@ -0,0 +1,121 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.textfileoutput;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The thread that compresses and writes the files of a step, in the order the step hands over the writes, see
+ * {@link AsyncBufferedOutputStream}. The step goes on formatting rows in the meantime. An error of the thread is thrown
+ * to the step at its next write or when it waits for the writes to finish.
+ */
+public class AsyncOutputWriter {
+
+  /**
+   * A write, flush or close run by the writer thread.
+   */
+  interface Task {
+    void run() throws IOException;
+  }
+
+  private final ExecutorService executor;
+
+  private volatile IOException error;
+
+  /**
+   * @param name
+   *          the name of the writer thread
+   */
+  public AsyncOutputWriter( final String name ) {
+    executor = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = new Thread( runnable, name );
+      thread.setDaemon( true );
+      return thread;
+    } );
+  }
+
+  /**
+   * Hands a task over to the writer thread. The tasks run one after the other, in the order they are handed over.
+   */
+  void submit( final Task task ) {
+    executor.execute( () -> {
+      try {
+        task.run();
+      } catch ( IOException e ) {
+        setError( e );
+      } catch ( RuntimeException e ) {
+        setError( new IOException( e ) );
+      }
+    } );
+  }
+
+  private synchronized void setError( IOException e ) {
+    if ( error == null ) {
+      error = e;
+    }
+  }
+
+  /**
+   * @throws IOException
+   *           the first error of the writer thread, if any
+   */
+  public void checkError() throws IOException {
+    if ( error != null ) {
+      throw new IOException( "Error writing a file in the writer thread", error );
+    }
+  }
+
+  /**
+   * Waits until all the tasks handed over so far are done.
+   *
+   * @throws IOException
+   *           the first error of the writer thread, if any
+   */
+  public void waitUntilWritten() throws IOException {
+    try {
+      executor.submit( () -> { } ).get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while waiting for the files to be written" );
+    } catch ( ExecutionException e ) {
+      throw new IOException( e.getCause() );
+    }
+    checkError();
+  }
+
+  /**
+   * Waits for the tasks handed over so far and stops the writer thread.
+   *
+   * @throws IOException
+   *           the first error of the writer thread, if any
+   */
+  public void shutdown() throws IOException {
+    executor.shutdown();
+    try {
+      while ( !executor.awaitTermination( 1, TimeUnit.SECONDS ) ) {
+        // Still writing
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+      throw new InterruptedIOException( "Interrupted while waiting for the files to be written" );
+    }
+    checkError();
+  }
+}
@@ -37,6 +37,7 @@ import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.fileinput.CharsetToolkit;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.BinaryStringSlice;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.vfs.KettleVFS;
@@ -191,7 +192,8 @@ public class TextFileOutput extends BaseStep implements StepInterface {
             }
           }
 
-          BufferedOutputStream bufferedOutputStream = new BufferedOutputStream( compressionOutputStream, 5000 );
+          BufferedOutputStream bufferedOutputStream =
+            createBufferedOutputStream( compressionOutputStream, fileOutputStream );
 
           fileStreams = data.new FileStream( fileOutputStream, compressionOutputStream, bufferedOutputStream );
 
@@ -211,7 +213,8 @@ public class TextFileOutput extends BaseStep implements StepInterface {
           CompressionProvider compressionProvider = getCompressionProvider();
           CompressionOutputStream compressionOutputStream = compressionProvider.createOutputStream( fileOutputStream );
           compressionOutputStream.addEntry( filename, environmentSubstitute( meta.getExtension() ) );
-          BufferedOutputStream bufferedOutputStream = new BufferedOutputStream( compressionOutputStream, 5000 );
+          BufferedOutputStream bufferedOutputStream =
+            createBufferedOutputStream( compressionOutputStream, fileOutputStream );
 
           fileStreams.setFileOutputStream( fileOutputStream );
           fileStreams.setCompressedOutputStream( compressionOutputStream );
@@ -237,6 +240,20 @@ public class TextFileOutput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * @return the stream the rows are written to: when writing asynchronously, it hands the bytes over to the writer
+   *         thread that compresses and writes them
+   */
+  private BufferedOutputStream createBufferedOutputStream( CompressionOutputStream compressionOutputStream,
+    OutputStream fileOutputStream ) {
+    if ( data.asyncWriter != null ) {
+      return new AsyncBufferedOutputStream( compressionOutputStream, data.asyncWriter,
+        AsyncBufferedOutputStream.DEFAULT_BUFFER_SIZE, AsyncBufferedOutputStream.DEFAULT_NR_BUFFERS,
+        fileOutputStream );
+    }
+    return new BufferedOutputStream( compressionOutputStream, 5000 );
+  }
+
   public String getOutputFileName( Object[] row ) throws KettleException {
     String filename = null;
     if ( row == null ) {
@@ -422,6 +439,9 @@ public class TextFileOutput extends BaseStep implements StepInterface {
 
   public void flushOpenFiles( boolean closeAfterFlush ) throws IOException {
     data.getFileStreamsCollection().flushOpenFiles( true );
+    if ( data.asyncWriter != null ) {
+      data.asyncWriter.waitUntilWritten();
+    }
   }
 
   public synchronized boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
@@ -505,6 +525,11 @@ public class TextFileOutput extends BaseStep implements StepInterface {
     }
   }
 
+  private boolean isSliceWrittenAsIs( ValueMetaInterface v ) {
+    return v.isString() && v.isStorageBinaryStringSlice() && v.getTrimType() == ValueMetaInterface.TRIM_TYPE_NONE
+      && v.getLength() < 0 && Utils.isEmpty( v.getStringEncoding() );
+  }
+
   private byte[] formatField( ValueMetaInterface v, Object valueData ) throws KettleValueException {
     if ( v.isString() ) {
       if ( v.isStorageBinaryString() && v.getTrimType() == ValueMetaInterface.TRIM_TYPE_NONE && v.getLength() < 0
@@ -610,7 +635,16 @@ public class TextFileOutput extends BaseStep implements StepInterface {
       if ( nullString != null && v.isNull( valueData ) ) {
         str = nullString;
       } else {
-        if ( meta.isFastDump() ) {
+        if ( valueData instanceof BinaryStringSlice && ( meta.isFastDump() || isSliceWrittenAsIs( v ) ) ) {
+          // Write the slice straight from the buffer it is part of, unless the enclosures have to be doubled
+          //
+          BinaryStringSlice slice = (BinaryStringSlice) valueData;
+          if ( !isWriteEnclosureForWriteField( slice ) ) {
+            slice.writeTo( data.writer );
+            return;
+          }
+          str = slice.toByteArray();
+        } else if ( meta.isFastDump() ) {
           if ( valueData instanceof byte[] ) {
             str = (byte[]) valueData;
           } else {
@@ -813,6 +847,9 @@ public class TextFileOutput extends BaseStep implements StepInterface {
 
     if ( super.init( smi, sdi ) ) {
       data.splitnr = 0;
+      if ( meta.isAsyncWrite() && !meta.isServletOutput() ) {
+        data.asyncWriter = new AsyncOutputWriter( getStepname() + "." + getCopy() + " writer" );
+      }
       // In case user want to create file at first row
       // In that case, DO NOT create file at Init
       if ( !meta.isDoNotOpenNewFileInit() && !meta.isFileNameInField() ) {
@@ -904,9 +941,20 @@ public class TextFileOutput extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Closes the open files and stops the writer thread. Every file is closed, the first error is thrown afterwards.
+   */
   protected void close() throws IOException {
-    if ( !meta.isServletOutput() ) {
-      data.getFileStreamsCollection().flushOpenFiles( true );
+    try {
+      if ( !meta.isServletOutput() ) {
+        data.getFileStreamsCollection().flushOpenFiles( true );
+      }
+    } finally {
+      if ( data.asyncWriter != null ) {
+        AsyncOutputWriter asyncWriter = data.asyncWriter;
+        data.asyncWriter = null;
+        asyncWriter.shutdown();
+      }
     }
   }
 
@@ -928,6 +976,10 @@ public class TextFileOutput extends BaseStep implements StepInterface {
   }
 
   public boolean containsSeparatorOrEnclosure( byte[] source, byte[] separator, byte[] enclosure ) {
+    return containsSeparatorOrEnclosure( source, 0, source.length, separator, enclosure );
+  }
+
+  boolean containsSeparatorOrEnclosure( byte[] source, int from, int to, byte[] separator, byte[] enclosure ) {
     boolean result = false;
 
     boolean enclosureExists = enclosure != null && enclosure.length > 0;
@@ -937,11 +989,11 @@ public class TextFileOutput extends BaseStep implements StepInterface {
     if ( separatorExists || enclosureExists ) {
 
       // Search for the first occurrence of the separator or enclosure
-      for ( int index = 0; !result && index < source.length; index++ ) {
+      for ( int index = from; !result && index < to; index++ ) {
         if ( enclosureExists && source[index] == enclosure[0] ) {
 
           // Potential match found, make sure there are enough bytes to support a full match
-          if ( index + enclosure.length <= source.length ) {
+          if ( index + enclosure.length <= to ) {
             // First byte of enclosure found
             result = true; // Assume match
             for ( int i = 1; i < enclosure.length; i++ ) {
@@ -956,7 +1008,7 @@ public class TextFileOutput extends BaseStep implements StepInterface {
         } else if ( separatorExists && source[index] == separator[0] ) {
 
           // Potential match found, make sure there are enough bytes to support a full match
-          if ( index + separator.length <= source.length ) {
+          if ( index + separator.length <= to ) {
             // First byte of separator found
             result = true; // Assume match
             for ( int i = 1; i < separator.length; i++ ) {
@@ -1041,6 +1093,12 @@ public class TextFileOutput extends BaseStep implements StepInterface {
             || isEnclosureFixDisabledAndContainsSeparatorOrEnclosure( str );
   }
 
+  boolean isWriteEnclosureForWriteField( BinaryStringSlice slice ) {
+    return ( meta.isEnclosureForced() && !meta.isPadded() )
+            || ( !meta.isEnclosureFixDisabled() && containsSeparatorOrEnclosure( slice.getBuffer(), slice.getOffset(),
+              slice.getOffset() + slice.getLength(), data.binarySeparator, data.binaryEnclosure ) );
+  }
+
   /**
    * @return writeEnclosure based on TextFileOutputMeta, TextFileOutputData and ValueMetaInterface values
    */
@@ -114,13 +114,28 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
       }
     }
 
+    /**
+     * Closes the streams of the file. They are all closed, and the file is no longer open, even when closing one of
+     * them fails.
+     */
     public void close() throws IOException {
+      BufferedOutputStream outputStream = getBufferedOutputStream();
+      CompressionOutputStream compressionOutputStream = getCompressedOutputStream();
+      OutputStream outputFileStream = getFileOutputStream();
       setBufferedOutputStream( null );
-      getCompressedOutputStream().close();
       setCompressedOutputStream( null );
-      getFileOutputStream().close();
       setFileOutputStream( null );
       isDirty = false;
+      if ( outputStream instanceof AsyncBufferedOutputStream ) {
+        // The writer thread closes the compressed and file streams once the buffered bytes are written
+        outputStream.close();
+      } else {
+        try {
+          compressionOutputStream.close();
+        } finally {
+          outputFileStream.close();
+        }
+      }
     }
 
     public boolean isOpen() {
@@ -152,6 +167,42 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
     }
   }
 
+  /**
+   * Flushes a file, keeping the first error so that the other files are still flushed and closed.
+   *
+   * @return the first error so far
+   */
+  private static IOException flushKeepingError( FileStream fileStream, IOException error ) {
+    try {
+      fileStream.flush();
+    } catch ( IOException e ) {
+      return keepFirstError( error, e );
+    }
+    return error;
+  }
+
+  /**
+   * Closes a file, keeping the first error so that the other files are still flushed and closed.
+   *
+   * @return the first error so far
+   */
+  private static IOException closeKeepingError( FileStream fileStream, IOException error ) {
+    try {
+      fileStream.close();
+    } catch ( IOException e ) {
+      return keepFirstError( error, e );
+    }
+    return error;
+  }
+
+  private static IOException keepFirstError( IOException error, IOException e ) {
+    if ( error == null ) {
+      return e;
+    }
+    error.addSuppressed( e );
+    return error;
+  }
+
   public class FileStreamsList implements IFileStreamsCollection {
     ArrayList<FileStream> streamsList = new ArrayList<>();
     ArrayList<String> namesList = new ArrayList<>();
@@ -175,9 +226,12 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
         }
       }
       if ( oldestOpenStream != null ) {
-        oldestOpenStream.flush();
-        oldestOpenStream.close();
         numOpenFiles--;
+        try {
+          oldestOpenStream.flush();
+        } finally {
+          oldestOpenStream.close();
+        }
         if ( removeFileFromCollection ) {
           streamsList.remove( i );
           namesList.remove( i );
@@ -187,19 +241,17 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
 
     @Override
     public void flushOpenFiles( boolean closeAfterFlush ) throws IOException {
+      IOException error = null;
       for ( FileStream outputStream : streamsList ) {
-        if ( outputStream.isDirty() ) {
-          try {
-            outputStream.flush();
-            if ( closeAfterFlush && outputStream.isOpen() ) {
-              outputStream.close();
-              numOpenFiles--;
-            }
-          } catch ( IOException e ) {
-            e.printStackTrace();
-          }
+        error = flushKeepingError( outputStream, error );
+        if ( closeAfterFlush && outputStream.isOpen() ) {
+          error = closeKeepingError( outputStream, error );
+          numOpenFiles--;
         }
       }
+      if ( error != null ) {
+        throw error;
+      }
     }
 
     @Override
@@ -223,9 +275,12 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
       if ( index >= 0 ) {
         FileStream existingStream = streamsList.get( index );
         if ( existingStream.isOpen() ) {
-          existingStream.flush();
-          existingStream.close();
           numOpenFiles--;
+          try {
+            existingStream.flush();
+          } finally {
+            existingStream.close();
+          }
         }
       }
     }
@@ -327,9 +382,12 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
         }
       }
       if ( oldestOpenStream != null ) {
-        oldestOpenStream.flush();
-        oldestOpenStream.close();
         numOpenFiles--;
+        try {
+          oldestOpenStream.flush();
+        } finally {
+          oldestOpenStream.close();
+        }
         if ( removeFileFromCollection ) {
           fileNameMap.remove( oldestOpenFileName );
           indexMap.remove( oldestOpenFileIndex );
@@ -338,28 +396,31 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
     }
 
     @Override
-    public void flushOpenFiles( boolean closeAfterFlush ) {
+    public void flushOpenFiles( boolean closeAfterFlush ) throws IOException {
+      IOException error = null;
       for ( FileStreamsCollectionEntry collectionEntry : indexMap.values() ) {
-        if ( collectionEntry.getFileStream().isDirty() ) {
-          try {
-            collectionEntry.getFileStream().flush();
-            if ( closeAfterFlush ) {
-              collectionEntry.getFileStream().close();
-            }
-          } catch ( IOException e ) {
-            e.printStackTrace();
-          }
+        FileStream fileStream = collectionEntry.getFileStream();
+        error = flushKeepingError( fileStream, error );
+        if ( closeAfterFlush && fileStream.isOpen() ) {
+          error = closeKeepingError( fileStream, error );
+          numOpenFiles--;
         }
       }
+      if ( error != null ) {
+        throw error;
+      }
     }
 
     @Override
     public void closeFile( String filename ) throws IOException {
       FileStream outputStreams = getStream( filename );
       if ( ( outputStreams != null ) && ( outputStreams.isOpen() ) ) {
-        outputStreams.flush();
-        outputStreams.close();
         numOpenFiles--;
+        try {
+          outputStreams.flush();
+        } finally {
+          outputStreams.close();
+        }
       }
     }
 
@@ -424,6 +485,11 @@ public class TextFileOutputData extends BaseStepData implements StepDataInterfac
 
   public int splitEvery;
 
+  /**
+   * The thread that compresses and writes the files, null if they are written by the step thread
+   */
+  public AsyncOutputWriter asyncWriter;
+
   public TextFileOutputData() {
     super();
 
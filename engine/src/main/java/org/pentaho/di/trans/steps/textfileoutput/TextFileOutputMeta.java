@@ -65,6 +65,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
   private static final String CONST_STRING_ADD_TIME = "add_time";
   private static final String CONST_STRING_ADD_TO_RESULT_FILENAMES = "add_to_result_filenames";
   private static final String CONST_STRING_APPEND = "append";
+  private static final String CONST_STRING_ASYNC_WRITE = "async_write";
   private static final String CONST_STRING_COMPRESSION = "compression";
   private static final String CONST_STRING_CREATE_PARENT_FOLDER = "create_parent_folder";
   private static final String CONST_STRING_CURRENCY = "currency";
@@ -96,6 +97,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
   private static final String CONST_STRING_FILE_ADD_STEPNR = "file_add_stepnr";
   private static final String CONST_STRING_FILE_ADD_TIME = "file_add_time";
   private static final String CONST_STRING_FILE_APPEND = "file_append";
+  private static final String CONST_STRING_FILE_ASYNC_WRITE = "file_async_write";
   private static final String CONST_STRING_FILE_EXTENTION = "file_extention";
   private static final String CONST_STRING_FILE_FAST_DUMP = "file_fast_dump";
   private static final String CONST_STRING_FILE_NAME = "file_name";
@@ -201,6 +203,10 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
   @Injection( name = "FAST_DATA_DUMP" )
   private boolean fastDump;
 
+  /** Flag: compress and write the files in a thread of their own */
+  @Injection( name = "ASYNC_WRITE" )
+  private boolean asyncWrite;
+
   /* THE FIELD SPECIFICATIONS ... */
 
   /** The output fields */
@@ -439,6 +445,21 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
     this.fastDump = fastDump;
   }
 
+  /**
+   * @return true if the files are compressed and written in a thread of their own while the rows are formatted
+   */
+  public boolean isAsyncWrite() {
+    return asyncWrite;
+  }
+
+  /**
+   * @param asyncWrite
+   *          true to compress and write the files in a thread of their own while the rows are formatted
+   */
+  public void setAsyncWrite( boolean asyncWrite ) {
+    this.asyncWrite = asyncWrite;
+  }
+
   /**
    * @return Returns the separator.
    */
@@ -701,6 +722,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
 
       padded = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, CONST_STRING_FILE, CONST_STRING_PAD ) );
       fastDump = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, CONST_STRING_FILE, CONST_STRING_FAST_DUMP ) );
+      asyncWrite = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, CONST_STRING_FILE, CONST_STRING_ASYNC_WRITE ) );
       splitEveryRows = XMLHandler.getTagValue( stepnode, CONST_STRING_FILE, CONST_STRING_SPLITEVERY );
 
       newline = getNewLine( fileFormat );
@@ -779,6 +801,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
     timeInFilename = false;
     padded = false;
     fastDump = false;
+    asyncWrite = false;
     addToResultFilenames = true;
     fileAppended = false;
 
@@ -864,6 +887,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
     retval.append( "      " ).append( XMLHandler.addTagValue( CONST_STRING_ADD_TO_RESULT_FILENAMES, addToResultFilenames ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( CONST_STRING_PAD, padded ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( CONST_STRING_FAST_DUMP, fastDump ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( CONST_STRING_ASYNC_WRITE, asyncWrite ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( CONST_STRING_SPLITEVERY, splitEveryRows ) );
   }
 
@@ -919,6 +943,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
 
       padded = rep.getStepAttributeBoolean( id_step, CONST_STRING_FILE_PAD );
       fastDump = rep.getStepAttributeBoolean( id_step, CONST_STRING_FILE_FAST_DUMP );
+      asyncWrite = rep.getStepAttributeBoolean( id_step, CONST_STRING_FILE_ASYNC_WRITE );
 
       newline = getNewLine( fileFormat );
 
@@ -978,6 +1003,7 @@ public class TextFileOutputMeta extends BaseFileOutputMeta implements StepMetaIn
       rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_ADD_TIME, timeInFilename );
       rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_PAD, padded );
       rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_FAST_DUMP, fastDump );
+      rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_ASYNC_WRITE, asyncWrite );
       rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_NAME_IN_FIELD, fileNameInField );
       rep.saveStepAttribute( id_transformation, id_step, CONST_STRING_FILE_NAME_FIELD, fileNameField );
 
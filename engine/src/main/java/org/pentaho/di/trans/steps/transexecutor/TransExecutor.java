@@ -27,20 +27,26 @@ import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.DelegationListener;
+import org.pentaho.di.trans.SingleThreadedTransExecutor;
 import org.pentaho.di.trans.StepWithMappingMeta;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.RowAdapter;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.TransStepUtil;
 
@@ -193,21 +199,18 @@ public class TransExecutor extends BaseStep implements StepInterface {
     }
     transExecutorData.groupTimeStart = System.currentTimeMillis();
 
+    if ( meta.isReusingInstance() ) {
+      executeReusedTransformation( incomingFieldValues );
+      return;
+    }
+
     if ( first ) {
       discardLogLines( transExecutorData );
     }
 
     Trans executorTrans = createInternalTrans();
     transExecutorData.setExecutorTrans( executorTrans );
-    if ( incomingFieldValues != null ) {
-      // Pass parameter values
-      passParametersToTrans( incomingFieldValues );
-    } else {
-      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
-      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
-      // If not still pass the null parameter values
-      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
-    }
+    passGroupParametersToTrans( incomingFieldValues );
 
 
     // keep track for drill down in Spoon...
@@ -251,6 +254,217 @@ public class TransExecutor extends BaseStep implements StepInterface {
     transExecutorData.groupBuffer.clear();
   }
 
+  private void passGroupParametersToTrans( List<String> incomingFieldValues ) throws KettleException {
+    if ( incomingFieldValues != null ) {
+      // Pass parameter values
+      passParametersToTrans( incomingFieldValues );
+    } else {
+      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
+      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
+      // If not still pass the null parameter values
+      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    }
+  }
+
+  /**
+   * Runs the group of rows through the transformation instance that is kept for all the groups. The rows are injected
+   * into the inject step and the transformation runs one single threaded iteration: no new transformation, steps,
+   * row sets or database connections for the group.
+   */
+  private void executeReusedTransformation( List<String> incomingFieldValues ) throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    boolean prepared = transExecutorData.reusedExecutor != null;
+    if ( !prepared ) {
+      // Failing to prepare the transformation fails the step, not just this group
+      prepareReusedTransformation( incomingFieldValues );
+    }
+
+    Result result;
+    try {
+      if ( prepared ) {
+        discardLogLines( transExecutorData );
+        passGroupParametersToTrans( incomingFieldValues );
+        passParametersToSteps( transExecutorData.getExecutorTrans() );
+      }
+
+      transExecutorData.reusedResultRows.clear();
+      for ( RowMetaAndData row : transExecutorData.groupBuffer ) {
+        transExecutorData.reusedRowProducer.putRow( row.getRowMeta(), row.getData() );
+      }
+      transExecutorData.reusedExecutor.oneIteration();
+      transExecutorData.nrReusedExecutions++;
+
+      result = getReusedResult( transExecutorData.getExecutorTrans() );
+    } catch ( KettleException e ) {
+      log.logError( "An error occurred executing the transformation: ", e );
+      result = new Result();
+      result.setResult( false );
+      result.setNrErrors( 1 );
+    }
+
+    if ( result.getNrErrors() > 0 && transExecutorData.reusedExecutor != null ) {
+      // The next group starts without the errors and the left over rows of this one
+      //
+      transExecutorData.reusedExecutor.clearError();
+      for ( StepMetaDataCombi combi : transExecutorData.getExecutorTrans().getSteps() ) {
+        combi.step.setErrors( 0 );
+      }
+    }
+
+    if ( result.isSafeStop() ) {
+      getTrans().safeStop();
+    }
+
+    collectTransResults( result );
+    collectExecutionResults( result );
+    collectExecutionResultFiles( result );
+
+    transExecutorData.groupBuffer.clear();
+  }
+
+  @VisibleForTesting
+  void prepareReusedTransformation( List<String> incomingFieldValues ) throws KettleException {
+    final TransExecutorData transExecutorData = getData();
+
+    // The groups are executed one after the other by this step, in its own thread
+    //
+    TransMeta executorTransMeta = transExecutorData.getExecutorTransMeta();
+    checkReusedTransformation( executorTransMeta );
+    executorTransMeta.setTransformationType( TransformationType.SingleThreaded );
+    executorTransMeta.setUsingThreadPriorityManagment( false );
+
+    Trans executorTrans = createInternalTrans();
+    executorTrans.setGatheringMetrics( getTrans().isGatheringMetrics() );
+    transExecutorData.setExecutorTrans( executorTrans );
+    passGroupParametersToTrans( incomingFieldValues );
+
+    executorTrans.prepareExecution( getTrans().getArguments() );
+
+    try {
+      String injectStepName = environmentSubstitute( meta.getInjectStep() );
+      transExecutorData.reusedRowProducer = executorTrans.addRowProducer( injectStepName, 0 );
+
+      transExecutorData.reusedResultRows = new ArrayList<RowMetaAndData>();
+      String retrieveStepName = environmentSubstitute( meta.getRetrieveStep() );
+      if ( !Utils.isEmpty( retrieveStepName ) ) {
+        StepInterface retrieveStep = executorTrans.getStepInterface( retrieveStepName, 0 );
+        if ( retrieveStep == null ) {
+          throw new KettleException( BaseMessages.getString(
+            PKG, "TransExecutor.Exception.RetrieveStepNotFound", retrieveStepName ) );
+        }
+        retrieveStep.addRowListener( new RowAdapter() {
+          @Override
+          public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+            transExecutorData.reusedResultRows.add( new RowMetaAndData( rowMeta, row ) );
+          }
+        } );
+      }
+
+      executorTrans.startThreads();
+
+      SingleThreadedTransExecutor reusedExecutor = new SingleThreadedTransExecutor( executorTrans );
+      if ( !reusedExecutor.init() ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "TransExecutor.Exception.UnableToInitReusedTransformation" ) );
+      }
+      reusedExecutor.beforeStartProcessing( meta, transExecutorData );
+      transExecutorData.reusedExecutor = reusedExecutor;
+    } catch ( KettleException | RuntimeException e ) {
+      disposeSteps( executorTrans );
+      transExecutorData.setExecutorTrans( null );
+      transExecutorData.reusedRowProducer = null;
+      transExecutorData.reusedResultRows = null;
+      throw e;
+    }
+    transExecutorData.reusedLastResult = new Result();
+
+    // keep track for drill down in Spoon...
+    getTrans().addActiveSubTransformation( getStepname(), executorTrans );
+  }
+
+  /**
+   * Checks that the transformation can be reused for all the groups: the inject and retrieve steps exist, and the
+   * rows of every group come in through the inject step. A step that reads no rows from other steps, like Table input
+   * or Generate rows, would only produce rows for the first group.
+   */
+  @VisibleForTesting
+  void checkReusedTransformation( TransMeta executorTransMeta ) throws KettleException {
+    String injectStepName = environmentSubstitute( meta.getInjectStep() );
+    StepMeta injectStep = executorTransMeta.findStep( injectStepName );
+    if ( injectStep == null ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "TransExecutor.Exception.InjectStepNotFound", injectStepName ) );
+    }
+    String retrieveStepName = environmentSubstitute( meta.getRetrieveStep() );
+    if ( !Utils.isEmpty( retrieveStepName ) && executorTransMeta.findStep( retrieveStepName ) == null ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "TransExecutor.Exception.RetrieveStepNotFound", retrieveStepName ) );
+    }
+    for ( StepMeta stepMeta : executorTransMeta.getSteps() ) {
+      if ( stepMeta != injectStep && executorTransMeta.findPreviousSteps( stepMeta ).isEmpty() ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "TransExecutor.Exception.SourceStepInReusedTransformation", stepMeta.getName() ) );
+      }
+    }
+  }
+
+  private void disposeSteps( Trans executorTrans ) {
+    if ( executorTrans.getSteps() == null ) {
+      return;
+    }
+    for ( StepMetaDataCombi combi : executorTrans.getSteps() ) {
+      try {
+        combi.step.dispose( combi.meta, combi.data );
+        combi.step.markStop();
+      } catch ( RuntimeException e ) {
+        log.logError( "Error disposing of sub-transformation: ", e );
+      }
+    }
+  }
+
+  /**
+   * The steps got their variables when the transformation was prepared, give them the parameters of the group.
+   */
+  private void passParametersToSteps( Trans executorTrans ) {
+    String[] variables = meta.getParameters().getVariable();
+    for ( StepMetaDataCombi combi : executorTrans.getSteps() ) {
+      for ( String variable : variables ) {
+        combi.step.setVariable( variable, executorTrans.getVariable( variable ) );
+      }
+    }
+  }
+
+  /**
+   * The result of the last group: the step counters of the transformation minus those after the previous group.
+   */
+  private Result getReusedResult( Trans executorTrans ) {
+    TransExecutorData transExecutorData = getData();
+    Result total = executorTrans.getResult();
+    Result last = transExecutorData.reusedLastResult;
+
+    Result result = new Result();
+    result.setNrErrors( executorTrans.getErrors() );
+    result.setResult( result.getNrErrors() == 0 );
+    result.setNrLinesRead( total.getNrLinesRead() - last.getNrLinesRead() );
+    result.setNrLinesInput( total.getNrLinesInput() - last.getNrLinesInput() );
+    result.setNrLinesWritten( total.getNrLinesWritten() - last.getNrLinesWritten() );
+    result.setNrLinesOutput( total.getNrLinesOutput() - last.getNrLinesOutput() );
+    result.setNrLinesUpdated( total.getNrLinesUpdated() - last.getNrLinesUpdated() );
+    result.setNrLinesRejected( total.getNrLinesRejected() - last.getNrLinesRejected() );
+    for ( Map.Entry<String, ResultFile> resultFile : total.getResultFiles().entrySet() ) {
+      if ( !last.getResultFiles().containsKey( resultFile.getKey() ) ) {
+        result.getResultFiles().put( resultFile.getKey(), resultFile.getValue() );
+      }
+    }
+    result.setSafeStop( total.isSafeStop() );
+    result.setStopped( total.isStopped() );
+    result.setLogChannelId( total.getLogChannelId() );
+    result.setRows( new ArrayList<RowMetaAndData>( transExecutorData.reusedResultRows ) );
+
+    transExecutorData.reusedLastResult = total;
+    return result;
+  }
+
   @VisibleForTesting
   void discardLogLines( TransExecutorData transExecutorData ) {
     // Keep the strain on the logging back-end conservative.
@@ -273,6 +487,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
     executorTrans.setInternalKettleVariables( this );
 
     executorTrans.setPreview( getTrans().isPreview() );
+    executorTrans.setStepExecutionStrategy( getTrans().getStepExecutionStrategyOverride() );
 
     TransStepUtil.initServletConfig( getTrans(), executorTrans );
 
@@ -510,6 +725,9 @@ public class TransExecutor extends BaseStep implements StepInterface {
           if ( !Utils.isEmpty( meta.getGroupField() ) ) {
             transExecutorData.groupField = environmentSubstitute( meta.getGroupField() );
           }
+          if ( meta.isReusingInstance() ) {
+            checkReusedTransformation( transExecutorData.getExecutorTransMeta() );
+          }
           // That's all for now...
           return true;
         } else {
@@ -532,6 +750,17 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
+    if ( transExecutorData.reusedExecutor != null ) {
+      try {
+        transExecutorData.reusedExecutor.afterFinishProcessing( smi, sdi );
+        transExecutorData.reusedExecutor.dispose();
+      } catch ( KettleException e ) {
+        log.logError( "Error disposing of sub-transformation: ", e );
+      }
+      logDetailed( BaseMessages.getString( PKG, "TransExecutor.Log.ReusedInstanceExecutions",
+        String.valueOf( transExecutorData.nrReusedExecutions ) ) );
+      transExecutorData.reusedExecutor = null;
+    }
     transExecutorData.groupBuffer = null;
     super.dispose( smi, sdi );
   }
@@ -15,10 +15,13 @@ package org.pentaho.di.trans.steps.transexecutor;
 
 import java.util.List;
 
+import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.RowProducer;
+import org.pentaho.di.trans.SingleThreadedTransExecutor;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -50,6 +53,13 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
 
   public Object prevGroupFieldData;
 
+  /** The executor of the transformation instance that is reused for all the groups, null until the first group */
+  public SingleThreadedTransExecutor reusedExecutor;
+  public RowProducer reusedRowProducer;
+  public List<RowMetaAndData> reusedResultRows;
+  public Result reusedLastResult;
+  public long nrReusedExecutions;
+
   private RowSet executorStepOutputRowSet;
   private RowSet resultRowsRowSet;
   private RowSet resultFilesRowSet;
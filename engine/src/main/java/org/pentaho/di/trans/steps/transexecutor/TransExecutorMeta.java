@@ -94,6 +94,19 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
    */
   private String groupTime;
 
+  /**
+   * Flag to keep one prepared, single threaded instance of the transformation for all the groups of rows instead of
+   * creating and preparing a new one for every group. The inject step has to be the only step of the transformation
+   * that reads no rows from other steps.
+   */
+  private boolean reusingInstance;
+
+  /** The step of the reused transformation that the rows of a group are injected into */
+  private String injectStep;
+
+  /** The step of the reused transformation that the result rows of a group are taken from, optional */
+  private String retrieveStep;
+
   private TransExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -263,6 +276,9 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "reuse_instance", reusingInstance ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "inject_step", injectStep ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "retrieve_step", retrieveStep ) );
 
     // Add the mapping parameters too
     //
@@ -331,6 +347,9 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      reusingInstance = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reuse_instance" ) );
+      injectStep = XMLHandler.getTagValue( stepnode, "inject_step" );
+      retrieveStep = XMLHandler.getTagValue( stepnode, "retrieve_step" );
 
       // Load the mapping parameters too..
       //
@@ -392,6 +411,9 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    reusingInstance = rep.getStepAttributeBoolean( id_step, "reuse_instance" );
+    injectStep = rep.getStepAttributeString( id_step, "inject_step" );
+    retrieveStep = rep.getStepAttributeString( id_step, "retrieve_step" );
 
     parameters = new TransExecutorParameters( rep, id_step );
 
@@ -441,6 +463,9 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "reuse_instance", reusingInstance );
+    rep.saveStepAttribute( id_transformation, id_step, "inject_step", injectStep );
+    rep.saveStepAttribute( id_transformation, id_step, "retrieve_step", retrieveStep );
 
     // save the mapping parameters too
     //
@@ -493,6 +518,9 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    reusingInstance = false;
+    injectStep = "";
+    retrieveStep = "";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1019,6 +1047,48 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return true if one prepared instance of the transformation is reused for all the groups of rows
+   */
+  public boolean isReusingInstance() {
+    return reusingInstance;
+  }
+
+  /**
+   * @param reusingInstance true to reuse one prepared instance of the transformation for all the groups of rows
+   */
+  public void setReusingInstance( boolean reusingInstance ) {
+    this.reusingInstance = reusingInstance;
+  }
+
+  /**
+   * @return the step of the reused transformation that the rows of a group are injected into
+   */
+  public String getInjectStep() {
+    return injectStep;
+  }
+
+  /**
+   * @param injectStep the step of the reused transformation that the rows of a group are injected into
+   */
+  public void setInjectStep( String injectStep ) {
+    this.injectStep = injectStep;
+  }
+
+  /**
+   * @return the step of the reused transformation that the result rows of a group are taken from
+   */
+  public String getRetrieveStep() {
+    return retrieveStep;
+  }
+
+  /**
+   * @param retrieveStep the step of the reused transformation that the result rows of a group are taken from
+   */
+  public void setRetrieveStep( String retrieveStep ) {
+    this.retrieveStep = retrieveStep;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
@@ -149,7 +149,7 @@ public class ValueMapper extends BaseStep implements StepInterface {
         // Convert to normal storage type.
         // Otherwise we're going to be mixing storage types.
         //
-        if ( data.sourceValueMeta.isStorageBinaryString() ) {
+        if ( data.sourceValueMeta.isStorageBinaryString() || data.sourceValueMeta.isStorageBinaryStringSlice() ) {
           Object normal = data.sourceValueMeta.convertToNormalStorageType( r[data.keynr] );
           r[data.keynr] = normal;
         }
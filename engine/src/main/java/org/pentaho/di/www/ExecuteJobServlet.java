@@ -24,6 +24,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.pentaho.di.base.SharedMetaFileCache;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.parameters.UnknownParamException;
 import org.pentaho.di.core.bowl.DefaultBowl;
@@ -331,7 +332,8 @@ public class ExecuteJobServlet extends BaseHttpServlet implements CartePluginInt
       // Without a repository it's a filename --> file:///foo/bar/job.kjb
       //
       // Repository doesn't need bowl-specific VFS. Use DefaultBowl.
-      JobMeta jobMeta = new JobMeta( DefaultBowl.getInstance(), parentVariableSpace, job, repository, null );
+      JobMeta jobMeta = SharedMetaFileCache.getInstance().loadJobMeta( DefaultBowl.getInstance(), parentVariableSpace,
+        job, null, null );
       return jobMeta;
 
     } else {
@@ -23,6 +23,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.pentaho.di.base.SharedMetaFileCache;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.encryption.Encr;
@@ -360,7 +361,8 @@ public class ExecuteTransServlet extends BaseHttpServlet implements CartePluginI
       // Without a repository it's a filename --> file:///foo/bar/trans.ktr
       //
       // Repository doesn't need bowl-specific VFS. Use DefaultBowl.
-      TransMeta transMeta = new TransMeta( DefaultBowl.getInstance(), trans, parentVariableSpace );
+      TransMeta transMeta = SharedMetaFileCache.getInstance().loadTransMeta( DefaultBowl.getInstance(), trans, null,
+        null, true, parentVariableSpace );
       return transMeta;
 
     } else {
@@ -14,6 +14,7 @@
 package org.pentaho.di.www;
 
 import org.owasp.encoder.Encode;
+import org.pentaho.di.base.SharedMetaFileCache;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.xml.XMLHandler;
@@ -618,6 +619,26 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
             + "cellTableLastColumn\">"
             + repositoryName + "</td> </tr>" );
 
+        // The use of the cache of transformation and job files
+        //
+        SharedMetaFileCache metaFileCache = SharedMetaFileCache.getInstance();
+        String metaFileCacheUse;
+        if ( metaFileCache.isEnabled() ) {
+          metaFileCacheUse = BaseMessages.getString( PKG, "GetStatusServlet.MetaFileCache.Summary",
+            String.valueOf( metaFileCache.size() ), String.valueOf( metaFileCache.getMaxSize() ),
+            String.valueOf( metaFileCache.getHits() ), String.valueOf( metaFileCache.getMisses() ),
+            String.valueOf( metaFileCache.getEvictions() ) );
+        } else {
+          metaFileCacheUse = BaseMessages.getString( PKG, "GetStatusServlet.MetaFileCache.Disabled" );
+        }
+        out.print(
+          "<tr style=\"font-size: 12;\"> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell "
+            + "cellTableEvenRowCell cellTableFirstColumn\">"
+            + BaseMessages.getString( PKG, "GetStatusServlet.Parameter.MetaFileCache" )
+            + "</td> <td style=\"padding: 2px 10px 2px 10px\" class=\"cellTableCell cellTableEvenRowCell "
+            + "cellTableLastColumn\">"
+            + metaFileCacheUse + "</td> </tr>" );
+
         out.print( "</table>" );
 
         String filename = serverConfig.getFilename();
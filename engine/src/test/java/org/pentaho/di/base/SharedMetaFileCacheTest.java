@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.job.JobMeta;
+import org.pentaho.di.trans.TransMeta;
+
+public class SharedMetaFileCacheTest {
+  private static final String TRANS_URI = "file:///tmp/trans.ktr";
+  private static final String JOB_URI = "file:///tmp/job.kjb";
+
+  private final TransMeta transMeta = new TransMeta();
+  private final JobMeta jobMeta = new JobMeta();
+
+  private SharedMetaFileCache cache;
+
+  @Before
+  public void setup() {
+    transMeta.setName( "transName" );
+    jobMeta.setName( "jobName" );
+    cache = new SharedMetaFileCache( 2 );
+  }
+
+  @Test
+  public void testCopiesAreHandedOut() {
+    assertNull( cache.get( TransMeta.class, TRANS_URI, 1L ) );
+    cache.put( TRANS_URI, 1L, transMeta );
+    cache.put( JOB_URI, 1L, jobMeta );
+
+    TransMeta first = cache.get( TransMeta.class, TRANS_URI, 1L );
+    TransMeta second = cache.get( TransMeta.class, TRANS_URI, 1L );
+    assertEquals( "transName", first.getName() );
+    assertNotSame( transMeta, first );
+    assertNotSame( first, second );
+    assertEquals( "jobName", cache.get( JobMeta.class, JOB_URI, 1L ).getName() );
+    // A job and a transformation don't share an entry
+    assertNull( cache.get( JobMeta.class, TRANS_URI, 1L ) );
+
+    assertEquals( 3, cache.getHits() );
+    assertEquals( 2, cache.getMisses() );
+  }
+
+  @Test
+  public void testChangedFileIsLoadedAgain() {
+    cache.put( TRANS_URI, 1L, transMeta );
+    assertNull( cache.get( TransMeta.class, TRANS_URI, 2L ) );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    cache.put( TRANS_URI, 1L, transMeta );
+    cache.put( JOB_URI, 1L, jobMeta );
+    assertNotNull( cache.get( TransMeta.class, TRANS_URI, 1L ) );
+    cache.put( "file:///tmp/other.ktr", 1L, transMeta );
+
+    assertEquals( 2, cache.size() );
+    assertEquals( 1, cache.getEvictions() );
+    assertNull( cache.get( JobMeta.class, JOB_URI, 1L ) );
+    assertNotNull( cache.get( TransMeta.class, TRANS_URI, 1L ) );
+  }
+
+  @Test
+  public void testDisabled() {
+    cache = new SharedMetaFileCache( 0 );
+    assertFalse( cache.isEnabled() );
+    cache.put( TRANS_URI, 1L, transMeta );
+    assertEquals( 0, cache.size() );
+    assertNull( cache.get( TransMeta.class, TRANS_URI, 1L ) );
+  }
+}
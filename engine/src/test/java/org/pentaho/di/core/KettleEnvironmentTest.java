@@ -0,0 +1,45 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class KettleEnvironmentTest {
+
+  @Test
+  public void testStartupPhases() throws Exception {
+    KettleEnvironment.StartupPhases phases = new KettleEnvironment.StartupPhases();
+    assertEquals( "Kettle environment initialized in 0ms", phases.getReport() );
+
+    phases.end( "client environment" );
+    Thread.sleep( 5 );
+    phases.end( "plugin registry" );
+
+    Map<String, Long> durations = phases.getDurations();
+    assertEquals( Arrays.asList( "client environment", "plugin registry" ), new ArrayList<>( durations.keySet() ) );
+    assertTrue( durations.get( "plugin registry" ) >= 5 );
+
+    long total = durations.get( "client environment" ) + durations.get( "plugin registry" );
+    assertEquals( "Kettle environment initialized in " + total + "ms (client environment "
+      + durations.get( "client environment" ) + "ms, plugin registry " + durations.get( "plugin registry" ) + "ms)",
+      phases.getReport() );
+  }
+}
@@ -0,0 +1,128 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+
+public class StepExecutionStrategyTest {
+
+  @Test
+  public void testGetStrategyByCode() {
+    assertEquals( StepExecutionStrategy.VirtualThread, StepExecutionStrategy.getStrategyByCode( "virtualthread" ) );
+    assertEquals( StepExecutionStrategy.Pooled, StepExecutionStrategy.getStrategyByCode( "Pooled" ) );
+    assertEquals( StepExecutionStrategy.PlatformThread, StepExecutionStrategy.getStrategyByCode( "unknown" ) );
+    assertEquals( StepExecutionStrategy.PlatformThread, StepExecutionStrategy.getStrategyByCode( null ) );
+  }
+
+  @Test
+  public void testStartRunsInNamedThread() throws Exception {
+    for ( StepExecutionStrategy strategy : StepExecutionStrategy.values() ) {
+      AtomicReference<String> threadName = new AtomicReference<>();
+      strategy.reserveThreads( 1 );
+      Future<?> future = strategy.start( () -> threadName.set( Thread.currentThread().getName() ), "step.0" );
+      future.get( 10, TimeUnit.SECONDS );
+      assertEquals( strategy.getCode(), "step.0", threadName.get() );
+    }
+  }
+
+  @Test
+  public void testPoolGivesBackThreads() throws Exception {
+    StepExecutionStrategy.StepThreadPool pool = new StepExecutionStrategy.StepThreadPool( 2 );
+    CountDownLatch finish = new CountDownLatch( 1 );
+    CountDownLatch finished = new CountDownLatch( 2 );
+
+    pool.reserve( 2 );
+    assertEquals( 0, pool.getAvailableThreads() );
+    for ( int i = 0; i < 2; i++ ) {
+      pool.execute( () -> {
+        try {
+          finish.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+        finished.countDown();
+      }, "step." + i );
+    }
+    finish.countDown();
+    assertTrue( finished.await( 10, TimeUnit.SECONDS ) );
+
+    long end = System.currentTimeMillis() + 10000;
+    while ( pool.getAvailableThreads() < 2 && System.currentTimeMillis() < end ) {
+      Thread.sleep( 1 );
+    }
+    assertEquals( 2, pool.getAvailableThreads() );
+
+    pool.reserve( 1 );
+    pool.release( 1 );
+    assertEquals( 2, pool.getAvailableThreads() );
+  }
+
+  @Test
+  public void testPoolWaitsForThreadsWithATimeout() throws Exception {
+    StepExecutionStrategy.StepThreadPool pool = new StepExecutionStrategy.StepThreadPool( 2, 50L );
+    pool.reserve( 2 );
+    try {
+      pool.reserve( 1 );
+      fail( "No thread is free" );
+    } catch ( KettleException e ) {
+      assertEquals( 0, pool.getAvailableThreads() );
+    }
+    pool.release( 2 );
+    pool.reserve( 1 );
+    assertEquals( 1, pool.getAvailableThreads() );
+  }
+
+  @Test
+  public void testStepsOfThePoolAreKnown() throws Exception {
+    assertFalse( StepExecutionStrategy.isInPooledStep() );
+
+    StepExecutionStrategy.StepThreadPool pool = new StepExecutionStrategy.StepThreadPool( 1 );
+    AtomicBoolean inPooledStep = new AtomicBoolean();
+    AtomicBoolean inStartedThread = new AtomicBoolean();
+    CountDownLatch finished = new CountDownLatch( 1 );
+    pool.reserve( 1 );
+    pool.execute( () -> {
+      inPooledStep.set( StepExecutionStrategy.isInPooledStep() );
+      // A sub-transformation started by the step runs its steps in new threads
+      Thread thread = new Thread( () -> inStartedThread.set( StepExecutionStrategy.isInPooledStep() ) );
+      thread.start();
+      try {
+        thread.join();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      finished.countDown();
+    }, "step.0" );
+    assertTrue( finished.await( 10, TimeUnit.SECONDS ) );
+    assertTrue( inPooledStep.get() );
+    assertTrue( inStartedThread.get() );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testPoolRefusesMoreThreadsThanItsSize() throws Exception {
+    new StepExecutionStrategy.StepThreadPool( 2 ).reserve( 3 );
+  }
+}
@@ -44,6 +44,7 @@ import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryBowl;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.trans.step.StepErrorMeta;
 import org.pentaho.di.trans.step.StepIOMeta;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaChangeListenerInterface;
@@ -530,6 +531,45 @@ public class TransMetaTest {
       meta.getVariable( Const.INTERNAL_VARIABLE_ENTRY_CURRENT_DIRECTORY ) );
   }
 
+  @Test
+  public void testLoadXml_largeTransformation() throws Exception {
+    int nrSteps = 1000;
+    TransMeta inputTransMeta = new TransMeta();
+    StepMeta previous = null;
+    for ( int i = 0; i < nrSteps; i++ ) {
+      StepMeta stepMeta = new StepMeta( "Step " + i, new DummyTransMeta() );
+      inputTransMeta.addStep( stepMeta );
+      if ( previous != null ) {
+        inputTransMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+      }
+      previous = stepMeta;
+    }
+    StepMeta errors = new StepMeta( "Errors", new DummyTransMeta() );
+    inputTransMeta.addStep( errors );
+    StepMeta source = inputTransMeta.getStep( nrSteps / 2 );
+    StepErrorMeta stepErrorMeta = new StepErrorMeta( inputTransMeta, source, errors );
+    stepErrorMeta.setEnabled( true );
+    source.setStepErrorMeta( stepErrorMeta );
+    TransHopMeta errorHop = new TransHopMeta( source, errors );
+    errorHop.setErrorHop( true );
+    inputTransMeta.addTransHop( errorHop );
+
+    InputStream inputStream = new ByteArrayInputStream( inputTransMeta.getXML().getBytes( StandardCharsets.UTF_8 ) );
+    TransMeta meta = new TransMeta( inputStream, null, true, null, null );
+
+    assertEquals( nrSteps + 1, meta.nrSteps() );
+    assertEquals( nrSteps, meta.nrTransHops() );
+    for ( int i = 0; i < nrSteps - 1; i++ ) {
+      TransHopMeta hop = meta.findTransHop( meta.findStep( "Step " + i ), meta.findStep( "Step " + ( i + 1 ) ) );
+      assertNotNull( hop );
+      assertFalse( hop.isErrorHop() );
+    }
+    TransHopMeta hop = meta.findTransHop( meta.findStep( source.getName() ), meta.findStep( "Errors" ) );
+    assertNotNull( hop );
+    assertTrue( hop.isErrorHop() );
+    assertSame( meta.findStep( "Errors" ), meta.findStep( source.getName() ).getStepErrorMeta().getTargetStep() );
+  }
+
   @Test
   public void testTransWithOneStepIsConsideredUsed() throws Exception {
     TransMeta transMeta = new TransMeta( DefaultBowl.getInstance(),
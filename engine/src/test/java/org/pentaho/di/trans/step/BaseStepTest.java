@@ -59,6 +59,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -509,4 +510,126 @@ public class BaseStepTest {
     baseStepSpy.getRow();
     verify( mockHelper.transMeta, times( 1 ) ).checkRowMixingStatically( any( StepMeta.class ), any() );
   }
+
+  @Test
+  public void testStatusCountersUnderConcurrentUpdates() throws InterruptedException {
+    final BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    final int nrThreads = 4;
+    final int nrIncrements = 10000;
+    List<Thread> threads = new ArrayList<>();
+    for ( int t = 0; t < nrThreads; t++ ) {
+      threads.add( new Thread( () -> {
+        for ( int i = 0; i < nrIncrements; i++ ) {
+          baseStep.incrementLinesRead();
+          baseStep.incrementLinesWritten();
+          baseStep.incrementLinesOutput();
+        }
+      } ) );
+    }
+    for ( Thread thread : threads ) {
+      thread.start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+
+    assertEquals( nrThreads * nrIncrements, baseStep.getLinesRead() );
+    assertEquals( nrThreads * nrIncrements, baseStep.getLinesWritten() );
+    assertEquals( nrThreads * nrIncrements, baseStep.getLinesOutput() );
+  }
+
+  @Test
+  public void testStatusCountersBulkIncrementAndSet() {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    assertEquals( 1L, baseStep.incrementLinesWritten() );
+    assertEquals( 501L, baseStep.incrementLinesWritten( 500 ) );
+    assertEquals( 500L, baseStep.decrementLinesWritten() );
+
+    baseStep.setLinesRejected( 42L );
+    assertEquals( 42L, baseStep.getLinesRejected() );
+    assertEquals( 43L, baseStep.incrementLinesRejected() );
+  }
+
+  @Test
+  @SuppressWarnings( "deprecation" )
+  public void testDeprecatedStatusCounterFieldsAreCounted() {
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    baseStep.incrementLinesOutput();
+    baseStep.linesOutput += 10;
+    assertEquals( 11L, baseStep.getLinesOutput() );
+    assertEquals( 12L, baseStep.incrementLinesOutput() );
+
+    baseStep.setLinesOutput( 5L );
+    assertEquals( 0L, baseStep.linesOutput );
+    assertEquals( 5L, baseStep.getLinesOutput() );
+  }
+
+  @Test
+  public void testGetRowsPassesEveryRowToTheRowListeners() throws KettleException {
+    BaseStep baseStep = spy(
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans ) );
+    doNothing().when( baseStep ).waitUntilTransformationIsStarted();
+    doNothing().when( baseStep ).openRemoteInputStepSocketsOnce();
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "nr" ) );
+    BlockingRowSet rowSet = new BlockingRowSet( 10 );
+    for ( long i = 0; i < 5; i++ ) {
+      rowSet.putRow( rowMeta, new Object[] { i } );
+    }
+    rowSet.setDone();
+    baseStep.setInputRowSets( new ArrayList<>( List.of( rowSet ) ) );
+
+    final List<Object[]> rowsRead = new ArrayList<>();
+    baseStep.addRowListener( new RowAdapter() {
+      @Override
+      public void rowReadEvent( RowMetaInterface rowMeta, Object[] row ) {
+        rowsRead.add( row );
+      }
+    } );
+
+    Object[][] rows = baseStep.getRows( 10 );
+    assertEquals( 5, rows.length );
+    assertEquals( 5, rowsRead.size() );
+    for ( int i = 0; i < 5; i++ ) {
+      assertEquals( (long) i, rows[ i ][ 0 ] );
+      assertSame( rows[ i ], rowsRead.get( i ) );
+    }
+    assertEquals( 5L, baseStep.getLinesRead() );
+
+    assertNull( baseStep.getRows( 10 ) );
+    assertTrue( baseStep.getInputRowSets().isEmpty() );
+  }
+
+  @Test
+  public void testGetRowsSwitchesInputRowSetsLikeGetRow() throws KettleException {
+    BaseStep baseStep = spy(
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans ) );
+    doNothing().when( baseStep ).waitUntilTransformationIsStarted();
+    doNothing().when( baseStep ).openRemoteInputStepSocketsOnce();
+
+    RowMeta rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "nr" ) );
+    List<RowSet> rowSets = new ArrayList<>();
+    for ( int r = 0; r < 2; r++ ) {
+      BlockingRowSet rowSet = new BlockingRowSet( 1000 );
+      for ( long i = 0; i < 600; i++ ) {
+        rowSet.putRow( rowMeta, new Object[] { i } );
+      }
+      rowSets.add( rowSet );
+    }
+    baseStep.setInputRowSets( rowSets );
+
+    // A block of rows is read from one input rowset before switching to the next one
+    assertEquals( 500, baseStep.getRows( 1000 ).length );
+    assertEquals( 100, rowSets.get( 0 ).size() );
+    assertEquals( 600, rowSets.get( 1 ).size() );
+    assertEquals( 500L, baseStep.getLinesRead() );
+  }
 }
@@ -0,0 +1,152 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class ColumnarRowWriterTest {
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    KettleEnvironment.init();
+  }
+
+  private static RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "bool" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "big" ) );
+    rowMeta.addValueMeta( new ValueMetaBinary( "bin" ) );
+    return rowMeta;
+  }
+
+  private static List<Object[]> createRows( int nrRows ) {
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] {
+        i % 7 == 0 ? null : (long) i - 1000,
+        i % 5 == 0 ? null : i / 3.0,
+        i % 11 == 0 ? null : "value" + ( i / 10 ),
+        i % 13 == 0 ? null : new Date( 1500000000000L + i ),
+        i % 3 == 0 ? null : i % 2 == 0,
+        i % 17 == 0 ? null : new BigDecimal( i + ".25" ),
+        i % 19 == 0 ? null : new byte[] { (byte) i, 1, 2 }, } );
+    }
+    return rows;
+  }
+
+  private static List<Object[]> roundTrip( List<Object[]> rows, CompressionProvider compressionProvider )
+    throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream outputStream = new DataOutputStream( bytes );
+    ColumnarRowWriter writer = new ColumnarRowWriter( createRowMeta(), outputStream, compressionProvider, 100 );
+    writer.writeHeader();
+    for ( Object[] row : rows ) {
+      writer.putRow( row );
+    }
+    writer.finish();
+
+    DataInputStream inputStream = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+    assertEquals( ColumnarRowWriter.MAGIC, inputStream.readInt() );
+    ColumnarRowReader reader = new ColumnarRowReader( inputStream );
+    assertEquals( createRowMeta().size(), reader.getRowMeta().size() );
+
+    List<Object[]> read = new ArrayList<>();
+    Object[] row = reader.getRow();
+    while ( row != null ) {
+      read.add( row );
+      row = reader.getRow();
+    }
+    assertNull( reader.getRow() );
+    return read;
+  }
+
+  private static void assertSameRows( List<Object[]> expected, List<Object[]> actual ) {
+    assertEquals( expected.size(), actual.size() );
+    for ( int r = 0; r < expected.size(); r++ ) {
+      assertTrue( actual.get( r ).length >= expected.get( r ).length );
+      for ( int i = 0; i < expected.get( r ).length; i++ ) {
+        Object value = expected.get( r )[ i ];
+        if ( value instanceof byte[] ) {
+          assertArrayEquals( (byte[]) value, (byte[]) actual.get( r )[ i ] );
+        } else {
+          assertEquals( "Row " + r + ", field " + i, value, actual.get( r )[ i ] );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    List<Object[]> rows = createRows( 1234 );
+    assertSameRows( rows, roundTrip( rows, null ) );
+  }
+
+  @Test
+  public void testRoundTripCompressed() throws Exception {
+    List<Object[]> rows = createRows( 250 );
+    CompressionProvider gzip = CompressionProviderFactory.getInstance().getCompressionProviderByName( "GZip" );
+    assertSameRows( rows, roundTrip( rows, gzip ) );
+  }
+
+  @Test
+  public void testNoRows() throws Exception {
+    assertTrue( roundTrip( new ArrayList<>(), null ).isEmpty() );
+  }
+
+  @Test
+  public void testRepeatedStringsAreSmall() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ColumnarRowWriter writer = new ColumnarRowWriter( rowMeta, new DataOutputStream( bytes ), null, 1000 );
+    for ( int i = 0; i < 1000; i++ ) {
+      writer.putRow( new Object[] { "a rather long string value that repeats" } );
+    }
+    writer.finish();
+
+    // One dictionary entry and one run
+    assertTrue( "Frame size: " + bytes.size(), bytes.size() < 100 );
+  }
+}
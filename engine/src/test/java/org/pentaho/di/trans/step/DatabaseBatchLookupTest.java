@@ -0,0 +1,188 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.MySQLDatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class DatabaseBatchLookupTest {
+
+  private Database db;
+  private PreparedStatement prepStatement;
+
+  @Before
+  public void setUp() throws Exception {
+    DatabaseMeta dbMeta = new DatabaseMeta();
+    dbMeta.setDatabaseInterface( new MySQLDatabaseMeta() );
+
+    db = mock( Database.class );
+    prepStatement = mock( PreparedStatement.class );
+    when( db.getDatabaseMeta() ).thenReturn( dbMeta );
+    when( db.prepareSQL( anyString() ) ).thenReturn( prepStatement );
+    when( db.openQuery( eq( prepStatement ), any( RowMetaInterface.class ), any( Object[].class ) ) )
+      .thenReturn( mock( ResultSet.class ) );
+
+    RowMetaInterface resultMeta = new RowMeta();
+    resultMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    resultMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.getReturnRowMeta() ).thenReturn( resultMeta );
+  }
+
+  private RowMetaInterface createKeyMeta() {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    return keyMeta;
+  }
+
+  @Test
+  public void testSqlWithOneKey() {
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "id" }, createKeyMeta(), new String[] { "name" }, null, 3 );
+
+    assertEquals( "SELECT id, name FROM lookup WHERE id IN (?, ?, ?)", lookup.getSql() );
+  }
+
+  @Test
+  public void testSqlWithCompositeKeys() {
+    RowMetaInterface keyMeta = createKeyMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "code" ) );
+    DatabaseBatchLookup lookup = new DatabaseBatchLookup( db, "lookup", new String[] { "id", "code" }, keyMeta,
+      new String[] { "name" }, "name DESC", 2 );
+
+    assertEquals( "SELECT id, code, name FROM lookup WHERE ( id = ? AND code = ? ) OR ( id = ? AND code = ? )"
+      + " ORDER BY name DESC", lookup.getSql() );
+  }
+
+  @Test
+  public void testResultsAreMatchedToKeys() throws Exception {
+    when( db.getRow( any( ResultSet.class ) ) ).thenReturn(
+      new Object[] { 2L, "two" }, new Object[] { 1L, "one" }, new Object[] { 2L, "second two" },
+      new Object[] { 2L, "third two" }, null );
+
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "id" }, createKeyMeta(), new String[] { "name" }, null, 4 );
+    Map<Object[], List<Object[]>> results = lookup.lookup( Arrays.asList(
+      new Object[] { 1L }, new Object[] { 2L }, new Object[] { 1L }, new Object[] { 3L }, new Object[] { null } ) );
+
+    assertEquals( 4, results.size() );
+    assertArrayEquals( new Object[] { "one" }, results.get( new Object[] { 1L } ).get( 0 ) );
+    assertEquals( 2, results.get( new Object[] { 2L } ).size() );
+    assertArrayEquals( new Object[] { "two" }, results.get( new Object[] { 2L } ).get( 0 ) );
+    assertTrue( results.get( new Object[] { 3L } ).isEmpty() );
+    assertTrue( results.get( new Object[] { null } ).isEmpty() );
+    assertEquals( "name", lookup.getReturnRowMeta().getValueMeta( 0 ).getName() );
+
+    // The null key isn't sent, the last key is repeated to fill the batch
+    ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass( Object[].class );
+    verify( db ).openQuery( eq( prepStatement ), any( RowMetaInterface.class ), params.capture() );
+    assertArrayEquals( new Object[] { 1L, 2L, 3L, 3L }, params.getValue() );
+  }
+
+  @Test
+  public void testReturnedKeysAreConvertedToTheKeyType() throws Exception {
+    RowMetaInterface resultMeta = new RowMeta();
+    resultMeta.addValueMeta( new ValueMetaBigNumber( "id" ) );
+    resultMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.getReturnRowMeta() ).thenReturn( resultMeta );
+    when( db.getRow( any( ResultSet.class ) ) ).thenReturn(
+      new Object[] { new BigDecimal( "2" ), "two" }, new Object[] { new BigDecimal( "1.0" ), "one" }, null );
+
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "id" }, createKeyMeta(), new String[] { "name" }, null, 4 );
+    Map<Object[], List<Object[]>> results =
+      lookup.lookup( Arrays.asList( new Object[] { 1L }, new Object[] { 2L }, new Object[] { 3L } ) );
+
+    assertArrayEquals( new Object[] { "one" }, results.get( new Object[] { 1L } ).get( 0 ) );
+    assertArrayEquals( new Object[] { "two" }, results.get( new Object[] { 2L } ).get( 0 ) );
+    assertTrue( results.get( new Object[] { 3L } ).isEmpty() );
+  }
+
+  @Test
+  public void testPaddedStringsAreLeftWithoutRows() throws Exception {
+    RowMetaInterface keyMeta = new RowMeta();
+    keyMeta.addValueMeta( new ValueMetaString( "code" ) );
+    RowMetaInterface resultMeta = new RowMeta();
+    resultMeta.addValueMeta( new ValueMetaString( "code" ) );
+    resultMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.getReturnRowMeta() ).thenReturn( resultMeta );
+    // A CHAR(4) column, the database compares without the padding
+    when( db.getRow( any( ResultSet.class ) ) ).thenReturn(
+      new Object[] { "ab  ", "padded" }, new Object[] { "abcd", "full" }, null );
+
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "code" }, keyMeta, new String[] { "name" }, null, 2 );
+    Map<Object[], List<Object[]>> results =
+      lookup.lookup( Arrays.asList( new Object[] { "ab" }, new Object[] { "abcd" } ) );
+
+    // Not a match for Kettle: the key has to be looked up on its own
+    assertTrue( results.get( new Object[] { "ab" } ).isEmpty() );
+    assertArrayEquals( new Object[] { "full" }, results.get( new Object[] { "abcd" } ).get( 0 ) );
+  }
+
+  @Test( expected = KettleDatabaseException.class )
+  public void testUnconvertibleKeyFailsTheBatch() throws Exception {
+    RowMetaInterface resultMeta = new RowMeta();
+    resultMeta.addValueMeta( new ValueMetaString( "id" ) );
+    resultMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.getReturnRowMeta() ).thenReturn( resultMeta );
+    when( db.getRow( any( ResultSet.class ) ) ).thenReturn( new Object[] { "not a number", "one" }, null );
+
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "id" }, createKeyMeta(), new String[] { "name" }, null, 2 );
+    lookup.lookup( Arrays.asList( new Object[] { 1L }, new Object[] { 2L } ) );
+  }
+
+  @Test
+  public void testKeysAreSplitInBatches() throws Exception {
+    when( db.getRow( any( ResultSet.class ) ) ).thenReturn( null );
+
+    DatabaseBatchLookup lookup =
+      new DatabaseBatchLookup( db, "lookup", new String[] { "id" }, createKeyMeta(), new String[] { "name" }, null, 2 );
+    lookup.lookup( Arrays.asList( new Object[] { 1L }, new Object[] { 2L }, new Object[] { 3L } ) );
+
+    verify( db, times( 1 ) ).prepareSQL( anyString() );
+    verify( db, times( 2 ) ).openQuery( eq( prepStatement ), any( RowMetaInterface.class ), any( Object[].class ) );
+
+    lookup.close();
+    verify( db ).closePreparedStatement( prepStatement );
+  }
+}
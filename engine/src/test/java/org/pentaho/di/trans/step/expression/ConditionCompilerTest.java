@@ -0,0 +1,133 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step.expression;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.Condition;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaAndData;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class ConditionCompilerTest {
+
+  private RowMetaInterface rowMeta;
+  private List<Object[]> rows;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "n" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+
+    rows = Arrays.asList(
+      new Object[] { 1L, 2L, 1.5, "abc" },
+      new Object[] { 2L, 2L, -0.5, "xyz" },
+      new Object[] { 3L, 2L, 0.0, "" },
+      new Object[] { null, 2L, null, null },
+      new Object[] { Long.MIN_VALUE, null, Double.NaN, "ab" } );
+  }
+
+  @Test
+  public void testComparisonsOfFields() throws Exception {
+    for ( int function : new int[] { Condition.FUNC_EQUAL, Condition.FUNC_NOT_EQUAL, Condition.FUNC_SMALLER,
+      Condition.FUNC_SMALLER_EQUAL, Condition.FUNC_LARGER, Condition.FUNC_LARGER_EQUAL } ) {
+      assertSameResults( new Condition( "a", function, "b", null ) );
+    }
+  }
+
+  @Test
+  public void testComparisonsWithConstants() throws Exception {
+    for ( int function : new int[] { Condition.FUNC_EQUAL, Condition.FUNC_NOT_EQUAL, Condition.FUNC_SMALLER,
+      Condition.FUNC_SMALLER_EQUAL, Condition.FUNC_LARGER, Condition.FUNC_LARGER_EQUAL } ) {
+      assertSameResults( new Condition( "a", function, null,
+        new ValueMetaAndData( new ValueMetaInteger( "constant" ), 2L ) ) );
+      assertSameResults( new Condition( "n", function, null,
+        new ValueMetaAndData( new ValueMetaNumber( "constant" ), 0.0 ) ) );
+      assertSameResults( new Condition( "s", function, null,
+        new ValueMetaAndData( new ValueMetaString( "constant" ), "ab" ) ) );
+    }
+  }
+
+  @Test
+  public void testStringFunctions() throws Exception {
+    assertSameResults( new Condition( "s", Condition.FUNC_NULL, null, null ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_NOT_NULL, null, null ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_CONTAINS, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "b" ) ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_STARTS_WITH, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "ab" ) ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_ENDS_WITH, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "z" ) ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_REGEXP, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "a.*" ) ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_LIKE, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "%b_" ) ) );
+    assertSameResults( new Condition( "s", Condition.FUNC_IN_LIST, null,
+      new ValueMetaAndData( new ValueMetaString( "constant" ), "abc;xyz" ) ) );
+  }
+
+  @Test
+  public void testCompositeConditions() throws Exception {
+    for ( int operator : new int[] { Condition.OPERATOR_OR, Condition.OPERATOR_AND, Condition.OPERATOR_OR_NOT,
+      Condition.OPERATOR_AND_NOT, Condition.OPERATOR_XOR } ) {
+      Condition condition = new Condition();
+      condition.addCondition( new Condition( "a", Condition.FUNC_SMALLER, "b", null ) );
+      condition.addCondition( new Condition( operator, "s", Condition.FUNC_NOT_NULL, null, null ) );
+      condition.addCondition( new Condition( operator, "n", Condition.FUNC_LARGER, null,
+        new ValueMetaAndData( new ValueMetaNumber( "constant" ), 0.0 ) ) );
+      assertSameResults( condition );
+
+      condition.setNegated( true );
+      assertSameResults( condition );
+    }
+  }
+
+  @Test
+  public void testUnknownFieldIsFalse() throws Exception {
+    Condition condition = new Condition();
+    condition.addCondition( new Condition( "a", Condition.FUNC_SMALLER, "b", null ) );
+    Condition unknown = new Condition( true, "unknown", Condition.FUNC_NULL, null, null );
+    unknown.setOperator( Condition.OPERATOR_OR );
+    condition.addCondition( unknown );
+
+    assertSameResults( condition );
+  }
+
+  @Test
+  public void testNothingToCompile() throws Exception {
+    assertNull( new ConditionCompiler( rowMeta ).compile( new Condition() ) );
+  }
+
+  private void assertSameResults( Condition condition ) throws Exception {
+    CompiledCondition compiled = new ConditionCompiler( rowMeta ).compile( condition );
+    assertNotNull( compiled );
+    for ( Object[] row : rows ) {
+      assertEquals( condition.getXML() + " on " + Arrays.toString( row ),
+        condition.evaluate( rowMeta, row ), compiled.evaluate( rowMeta, row ) );
+    }
+  }
+}
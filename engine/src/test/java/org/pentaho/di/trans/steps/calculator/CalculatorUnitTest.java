@@ -14,6 +14,8 @@
 package org.pentaho.di.trans.steps.calculator;
 
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -28,6 +30,7 @@ import static org.mockito.Mockito.times;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.text.ParseException;
@@ -43,10 +46,12 @@ import org.junit.Test;
 import org.mockito.ArgumentMatcher;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMeta;
@@ -61,6 +66,7 @@ import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.RowAdapter;
 import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
 import org.pentaho.di.trans.steps.mock.StepMockHelper;
 
 import junit.framework.Assert;
@@ -1058,4 +1064,165 @@ public class CalculatorUnitTest {
     }
   }
 
+  @Test
+  public void testRowsBeforeAFailingRowOfABatchArePassedOn() throws KettleException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "Value" ) );
+
+    RowSet inputRowSet = new QueueRowSet();
+    for ( String value : new String[] { "1", "2", "not a number", "4" } ) {
+      inputRowSet.putRow( inputRowMeta, new Object[] { value } );
+    }
+    inputRowSet.setDone();
+    RowSet outputRowSet = new QueueRowSet();
+
+    Calculator calculator = new Calculator( smh.stepMeta, smh.stepDataInterface, 0, smh.transMeta, smh.trans );
+    calculator.addRowSetToInputRowSets( inputRowSet );
+    calculator.addRowSetToOutputRowSets( outputRowSet );
+    calculator.setInputRowMeta( inputRowMeta );
+    calculator.init( smh.initStepMetaInterface, smh.initStepDataInterface );
+
+    CalculatorMeta meta = new CalculatorMeta();
+    meta.setCalculation( new CalculatorMetaFunction[] {
+      new CalculatorMetaFunction( "number", CalculatorMetaFunction.CALC_COPY_OF_FIELD, "Value", null, null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" ) } );
+
+    try {
+      calculator.processRow( meta, new CalculatorData() );
+      fail( "The third row can't be converted to an integer" );
+    } catch ( KettleStepException e ) {
+      // expected
+    }
+
+    assertEquals( 2, outputRowSet.size() );
+    assertEquals( 1L, outputRowSet.getRow()[ 1 ] );
+    assertEquals( 2L, outputRowSet.getRow()[ 1 ] );
+  }
+
+  @Test
+  public void testCompiledCalculationsGiveTheResultsOfTheInterpreter() throws KettleException {
+    CalculatorData compiledData = new CalculatorData();
+    List<Object[]> compiled = calculate( getParityRowMeta(), getParityRows(), getParityCalculations(), compiledData,
+      true );
+    CalculatorData interpretedData = new CalculatorData();
+    List<Object[]> interpreted = calculate( getParityRowMeta(), getParityRows(), getParityCalculations(),
+      interpretedData, false );
+
+    assertNotNull( compiledData.getCompiledCalculation() );
+    assertNull( interpretedData.getCompiledCalculation() );
+    assertEquals( getParityRows().length, compiled.size() );
+    assertEquals( getParityRows().length, interpreted.size() );
+    RowMetaInterface outputRowMeta = compiledData.getOutputRowMeta();
+    for ( int i = 0; i < compiled.size(); i++ ) {
+      for ( int j = 0; j < outputRowMeta.size(); j++ ) {
+        assertEquals( "row " + i + ", field " + outputRowMeta.getValueMeta( j ).getName(), interpreted.get( i )[ j ],
+          compiled.get( i )[ j ] );
+      }
+    }
+  }
+
+  @Test
+  public void testCalculationsTheCompilerRejectsFallBackToTheInterpreter() throws KettleException {
+    RowMetaInterface inputRowMeta = getParityRowMeta();
+    CalculatorMetaFunction[] calculations = getParityCalculations();
+    CalculatorData data = new CalculatorData();
+    calculate( inputRowMeta, getParityRows(), calculations, data, true );
+
+    CalculatorCompiler compiler =
+      new CalculatorCompiler( calculations, data.getCalcRowMeta(), data.getFieldIndexes(), inputRowMeta.size() );
+    List<Integer> fallbacks = new ArrayList<>();
+    CompiledCalculation compiled = compiler.compile( ( nr, rowMeta, row ) -> {
+      fallbacks.add( nr );
+      return null;
+    } );
+    compiled.calculate( inputRowMeta,
+      RowDataUtil.resizeArray( getParityRows()[ 0 ], data.getCalcRowMeta().size() ) );
+
+    // The divide, the mixed types, the big numbers and the conversion to a string
+    assertEquals( 10, compiler.getNrCompiled() );
+    assertEquals( Arrays.asList( 10, 11, 12, 13 ), fallbacks );
+  }
+
+  private static RowMetaInterface getParityRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "i1" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "i2" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "n1" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "n2" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bn" ) );
+    return rowMeta;
+  }
+
+  private static Object[][] getParityRows() {
+    return new Object[][] {
+      { 3L, 4L, 1.5, -2.25, new BigDecimal( "1.5" ) },
+      { null, 4L, null, 2.0, null },
+      { -7L, null, -0.5, null, new BigDecimal( "-2" ) },
+      { null, null, null, null, null }, };
+  }
+
+  private static CalculatorMetaFunction[] getParityCalculations() {
+    return new CalculatorMetaFunction[] {
+      // Compiled
+      newCalculation( "constant", CalculatorMetaFunction.CALC_CONSTANT, "text", null,
+        ValueMetaInterface.TYPE_STRING ),
+      newCalculation( "copy", CalculatorMetaFunction.CALC_COPY_OF_FIELD, "i1", null,
+        ValueMetaInterface.TYPE_INTEGER ),
+      newCalculation( "i_add", CalculatorMetaFunction.CALC_ADD, "i1", "i2", ValueMetaInterface.TYPE_INTEGER ),
+      newCalculation( "n_subtract", CalculatorMetaFunction.CALC_SUBTRACT, "n1", "n2",
+        ValueMetaInterface.TYPE_NUMBER ),
+      newCalculation( "i_multiply", CalculatorMetaFunction.CALC_MULTIPLY, "i1", "i2",
+        ValueMetaInterface.TYPE_INTEGER ),
+      newCalculation( "n_square", CalculatorMetaFunction.CALC_SQUARE, "n1", null, ValueMetaInterface.TYPE_NUMBER ),
+      newCalculation( "i_abs", CalculatorMetaFunction.CALC_ABS, "i1", null, ValueMetaInterface.TYPE_INTEGER ),
+      newCalculation( "n_abs", CalculatorMetaFunction.CALC_ABS, "n1", null, ValueMetaInterface.TYPE_NUMBER ),
+      newCalculation( "i_nvl", CalculatorMetaFunction.CALC_NVL, "i1", "i2", ValueMetaInterface.TYPE_INTEGER ),
+      newCalculation( "n_nvl", CalculatorMetaFunction.CALC_NVL, "n1", "n2", ValueMetaInterface.TYPE_NUMBER ),
+      // Done by the step
+      newCalculation( "n_divide", CalculatorMetaFunction.CALC_DIVIDE, "n1", "n2", ValueMetaInterface.TYPE_NUMBER ),
+      newCalculation( "mixed_add", CalculatorMetaFunction.CALC_ADD, "i1", "n1", ValueMetaInterface.TYPE_NUMBER ),
+      newCalculation( "bn_add", CalculatorMetaFunction.CALC_ADD, "bn", "bn", ValueMetaInterface.TYPE_BIGNUMBER ),
+      newCalculation( "copy_as_string", CalculatorMetaFunction.CALC_COPY_OF_FIELD, "i1", null,
+        ValueMetaInterface.TYPE_STRING ), };
+  }
+
+  private static CalculatorMetaFunction newCalculation( String fieldName, int calcType, String fieldA, String fieldB,
+    int valueType ) {
+    return new CalculatorMetaFunction( fieldName, calcType, fieldA, fieldB, null, valueType, 0, 0, false, "", "", "",
+      "" );
+  }
+
+  private List<Object[]> calculate( RowMetaInterface inputRowMeta, Object[][] rows,
+    CalculatorMetaFunction[] calculations, CalculatorData data, boolean compile ) throws KettleException {
+    RowSet inputRowSet = new QueueRowSet();
+    for ( Object[] row : rows ) {
+      inputRowSet.putRow( inputRowMeta, row );
+    }
+    inputRowSet.setDone();
+    RowSet outputRowSet = new QueueRowSet();
+
+    Calculator calculator = new Calculator( smh.stepMeta, smh.stepDataInterface, 0, smh.transMeta, smh.trans );
+    calculator.addRowSetToInputRowSets( inputRowSet );
+    calculator.addRowSetToOutputRowSets( outputRowSet );
+    calculator.setInputRowMeta( inputRowMeta );
+    calculator.init( smh.initStepMetaInterface, smh.initStepDataInterface );
+
+    CalculatorMeta meta = new CalculatorMeta();
+    meta.setCalculation( calculations );
+
+    System.setProperty( Const.KETTLE_COMPILE_EXPRESSIONS, compile ? "Y" : "N" );
+    try {
+      while ( calculator.processRow( meta, data ) ) {
+        // Calculate all the rows
+      }
+    } finally {
+      System.clearProperty( Const.KETTLE_COMPILE_EXPRESSIONS );
+    }
+
+    List<Object[]> result = new ArrayList<>();
+    for ( Object[] row = outputRowSet.getRow(); row != null; row = outputRowSet.getRow() ) {
+      result.add( row );
+    }
+    return result;
+  }
 }
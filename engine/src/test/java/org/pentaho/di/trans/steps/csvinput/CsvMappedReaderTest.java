@@ -0,0 +1,214 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pentaho.di.core.row.value.BinaryStringSlice;
+import org.pentaho.di.trans.steps.textfileinput.EncodingType;
+
+public class CsvMappedReaderTest {
+
+  private static final byte[] DELIMITER = { ',' };
+  private static final byte[] ENCLOSURE = { '"' };
+
+  private final List<RandomAccessFile> files = new ArrayList<>();
+
+  @After
+  public void tearDown() throws IOException {
+    for ( RandomAccessFile file : files ) {
+      file.close();
+    }
+  }
+
+  @Test
+  public void testFieldsAndLineEnds() throws Exception {
+    CsvMappedReader reader = createReader(
+      "first field,\"enclosed, with \"\"escaped\"\" enclosures\",3\r\n"
+        + "a,b\n"
+        + "\"x\"\"\",,last\r\n"
+        + "\n"
+        + "one,two,three,four\n"
+        + "no,new,line", ENCLOSURE, false, 3 );
+
+    assertEquals( "[first field][enclosed, with \"escaped\" enclosures][3]", readRow( reader, 3 ) );
+    assertEquals( "[a][b]", readRow( reader, 3 ) );
+    assertEquals( "[x\"][][last]", readRow( reader, 3 ) );
+    assertEquals( "[]", readRow( reader, 3 ) );
+    assertEquals( "[one][two][three]", readRow( reader, 3 ) );
+    assertEquals( "[no][new][line]", readRow( reader, 3 ) );
+    assertEquals( CsvMappedReader.END_OF_FILE, reader.readRow( new byte[ 3 ][] ) );
+  }
+
+  @Test
+  public void testSlices() throws Exception {
+    CsvMappedReader reader = createReader(
+      "first,\"with \"\"escaped\"\" enclosures\",\"\"\"\",last\r\n"
+        + "a,,b\n"
+        + "x", ENCLOSURE, false, 3 );
+
+    BinaryStringSlice[] fields = new BinaryStringSlice[ 3 ];
+    assertEquals( 4, reader.readRowSlices( fields ) );
+    assertEquals( "[first][with \"escaped\" enclosures][\"]", toString( fields, 3 ) );
+    assertSame( fields[ 0 ].getBuffer(), fields[ 2 ].getBuffer() );
+
+    assertEquals( 3, reader.readRowSlices( fields ) );
+    assertEquals( "[a][][b]", toString( fields, 3 ) );
+    assertEquals( 1, reader.readRowSlices( null ) );
+    assertEquals( CsvMappedReader.END_OF_FILE, reader.readRowSlices( fields ) );
+  }
+
+  @Test
+  public void testNewLinesInFields() throws Exception {
+    CsvMappedReader reader = createReader(
+      "\"new\nline\",b\n"
+        + "not\nenclosed,last\nrow", ENCLOSURE, true, 2 );
+
+    assertEquals( "[new\nline][b]", readRow( reader, 2 ) );
+    assertEquals( "[not\nenclosed][last]", readRow( reader, 2 ) );
+    assertEquals( "[row]", readRow( reader, 2 ) );
+    assertEquals( CsvMappedReader.END_OF_FILE, reader.readRow( null ) );
+  }
+
+  @Test
+  public void testRowsAcrossWindows() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for ( int i = 0; i < 100; i++ ) {
+      content.append( i ).append( ",\"" ).append( repeat( 'x', i ) ).append( "\"\n" );
+    }
+    CsvMappedReader reader = createReader( content.toString(), ENCLOSURE, false, 2 );
+    reader.setWindowSize( 16 );
+
+    for ( int i = 0; i < 100; i++ ) {
+      assertEquals( "[" + i + "][" + repeat( 'x', i ) + "]", readRow( reader, 2 ) );
+    }
+    assertEquals( CsvMappedReader.END_OF_FILE, reader.readRow( null ) );
+  }
+
+  @Test
+  public void testRowStartAfterEveryPosition() throws Exception {
+    String content = "id,text\r\n"
+      + "1,\"first line\r\nsecond line\"\r\n"
+      + "2,\"a \"\"quoted\"\"\n\nparagraph\"\n"
+      + "3,plain\r"
+      + "4,\"\"\n"
+      + "5,\"end\"";
+    List<Long> rowStarts = new ArrayList<>();
+    CsvMappedReader reader = createReader( content, ENCLOSURE, false, 2 );
+    while ( reader.readRow( null ) != CsvMappedReader.END_OF_FILE ) {
+      rowStarts.add( reader.getPosition() );
+    }
+
+    for ( long from = 1; from <= content.length(); from++ ) {
+      long expected = content.length();
+      for ( long rowStart : rowStarts ) {
+        if ( rowStart >= from ) {
+          expected = rowStart;
+          break;
+        }
+      }
+      reader = createReader( content, ENCLOSURE, false, 2 );
+      assertEquals( "Block starting at " + from, expected, reader.skipToRowStart( from ) );
+    }
+  }
+
+  @Test
+  public void testSpeculativeRowStart() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for ( int i = 0; i < 100; i++ ) {
+      content.append( i ).append( ",\"multi\nline\",\"text\"\n" );
+    }
+    long row50 = content.indexOf( "\n50," ) + 1;
+    long row51 = content.indexOf( "\n51," ) + 1;
+
+    // Inside the enclosure, before its new line
+    //
+    CsvMappedReader reader = createReader( content.toString(), ENCLOSURE, false, 3 );
+    assertEquals( row51, reader.skipToRowStart( row50 + 5 ) );
+    assertFalse( reader.isBoundaryScannedFromFileStart() );
+    assertEquals( "[51][multi\nline][text]", readRow( reader, 3 ) );
+
+    // After the new line of the enclosure
+    //
+    reader = createReader( content.toString(), ENCLOSURE, false, 3 );
+    assertEquals( row51, reader.skipToRowStart( row50 + 10 ) );
+    assertFalse( reader.isBoundaryScannedFromFileStart() );
+  }
+
+  @Test
+  public void testNewLinesInFieldsScanFromFileStart() throws Exception {
+    CsvMappedReader reader = createReader( "a\nb,c\nd,e\nf\n", null, true, 2 );
+    assertEquals( 6L, reader.skipToRowStart( 3 ) );
+    assertTrue( reader.isBoundaryScannedFromFileStart() );
+    assertEquals( "[d][e]", readRow( reader, 2 ) );
+  }
+
+  @Test
+  public void testUnsupported() {
+    assertTrue( CsvMappedReader.isSupported( EncodingType.SINGLE, DELIMITER, null ) );
+    assertFalse( CsvMappedReader.isSupported( EncodingType.SINGLE, new byte[] { ';', ';' }, ENCLOSURE ) );
+    assertFalse( CsvMappedReader.isSupported( EncodingType.DOUBLE_BIG_ENDIAN, DELIMITER, ENCLOSURE ) );
+  }
+
+  private CsvMappedReader createReader( String content, byte[] enclosure, boolean newlinePossible, int nrFields )
+    throws IOException {
+    File file = File.createTempFile( "PDI_tmp", ".csv" );
+    file.deleteOnExit();
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+    RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+    files.add( randomAccessFile );
+    FileChannel channel = randomAccessFile.getChannel();
+    return new CsvMappedReader( channel, 0, DELIMITER, enclosure, newlinePossible, nrFields );
+  }
+
+  private static String readRow( CsvMappedReader reader, int nrFields ) throws IOException {
+    byte[][] fields = new byte[ nrFields ][];
+    int nr = reader.readRow( fields );
+    StringBuilder row = new StringBuilder();
+    for ( int i = 0; i < Math.min( nr, nrFields ); i++ ) {
+      row.append( '[' ).append( new String( fields[ i ], StandardCharsets.UTF_8 ) ).append( ']' );
+    }
+    return row.toString();
+  }
+
+  private static String toString( BinaryStringSlice[] fields, int nr ) throws IOException {
+    StringBuilder row = new StringBuilder();
+    for ( int i = 0; i < nr; i++ ) {
+      row.append( '[' ).append( fields[ i ].toString( "UTF-8" ) ).append( ']' );
+    }
+    return row.toString();
+  }
+
+  private static String repeat( char c, int count ) {
+    StringBuilder builder = new StringBuilder();
+    for ( int i = 0; i < count; i++ ) {
+      builder.append( c );
+    }
+    return builder.toString();
+  }
+}
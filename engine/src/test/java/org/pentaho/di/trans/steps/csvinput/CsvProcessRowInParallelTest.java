@@ -262,6 +262,29 @@ public class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
     assertEquals( 11, t1 + t2 + t3 + t4 );
   }
 
+  @Test
+  public void memoryMapped_newLinesInEnclosedFields() throws Exception {
+    final String fileContent =
+          "a;\"1\r\n1\"\r\n"
+        + "b;\"2\n\"\"2\"\"\n2\"\n"
+        + "\"c\r\n\";3\r"
+        + "d;4\n"
+        + "e;\"5;\n5\"\n"
+        + "\"f\";\"\n6\n6\n6\"";
+
+    File sharedFile = createTestFile( "UTF-8", fileContent );
+
+    for ( int totalNumberOfSteps = 1; totalNumberOfSteps <= 8; totalNumberOfSteps++ ) {
+      int rows = 0;
+      for ( int stepNr = 0; stepNr < totalNumberOfSteps; stepNr++ ) {
+        StepMetaDataCombi combi = createBaseCombi( sharedFile, false, ";", true );
+        configureData( (CsvInputData) combi.data, stepNr, totalNumberOfSteps );
+        rows += processRows( combi );
+      }
+      assertEquals( "Rows read by " + totalNumberOfSteps + " steps", 6, rows );
+    }
+  }
+
   /**
    * So as not to heap up list of taken parameters, we are passing combi, but we expect to see CsvInput class instances
    * in it's content.
@@ -311,11 +334,17 @@ public class CsvProcessRowInParallelTest extends CsvInputUnitTestBase {
   }
 
   private StepMetaDataCombi createBaseCombi( File sharedFile, boolean headerPresent, String delimiter ) {
+    return createBaseCombi( sharedFile, headerPresent, delimiter, false );
+  }
+
+  private StepMetaDataCombi createBaseCombi( File sharedFile, boolean headerPresent, String delimiter,
+                                             boolean memoryMapped ) {
 
     StepMetaDataCombi combi = new StepMetaDataCombi();
 
     CsvInputData data = new CsvInputData();
     CsvInputMeta meta = createMeta( sharedFile, createInputFileFields( "Field_000", "Field_001" ), headerPresent, delimiter );
+    meta.setMemoryMapped( memoryMapped );
 
     CsvInput csvInput = createCsvInput();
     csvInput.init( meta, data );
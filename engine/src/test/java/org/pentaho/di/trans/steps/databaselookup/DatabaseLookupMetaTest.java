@@ -60,8 +60,8 @@ public class DatabaseLookupMetaTest implements InitializerInterface<StepMetaInte
     PluginRegistry.init( false );
     List<String> attributes =
         Arrays.asList( "schemaName", "tablename", "databaseMeta", "orderByClause", "cached",
-            "cacheSize", "loadingAllDataInCache", "failingOnMultipleResults", "eatingRowOnLookupFailure",
-            "streamKeyField1", "streamKeyField2", "keyCondition", "tableKeyField", "returnValueField",
+            "cacheSize", "loadingAllDataInCache", "usingBloomFilter", "negativeCacheSize",
+            "lookupBatchSize", "failingOnMultipleResults", "eatingRowOnLookupFailure", "streamKeyField1", "streamKeyField2", "keyCondition", "tableKeyField", "returnValueField",
             "returnValueNewName", "returnValueDefault", "returnValueDefaultType" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
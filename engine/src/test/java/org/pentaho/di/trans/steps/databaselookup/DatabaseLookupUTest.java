@@ -55,6 +55,7 @@ import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -593,6 +594,51 @@ public class DatabaseLookupUTest {
     return rowMetaOutput;
   }
 
+  @Test
+  public void testKeyWithoutBatchRowsIsLookedUpOnItsOwn() throws Exception {
+    DatabaseLookup step =
+      new DatabaseLookup( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta,
+        mockHelper.trans );
+    DatabaseLookupMeta meta = new DatabaseLookupMeta();
+    meta.setStreamKeyField1( new String[] { "code" } );
+    meta.setReturnValueField( new String[] { "name" } );
+    meta.setReturnValueDefaultType( new int[] { ValueMetaInterface.TYPE_STRING } );
+
+    RowMetaInterface inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "code" ) );
+    RowMetaInterface returnMeta = new RowMeta();
+    returnMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    Database db = mock( Database.class );
+    when( db.getReturnRowMeta() ).thenReturn( returnMeta );
+    when( db.getLookup( anyBoolean() ) ).thenReturn( new Object[] { "padded" } ).thenReturn( null );
+
+    DatabaseLookupData data = new DatabaseLookupData();
+    data.db = db;
+    data.keynrs = new int[] { 0 };
+    data.keynrs2 = new int[] { -1 };
+    data.lookupMeta = inputRowMeta.clone();
+    data.returnMeta = returnMeta;
+    data.outputRowMeta = inputRowMeta.clone();
+    data.outputRowMeta.addRowMeta( returnMeta );
+    data.nullif = new Object[ 1 ];
+    data.missingKeys = new MissingKeysCache( 10 );
+    // The batch query returned "ab  " for "ab" and "cd  " for "cd", rows Kettle doesn't match to the keys
+    data.batchResults = new TreeMap<>( ( key1, key2 ) -> ( (String) key1[ 0 ] ).compareTo( (String) key2[ 0 ] ) );
+    data.batchResults.put( new Object[] { "ab" }, new ArrayList<>() );
+    data.batchResults.put( new Object[] { "cd" }, new ArrayList<>() );
+    setInternalState( step, "meta", meta );
+    setInternalState( step, "data", data );
+
+    assertArrayEquals( new Object[] { "ab", "padded" }, step.lookupValues( inputRowMeta, new Object[] { "ab" } ) );
+    assertEquals( 0, data.missingKeys.size() );
+
+    // Only missing once the lookup of the row didn't find it either
+    assertArrayEquals( new Object[] { "cd", null }, step.lookupValues( inputRowMeta, new Object[] { "cd" } ) );
+    assertEquals( 1, data.missingKeys.size() );
+    verify( db, times( 2 ) ).getLookup( anyBoolean() );
+  }
+
   public class MockDatabaseLookup extends DatabaseLookup {
     public MockDatabaseLookup( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta, Trans trans ) {
       super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
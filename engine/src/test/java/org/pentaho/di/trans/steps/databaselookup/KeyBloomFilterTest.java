@@ -0,0 +1,85 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.junit.Test;
+
+public class KeyBloomFilterTest {
+
+  @Test
+  public void testNoFalseNegatives() {
+    KeyBloomFilter filter = new KeyBloomFilter( 10000 );
+    for ( long i = 0; i < 10000; i++ ) {
+      filter.put( new Object[] { i, "code" + i } );
+    }
+    assertEquals( 10000, filter.getNrKeys() );
+
+    for ( long i = 0; i < 10000; i++ ) {
+      assertTrue( filter.mightContain( new Object[] { i, "code" + i } ) );
+    }
+  }
+
+  @Test
+  public void testMissingKeysAreMostlyFiltered() {
+    KeyBloomFilter filter = new KeyBloomFilter( 10000 );
+    for ( long i = 0; i < 10000; i++ ) {
+      filter.put( new Object[] { i } );
+    }
+
+    int falsePositives = 0;
+    for ( long i = 10000; i < 20000; i++ ) {
+      if ( filter.mightContain( new Object[] { i } ) ) {
+        falsePositives++;
+      }
+    }
+    assertTrue( "False positives: " + falsePositives, falsePositives < 500 );
+  }
+
+  @Test
+  public void testNumbersOfDifferentTypesAreEqual() {
+    KeyBloomFilter filter = new KeyBloomFilter( 10 );
+    filter.put( new Object[] { new BigDecimal( "42.00" ), 1.5 } );
+
+    assertTrue( filter.mightContain( new Object[] { 42L, 1.5 } ) );
+    assertTrue( filter.mightContain( new Object[] { 42.0, new BigDecimal( "1.50" ) } ) );
+    assertTrue( filter.mightContain( new Object[] { new BigDecimal( "42" ), 1.5 } ) );
+  }
+
+  @Test
+  public void testStringsIgnoreCaseAndTrailingSpaces() {
+    KeyBloomFilter filter = new KeyBloomFilter( 10 );
+    filter.put( new Object[] { "Code  ", new Date( 1000L ) } );
+
+    assertTrue( filter.mightContain( new Object[] { "CODE", new Date( 1000L ) } ) );
+    assertTrue( filter.mightContain( new Object[] { "code ", new Date( 1000L ) } ) );
+  }
+
+  @Test
+  public void testNullKeys() {
+    KeyBloomFilter filter = new KeyBloomFilter( 10 );
+    filter.put( new Object[] { null, "a" } );
+    assertEquals( 0, filter.getNrKeys() );
+
+    filter.put( new Object[] { 1L, "a" } );
+    assertFalse( filter.mightContain( new Object[] { null, "a" } ) );
+    assertTrue( filter.mightContain( new Object[] { 1L, "a" } ) );
+  }
+}
@@ -0,0 +1,43 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+public class MissingKeysCacheTest {
+
+  @Test
+  public void testLeastRecentlyUsedKeyIsRemoved() {
+    RowMetaInterface lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    MissingKeysCache cache = new MissingKeysCache( 2 );
+
+    cache.add( lookupMeta, new Object[] { 1L } );
+    cache.add( lookupMeta, new Object[] { 2L } );
+    assertTrue( cache.contains( lookupMeta, new Object[] { 1L } ) );
+
+    cache.add( lookupMeta, new Object[] { 3L } );
+    assertEquals( 2, cache.size() );
+    assertTrue( cache.contains( lookupMeta, new Object[] { 1L } ) );
+    assertFalse( cache.contains( lookupMeta, new Object[] { 2L } ) );
+    assertTrue( cache.contains( lookupMeta, new Object[] { 3L } ) );
+  }
+}
@@ -176,6 +176,12 @@ public class TextFileInputMetaNewInjectionTest extends BaseMetadataInjectionTest
       }
     } );
 
+    check( "RUNNING_IN_PARALLEL", new BooleanGetter() {
+      public boolean get() {
+        return meta.content.runningInParallel;
+      }
+    } );
+
     check( "ROW_LIMIT", new LongGetter() {
       public long get() {
         return meta.content.rowLimit;
@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fileinput.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.pentaho.di.core.compress.NoneCompressionProvider;
+import org.pentaho.di.core.compress.SplittableCompressionProvider;
+import org.pentaho.di.core.compress.gzip.GZIPCompressionProvider;
+import org.pentaho.di.core.compress.snappy.SnappyCompressionProvider;
+import org.xerial.snappy.SnappyOutputStream;
+
+public class TextFileSplitTest {
+
+  private static final String[] LINE_ENDS = { "\n", "\r\n", "\r" };
+
+  private File file;
+
+  @After
+  public void tearDown() {
+    if ( file != null ) {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testNrSplits() {
+    assertEquals( 1, TextFileSplit.getNrSplits( 0L, 4 ) );
+    assertEquals( 1, TextFileSplit.getNrSplits( TextFileSplit.MIN_SPLIT_SIZE * 10, 1 ) );
+    assertEquals( 2, TextFileSplit.getNrSplits( TextFileSplit.MIN_SPLIT_SIZE * 2 + 1, 4 ) );
+    assertEquals( 4, TextFileSplit.getNrSplits( TextFileSplit.MIN_SPLIT_SIZE * 10, 4 ) );
+  }
+
+  @Test
+  public void testUncompressed() throws Exception {
+    for ( String text : getTexts() ) {
+      writeFile( text.getBytes( StandardCharsets.UTF_8 ) );
+      checkSplits( text, new NoneCompressionProvider() );
+    }
+  }
+
+  @Test
+  public void testGzipMembers() throws Exception {
+    for ( String text : getTexts() ) {
+      // Every 50 characters in a member of their own
+      //
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      for ( int i = 0; i < text.length(); i += 50 ) {
+        try ( GZIPOutputStream out = new GZIPOutputStream( bytes ) ) {
+          out.write( text.substring( i, Math.min( text.length(), i + 50 ) ).getBytes( StandardCharsets.UTF_8 ) );
+        }
+      }
+      writeFile( bytes.toByteArray() );
+      checkSplits( text, new GZIPCompressionProvider() );
+    }
+  }
+
+  @Test
+  public void testGzipSingleMember() throws Exception {
+    String text = getTexts()[ 0 ];
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( GZIPOutputStream out = new GZIPOutputStream( bytes ) ) {
+      out.write( text.getBytes( StandardCharsets.UTF_8 ) );
+    }
+    writeFile( bytes.toByteArray() );
+    checkSplits( text, new GZIPCompressionProvider() );
+  }
+
+  @Test
+  public void testSnappyChunks() throws Exception {
+    for ( String text : getTexts() ) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try ( SnappyOutputStream out = new SnappyOutputStream( bytes, 1024 ) ) {
+        out.write( text.getBytes( StandardCharsets.UTF_8 ) );
+      }
+      writeFile( bytes.toByteArray() );
+      checkSplits( text, new SnappyCompressionProvider() );
+    }
+  }
+
+  @Test
+  public void testBomCharset() throws Exception {
+    writeFile( new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'a', '\n' } );
+    try ( FileInputStream fis = new FileInputStream( file ) ) {
+      assertEquals( "UTF-8", TextFileSplit.getBomCharset( fis.getChannel(), new NoneCompressionProvider() ) );
+    }
+    writeFile( new byte[] { 'a', '\n' } );
+    try ( FileInputStream fis = new FileInputStream( file ) ) {
+      assertNull( TextFileSplit.getBomCharset( fis.getChannel(), new NoneCompressionProvider() ) );
+    }
+  }
+
+  /**
+   * The parts, whatever their number, read all the lines of the file once.
+   */
+  private void checkSplits( String text, SplittableCompressionProvider provider ) throws Exception {
+    try ( FileInputStream fis = new FileInputStream( file ) ) {
+      FileChannel channel = fis.getChannel();
+      for ( int nrSplits = 1; nrSplits <= 40; nrSplits++ ) {
+        StringBuilder read = new StringBuilder();
+        for ( int nr = 0; nr < nrSplits; nr++ ) {
+          try ( InputStream in = new TextFileSplit( nr, nrSplits, null ).createInputStream( channel, provider ) ) {
+            String part = new String( readAll( in ), StandardCharsets.UTF_8 );
+            // Only whole lines
+            assertTrue( part.isEmpty() || nr == nrSplits - 1 || part.endsWith( "\n" ) || part.endsWith( "\r" ) );
+            read.append( part );
+          }
+        }
+        assertEquals( "Read in " + nrSplits + " parts", text, read.toString() );
+      }
+    }
+  }
+
+  private static String[] getTexts() {
+    String[] texts = new String[ LINE_ENDS.length + 2 ];
+    for ( int i = 0; i < LINE_ENDS.length; i++ ) {
+      texts[ i ] = getLines( LINE_ENDS[ i ] );
+    }
+    texts[ LINE_ENDS.length ] = getLines( "\r\n" ) + getLines( "\n" ) + getLines( "\r" ) + "no line end";
+    texts[ LINE_ENDS.length + 1 ] = "\n\n\r\n\r\rone\r\n\n\rtwo\r\r";
+    return texts;
+  }
+
+  private static String getLines( String lineEnd ) {
+    StringBuilder lines = new StringBuilder();
+    for ( int i = 0; i < 100; i++ ) {
+      lines.append( "line " ).append( i ).append( ";Z\u00fcrich;" ).append( i * i ).append( lineEnd );
+      if ( i % 10 == 0 ) {
+        lines.append( lineEnd );
+      }
+    }
+    return lines.toString();
+  }
+
+  private void writeFile( byte[] bytes ) throws IOException {
+    if ( file == null ) {
+      file = File.createTempFile( "TextFileSplitTest", ".txt" );
+    }
+    try ( OutputStream out = new FileOutputStream( file ) ) {
+      out.write( bytes );
+    }
+  }
+
+  private static byte[] readAll( InputStream in ) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 37 ];
+    int n;
+    while ( ( n = in.read( buffer, 0, buffer.length ) ) >= 0 ) {
+      bytes.write( buffer, 0, n );
+    }
+    return bytes.toByteArray();
+  }
+}
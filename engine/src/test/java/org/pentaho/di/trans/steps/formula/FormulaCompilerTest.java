@@ -0,0 +1,115 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.formula;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.step.expression.CompiledCalculation;
+
+public class FormulaCompilerTest {
+
+  private RowMetaInterface rowMeta;
+  private List<Integer> interpreted;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "result" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "flag" ) );
+    interpreted = new ArrayList<>();
+  }
+
+  @Test
+  public void testIntegerArithmetic() throws Exception {
+    CompiledCalculation compiled = compile(
+      formula( "result", "([a] + 2) * -[b] - 1", ValueMetaInterface.TYPE_INTEGER ),
+      formula( "number", "[a] * [a]", ValueMetaInterface.TYPE_NUMBER ),
+      formula( "flag", "[a] + [b] >= 10", ValueMetaInterface.TYPE_BOOLEAN ) );
+
+    Object[] row = new Object[] { 3L, 4L, "x", null, null, null };
+    compiled.calculate( rowMeta, row );
+
+    assertArrayEquals( new Object[] { 3L, 4L, "x", -21L, 9.0, Boolean.FALSE }, row );
+    assertEquals( 0, interpreted.size() );
+  }
+
+  @Test
+  public void testNullsAndLargeValuesAreInterpreted() throws Exception {
+    CompiledCalculation compiled = compile(
+      formula( "result", "[a] + [b]", ValueMetaInterface.TYPE_INTEGER ),
+      formula( "number", "[a] * [b]", ValueMetaInterface.TYPE_NUMBER ) );
+
+    compiled.calculate( rowMeta, new Object[] { null, 4L, "x", null, null, null } );
+    assertEquals( Arrays.asList( 0, 1 ), interpreted );
+
+    interpreted.clear();
+    compiled.calculate( rowMeta, new Object[] { 100000000L, 100000000L, "x", null, null, null } );
+    assertEquals( Arrays.asList( 1 ), interpreted );
+  }
+
+  @Test
+  public void testOtherFormulasAreInterpreted() throws Exception {
+    CompiledCalculation compiled = compile(
+      formula( "result", "[a] / [b]", ValueMetaInterface.TYPE_INTEGER ),
+      formula( "number", "[a] + 1.5", ValueMetaInterface.TYPE_NUMBER ),
+      formula( "flag", "[s] = \"x\"", ValueMetaInterface.TYPE_BOOLEAN ),
+      formula( "result", "[a] + 1", ValueMetaInterface.TYPE_INTEGER ) );
+
+    Object[] row = new Object[] { 3L, 4L, "x", null, null, null };
+    compiled.calculate( rowMeta, row );
+
+    assertEquals( 4L, row[3] );
+    assertEquals( Arrays.asList( 0, 1, 2 ), interpreted );
+  }
+
+  @Test
+  public void testNothingToCompile() throws Exception {
+    assertNull( compile( formula( "result", "ABS([a])", ValueMetaInterface.TYPE_INTEGER ),
+      formula( "flag", "[a] = 1", ValueMetaInterface.TYPE_STRING ) ) );
+  }
+
+  private FormulaMetaFunction formula( String fieldName, String formula, int valueType ) {
+    return new FormulaMetaFunction( fieldName, formula, valueType, -1, -1, null );
+  }
+
+  private CompiledCalculation compile( FormulaMetaFunction... formulas ) throws Exception {
+    int[] resultIndex = new int[formulas.length];
+    for ( int i = 0; i < formulas.length; i++ ) {
+      resultIndex[i] = rowMeta.indexOfValue( formulas[i].getFieldName() );
+    }
+    return new FormulaCompiler( formulas, rowMeta, resultIndex ).compile( ( nr, meta, row ) -> {
+      interpreted.add( nr );
+      return null;
+    } );
+  }
+}
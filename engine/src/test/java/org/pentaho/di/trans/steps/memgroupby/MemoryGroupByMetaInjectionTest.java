@@ -63,5 +63,35 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
           return meta.isAlwaysGivingBackOneRow();
         }
       } );
+    check( "SPILL_TO_DISK", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isSpillToDisk();
+      }
+    } );
+    check( "MEMORY_LIMIT", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getMemoryLimit();
+      }
+    } );
+    check( "DIRECTORY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
+    check( "PREFIX", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getPrefix();
+      }
+    } );
+    check( "TWO_PHASE_AGGREGATION", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isTwoPhaseAggregation();
+      }
+    } );
   }
 }
@@ -63,7 +63,8 @@ public class MemoryGroupByMetaTest implements InitializerInterface<MemoryGroupBy
     KettleEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-        Arrays.asList( "alwaysGivingBackOneRow", "groupField", "aggregateField", "subjectField", "aggregateType", "valueField" );
+        Arrays.asList( "alwaysGivingBackOneRow", "groupField", "aggregateField", "subjectField", "aggregateType", "valueField",
+          "spillToDisk", "memoryLimit", "directory", "prefix", "twoPhaseAggregation", "aggregationPhase" );
 
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
         new ArrayLoadSaveValidator<String>( new StringLoadSaveValidator(), 5 );
@@ -75,6 +76,8 @@ public class MemoryGroupByMetaTest implements InitializerInterface<MemoryGroupBy
     attrValidatorMap.put( "valueField", stringArrayLoadSaveValidator );
     attrValidatorMap.put( "aggregateType", new PrimitiveIntArrayLoadSaveValidator(
         new IntLoadSaveValidator( MemoryGroupByMeta.typeGroupCode.length ), 5 ) );
+    attrValidatorMap.put( "aggregationPhase", new IntLoadSaveValidator(
+        MemoryGroupByMeta.aggregationPhaseCode.length ) );
 
     Map<String, FieldLoadSaveValidator<?>> typeValidatorMap = new HashMap<String, FieldLoadSaveValidator<?>>();
 
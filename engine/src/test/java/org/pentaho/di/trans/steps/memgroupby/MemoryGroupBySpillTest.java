@@ -0,0 +1,179 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+public class MemoryGroupBySpillTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final String STEP_NAME = "testStep";
+
+  private static final int[] AGGREGATE_TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_MEDIAN,
+    MemoryGroupByMeta.TYPE_GROUP_PERCENTILE, MemoryGroupByMeta.TYPE_GROUP_MIN, MemoryGroupByMeta.TYPE_GROUP_MAX,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA,
+    MemoryGroupByMeta.TYPE_GROUP_FIRST, MemoryGroupByMeta.TYPE_GROUP_LAST,
+    MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL, MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL,
+    MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION, MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT, MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY, };
+
+  private static final String[] SUBJECTS = {
+    "int", "int", "num", "num", "str", "str", "str", "str", "str", "str", "str", "str", "num", "str", "str", "str", };
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows( int nrRows ) {
+    Random random = new Random( 3 );
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] {
+        "key" + random.nextInt( 300 ),
+        random.nextInt( 10 ) == 0 ? null : (long) random.nextInt( 100 ),
+        (double) random.nextInt( 50 ),
+        random.nextInt( 10 ) == 0 ? null : "s" + random.nextInt( 20 ), } );
+    }
+    return rows;
+  }
+
+  private MemoryGroupByMeta createMeta() {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate( 1, AGGREGATE_TYPES.length );
+    meta.getGroupField()[0] = "key";
+    for ( int i = 0; i < AGGREGATE_TYPES.length; i++ ) {
+      meta.getAggregateField()[i] = "agg" + i;
+      meta.getSubjectField()[i] = SUBJECTS[i];
+      meta.getAggregateType()[i] = AGGREGATE_TYPES[i];
+    }
+    meta.getValueField()[3] = "90";
+    meta.getValueField()[13] = "|";
+    return meta;
+  }
+
+  private Map<Object, Object[]> runStep( List<Object[]> rows, long memoryLimit, List<FileObject> tempFiles )
+    throws KettleException {
+    RowMetaInterface rowMeta = createRowMeta();
+    MemoryGroupByMeta meta = createMeta();
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+    data.memoryLimit = memoryLimit;
+
+    TransMeta transMeta = mock( TransMeta.class );
+    StepMeta stepMeta = new StepMeta( STEP_NAME, meta );
+    when( transMeta.findStep( STEP_NAME ) ).thenReturn( stepMeta );
+
+    MemoryGroupBy step = spy( new MemoryGroupBy( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    step.copyVariablesFrom( new Variables() );
+    doNothing().when( step ).setOutputDone();
+    doReturn( rowMeta ).when( step ).getInputRowMeta();
+    doAnswer( invocation -> {
+      FileObject file = KettleVFS.createTempFile( "mgrp", ".tmp", System.getProperty( "java.io.tmpdir" ) );
+      tempFiles.add( file );
+      return file;
+    } ).when( step ).createTempFile();
+
+    Map<Object, Object[]> output = new HashMap<>();
+    doAnswer( invocation -> {
+      Object[] row = invocation.getArgument( 1 );
+      assertFalse( "Group is output only once", output.containsKey( row[0] ) );
+      output.put( row[0], row );
+      return null;
+    } ).when( step ).putRow( any(), any() );
+
+    for ( Object[] row : rows ) {
+      doReturn( row.clone() ).when( step ).getRow();
+      assertTrue( step.processRow( meta, data ) );
+    }
+    doReturn( null ).when( step ).getRow();
+    assertFalse( step.processRow( meta, data ) );
+    return output;
+  }
+
+  @Test
+  public void testSpilledAggregationIsSameAsInMemory() throws Exception {
+    List<Object[]> rows = createRows( 5000 );
+
+    List<FileObject> tempFiles = new ArrayList<>();
+    Map<Object, Object[]> expected = runStep( rows, 0L, tempFiles );
+    assertTrue( tempFiles.isEmpty() );
+
+    // Small enough to spill a number of times and to partition the spilled partitions again
+    //
+    Map<Object, Object[]> actual = runStep( rows, 20000L, tempFiles );
+    assertTrue( tempFiles.size() > SpillPartitions.NR_PARTITIONS );
+    for ( FileObject file : tempFiles ) {
+      assertFalse( file.exists() );
+    }
+
+    assertEquals( expected.keySet(), actual.keySet() );
+    for ( Map.Entry<Object, Object[]> entry : expected.entrySet() ) {
+      Object[] expectedRow = entry.getValue();
+      Object[] actualRow = actual.get( entry.getKey() );
+      for ( int i = 0; i <= AGGREGATE_TYPES.length; i++ ) {
+        String message = "Group " + entry.getKey() + ", field " + i;
+        if ( expectedRow[i] instanceof Double ) {
+          assertEquals( message, (Double) expectedRow[i], (Double) actualRow[i], 1e-9 );
+        } else {
+          assertEquals( message, expectedRow[i], actualRow[i] );
+        }
+      }
+    }
+  }
+}
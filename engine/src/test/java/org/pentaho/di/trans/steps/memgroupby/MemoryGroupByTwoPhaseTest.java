@@ -0,0 +1,242 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+
+public class MemoryGroupByTwoPhaseTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final String STEP_NAME = "testStep";
+
+  private static final int NR_COPIES = 3;
+
+  private static final int[] AGGREGATE_TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_MEDIAN,
+    MemoryGroupByMeta.TYPE_GROUP_PERCENTILE, MemoryGroupByMeta.TYPE_GROUP_MIN, MemoryGroupByMeta.TYPE_GROUP_MAX,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL, MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA,
+    MemoryGroupByMeta.TYPE_GROUP_FIRST, MemoryGroupByMeta.TYPE_GROUP_LAST,
+    MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL, MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL,
+    MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION, MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT, MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY, };
+
+  private static final String[] SUBJECTS = {
+    "int", "int", "num", "num", "str", "str", "str", "str", "str", "str", "str", "str", "num", "str", "int", "str", };
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "int" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "num" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "str" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows( int nrRows ) {
+    Random random = new Random( 5 );
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] {
+        "key" + random.nextInt( 100 ),
+        random.nextInt( 10 ) == 0 ? null : (long) random.nextInt( 100 ),
+        (double) random.nextInt( 50 ),
+        random.nextInt( 10 ) == 0 ? null : "s" + random.nextInt( 20 ), } );
+    }
+    return rows;
+  }
+
+  private MemoryGroupByMeta createMeta( int aggregationPhase ) {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.setDefault();
+    meta.allocate( 1, AGGREGATE_TYPES.length );
+    meta.getGroupField()[0] = "key";
+    for ( int i = 0; i < AGGREGATE_TYPES.length; i++ ) {
+      meta.getAggregateField()[i] = "agg" + i;
+      meta.getSubjectField()[i] = SUBJECTS[i];
+      meta.getAggregateType()[i] = AGGREGATE_TYPES[i];
+    }
+    meta.getValueField()[3] = "90";
+    meta.getValueField()[13] = "|";
+    meta.setTwoPhaseAggregation( true );
+    meta.setAggregationPhase( aggregationPhase );
+    return meta;
+  }
+
+  // Runs the step and returns the output rows, the output row metadata is stored in outputRowMeta
+  //
+  private List<Object[]> runStep( MemoryGroupByMeta meta, RowMetaInterface rowMeta, List<Object[]> rows,
+    long memoryLimit, RowMetaInterface[] outputRowMeta ) throws KettleException {
+    MemoryGroupByData data = new MemoryGroupByData();
+    data.map = new HashMap<>();
+    data.memoryLimit = memoryLimit;
+
+    TransMeta transMeta = mock( TransMeta.class );
+    StepMeta stepMeta = new StepMeta( STEP_NAME, meta );
+    when( transMeta.findStep( STEP_NAME ) ).thenReturn( stepMeta );
+
+    MemoryGroupBy step = spy( new MemoryGroupBy( stepMeta, data, 0, transMeta, mock( Trans.class ) ) );
+    step.copyVariablesFrom( new Variables() );
+    doNothing().when( step ).setOutputDone();
+    doReturn( rowMeta ).when( step ).getInputRowMeta();
+    doAnswer( invocation -> KettleVFS.createTempFile( "mgrp", ".tmp", System.getProperty( "java.io.tmpdir" ) ) )
+      .when( step ).createTempFile();
+
+    List<Object[]> output = new ArrayList<>();
+    doAnswer( invocation -> {
+      outputRowMeta[0] = invocation.getArgument( 0 );
+      output.add( invocation.getArgument( 1 ) );
+      return null;
+    } ).when( step ).putRow( any(), any() );
+
+    for ( Object[] row : rows ) {
+      doReturn( row.clone() ).when( step ).getRow();
+      assertTrue( step.processRow( meta, data ) );
+    }
+    doReturn( null ).when( step ).getRow();
+    assertFalse( step.processRow( meta, data ) );
+    return output;
+  }
+
+  private Map<Object, Object[]> toMap( List<Object[]> rows ) {
+    Map<Object, Object[]> map = new HashMap<>();
+    for ( Object[] row : rows ) {
+      assertFalse( "Group is output only once", map.containsKey( row[0] ) );
+      map.put( row[0], row );
+    }
+    return map;
+  }
+
+  private Map<Object, Object[]> runTwoPhases( List<Object[]> rows, long memoryLimit ) throws KettleException {
+    // Every copy aggregates a part of the rows, in input order
+    //
+    RowMetaInterface[] partialRowMeta = new RowMetaInterface[1];
+    List<Object[]> partialRows = new ArrayList<>();
+    int partSize = ( rows.size() + NR_COPIES - 1 ) / NR_COPIES;
+    for ( int copy = 0; copy < NR_COPIES; copy++ ) {
+      List<Object[]> part = rows.subList( copy * partSize, Math.min( rows.size(), ( copy + 1 ) * partSize ) );
+      partialRows.addAll( runStep( createMeta( MemoryGroupByMeta.AGGREGATION_PHASE_PARTIAL ), createRowMeta(), part,
+        0L, partialRowMeta ) );
+    }
+    assertEquals( MemoryGroupByMeta.PARTIAL_AGGREGATES_FIELD,
+      partialRowMeta[0].getValueMeta( partialRowMeta[0].size() - 1 ).getName() );
+
+    RowMetaInterface[] finalRowMeta = new RowMetaInterface[1];
+    List<Object[]> finalRows = runStep( createMeta( MemoryGroupByMeta.AGGREGATION_PHASE_FINAL ), partialRowMeta[0],
+      partialRows, memoryLimit, finalRowMeta );
+    assertEquals( -1, finalRowMeta[0].indexOfValue( MemoryGroupByMeta.PARTIAL_AGGREGATES_FIELD ) );
+    return toMap( finalRows );
+  }
+
+  private void assertSameGroups( Map<Object, Object[]> expected, Map<Object, Object[]> actual ) {
+    assertEquals( expected.keySet(), actual.keySet() );
+    for ( Map.Entry<Object, Object[]> entry : expected.entrySet() ) {
+      Object[] expectedRow = entry.getValue();
+      Object[] actualRow = actual.get( entry.getKey() );
+      for ( int i = 0; i <= AGGREGATE_TYPES.length; i++ ) {
+        String message = "Group " + entry.getKey() + ", field " + i;
+        if ( expectedRow[i] instanceof Double ) {
+          assertEquals( message, (Double) expectedRow[i], (Double) actualRow[i], 1e-9 );
+        } else {
+          assertEquals( message, expectedRow[i], actualRow[i] );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTwoPhaseAggregationIsSameAsSinglePhase() throws Exception {
+    List<Object[]> rows = createRows( 3000 );
+
+    Map<Object, Object[]> expected = toMap( runStep( createMeta( MemoryGroupByMeta.AGGREGATION_PHASE_NONE ),
+      createRowMeta(), rows, 0L, new RowMetaInterface[1] ) );
+
+    assertSameGroups( expected, runTwoPhases( rows, 0L ) );
+  }
+
+  @Test
+  public void testFinalPhaseSpillsToDisk() throws Exception {
+    List<Object[]> rows = createRows( 3000 );
+
+    Map<Object, Object[]> expected = toMap( runStep( createMeta( MemoryGroupByMeta.AGGREGATION_PHASE_NONE ),
+      createRowMeta(), rows, 0L, new RowMetaInterface[1] ) );
+
+    assertSameGroups( expected, runTwoPhases( rows, 10000L ) );
+  }
+
+  @Test
+  @SuppressWarnings( "unchecked" )
+  public void testAggregateSerializerRoundTrip() throws Exception {
+    RowMetaInterface valueMeta = new RowMeta();
+    valueMeta.addValueMeta( new ValueMetaInteger( "sum" ) );
+    valueMeta.addValueMeta( new ValueMetaInteger( "distinct" ) );
+    valueMeta.addValueMeta( new ValueMetaString( "concat" ) );
+    int[] types = { MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT,
+      MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA };
+    AggregateSerializer serializer = new AggregateSerializer( valueMeta, types );
+
+    Aggregate aggregate = new Aggregate();
+    aggregate.agg = new Object[] { 42L, null, new StringBuilder( "a, b" ) };
+    aggregate.counts = new long[] { 0L, 2L, 0L };
+    aggregate.mean = new double[3];
+    aggregate.distinctObjs = new Set[3];
+    aggregate.distinctObjs[1] = new TreeSet<>();
+    aggregate.distinctObjs[1].add( 7L );
+    aggregate.distinctObjs[1].add( 9L );
+
+    Aggregate read = serializer.deserialize( serializer.serialize( aggregate ) );
+    assertEquals( 42L, read.agg[0] );
+    assertEquals( 2L, read.counts[1] );
+    assertEquals( aggregate.distinctObjs[1], read.distinctObjs[1] );
+    assertEquals( "a, b", read.agg[2].toString() );
+  }
+}
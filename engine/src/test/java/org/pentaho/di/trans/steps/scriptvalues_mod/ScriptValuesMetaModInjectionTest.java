@@ -46,6 +46,11 @@ public class ScriptValuesMetaModInjectionTest extends BaseMetadataInjectionTest<
         return meta.getOptimizationLevel();
       }
     } );
+    check( "HIGH_PERFORMANCE_MODE", new BooleanGetter() {
+      public boolean get() {
+        return meta.isHighPerformance();
+      }
+    } );
     check( "FIELD_NAME", new StringGetter() {
       public String get() {
         return meta.getFieldname()[ 0 ];
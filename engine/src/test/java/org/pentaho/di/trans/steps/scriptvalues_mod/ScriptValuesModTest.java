@@ -17,18 +17,26 @@ import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 import org.pentaho.di.trans.TransTestingUtil;
+import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.steps.StepMockUtil;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author Andrey Khayrutdinov
@@ -103,4 +111,73 @@ public class ScriptValuesModTest {
     Object[] row = TransTestingUtil.execute( step, meta, data, 1, false ).get( 0 );
     TransTestingUtil.assertResult( expectedRow, row );
   }
+
+  @Test
+  public void highPerformanceModeReadsTheFieldsOfEachRow() throws Exception {
+    ScriptValuesMod step = StepMockUtil.getStep( ScriptValuesMod.class, ScriptValuesMetaMod.class, "test" );
+
+    RowMeta input = new RowMeta();
+    input.addValueMeta( new ValueMetaString( "str" ) );
+    input.addValueMeta( new ValueMetaInteger( "nr" ) );
+    step.setInputRowMeta( input );
+
+    step = spy( step );
+    doReturn( new Object[] { "x", 1L }, new Object[] { "y", 5L }, null ).when( step ).getRow();
+
+    ScriptValuesMetaMod meta = new ScriptValuesMetaMod();
+    meta.setCompatible( false );
+    meta.setHighPerformance( true );
+    meta.setOptimizationLevel( "-1" );
+    meta.allocate( 2 );
+    meta.setFieldname( new String[] { "nr", "concat" } );
+    meta.setRename( new String[] { null, null } );
+    meta.setType( new int[] { ValueMetaInterface.TYPE_INTEGER, ValueMetaInterface.TYPE_STRING } );
+    meta.setReplace( new boolean[] { true, false } );
+
+    meta.setJSScripts( new ScriptValuesScript[] {
+      new ScriptValuesScript( ScriptValuesScript.TRANSFORM_SCRIPT, "script",
+        "var concat = str + nr;\nnr = nr * 2;" )
+    } );
+
+    ScriptValuesModData data = new ScriptValuesModData();
+    step.init( meta, data );
+
+    List<Object[]> rows = TransTestingUtil.execute( step, meta, data, 2, false );
+    TransTestingUtil.assertResult( new Object[] { "x", 2L, "x1" }, rows.get( 0 ) );
+    TransTestingUtil.assertResult( new Object[] { "y", 10L, "y5" }, rows.get( 1 ) );
+  }
+
+  @Test
+  public void conversionCountsArePublishedAsStepMetrics() throws Exception {
+    StepMockHelper<ScriptValuesMetaMod, StepDataInterface> helper =
+      StepMockUtil.getStepMockHelper( ScriptValuesMetaMod.class, "test" );
+    ScriptValuesMod step = StepMockUtil.getStep( ScriptValuesMod.class, helper );
+
+    RowMeta input = new RowMeta();
+    input.addValueMeta( new ValueMetaInteger( "nr" ) );
+    step.setInputRowMeta( input );
+
+    step = spy( step );
+    doReturn( new Object[] { 1L }, new Object[] { 5L }, null ).when( step ).getRow();
+
+    ScriptValuesMetaMod meta = new ScriptValuesMetaMod();
+    meta.setCompatible( false );
+    meta.setHighPerformance( true );
+    meta.allocate( 1 );
+    meta.setFieldname( new String[] { "nr" } );
+    meta.setRename( new String[] { null } );
+    meta.setType( new int[] { ValueMetaInterface.TYPE_INTEGER } );
+    meta.setReplace( new boolean[] { true } );
+    meta.setJSScripts( new ScriptValuesScript[] {
+      new ScriptValuesScript( ScriptValuesScript.TRANSFORM_SCRIPT, "script", "nr = nr + 1;" )
+    } );
+
+    ScriptValuesModData data = new ScriptValuesModData();
+    step.init( meta, data );
+    TransTestingUtil.execute( step, meta, data, 2, false );
+    step.dispose( meta, data );
+
+    verify( helper.logChannelInterface ).snap( eq( Metrics.METRIC_JAVASCRIPT_CONVERSIONS_TO_JS ), anyLong() );
+    verify( helper.logChannelInterface ).snap( Metrics.METRIC_JAVASCRIPT_CONVERSIONS_FROM_JS, 2L );
+  }
 }
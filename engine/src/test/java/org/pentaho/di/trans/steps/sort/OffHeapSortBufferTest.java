@@ -0,0 +1,199 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapSortBufferTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private RowMetaInterface createRowMeta( boolean descending ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    ValueMetaInterface group = new ValueMetaInteger( "group" );
+    group.setSortedDescending( descending );
+    rowMeta.addValueMeta( group );
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "seq" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows( int nrRows ) {
+    Random random = new Random( 42 );
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      Long group = random.nextInt( 10 ) == 0 ? null : (long) ( random.nextInt( 20 ) - 10 );
+      Double amount = random.nextInt( 10 ) == 0 ? null : (double) ( random.nextInt( 7 ) - 3 ) / 2;
+      String name = random.nextInt( 10 ) == 0 ? null : "name_" + random.nextInt( 5 ) + ( i % 3 == 0 ? "a" : "" );
+      rows.add( new Object[] { group, amount, name, (long) i } );
+    }
+    return rows;
+  }
+
+  private Comparator<Object[]> createComparator( final RowMetaInterface rowMeta, final int[] fieldnrs ) {
+    return new Comparator<Object[]>() {
+      @Override
+      public int compare( Object[] o1, Object[] o2 ) {
+        try {
+          return rowMeta.compare( o1, o2, fieldnrs );
+        } catch ( KettleValueException e ) {
+          throw new RuntimeException( e );
+        }
+      }
+    };
+  }
+
+  private List<Object[]> sort( RowMetaInterface rowMeta, int[] fieldnrs, List<Object[]> rows, int bufferSize,
+    List<FileObject> runs ) throws KettleException {
+    OffHeapSortBuffer buffer =
+      new OffHeapSortBuffer( rowMeta, fieldnrs, createComparator( rowMeta, fieldnrs ), bufferSize, false, false,
+        () -> {
+          FileObject file = KettleVFS.createTempFile( "sort", ".tmp", System.getProperty( "java.io.tmpdir" ) );
+          runs.add( file );
+          return file;
+        } );
+    for ( Object[] row : rows ) {
+      if ( !buffer.addRow( row ) ) {
+        buffer.spill();
+        assertTrue( buffer.addRow( row ) );
+      }
+    }
+    buffer.startReading();
+
+    List<Object[]> sorted = new ArrayList<>();
+    Object[] row;
+    while ( ( row = buffer.getRow() ) != null ) {
+      sorted.add( row );
+    }
+    buffer.dispose();
+    return sorted;
+  }
+
+  private void assertSameOrder( List<Object[]> expected, List<Object[]> actual ) {
+    assertEquals( expected.size(), actual.size() );
+    for ( int i = 0; i < expected.size(); i++ ) {
+      // the last field is the input sequence: the sort has to be stable
+      assertEquals( "Row " + i, expected.get( i )[3], actual.get( i )[3] );
+    }
+  }
+
+  @Test
+  public void testNormalizedPrefixOrder() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( true );
+    int[] fieldnrs = new int[] { 0, 1 };
+    SortKeyNormalizer normalizer = new SortKeyNormalizer( rowMeta, fieldnrs );
+    assertTrue( normalizer.isUsed() );
+    assertFalse( "two 9 byte keys don't fit in the prefix", normalizer.isExact() );
+    assertTrue( new SortKeyNormalizer( rowMeta, new int[] { 1 } ).isExact() );
+    assertFalse( new SortKeyNormalizer( rowMeta, new int[] { 2 } ).isExact() );
+
+    byte[] prefix1 = new byte[SortKeyNormalizer.PREFIX_LENGTH];
+    byte[] prefix2 = new byte[SortKeyNormalizer.PREFIX_LENGTH];
+    List<Object[]> rows = createRows( 200 );
+    for ( Object[] row1 : rows ) {
+      for ( Object[] row2 : rows ) {
+        normalizer.normalize( row1, prefix1 );
+        normalizer.normalize( row2, prefix2 );
+        int prefixCompare = Integer.signum( SortKeyNormalizer.comparePrefixes( prefix1, prefix2 ) );
+        if ( prefixCompare != 0 ) {
+          assertEquals( Integer.signum( rowMeta.compare( row1, row2, fieldnrs ) ), prefixCompare );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testSortInMemory() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( false );
+    int[] fieldnrs = new int[] { 2, 0 };
+    List<Object[]> rows = createRows( 1000 );
+
+    List<FileObject> runs = new ArrayList<>();
+    List<Object[]> sorted = sort( rowMeta, fieldnrs, rows, 1024 * 1024, runs );
+    assertTrue( runs.isEmpty() );
+
+    List<Object[]> expected = new ArrayList<>( rows );
+    expected.sort( createComparator( rowMeta, fieldnrs ) );
+    assertSameOrder( expected, sorted );
+  }
+
+  @Test
+  public void testSortWithSpilledRuns() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( true );
+    int[] fieldnrs = new int[] { 0, 1, 2 };
+    List<Object[]> rows = createRows( 5000 );
+
+    List<FileObject> runs = new ArrayList<>();
+    List<Object[]> sorted = sort( rowMeta, fieldnrs, rows, 16 * 1024, runs );
+    assertTrue( runs.size() > 1 );
+    for ( FileObject run : runs ) {
+      assertFalse( run.exists() );
+    }
+
+    List<Object[]> expected = new ArrayList<>( rows );
+    expected.sort( createComparator( rowMeta, fieldnrs ) );
+    assertSameOrder( expected, sorted );
+  }
+
+  @Test
+  public void testLoserTreeMergesStable() {
+    Integer[][] sources = new Integer[][] { { 1, 4, 4, 9 }, {}, { 2, 4, 10 }, { 0, 4 }, { 3 } };
+    final int[] positions = new int[sources.length];
+    Integer[] heads = new Integer[sources.length];
+    for ( int i = 0; i < sources.length; i++ ) {
+      heads[i] = sources[i].length > 0 ? sources[i][positions[i]++] : null;
+    }
+
+    LoserTree<Integer> tree = new LoserTree<>( heads, Comparator.naturalOrder() );
+    List<Integer> merged = new ArrayList<>();
+    List<Integer> sourceOfFours = new ArrayList<>();
+    int winner;
+    while ( ( winner = tree.getWinner() ) >= 0 ) {
+      Integer value = tree.peek();
+      merged.add( value );
+      if ( value == 4 ) {
+        sourceOfFours.add( winner );
+      }
+      Integer[] source = sources[winner];
+      tree.replaceWinner( positions[winner] < source.length ? source[positions[winner]++] : null );
+    }
+
+    assertEquals( List.of( 0, 1, 2, 3, 4, 4, 4, 4, 9, 10 ), merged );
+    assertEquals( List.of( 0, 0, 2, 3 ), sourceOfFours );
+    assertNull( tree.peek() );
+    assertEquals( -1, tree.getWinner() );
+  }
+}
@@ -0,0 +1,134 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class ParallelSortBufferTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  private static final int[] KEYS = new int[] { 0, 1 };
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "group" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "seq" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows( int nrRows ) {
+    Random random = new Random( 7 );
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      rows.add( new Object[] { "key" + random.nextInt( 50 ), (long) random.nextInt( 3 ), (long) i } );
+    }
+    return rows;
+  }
+
+  // A stable sort, optionally keeping the first row of the rows with equal keys
+  //
+  private List<Object[]> getExpected( RowMetaInterface rowMeta, List<Object[]> rows, boolean unique )
+    throws KettleException {
+    List<Object[]> sorted = new ArrayList<>( rows );
+    sorted.sort( ( o1, o2 ) -> {
+      try {
+        return rowMeta.compare( o1, o2, KEYS );
+      } catch ( KettleException e ) {
+        throw new RuntimeException( e );
+      }
+    } );
+    return unique ? removeDuplicates( rowMeta, sorted ) : sorted;
+  }
+
+  private List<Object[]> removeDuplicates( RowMetaInterface rowMeta, List<Object[]> rows ) throws KettleException {
+    List<Object[]> unique = new ArrayList<>();
+    for ( Object[] row : rows ) {
+      if ( unique.isEmpty() || rowMeta.compare( unique.get( unique.size() - 1 ), row, KEYS ) != 0 ) {
+        unique.add( row );
+      }
+    }
+    return unique;
+  }
+
+  private List<Object[]> sortInParallel( RowMetaInterface rowMeta, List<Object[]> rows, boolean unique )
+    throws KettleException {
+    ParallelSortBuffer buffer =
+      new ParallelSortBuffer( rowMeta, KEYS, 4, 4 * 32 * 1024, false, unique,
+        () -> KettleVFS.createTempFile( "sort", ".tmp", System.getProperty( "java.io.tmpdir" ) ),
+        mock( LogChannelInterface.class ) );
+    try {
+      for ( Object[] row : rows ) {
+        buffer.addRow( row.clone() );
+      }
+      buffer.startReading();
+
+      List<Object[]> sorted = new ArrayList<>();
+      Object[] row;
+      while ( ( row = buffer.getRow() ) != null ) {
+        sorted.add( row );
+      }
+      buffer.clear();
+      return unique ? removeDuplicates( rowMeta, sorted ) : sorted;
+    } finally {
+      buffer.dispose();
+    }
+  }
+
+  private void assertSameRows( List<Object[]> expected, List<Object[]> actual ) {
+    assertEquals( expected.size(), actual.size() );
+    for ( int i = 0; i < expected.size(); i++ ) {
+      assertEquals( "Row " + i, expected.get( i )[2], actual.get( i )[2] );
+    }
+  }
+
+  @Test
+  public void testSameOutputAsSingleThreadedSort() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows( 20000 );
+
+    assertSameRows( getExpected( rowMeta, rows, false ), sortInParallel( rowMeta, rows, false ) );
+  }
+
+  @Test
+  public void testSameOutputAsSingleThreadedSortWithUniqueRows() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows( 20000 );
+
+    assertSameRows( getExpected( rowMeta, rows, true ), sortInParallel( rowMeta, rows, true ) );
+  }
+
+  @Test
+  public void testNoRows() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+
+    assertEquals( 0, sortInParallel( rowMeta, new ArrayList<>(), false ).size() );
+  }
+}
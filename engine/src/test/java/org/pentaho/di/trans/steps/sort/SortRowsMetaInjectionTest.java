@@ -64,6 +64,30 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
         return meta.getCompressFiles();
       }
     } );
+    check( "OFF_HEAP_SORT", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isOffHeapSort();
+      }
+    } );
+    check( "SORT_BUFFER_SIZE_MB", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getSortBufferSize();
+      }
+    } );
+    check( "PARALLEL_SORT", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isParallelSort();
+      }
+    } );
+    check( "PARALLEL_SORT_THREADS", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getParallelSortThreads();
+      }
+    } );
     check( "NAME", new StringGetter() {
       @Override
       public String get() {
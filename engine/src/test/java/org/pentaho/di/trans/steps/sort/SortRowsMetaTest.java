@@ -48,7 +48,8 @@ public class SortRowsMetaTest {
   @Test
   public void testRoundTrips() throws KettleException {
     List<String> attributes = Arrays.asList( "Directory", "Prefix", "SortSize", "FreeMemoryLimit", "CompressFiles",
-      "CompressFilesVariable", "OnlyPassingUniqueRows", "FieldName", "Ascending", "CaseSensitive", "CollatorEnabled",
+      "CompressFilesVariable", "OnlyPassingUniqueRows", "OffHeapSort", "SortBufferSize", "ParallelSort",
+      "ParallelSortThreads", "FieldName", "Ascending", "CaseSensitive", "CollatorEnabled",
       "CollatorStrength", "PreSortedField" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
@@ -42,7 +42,7 @@ public class TableOutputMetaLoadSaveTest implements InitializerInterface<StepMet
     KettleEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-        Arrays.asList( "databaseMeta", "schemaName", "tableName", "commitSize", "truncateTable", "ignoreErrors", "useBatchUpdate",
+        Arrays.asList( "databaseMeta", "schemaName", "tableName", "commitSize", "truncateTable", "ignoreErrors", "useBatchUpdate", "useBulkLoad",
             "partitioningEnabled", "partitioningField", "partitioningDaily", "partitioningMonthly", "tableNameInField", "tableNameField",
             "tableNameInTable", "returningGeneratedKeys", "generatedKeyField", "specifyFields", "fieldStream", "fieldDatabase" );
 
@@ -51,6 +51,7 @@ public class TableOutputMetaLoadSaveTest implements InitializerInterface<StepMet
         put( "truncateTable", "truncateTable" );
         put( "ignoreErrors", "ignoreErrors" );
         put( "useBatchUpdate", "useBatchUpdate" );
+        put( "useBulkLoad", "useBulkLoad" );
         put( "specifyFields", "specifyFields" );
       }
     };
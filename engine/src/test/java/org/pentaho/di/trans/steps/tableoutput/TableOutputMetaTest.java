@@ -156,6 +156,7 @@ public class TableOutputMetaTest {
       + "    <truncate>Y</truncate>\n"
       + "    <ignore_errors>N</ignore_errors>\n"
       + "    <use_batch>Y</use_batch>\n"
+      + "    <use_bulk_load>N</use_bulk_load>\n"
       + "    <specify_fields>Y</specify_fields>\n"
       + "    <partitioning_enabled>N</partitioning_enabled>\n"
       + "    <partitioning_field/>\n"
@@ -199,6 +200,7 @@ public class TableOutputMetaTest {
     verify( rep ).saveStepAttribute( id_transformation, id_step, "truncate", true );
     verify( rep ).saveStepAttribute( id_transformation, id_step, "ignore_errors", false );
     verify( rep ).saveStepAttribute( id_transformation, id_step, "use_batch", true );
+    verify( rep ).saveStepAttribute( id_transformation, id_step, "use_bulk_load", false );
     verify( rep ).saveStepAttribute( id_transformation, id_step, "specify_fields", true );
 
     verify( rep ).saveStepAttribute( id_transformation, id_step, "partitioning_enabled", false );
@@ -362,6 +364,17 @@ public class TableOutputMetaTest {
     assertFalse( tableOutputMeta.useBatchUpdate() );
   }
 
+  @Test
+  public void metaSetUseBulkLoad() {
+    TableOutputMeta tableOutputMeta = new TableOutputMeta();
+    tableOutputMeta.metaSetUseBulkLoad( "Y" );
+    assertTrue( tableOutputMeta.useBulkLoad() );
+    tableOutputMeta.metaSetUseBulkLoad( "N" );
+    assertFalse( tableOutputMeta.useBulkLoad() );
+    tableOutputMeta.metaSetUseBulkLoad( "Ynot" );
+    assertFalse( tableOutputMeta.useBulkLoad() );
+  }
+
   @Test
   public void metaSetPartitionOverTables() {
     TableOutputMeta tableOutputMeta = new TableOutputMeta();
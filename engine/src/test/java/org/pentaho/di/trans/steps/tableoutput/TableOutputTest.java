@@ -14,17 +14,22 @@
 package org.pentaho.di.trans.steps.tableoutput;
 
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.json.simple.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.database.BulkLoadTransport;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseInterface;
 import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.PostgreSQLCopyTransport;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.row.RowMeta;
@@ -36,15 +41,24 @@ import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -221,6 +235,110 @@ public class TableOutputTest {
     verify( tableOutputSpy, times( 1 ) ).logError( "An error occurred intialising this step: " + ke.getMessage() );
   }
 
+  @Test
+  public void testWriteToTable_bulkLoad() throws Exception {
+    BulkLoadTransport transport = mock( BulkLoadTransport.class );
+    BulkLoadTransport.BulkLoad bulkLoad = mock( BulkLoadTransport.BulkLoad.class );
+    when( transport.start( any(), any(), any(), anyString(), any() ) ).thenReturn( bulkLoad );
+    tableOutputData.bulkLoadTransport = transport;
+    tableOutputData.insertRowMeta = filled;
+    tableOutputData.commitSize = 2;
+
+    for ( int i = 0; i < 3; i++ ) {
+      Object[] row = new Object[] { "a", "b", "c" };
+      assertEquals( row, tableOutputSpy.writeToTable( filled, row ) );
+      verify( bulkLoad ).addRow( row );
+    }
+
+    // A load per commit, the rows of the last one are loaded when the step is disposed of
+    verify( transport, times( 2 ) ).start( any(), any(), any(), anyString(), any() );
+    verify( bulkLoad, times( 1 ) ).finish();
+    verify( db, times( 1 ) ).commit();
+    verify( db, never() ).prepareSQL( anyString(), anyBoolean() );
+    assertEquals( 1, tableOutputData.bulkLoadCounter );
+  }
+
+
+  @Test
+  public void testWriteToTable_bulkLoadCopiesEveryCommitSizeRows() throws Exception {
+    CopyIn copyIn = mockCopyIn( db.getConnection() );
+    when( copyIn.endCopy() ).thenReturn( 2L );
+    tableOutputData.bulkLoadTransport = new PostgreSQLCopyTransport();
+    tableOutputData.insertRowMeta = filled;
+    tableOutputData.commitSize = 2;
+
+    for ( int i = 0; i < 5; i++ ) {
+      tableOutputSpy.writeToTable( filled, new Object[] { "a" + i, "b", "c" } );
+    }
+
+    // Two copies of two rows are committed, the last row is copied when the step is disposed of
+    ArgumentCaptor<byte[]> buffers = ArgumentCaptor.forClass( byte[].class );
+    verify( copyIn, times( 2 ) ).writeToCopy( buffers.capture(), eq( 0 ), anyInt() );
+    assertEquals( "\"a0\",\"b\",\"c\"\n\"a1\",\"b\",\"c\"\n",
+      new String( buffers.getAllValues().get( 0 ), StandardCharsets.UTF_8 ) );
+    assertEquals( "\"a2\",\"b\",\"c\"\n\"a3\",\"b\",\"c\"\n",
+      new String( buffers.getAllValues().get( 1 ), StandardCharsets.UTF_8 ) );
+    verify( copyIn, times( 2 ) ).endCopy();
+    verify( db, times( 2 ) ).commit();
+    assertNotNull( tableOutputData.bulkLoad );
+    assertEquals( 1, tableOutputData.bulkLoadCounter );
+  }
+
+  @Test
+  public void testProcessRow_insertsWhenTheBulkLoadIsUnavailable() throws Exception {
+    // Not a PostgreSQL connection
+    Connection connection = db.getConnection();
+    tableOutputData.bulkLoadTransport = new PostgreSQLCopyTransport();
+    Object[] row = new Object[] { "a", "b", "c" };
+    doReturn( row ).when( tableOutputSpy ).getRow();
+    tableOutputSpy.setInputRowMeta( filled );
+    doNothing().when( tableOutputSpy ).logBasic( anyString() );
+    doNothing().when( tableOutputSpy ).putRow( any(), any() );
+
+    assertTrue( tableOutputSpy.processRow( tableOutputMeta, tableOutputData ) );
+
+    assertNull( tableOutputData.bulkLoadTransport );
+    verify( connection, never() ).unwrap( any() );
+    verify( db ).prepareSQL( any(), anyBoolean() );
+    verify( db ).insertRow( any(), anyBoolean(), anyBoolean() );
+  }
+
+  @Test
+  public void testWriteToTable_bulkLoadErrorCancelsTheCopyAndClearsTheBatch() throws Exception {
+    CopyIn copyIn = mockCopyIn( db.getConnection() );
+    doThrow( new SQLException( "refused" ) ).when( copyIn ).writeToCopy( any( byte[].class ), anyInt(), anyInt() );
+    tableOutputData.bulkLoadTransport = new PostgreSQLCopyTransport();
+    tableOutputData.insertRowMeta = filled;
+    tableOutputData.commitSize = 2;
+
+    tableOutputSpy.writeToTable( filled, new Object[] { "a", "b", "c" } );
+    try {
+      tableOutputSpy.writeToTable( filled, new Object[] { "d", "e", "f" } );
+      fail( "The copy of the batch should fail" );
+    } catch ( KettleException e ) {
+      assertTrue( e.getMessage().contains( "refused" ) );
+    }
+
+    verify( copyIn ).cancelCopy();
+    verify( copyIn, never() ).endCopy();
+    verify( db ).rollback();
+    verify( db, never() ).commit();
+    assertNull( tableOutputData.bulkLoad );
+    assertEquals( 0, tableOutputData.bulkLoadCounter );
+    assertEquals( 1, tableOutputSpy.getErrors() );
+  }
+
+  private static CopyIn mockCopyIn( Connection connection ) throws Exception {
+    PGConnection pgConnection = mock( PGConnection.class );
+    CopyManager copyManager = mock( CopyManager.class );
+    CopyIn copyIn = mock( CopyIn.class );
+    when( connection.isWrapperFor( PGConnection.class ) ).thenReturn( true );
+    when( connection.unwrap( PGConnection.class ) ).thenReturn( pgConnection );
+    when( pgConnection.getCopyAPI() ).thenReturn( copyManager );
+    when( copyManager.copyIn( anyString() ) ).thenReturn( copyIn );
+    return copyIn;
+  }
+
 
   private RowMetaInterface createRowMeta( String[] args, boolean hasEmptyFields ) {
     RowMetaInterface result = new RowMeta();
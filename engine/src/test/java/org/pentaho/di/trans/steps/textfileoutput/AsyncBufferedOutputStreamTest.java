@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.textfileoutput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncBufferedOutputStreamTest {
+
+  private AsyncOutputWriter writer;
+
+  @Before
+  public void setUp() {
+    writer = new AsyncOutputWriter( "AsyncBufferedOutputStreamTest writer" );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    writer.shutdown();
+  }
+
+  @Test
+  public void testWritesInOrder() throws Exception {
+    ClosingOutputStream out = new ClosingOutputStream();
+    ClosingOutputStream file = new ClosingOutputStream();
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    try ( OutputStream async = new AsyncBufferedOutputStream( out, writer, 16, 2, file ) ) {
+      for ( int i = 0; i < 1000; i++ ) {
+        byte[] row = ( "row " + i + "\n" ).getBytes();
+        async.write( row );
+        async.write( i % 128 );
+        expected.write( row );
+        expected.write( i % 128 );
+      }
+    }
+    writer.waitUntilWritten();
+    assertArrayEquals( expected.toByteArray(), out.toByteArray() );
+    assertTrue( out.closed );
+    assertTrue( file.closed );
+  }
+
+  @Test
+  public void testWaitsForFreeBuffer() throws Exception {
+    final CountDownLatch blocked = new CountDownLatch( 1 );
+    final CountDownLatch release = new CountDownLatch( 1 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream() {
+      @Override
+      public synchronized void write( byte[] b, int off, int len ) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+        super.write( b, off, len );
+      }
+    };
+    final AsyncBufferedOutputStream async = new AsyncBufferedOutputStream( out, writer, 4, 2 );
+    Thread step = new Thread( () -> {
+      try {
+        async.write( new byte[ 16 ] );
+      } catch ( IOException e ) {
+        throw new IllegalStateException( e );
+      }
+    } );
+    step.start();
+    assertTrue( blocked.await( 10, TimeUnit.SECONDS ) );
+
+    // Both buffers are waiting to be written: the step waits
+    step.join( 200 );
+    assertTrue( step.isAlive() );
+
+    release.countDown();
+    step.join( 10000 );
+    async.close();
+    writer.waitUntilWritten();
+    assertEquals( 16, out.size() );
+  }
+
+  @Test
+  public void testWriteErrorIsThrownToTheStep() throws Exception {
+    OutputStream out = new OutputStream() {
+      @Override
+      public void write( int b ) throws IOException {
+        throw new IOException( "Disk full" );
+      }
+    };
+    AsyncOutputWriter failingWriter = new AsyncOutputWriter( "AsyncBufferedOutputStreamTest failing writer" );
+    AsyncBufferedOutputStream async = new AsyncBufferedOutputStream( out, failingWriter, 4, 2 );
+    async.write( new byte[ 8 ] );
+    try {
+      failingWriter.waitUntilWritten();
+      fail( "The write error should be thrown" );
+    } catch ( IOException e ) {
+      assertEquals( "Disk full", e.getCause().getMessage() );
+    }
+    try {
+      async.write( new byte[ 8 ] );
+      fail( "The write error should be thrown" );
+    } catch ( IOException e ) {
+      // expected
+    }
+    try {
+      failingWriter.shutdown();
+      fail( "The write error should be thrown" );
+    } catch ( IOException e ) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testStreamsAreClosedAfterAWriteError() throws Exception {
+    ClosingOutputStream file = new ClosingOutputStream();
+    ClosingOutputStream out = new ClosingOutputStream() {
+      @Override
+      public synchronized void write( byte[] b, int off, int len ) {
+        throw new IllegalStateException( "Disk full" );
+      }
+    };
+    AsyncOutputWriter failingWriter = new AsyncOutputWriter( "AsyncBufferedOutputStreamTest failing writer" );
+    AsyncBufferedOutputStream async = new AsyncBufferedOutputStream( out, failingWriter, 4, 2, file );
+    async.write( new byte[ 8 ] );
+    try {
+      failingWriter.waitUntilWritten();
+      fail( "The write error should be thrown" );
+    } catch ( IOException e ) {
+      // expected
+    }
+
+    try {
+      async.close();
+      fail( "The write error should be thrown" );
+    } catch ( IOException e ) {
+      // expected
+    }
+    try {
+      failingWriter.shutdown();
+    } catch ( IOException e ) {
+      // The write error
+    }
+    assertTrue( out.closed );
+    assertTrue( file.closed );
+  }
+
+  @Test
+  public void testStreamsAreClosedWhenTheWriterIsStopped() throws Exception {
+    ClosingOutputStream out = new ClosingOutputStream();
+    ClosingOutputStream file = new ClosingOutputStream();
+    AsyncOutputWriter stoppedWriter = new AsyncOutputWriter( "AsyncBufferedOutputStreamTest stopped writer" );
+    AsyncBufferedOutputStream async = new AsyncBufferedOutputStream( out, stoppedWriter, 4, 2, file );
+    stoppedWriter.shutdown();
+
+    async.close();
+    assertTrue( out.closed );
+    assertTrue( file.closed );
+  }
+
+  private static class ClosingOutputStream extends ByteArrayOutputStream {
+    private boolean closed;
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -132,6 +132,11 @@ public class TextFileOutputMetaInjectionTest extends BaseMetadataInjectionTest<T
         return meta.isFastDump();
       }
     } );
+    check( "ASYNC_WRITE", new BooleanGetter() {
+      public boolean get() {
+        return meta.isAsyncWrite();
+      }
+    } );
     check( "ENCODING", new StringGetter() {
       public String get() {
         return meta.getEncoding();
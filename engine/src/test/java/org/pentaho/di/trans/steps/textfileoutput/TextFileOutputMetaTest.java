@@ -48,7 +48,7 @@ public class TextFileOutputMetaTest {
       "format", "compression", "encoding", "endedLine", "fileNameInField", "fileNameField",
       "create_parent_folder", "fileName", "servlet_output", "do_not_open_new_file_init",
       "extention", "append", "split", "haspartno", "add_date", "add_time", "SpecifyFormat", "date_time_format",
-      "add_to_result_filenames", "pad", "fast_dump", "splitevery", "OutputFields" );
+      "add_to_result_filenames", "pad", "fast_dump", "async_write", "splitevery", "OutputFields" );
   }
 
   public static Map<String, String> getGetterMap() {
@@ -80,6 +80,7 @@ public class TextFileOutputMetaTest {
     getterMap.put( "add_to_result_filenames", "isAddToResultFiles" );
     getterMap.put( "pad", "isPadded" );
     getterMap.put( "fast_dump", "isFastDump" );
+    getterMap.put( "async_write", "isAsyncWrite" );
     getterMap.put( "splitevery", "getSplitEvery" );
     getterMap.put( "OutputFields", "getOutputFields" );
     return getterMap;
@@ -114,6 +115,7 @@ public class TextFileOutputMetaTest {
     setterMap.put( "add_to_result_filenames", "setAddToResultFiles" );
     setterMap.put( "pad", "setPadded" );
     setterMap.put( "fast_dump", "setFastDump" );
+    setterMap.put( "async_write", "setAsyncWrite" );
     setterMap.put( "splitevery", "setSplitEvery" );
     setterMap.put( "OutputFields", "setOutputFields" );
     return setterMap;
@@ -26,6 +26,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -1000,4 +1001,57 @@ public class TextFileOutputTest {
     valueMetaInterface.setStorageMetadata( new ValueMetaString() );
     return valueMetaInterface;
   }
+
+  @Test
+  public void testDisposeClosesAllFilesAfterAWriterError() throws Exception {
+    assertDisposeClosesAllFilesAfterAWriterError( 0 );
+  }
+
+  @Test
+  public void testDisposeClosesAllSplitFilesAfterAWriterError() throws Exception {
+    assertDisposeClosesAllFilesAfterAWriterError( 1 );
+  }
+
+  private void assertDisposeClosesAllFilesAfterAWriterError( int splitnr ) throws Exception {
+    TextFileOutputTestHandler textFileOutput =
+      new TextFileOutputTestHandler( stepMockHelper.stepMeta, stepMockHelper.stepDataInterface, 0,
+        stepMockHelper.transMeta, stepMockHelper.trans );
+    TextFileOutputData data = new TextFileOutputData();
+    data.splitnr = splitnr;
+    data.asyncWriter = new AsyncOutputWriter( "TextFileOutputTest writer" );
+
+    List<CompressionOutputStream> compressedStreams = new ArrayList<>();
+    List<OutputStream> fileStreams = new ArrayList<>();
+    for ( int i = 0; i < 2; i++ ) {
+      CompressionOutputStream compressedStream = mock( CompressionOutputStream.class );
+      doThrow( new IOException( "No space left on device" ) ).when( compressedStream )
+        .write( any( byte[].class ), anyInt(), anyInt() );
+      OutputStream fileStream = mock( OutputStream.class );
+      BufferedOutputStream bufferedStream =
+        new AsyncBufferedOutputStream( compressedStream, data.asyncWriter, 16, 2, fileStream );
+      TextFileOutputData.FileStream streams = data.new FileStream( fileStream, compressedStream, bufferedStream );
+      data.getFileStreamsCollection().add( "file" + i, streams );
+
+      bufferedStream.write( new byte[ 20 ] );
+      streams.setDirty( true );
+      compressedStreams.add( compressedStream );
+      fileStreams.add( fileStream );
+    }
+    try {
+      data.asyncWriter.waitUntilWritten();
+      fail( "The writer thread should have failed" );
+    } catch ( IOException e ) {
+      // expected
+    }
+
+    textFileOutput.dispose( stepMockHelper.processRowsStepMetaInterface, data );
+
+    for ( int i = 0; i < 2; i++ ) {
+      verify( compressedStreams.get( i ) ).close();
+      verify( fileStreams.get( i ) ).close();
+    }
+    assertEquals( 0, data.getFileStreamsCollection().getNumOpenFiles() );
+    assertNull( data.asyncWriter );
+    assertEquals( 1, textFileOutput.errors.size() );
+  }
 }
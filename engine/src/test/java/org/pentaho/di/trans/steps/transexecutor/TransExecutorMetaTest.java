@@ -73,6 +73,7 @@ public class TransExecutorMetaTest {
 
     List<String> attributes =
       Arrays.asList( "fileName", "transName", "directoryPath", "groupSize", "groupField", "groupTime",
+        "reusingInstance", "injectStep", "retrieveStep",
         "executionTimeField", "executionFilesRetrievedField", "executionLogTextField",
         "executionLogChannelIdField", "executionResultField", "executionNrErrorsField", "executionLinesReadField",
         "executionLinesWrittenField", "executionLinesInputField", "executionLinesOutputField",
@@ -14,6 +14,7 @@
 package org.pentaho.di.trans.steps.transexecutor;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 import org.json.simple.JSONArray;
@@ -44,10 +45,13 @@ import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.job.JobMeta;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 import org.pentaho.di.repository.Repository;
+import org.pentaho.di.trans.RowProducer;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.StepMockUtil;
 
@@ -731,4 +735,63 @@ public class TransExecutorUnitTest {
 
   }
 
+  @Test( expected = KettleException.class )
+  public void testReusedInstanceNeedsInjectStep() throws KettleException {
+    meta.setReusingInstance( true );
+    meta.setInjectStep( "Injector" );
+    executor.init( meta, data );
+
+    executor.prepareReusedTransformation( Arrays.asList( "value1" ) );
+  }
+
+  @Test
+  public void testReusedInstanceRefusesStepsWithoutInput() throws KettleException {
+    meta.setReusingInstance( true );
+    meta.setInjectStep( "Injector" );
+    TransMeta subTransMeta = executor.loadExecutorTransMeta();
+    StepMeta injector = mock( StepMeta.class );
+    StepMeta generateRows = mock( StepMeta.class );
+    when( subTransMeta.findStep( "Injector" ) ).thenReturn( injector );
+    when( subTransMeta.getSteps() ).thenReturn( Arrays.asList( injector, generateRows ) );
+    when( subTransMeta.findPreviousSteps( generateRows ) ).thenReturn( Collections.<StepMeta>emptyList() );
+
+    // Generate rows would only produce rows for the first group
+    assertFalse( executor.init( meta, data ) );
+
+    when( subTransMeta.findPreviousSteps( generateRows ) ).thenReturn( Collections.singletonList( injector ) );
+    assertTrue( executor.init( meta, data ) );
+  }
+
+  @Test
+  public void testFailedPreparationDisposesTheReusedTransformation() throws KettleException {
+    meta.setReusingInstance( true );
+    meta.setInjectStep( "Injector" );
+    meta.setRetrieveStep( "Output" );
+    TransMeta subTransMeta = executor.loadExecutorTransMeta();
+    StepMeta injector = mock( StepMeta.class );
+    when( subTransMeta.findStep( "Injector" ) ).thenReturn( injector );
+    when( subTransMeta.findStep( "Output" ) ).thenReturn( mock( StepMeta.class ) );
+    when( subTransMeta.getSteps() ).thenReturn( Collections.singletonList( injector ) );
+    assertTrue( executor.init( meta, data ) );
+
+    StepMetaDataCombi combi = new StepMetaDataCombi();
+    combi.step = mock( StepInterface.class );
+    combi.meta = mock( StepMetaInterface.class );
+    combi.data = mock( StepDataInterface.class );
+    doReturn( Collections.singletonList( combi ) ).when( internalTrans ).getSteps();
+    doReturn( mock( RowProducer.class ) ).when( internalTrans ).addRowProducer( "Injector", 0 );
+    doReturn( null ).when( internalTrans ).getStepInterface( "Output", 0 );
+
+    try {
+      executor.prepareReusedTransformation( Arrays.asList( "value1" ) );
+      Assert.fail( "The retrieve step wasn't started" );
+    } catch ( KettleException e ) {
+      // expected
+    }
+
+    verify( combi.step ).dispose( combi.meta, combi.data );
+    assertNull( data.getExecutorTrans() );
+    assertNull( data.reusedExecutor );
+    verify( executor.getTrans(), never() ).addActiveSubTransformation( anyString(), any( Trans.class ) );
+  }
 }
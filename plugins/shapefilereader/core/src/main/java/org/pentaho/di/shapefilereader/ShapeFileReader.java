@@ -132,7 +132,7 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
             outputRow[ outputIndex++ ] = dbfData[ d ];
           }
 
-          linesInput++;
+          incrementLinesInput();
 
           // Put it out to the rest of the world...
           try {
@@ -196,7 +196,7 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
           for ( int d = 0; d < dbfMeta.size(); d++ ) {
             outputRow[ outputIndex++ ] = dbfData[ d ];
           }
-          linesInput++;
+          incrementLinesInput();
 
           // Put it out to the rest of the world...
           try {
@@ -261,7 +261,7 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
           for ( int d = 0; d < dbfMeta.size(); d++ ) {
             outputRow[ outputIndex++ ] = dbfData[ d ];
           }
-          linesInput++;
+          incrementLinesInput();
 
           // Put it out to the rest of the world...
           try {
@@ -318,7 +318,7 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
           outputRow[ outputIndex++ ] = dbfData[ d ];
         }
 
-        linesInput++;
+        incrementLinesInput();
 
         // Put it out to the rest of the world...
         try {
@@ -337,8 +337,8 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
     // Next shape please!
     data.shapeNr++;
 
-    if ( ( linesInput % Const.ROWS_UPDATE ) == 0 ) {
-      logBasic( "linenr " + linesInput );
+    if ( ( getLinesInput() % Const.ROWS_UPDATE ) == 0 ) {
+      logBasic( "linenr " + getLinesInput() );
     }
 
     return retval;
@@ -411,7 +411,7 @@ public class ShapeFileReader extends BaseStep implements StepInterface {
       stopAll();
     } finally {
       dispose( meta, data );
-      logBasic( "Finished, processed " + linesInput + " rows, written " + linesWritten + " lines." );
+      logBasic( "Finished, processed " + getLinesInput() + " rows, written " + getLinesWritten() + " lines." );
       markStop();
     }
   }
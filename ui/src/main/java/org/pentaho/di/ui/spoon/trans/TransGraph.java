@@ -3883,6 +3883,7 @@ public class TransGraph extends AbstractGraph implements XulEventHandler, Redraw
 
           trans.setSafeModeEnabled( executionConfiguration.isSafeModeEnabled() );
           trans.setGatheringMetrics( executionConfiguration.isGatheringMetrics() );
+          trans.setStepExecutionStrategy( executionConfiguration.getStepExecutionStrategy() );
 
           // Launch the step preparation in a different thread.
           // That way Spoon doesn't block anymore and that way we can follow the progress of the initialization
@@ -65,6 +65,7 @@ import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
 import org.pentaho.di.shared.DatabaseManagementInterface;
 import org.pentaho.di.trans.TransDependency;
+import org.pentaho.di.trans.StepExecutionStrategy;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.StepMeta;
@@ -191,6 +192,8 @@ public class TransDialog extends Dialog {
 
   private Button wManageThreads;
 
+  private Button wLockFreeRowSets;
+
   private boolean directoryChangeAllowed;
 
   private Label wlDirectory;
@@ -201,6 +204,8 @@ public class TransDialog extends Dialog {
 
   private CCombo wTransformationType;
 
+  private CCombo wStepExecutionStrategy;
+
   private Tabs currentTab = null;
 
   protected boolean changed;
@@ -1954,6 +1959,26 @@ public class TransDialog extends Dialog {
     fdManageThreads.right = new FormAttachment( 100, 0 );
     wManageThreads.setLayoutData( fdManageThreads );
 
+    // Use lock-free row sets between single copies?
+    Label wlLockFreeRowSets = new Label( wMiscComp, SWT.RIGHT );
+    wlLockFreeRowSets.setText( BaseMessages.getString( PKG, "TransDialog.LockFreeRowSets.Label" ) );
+    wlLockFreeRowSets.setToolTipText( BaseMessages.getString( PKG, "TransDialog.LockFreeRowSets.Tooltip" ) );
+    props.setLook( wlLockFreeRowSets );
+    FormData fdlLockFreeRowSets = new FormData();
+    fdlLockFreeRowSets.left = new FormAttachment( 0, 0 );
+    fdlLockFreeRowSets.top = new FormAttachment( wManageThreads, margin );
+    fdlLockFreeRowSets.right = new FormAttachment( middle, -margin );
+    wlLockFreeRowSets.setLayoutData( fdlLockFreeRowSets );
+    wLockFreeRowSets = new Button( wMiscComp, SWT.CHECK );
+    wLockFreeRowSets.setToolTipText( BaseMessages.getString( PKG, "TransDialog.LockFreeRowSets.Tooltip" ) );
+    wLockFreeRowSets.addSelectionListener( lsModSel );
+    props.setLook( wLockFreeRowSets );
+    FormData fdLockFreeRowSets = new FormData();
+    fdLockFreeRowSets.left = new FormAttachment( middle, 0 );
+    fdLockFreeRowSets.top = new FormAttachment( wManageThreads, margin );
+    fdLockFreeRowSets.right = new FormAttachment( 100, 0 );
+    wLockFreeRowSets.setLayoutData( fdLockFreeRowSets );
+
     // Single threaded option ...
     Label wlTransformationType = new Label( wMiscComp, SWT.RIGHT );
     wlTransformationType.setText( BaseMessages.getString( PKG, "TransDialog.TransformationType.Label" ) );
@@ -1963,7 +1988,7 @@ public class TransDialog extends Dialog {
     FormData fdlTransformationType = new FormData();
     fdlTransformationType.left = new FormAttachment( 0, 0 );
     fdlTransformationType.right = new FormAttachment( middle, -margin );
-    fdlTransformationType.top = new FormAttachment( wManageThreads, margin );
+    fdlTransformationType.top = new FormAttachment( wLockFreeRowSets, margin );
     wlTransformationType.setLayoutData( fdlTransformationType );
     wTransformationType = new CCombo( wMiscComp, SWT.NORMAL );
     wTransformationType.setToolTipText( BaseMessages.getString(
@@ -1972,11 +1997,33 @@ public class TransDialog extends Dialog {
     props.setLook( wTransformationType );
     FormData fdTransformationType = new FormData();
     fdTransformationType.left = new FormAttachment( middle, 0 );
-    fdTransformationType.top = new FormAttachment( wManageThreads, margin );
+    fdTransformationType.top = new FormAttachment( wLockFreeRowSets, margin );
     fdTransformationType.right = new FormAttachment( 100, 0 );
     wTransformationType.setLayoutData( fdTransformationType );
     wTransformationType.setItems( TransformationType.getTransformationTypesDescriptions() );
 
+    // How do the step copies get their threads?
+    Label wlStepExecutionStrategy = new Label( wMiscComp, SWT.RIGHT );
+    wlStepExecutionStrategy.setText( BaseMessages.getString( PKG, "TransDialog.StepExecutionStrategy.Label" ) );
+    wlStepExecutionStrategy.setToolTipText(
+      BaseMessages.getString( PKG, "TransDialog.StepExecutionStrategy.Tooltip" ) );
+    props.setLook( wlStepExecutionStrategy );
+    FormData fdlStepExecutionStrategy = new FormData();
+    fdlStepExecutionStrategy.left = new FormAttachment( 0, 0 );
+    fdlStepExecutionStrategy.right = new FormAttachment( middle, -margin );
+    fdlStepExecutionStrategy.top = new FormAttachment( wTransformationType, margin );
+    wlStepExecutionStrategy.setLayoutData( fdlStepExecutionStrategy );
+    wStepExecutionStrategy = new CCombo( wMiscComp, SWT.READ_ONLY | SWT.BORDER );
+    wStepExecutionStrategy.setToolTipText( BaseMessages.getString( PKG, "TransDialog.StepExecutionStrategy.Tooltip" ) );
+    wStepExecutionStrategy.addSelectionListener( lsModSel );
+    props.setLook( wStepExecutionStrategy );
+    FormData fdStepExecutionStrategy = new FormData();
+    fdStepExecutionStrategy.left = new FormAttachment( middle, 0 );
+    fdStepExecutionStrategy.top = new FormAttachment( wTransformationType, margin );
+    fdStepExecutionStrategy.right = new FormAttachment( 100, 0 );
+    wStepExecutionStrategy.setLayoutData( fdStepExecutionStrategy );
+    wStepExecutionStrategy.setItems( StepExecutionStrategy.getStrategyDescriptions() );
+
     FormData fdMiscComp = new FormData();
     fdMiscComp.left = new FormAttachment( 0, 0 );
     fdMiscComp.top = new FormAttachment( 0, 0 );
@@ -2179,7 +2226,9 @@ public class TransDialog extends Dialog {
     wShowFeedback.setSelection( transMeta.isFeedbackShown() );
     wFeedbackSize.setText( Integer.toString( transMeta.getFeedbackSize() ) );
     wManageThreads.setSelection( transMeta.isUsingThreadPriorityManagment() );
+    wLockFreeRowSets.setSelection( transMeta.isUsingLockFreeRowSets() );
     wTransformationType.setText( transMeta.getTransformationType().getDescription() );
+    wStepExecutionStrategy.setText( transMeta.getStepExecutionStrategy().getDescription() );
 
     wFields.setRowNums();
     wFields.optWidth( true );
@@ -2316,8 +2365,12 @@ public class TransDialog extends Dialog {
     transMeta.setFeedbackShown( wShowFeedback.getSelection() );
     transMeta.setFeedbackSize( Const.toInt( wFeedbackSize.getText(), Const.ROWS_UPDATE ) );
     transMeta.setUsingThreadPriorityManagment( wManageThreads.getSelection() );
+    transMeta.setUsingLockFreeRowSets( wLockFreeRowSets.getSelection() );
     transMeta.setTransformationType( TransformationType.values()[Const.indexOfString( wTransformationType
       .getText(), TransformationType.getTransformationTypesDescriptions() )] );
+    int strategyIndex =
+      Const.indexOfString( wStepExecutionStrategy.getText(), StepExecutionStrategy.getStrategyDescriptions() );
+    transMeta.setStepExecutionStrategy( strategyIndex < 0 ? null : StepExecutionStrategy.values()[ strategyIndex ] );
 
     if ( directoryChangeAllowed && transMeta.getObjectId() != null ) {
       if ( newDirectory != null ) {
@@ -119,6 +119,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   private boolean isReceivingInput;
   private Button wRunningInParallel;
   private Button wNewlinePossible;
+  private Button wMemoryMapped;
   private ComboVar wEncoding;
   private CCombo wFormat;
 
@@ -480,6 +481,30 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     } );
     lastControl = wNewlinePossible;
 
+    // Memory mapped reading?
+    //
+    Label wlMemoryMapped = new Label( shell, SWT.RIGHT );
+    wlMemoryMapped.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "MEMORY_MAPPED" ) ) );
+    props.setLook( wlMemoryMapped );
+    FormData fdlMemoryMapped = new FormData();
+    fdlMemoryMapped.top = new FormAttachment( lastControl, margin );
+    fdlMemoryMapped.left = new FormAttachment( 0, 0 );
+    fdlMemoryMapped.right = new FormAttachment( middle, -margin );
+    wlMemoryMapped.setLayoutData( fdlMemoryMapped );
+    wMemoryMapped = new Button( shell, SWT.CHECK );
+    props.setLook( wMemoryMapped );
+    wMemoryMapped.setToolTipText( BaseMessages.getString( PKG, inputMeta.getTooltip( "MEMORY_MAPPED" ) ) );
+    FormData fdMemoryMapped = new FormData();
+    fdMemoryMapped.top = new FormAttachment( lastControl, margin );
+    fdMemoryMapped.left = new FormAttachment( middle, 0 );
+    wMemoryMapped.setLayoutData( fdMemoryMapped );
+    wMemoryMapped.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent event ) {
+        setFlags();
+      }
+    } );
+    lastControl = wMemoryMapped;
+
     // Format
     Label wlFormat = new Label( shell, SWT.RIGHT );
     wlFormat.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "FORMAT" ) ) );
@@ -707,9 +732,10 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   }
 
   protected void setFlags() {
-    // In case there are newlines in fields, we can't load data in parallel
+    // In case there are newlines in fields, we can't load data in parallel.
+    // The memory mapped reader finds where the rows start, also with new lines in enclosed fields.
     //
-    boolean parallelPossible = !wNewlinePossible.getSelection();
+    boolean parallelPossible = !wNewlinePossible.getSelection() || wMemoryMapped.getSelection();
     wlRunningInParallel.setEnabled( parallelPossible );
     wRunningInParallel.setEnabled( parallelPossible );
     if ( !parallelPossible ) {
@@ -778,6 +804,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
     wNewlinePossible.setSelection( inputMeta.isNewlinePossibleInFields() );
+    wMemoryMapped.setSelection( inputMeta.isMemoryMapped() );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
     wAddResult.setSelection( inputMeta.isAddResultFile() );
     wFormat.setText( Const.NVL( inputMeta.getFileFormat(), "" ) );
@@ -837,6 +864,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     inputMeta.setAddResultFile( wAddResult.getSelection() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
     inputMeta.setNewlinePossibleInFields( wNewlinePossible.getSelection() );
+    inputMeta.setMemoryMapped( wMemoryMapped.getSelection() );
     inputMeta.setFileFormat( wFormat.getText() );
     inputMeta.setEncoding( wEncoding.getText() );
 
@@ -78,6 +78,18 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
   private Text wCachesize;
   private FormData fdlCachesize, fdCachesize;
 
+  private Label wlBloomFilter;
+  private Button wBloomFilter;
+  private FormData fdlBloomFilter, fdBloomFilter;
+
+  private Label wlNegativeCacheSize;
+  private Text wNegativeCacheSize;
+  private FormData fdlNegativeCacheSize, fdNegativeCacheSize;
+
+  private Label wlLookupBatchSize;
+  private Text wLookupBatchSize;
+  private FormData fdlLookupBatchSize, fdLookupBatchSize;
+
   private Label wlKey;
   private TableView wKey;
   private FormData fdlKey, fdKey;
@@ -324,12 +336,73 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
       }
     } );
 
+    // Skip missing keys with a Bloom filter?
+    wlBloomFilter = new Label( shell, SWT.RIGHT );
+    wlBloomFilter.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BloomFilter.Label" ) );
+    wlBloomFilter.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BloomFilter.Tooltip" ) );
+    props.setLook( wlBloomFilter );
+    fdlBloomFilter = new FormData();
+    fdlBloomFilter.left = new FormAttachment( 0, 0 );
+    fdlBloomFilter.right = new FormAttachment( middle, -margin );
+    fdlBloomFilter.top = new FormAttachment( wCacheLoadAll, margin );
+    wlBloomFilter.setLayoutData( fdlBloomFilter );
+    wBloomFilter = new Button( shell, SWT.CHECK );
+    wBloomFilter.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.BloomFilter.Tooltip" ) );
+    props.setLook( wBloomFilter );
+    fdBloomFilter = new FormData();
+    fdBloomFilter.left = new FormAttachment( middle, 0 );
+    fdBloomFilter.top = new FormAttachment( wCacheLoadAll, margin );
+    wBloomFilter.setLayoutData( fdBloomFilter );
+    wBloomFilter.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
+    // Missing keys cache size line
+    wlNegativeCacheSize = new Label( shell, SWT.RIGHT );
+    wlNegativeCacheSize.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.NegativeCacheSize.Label" ) );
+    props.setLook( wlNegativeCacheSize );
+    fdlNegativeCacheSize = new FormData();
+    fdlNegativeCacheSize.left = new FormAttachment( 0, 0 );
+    fdlNegativeCacheSize.right = new FormAttachment( middle, -margin );
+    fdlNegativeCacheSize.top = new FormAttachment( wBloomFilter, margin );
+    wlNegativeCacheSize.setLayoutData( fdlNegativeCacheSize );
+    wNegativeCacheSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wNegativeCacheSize );
+    wNegativeCacheSize.addModifyListener( lsMod );
+    fdNegativeCacheSize = new FormData();
+    fdNegativeCacheSize.left = new FormAttachment( middle, 0 );
+    fdNegativeCacheSize.right = new FormAttachment( 100, 0 );
+    fdNegativeCacheSize.top = new FormAttachment( wBloomFilter, margin );
+    wNegativeCacheSize.setLayoutData( fdNegativeCacheSize );
+
+    // Lookup batch size line
+    wlLookupBatchSize = new Label( shell, SWT.RIGHT );
+    wlLookupBatchSize.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Label" ) );
+    wlLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip" ) );
+    props.setLook( wlLookupBatchSize );
+    fdlLookupBatchSize = new FormData();
+    fdlLookupBatchSize.left = new FormAttachment( 0, 0 );
+    fdlLookupBatchSize.right = new FormAttachment( middle, -margin );
+    fdlLookupBatchSize.top = new FormAttachment( wNegativeCacheSize, margin );
+    wlLookupBatchSize.setLayoutData( fdlLookupBatchSize );
+    wLookupBatchSize = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wLookupBatchSize.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.LookupBatchSize.Tooltip" ) );
+    props.setLook( wLookupBatchSize );
+    wLookupBatchSize.addModifyListener( lsMod );
+    fdLookupBatchSize = new FormData();
+    fdLookupBatchSize.left = new FormAttachment( middle, 0 );
+    fdLookupBatchSize.right = new FormAttachment( 100, 0 );
+    fdLookupBatchSize.top = new FormAttachment( wNegativeCacheSize, margin );
+    wLookupBatchSize.setLayoutData( fdLookupBatchSize );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wCacheLoadAll, margin );
+    fdlKey.top = new FormAttachment( wLookupBatchSize, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -521,6 +594,8 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wTable.addSelectionListener( lsDef );
     wOrderBy.addSelectionListener( lsDef );
     wCachesize.addSelectionListener( lsDef );
+    wNegativeCacheSize.addSelectionListener( lsDef );
+    wLookupBatchSize.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -647,6 +722,9 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wCache.setSelection( input.isCached() );
     wCachesize.setText( "" + input.getCacheSize() );
     wCacheLoadAll.setSelection( input.isLoadingAllDataInCache() );
+    wBloomFilter.setSelection( input.isUsingBloomFilter() );
+    wNegativeCacheSize.setText( "" + input.getNegativeCacheSize() );
+    wLookupBatchSize.setText( "" + input.getLookupBatchSize() );
 
     if ( input.getStreamKeyField1() != null ) {
       for ( int i = 0; i < input.getStreamKeyField1().length; i++ ) {
@@ -731,6 +809,9 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     input.setCached( wCache.getSelection() );
     input.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
     input.setLoadingAllDataInCache( wCacheLoadAll.getSelection() );
+    input.setUsingBloomFilter( wBloomFilter.getSelection() );
+    input.setNegativeCacheSize( Const.toInt( wNegativeCacheSize.getText(), 0 ) );
+    input.setLookupBatchSize( Const.toInt( wLookupBatchSize.getText(), 0 ) );
 
     logDebug( BaseMessages.getString( PKG, "DatabaseLookupDialog.Log.FoundKeys", String.valueOf( nrkeys ) ) );
     //CHECKSTYLE:Indentation:OFF
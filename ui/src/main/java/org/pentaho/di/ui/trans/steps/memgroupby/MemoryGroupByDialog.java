@@ -49,8 +49,12 @@ import org.pentaho.di.trans.step.StepDialogInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
+import org.pentaho.di.ui.core.events.dialog.SelectionAdapterFileDialogTextVar;
+import org.pentaho.di.ui.core.events.dialog.SelectionAdapterOptions;
+import org.pentaho.di.ui.core.events.dialog.SelectionOperation;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInterface {
@@ -68,6 +72,27 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
   private Button wAlwaysAddResult;
   private FormData fdlAlwaysAddResult, fdAlwaysAddResult;
 
+  private Label wlSpillToDisk;
+  private Button wSpillToDisk;
+  private FormData fdlSpillToDisk, fdSpillToDisk;
+
+  private Label wlMemoryLimit;
+  private TextVar wMemoryLimit;
+  private FormData fdlMemoryLimit, fdMemoryLimit;
+
+  private Label wlSortDir;
+  private Button wbSortDir;
+  private TextVar wSortDir;
+  private FormData fdlSortDir, fdbSortDir, fdSortDir;
+
+  private Label wlPrefix;
+  private TextVar wPrefix;
+  private FormData fdlPrefix, fdPrefix;
+
+  private Label wlTwoPhaseAggregation;
+  private Button wTwoPhaseAggregation;
+  private FormData fdlTwoPhaseAggregation, fdTwoPhaseAggregation;
+
   private Button wGet, wGetAgg;
   private FormData fdGet, fdGetAgg;
   private Listener lsGet, lsGetAgg;
@@ -159,12 +184,130 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wAlwaysAddResult.setLayoutData( fdAlwaysAddResult );
     wAlwaysAddResult.addSelectionListener( lsSel );
 
+    // Spill to disk when the memory limit is reached?
+    //
+    wlSpillToDisk = new Label( shell, SWT.RIGHT );
+    wlSpillToDisk.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.Label" ) );
+    wlSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.Tooltip" ) );
+    props.setLook( wlSpillToDisk );
+    fdlSpillToDisk = new FormData();
+    fdlSpillToDisk.left = new FormAttachment( 0, 0 );
+    fdlSpillToDisk.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlSpillToDisk.right = new FormAttachment( middle, -margin );
+    wlSpillToDisk.setLayoutData( fdlSpillToDisk );
+    wSpillToDisk = new Button( shell, SWT.CHECK );
+    wSpillToDisk.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillToDisk.Tooltip" ) );
+    props.setLook( wSpillToDisk );
+    fdSpillToDisk = new FormData();
+    fdSpillToDisk.left = new FormAttachment( middle, 0 );
+    fdSpillToDisk.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdSpillToDisk.right = new FormAttachment( 100, 0 );
+    wSpillToDisk.setLayoutData( fdSpillToDisk );
+    wSpillToDisk.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setFlags();
+      }
+    } );
+
+    // Memory limit line...
+    wlMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlMemoryLimit.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Label" ) );
+    wlMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip" ) );
+    props.setLook( wlMemoryLimit );
+    fdlMemoryLimit = new FormData();
+    fdlMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlMemoryLimit.right = new FormAttachment( middle, -margin );
+    fdlMemoryLimit.top = new FormAttachment( wSpillToDisk, margin );
+    wlMemoryLimit.setLayoutData( fdlMemoryLimit );
+    wMemoryLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMemoryLimit.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MemoryLimit.Tooltip" ) );
+    props.setLook( wMemoryLimit );
+    wMemoryLimit.addModifyListener( lsMod );
+    fdMemoryLimit = new FormData();
+    fdMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdMemoryLimit.top = new FormAttachment( wSpillToDisk, margin );
+    fdMemoryLimit.right = new FormAttachment( 100, 0 );
+    wMemoryLimit.setLayoutData( fdMemoryLimit );
+
+    // Temporary files directory line...
+    wlSortDir = new Label( shell, SWT.RIGHT );
+    wlSortDir.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.TempDir.Label" ) );
+    props.setLook( wlSortDir );
+    fdlSortDir = new FormData();
+    fdlSortDir.left = new FormAttachment( 0, 0 );
+    fdlSortDir.right = new FormAttachment( middle, -margin );
+    fdlSortDir.top = new FormAttachment( wMemoryLimit, margin );
+    wlSortDir.setLayoutData( fdlSortDir );
+
+    wbSortDir = new Button( shell, SWT.PUSH | SWT.CENTER );
+    props.setLook( wbSortDir );
+    wbSortDir.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Browse.Button" ) );
+    fdbSortDir = new FormData();
+    fdbSortDir.right = new FormAttachment( 100, 0 );
+    fdbSortDir.top = new FormAttachment( wMemoryLimit, margin );
+    wbSortDir.setLayoutData( fdbSortDir );
+
+    wSortDir = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSortDir );
+    wSortDir.addModifyListener( lsMod );
+    fdSortDir = new FormData();
+    fdSortDir.left = new FormAttachment( middle, 0 );
+    fdSortDir.top = new FormAttachment( wMemoryLimit, margin );
+    fdSortDir.right = new FormAttachment( wbSortDir, -margin );
+    wSortDir.setLayoutData( fdSortDir );
+
+    wbSortDir.addSelectionListener( new SelectionAdapterFileDialogTextVar( log, wSortDir, transMeta,
+      new SelectionAdapterOptions( transMeta.getBowl(), SelectionOperation.FOLDER ) ) );
+
+    // Prefix line...
+    wlPrefix = new Label( shell, SWT.RIGHT );
+    wlPrefix.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.FilePrefix.Label" ) );
+    props.setLook( wlPrefix );
+    fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment( 0, 0 );
+    fdlPrefix.right = new FormAttachment( middle, -margin );
+    fdlPrefix.top = new FormAttachment( wbSortDir, margin );
+    wlPrefix.setLayoutData( fdlPrefix );
+    wPrefix = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPrefix );
+    wPrefix.addModifyListener( lsMod );
+    fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment( middle, 0 );
+    fdPrefix.top = new FormAttachment( wbSortDir, margin );
+    fdPrefix.right = new FormAttachment( 100, 0 );
+    wPrefix.setLayoutData( fdPrefix );
+
+    // Aggregate in two phases when clustered?
+    //
+    wlTwoPhaseAggregation = new Label( shell, SWT.RIGHT );
+    wlTwoPhaseAggregation.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.TwoPhaseAggregation.Label" ) );
+    wlTwoPhaseAggregation.setToolTipText(
+      BaseMessages.getString( PKG, "MemoryGroupByDialog.TwoPhaseAggregation.Tooltip" ) );
+    props.setLook( wlTwoPhaseAggregation );
+    fdlTwoPhaseAggregation = new FormData();
+    fdlTwoPhaseAggregation.left = new FormAttachment( 0, 0 );
+    fdlTwoPhaseAggregation.top = new FormAttachment( wPrefix, margin );
+    fdlTwoPhaseAggregation.right = new FormAttachment( middle, -margin );
+    wlTwoPhaseAggregation.setLayoutData( fdlTwoPhaseAggregation );
+    wTwoPhaseAggregation = new Button( shell, SWT.CHECK );
+    wTwoPhaseAggregation.setToolTipText(
+      BaseMessages.getString( PKG, "MemoryGroupByDialog.TwoPhaseAggregation.Tooltip" ) );
+    props.setLook( wTwoPhaseAggregation );
+    fdTwoPhaseAggregation = new FormData();
+    fdTwoPhaseAggregation.left = new FormAttachment( middle, 0 );
+    fdTwoPhaseAggregation.top = new FormAttachment( wPrefix, margin );
+    fdTwoPhaseAggregation.right = new FormAttachment( 100, 0 );
+    wTwoPhaseAggregation.setLayoutData( fdTwoPhaseAggregation );
+    wTwoPhaseAggregation.addSelectionListener( lsSel );
+
     wlGroup = new Label( shell, SWT.NONE );
     wlGroup.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Group.Label" ) );
     props.setLook( wlGroup );
     fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment( 0, 0 );
-    fdlGroup.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlGroup.top = new FormAttachment( wTwoPhaseAggregation, margin );
     wlGroup.setLayoutData( fdlGroup );
 
     int nrKeyCols = 1;
@@ -366,6 +509,12 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     logDebug( BaseMessages.getString( PKG, "MemoryGroupByDialog.Log.GettingKeyInfo" ) );
 
     wAlwaysAddResult.setSelection( input.isAlwaysGivingBackOneRow() );
+    wSpillToDisk.setSelection( input.isSpillToDisk() );
+    wMemoryLimit.setText( Const.NVL( input.getMemoryLimit(), "" ) );
+    wSortDir.setText( Const.NVL( input.getDirectory(), "" ) );
+    wPrefix.setText( Const.NVL( input.getPrefix(), "" ) );
+    wTwoPhaseAggregation.setSelection( input.isTwoPhaseAggregation() );
+    setFlags();
 
     if ( input.getGroupField() != null ) {
       for ( int i = 0; i < input.getGroupField().length; i++ ) {
@@ -401,6 +550,17 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wStepname.setFocus();
   }
 
+  private void setFlags() {
+    boolean spillToDisk = wSpillToDisk.getSelection();
+    wlMemoryLimit.setEnabled( spillToDisk );
+    wMemoryLimit.setEnabled( spillToDisk );
+    wlSortDir.setEnabled( spillToDisk );
+    wSortDir.setEnabled( spillToDisk );
+    wbSortDir.setEnabled( spillToDisk );
+    wlPrefix.setEnabled( spillToDisk );
+    wPrefix.setEnabled( spillToDisk );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( backupChanged );
@@ -416,6 +576,11 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     int nrfields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow( wAlwaysAddResult.getSelection() );
+    input.setSpillToDisk( wSpillToDisk.getSelection() );
+    input.setMemoryLimit( wMemoryLimit.getText() );
+    input.setDirectory( wSortDir.getText() );
+    input.setPrefix( wPrefix.getText() );
+    input.setTwoPhaseAggregation( wTwoPhaseAggregation.getSelection() );
 
     input.allocate( sizegroup, nrfields );
 
@@ -206,6 +206,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
   private ScriptValuesHelp scVHelp;
   private ScriptValuesHighlight lineStyler = new ScriptValuesHighlight();
   private Button wCompatible;
+  private Button wHighPerformance;
   private TextVar wOptimizationLevel;
 
   private TreeItem iteminput;
@@ -391,11 +392,32 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    Label wlHighPerformance = new Label( wTop, SWT.NONE );
+    wlHighPerformance.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.HighPerformance.Label" ) );
+    props.setLook( wlHighPerformance );
+    FormData fdlHighPerformance = new FormData();
+    fdlHighPerformance.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlHighPerformance.top = new FormAttachment( wlPosition, margin );
+    wlHighPerformance.setLayoutData( fdlHighPerformance );
+
+    wHighPerformance = new Button( wTop, SWT.CHECK );
+    wHighPerformance.setToolTipText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.HighPerformance.Tooltip" ) );
+    props.setLook( wHighPerformance );
+    FormData fdHighPerformance = new FormData();
+    fdHighPerformance.left = new FormAttachment( wlHighPerformance, margin );
+    fdHighPerformance.top = new FormAttachment( wlPosition, margin );
+    wHighPerformance.setLayoutData( fdHighPerformance );
+    wHighPerformance.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged( true );
+      }
+    } );
+
     Label wlOptimizationLevel = new Label( wTop, SWT.NONE );
     wlOptimizationLevel.setText( BaseMessages.getString( PKG, "ScriptValuesDialogMod.OptimizationLevel.Label" ) );
     props.setLook( wlOptimizationLevel );
     FormData fdlOptimizationLevel = new FormData();
-    fdlOptimizationLevel.left = new FormAttachment( wCompatible, margin * 2 );
+    fdlOptimizationLevel.left = new FormAttachment( wHighPerformance, margin * 2 );
     fdlOptimizationLevel.top = new FormAttachment( wlPosition, margin );
     wlOptimizationLevel.setLayoutData( fdlOptimizationLevel );
 
@@ -936,6 +958,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
    */
   public void getData() {
     wCompatible.setSelection( input.isCompatible() );
+    wHighPerformance.setSelection( input.isHighPerformance() );
     if ( !Utils.isEmpty( Const.trim( input.getOptimizationLevel() ) ) ) {
       wOptimizationLevel.setText( input.getOptimizationLevel().trim() );
     } else {
@@ -1035,6 +1058,7 @@ public class ScriptValuesModDialog extends BaseStepDialog implements StepDialogI
 
   private void getInfo( ScriptValuesMetaMod meta ) {
     meta.setCompatible( wCompatible.getSelection() );
+    meta.setHighPerformance( wHighPerformance.getSelection() );
     meta.setOptimizationLevel( wOptimizationLevel.getText() );
     int nrfields = wFields.nrNonEmpty();
     meta.allocate( nrfields );
@@ -90,6 +90,22 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
   private Button wUniqueRows;
   private FormData fdlUniqueRows, fdUniqueRows;
 
+  private Label wlOffHeapSort;
+  private Button wOffHeapSort;
+  private FormData fdlOffHeapSort, fdOffHeapSort;
+
+  private Label wlSortBufferSize;
+  private TextVar wSortBufferSize;
+  private FormData fdlSortBufferSize, fdSortBufferSize;
+
+  private Label wlParallelSort;
+  private Button wParallelSort;
+  private FormData fdlParallelSort, fdParallelSort;
+
+  private Label wlParallelSortThreads;
+  private TextVar wParallelSortThreads;
+  private FormData fdlParallelSortThreads, fdParallelSortThreads;
+
   private Label wlFields;
   private TableView wFields;
   private FormData fdlFields, fdFields;
@@ -289,6 +305,96 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wUniqueRows.setLayoutData( fdUniqueRows );
     wUniqueRows.addSelectionListener( new ComponentSelectionListener( input ) );
 
+    // Use the off-heap sort engine?
+    wlOffHeapSort = new Label( shell, SWT.RIGHT );
+    wlOffHeapSort.setText( BaseMessages.getString( PKG, "SortRowsDialog.OffHeapSort.Label" ) );
+    props.setLook( wlOffHeapSort );
+    fdlOffHeapSort = new FormData();
+    fdlOffHeapSort.left = new FormAttachment( 0, 0 );
+    fdlOffHeapSort.right = new FormAttachment( middle, -margin );
+    fdlOffHeapSort.top = new FormAttachment( wUniqueRows, margin );
+    wlOffHeapSort.setLayoutData( fdlOffHeapSort );
+    wOffHeapSort = new Button( shell, SWT.CHECK );
+    wOffHeapSort.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.OffHeapSort.Tooltip" ) );
+    props.setLook( wOffHeapSort );
+    fdOffHeapSort = new FormData();
+    fdOffHeapSort.left = new FormAttachment( middle, 0 );
+    fdOffHeapSort.top = new FormAttachment( wUniqueRows, margin );
+    fdOffHeapSort.right = new FormAttachment( 100, 0 );
+    wOffHeapSort.setLayoutData( fdOffHeapSort );
+    wOffHeapSort.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setSortEngine();
+      }
+    } );
+
+    // Off-heap sort buffer size
+    wlSortBufferSize = new Label( shell, SWT.RIGHT );
+    wlSortBufferSize.setText( BaseMessages.getString( PKG, "SortRowsDialog.SortBufferSize.Label" ) );
+    wlSortBufferSize.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.SortBufferSize.Tooltip" ) );
+    props.setLook( wlSortBufferSize );
+    fdlSortBufferSize = new FormData();
+    fdlSortBufferSize.left = new FormAttachment( 0, 0 );
+    fdlSortBufferSize.right = new FormAttachment( middle, -margin );
+    fdlSortBufferSize.top = new FormAttachment( wOffHeapSort, margin * 2 );
+    wlSortBufferSize.setLayoutData( fdlSortBufferSize );
+    wSortBufferSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSortBufferSize.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.SortBufferSize.Tooltip" ) );
+    props.setLook( wSortBufferSize );
+    wSortBufferSize.addModifyListener( lsMod );
+    fdSortBufferSize = new FormData();
+    fdSortBufferSize.left = new FormAttachment( middle, 0 );
+    fdSortBufferSize.top = new FormAttachment( wOffHeapSort, margin * 2 );
+    fdSortBufferSize.right = new FormAttachment( 100, 0 );
+    wSortBufferSize.setLayoutData( fdSortBufferSize );
+
+    // Sort with a number of threads?
+    wlParallelSort = new Label( shell, SWT.RIGHT );
+    wlParallelSort.setText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Label" ) );
+    props.setLook( wlParallelSort );
+    fdlParallelSort = new FormData();
+    fdlParallelSort.left = new FormAttachment( 0, 0 );
+    fdlParallelSort.right = new FormAttachment( middle, -margin );
+    fdlParallelSort.top = new FormAttachment( wSortBufferSize, margin );
+    wlParallelSort.setLayoutData( fdlParallelSort );
+    wParallelSort = new Button( shell, SWT.CHECK );
+    wParallelSort.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSort.Tooltip" ) );
+    props.setLook( wParallelSort );
+    fdParallelSort = new FormData();
+    fdParallelSort.left = new FormAttachment( middle, 0 );
+    fdParallelSort.top = new FormAttachment( wSortBufferSize, margin );
+    fdParallelSort.right = new FormAttachment( 100, 0 );
+    wParallelSort.setLayoutData( fdParallelSort );
+    wParallelSort.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setSortEngine();
+      }
+    } );
+
+    // The number of sort threads
+    wlParallelSortThreads = new Label( shell, SWT.RIGHT );
+    wlParallelSortThreads.setText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSortThreads.Label" ) );
+    wlParallelSortThreads.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSortThreads.Tooltip" ) );
+    props.setLook( wlParallelSortThreads );
+    fdlParallelSortThreads = new FormData();
+    fdlParallelSortThreads.left = new FormAttachment( 0, 0 );
+    fdlParallelSortThreads.right = new FormAttachment( middle, -margin );
+    fdlParallelSortThreads.top = new FormAttachment( wParallelSort, margin * 2 );
+    wlParallelSortThreads.setLayoutData( fdlParallelSortThreads );
+    wParallelSortThreads = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wParallelSortThreads.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.ParallelSortThreads.Tooltip" ) );
+    props.setLook( wParallelSortThreads );
+    wParallelSortThreads.addModifyListener( lsMod );
+    fdParallelSortThreads = new FormData();
+    fdParallelSortThreads.left = new FormAttachment( middle, 0 );
+    fdParallelSortThreads.top = new FormAttachment( wParallelSort, margin * 2 );
+    fdParallelSortThreads.right = new FormAttachment( 100, 0 );
+    wParallelSortThreads.setLayoutData( fdParallelSortThreads );
+
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
     wGet = new Button( shell, SWT.PUSH );
@@ -304,7 +410,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     props.setLook( wlFields );
     fdlFields = new FormData();
     fdlFields.left = new FormAttachment( 0, 0 );
-    fdlFields.top = new FormAttachment( wUniqueRows, margin );
+    fdlFields.top = new FormAttachment( wParallelSortThreads, margin );
     wlFields.setLayoutData( fdlFields );
 
     final int FieldsRows = input.getFieldName().length;
@@ -413,6 +519,8 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wPrefix.addSelectionListener( lsDef );
     wSortSize.addSelectionListener( lsDef );
     wFreeMemory.addSelectionListener( lsDef );
+    wSortBufferSize.addSelectionListener( lsDef );
+    wParallelSortThreads.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -480,6 +588,11 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wCompress.setSelection( input.getCompressFiles() );
     wCompress.setVariableName( input.getCompressFilesVariable() );
     wUniqueRows.setSelection( input.isOnlyPassingUniqueRows() );
+    wOffHeapSort.setSelection( input.isOffHeapSort() );
+    wSortBufferSize.setText( Const.NVL( input.getSortBufferSize(), "" ) );
+    wParallelSort.setSelection( input.isParallelSort() );
+    wParallelSortThreads.setText( Const.NVL( input.getParallelSortThreads(), "" ) );
+    setSortEngine();
 
     Table table = wFields.table;
     if ( input.getFieldName().length > 0 ) {
@@ -508,6 +621,22 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wStepname.setFocus();
   }
 
+  // The off-heap sort engine sizes its runs by the buffer size, not by the number of rows or the free memory.
+  // The parallel sort always uses off-heap sort buffers.
+  //
+  private void setSortEngine() {
+    boolean parallelSort = wParallelSort.getSelection();
+    boolean offHeapSort = wOffHeapSort.getSelection() || parallelSort;
+    wlParallelSortThreads.setEnabled( parallelSort );
+    wParallelSortThreads.setEnabled( parallelSort );
+    wlSortBufferSize.setEnabled( offHeapSort );
+    wSortBufferSize.setEnabled( offHeapSort );
+    wlSortSize.setEnabled( !offHeapSort );
+    wSortSize.setEnabled( !offHeapSort );
+    wlFreeMemory.setEnabled( !offHeapSort );
+    wFreeMemory.setEnabled( !offHeapSort );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( changed );
@@ -530,6 +659,10 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     input.setCompressFiles( wCompress.getSelection() );
     input.setCompressFilesVariable( wCompress.getVariableName() );
     input.setOnlyPassingUniqueRows( wUniqueRows.getSelection() );
+    input.setOffHeapSort( wOffHeapSort.getSelection() );
+    input.setSortBufferSize( wSortBufferSize.getText() );
+    input.setParallelSort( wParallelSort.getSelection() );
+    input.setParallelSortThreads( wParallelSortThreads.getText() );
 
     // Table table = wFields.table;
     int nrfields = wFields.nrNonEmpty();
@@ -84,6 +84,10 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
   private Button wIntegerPair;
   private FormData fdlIntegerPair, fdIntegerPair;
 
+  private Label wlColumnarIndex;
+  private Button wColumnarIndex;
+  private FormData fdlColumnarIndex, fdColumnarIndex;
+
   private StreamLookupMeta input;
 
   private Button wGetLU;
@@ -249,7 +253,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     fdReturn.left = new FormAttachment( 0, 0 );
     fdReturn.top = new FormAttachment( wlReturn, margin );
     fdReturn.right = new FormAttachment( 100, 0 );
-    fdReturn.bottom = new FormAttachment( 100, -125 );
+    fdReturn.bottom = new FormAttachment( 100, -150 );
     wReturn.setLayoutData( fdReturn );
 
     wlPreserveMemory = new Label( shell, SWT.RIGHT );
@@ -316,6 +320,28 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         input.setChanged();
       }
     } );
+
+    wlColumnarIndex = new Label( shell, SWT.RIGHT );
+    wlColumnarIndex.setText( BaseMessages.getString( PKG, "StreamLookupDialog.ColumnarIndex.Label" ) );
+    props.setLook( wlColumnarIndex );
+    fdlColumnarIndex = new FormData();
+    fdlColumnarIndex.left = new FormAttachment( 0, 0 );
+    fdlColumnarIndex.top = new FormAttachment( wSortedList, margin );
+    fdlColumnarIndex.right = new FormAttachment( middle, -margin );
+    wlColumnarIndex.setLayoutData( fdlColumnarIndex );
+    wColumnarIndex = new Button( shell, SWT.RADIO );
+    wColumnarIndex.setEnabled( false );
+    props.setLook( wColumnarIndex );
+    fdColumnarIndex = new FormData();
+    fdColumnarIndex.left = new FormAttachment( middle, 0 );
+    fdColumnarIndex.top = new FormAttachment( wSortedList, margin );
+    fdColumnarIndex.right = new FormAttachment( 100, 0 );
+    wColumnarIndex.setLayoutData( fdColumnarIndex );
+    wColumnarIndex.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
     // PDI-2107 preserve memory should be enabled to have this options on.
     wPreserveMemory.addListener( SWT.Selection, new Listener() {
       @Override
@@ -323,6 +349,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
         boolean selection = wPreserveMemory.getSelection();
         wSortedList.setEnabled( selection );
         wIntegerPair.setEnabled( selection );
+        wColumnarIndex.setEnabled( selection );
       }
     } );
 
@@ -522,12 +549,14 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     if ( isPreserveMemory ) {
       wSortedList.setEnabled( true );
       wIntegerPair.setEnabled( true );
+      wColumnarIndex.setEnabled( true );
     }
     // PDI-2107 usually this is sorted list or integer pair
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection( input.isUsingSortedList() );
     wIntegerPair.setSelection( input.isUsingIntegerPair() );
+    wColumnarIndex.setSelection( input.isUsingColumnarIndex() );
 
     wKey.setRowNums();
     wKey.optWidth( true );
@@ -555,6 +584,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     input.setMemoryPreservationActive( wPreserveMemory.getSelection() );
     input.setUsingSortedList( wSortedList.getSelection() );
     input.setUsingIntegerPair( wIntegerPair.getSelection() );
+    input.setUsingColumnarIndex( wColumnarIndex.getSelection() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + "" ) );
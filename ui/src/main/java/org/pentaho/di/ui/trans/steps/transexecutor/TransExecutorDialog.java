@@ -104,6 +104,11 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Button wReuseInstance;
+  private Label wlInjectStep;
+  private TextVar wInjectStep;
+  private Label wlRetrieveStep;
+  private TextVar wRetrieveStep;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -443,6 +448,10 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     wGroupSize.setText( Const.NVL( transExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( transExecutorMeta.getGroupTime(), "" ) );
     wGroupField.setText( Const.NVL( transExecutorMeta.getGroupField(), "" ) );
+    wReuseInstance.setSelection( transExecutorMeta.isReusingInstance() );
+    wInjectStep.setText( Const.NVL( transExecutorMeta.getInjectStep(), "" ) );
+    wRetrieveStep.setText( Const.NVL( transExecutorMeta.getRetrieveStep(), "" ) );
+    setReuseInstanceFlags();
 
     wExecutionResultTarget.setText( transExecutorMeta.getExecutionResultTargetStepMeta() == null ? ""
       : transExecutorMeta.getExecutionResultTargetStepMeta().getName() );
@@ -710,6 +719,58 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Reuse one transformation instance
+    //
+    wReuseInstance = new Button( wInputComposite, SWT.CHECK );
+    props.setLook( wReuseInstance );
+    wReuseInstance.setText( BaseMessages.getString( PKG, "TransExecutorDialog.ReuseInstance.Label" ) );
+    wReuseInstance.setToolTipText( BaseMessages.getString( PKG, "TransExecutorDialog.ReuseInstance.Tooltip" ) );
+    FormData fdReuseInstance = new FormData();
+    fdReuseInstance.top = new FormAttachment( wGroupTime, 15 );
+    fdReuseInstance.left = new FormAttachment( 0, 0 );
+    wReuseInstance.setLayoutData( fdReuseInstance );
+    wReuseInstance.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        transExecutorMeta.setChanged();
+        setReuseInstanceFlags();
+      }
+    } );
+
+    wlInjectStep = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlInjectStep );
+    wlInjectStep.setText( BaseMessages.getString( PKG, "TransExecutorDialog.InjectStep.Label" ) );
+    FormData fdlInjectStep = new FormData();
+    fdlInjectStep.top = new FormAttachment( wReuseInstance, 10 );
+    fdlInjectStep.left = new FormAttachment( 0, 0 );
+    wlInjectStep.setLayoutData( fdlInjectStep );
+
+    wInjectStep = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wInjectStep );
+    wInjectStep.addModifyListener( lsMod );
+    FormData fdInjectStep = new FormData();
+    fdInjectStep.width = 250;
+    fdInjectStep.top = new FormAttachment( wlInjectStep, 5 );
+    fdInjectStep.left = new FormAttachment( 0, 0 );
+    wInjectStep.setLayoutData( fdInjectStep );
+
+    wlRetrieveStep = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlRetrieveStep );
+    wlRetrieveStep.setText( BaseMessages.getString( PKG, "TransExecutorDialog.RetrieveStep.Label" ) );
+    FormData fdlRetrieveStep = new FormData();
+    fdlRetrieveStep.top = new FormAttachment( wInjectStep, 10 );
+    fdlRetrieveStep.left = new FormAttachment( 0, 0 );
+    wlRetrieveStep.setLayoutData( fdlRetrieveStep );
+
+    wRetrieveStep = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wRetrieveStep );
+    wRetrieveStep.addModifyListener( lsMod );
+    FormData fdRetrieveStep = new FormData();
+    fdRetrieveStep.width = 250;
+    fdRetrieveStep.top = new FormAttachment( wlRetrieveStep, 5 );
+    fdRetrieveStep.left = new FormAttachment( 0, 0 );
+    wRetrieveStep.setLayoutData( fdRetrieveStep );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -995,6 +1056,14 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     wGroupTime.setEnabled( !enableSize && !enableField );
   }
 
+  private void setReuseInstanceFlags() {
+    boolean reuse = wReuseInstance.getSelection();
+    wlInjectStep.setEnabled( reuse );
+    wInjectStep.setEnabled( reuse );
+    wlRetrieveStep.setEnabled( reuse );
+    wRetrieveStep.setEnabled( reuse );
+  }
+
   private void cancel() {
     stepname = null;
     transExecutorMeta.setChanged( changed );
@@ -1084,6 +1153,9 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     transExecutorMeta.setGroupSize( wGroupSize.getText() );
     transExecutorMeta.setGroupField( wGroupField.getText() );
     transExecutorMeta.setGroupTime( wGroupTime.getText() );
+    transExecutorMeta.setReusingInstance( wReuseInstance.getSelection() );
+    transExecutorMeta.setInjectStep( wInjectStep.getText() );
+    transExecutorMeta.setRetrieveStep( wRetrieveStep.getText() );
 
     transExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     transExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );